@@ -0,0 +1,122 @@
+package BBDGameLibrary.Geometry2d;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD versions of the BBDCoordinateKernels loops using the incubating vector API.  This lives in its own source root,
+ * src-vector, so that the rest of the library builds without the incubator module.  Compiling it needs
+ * --add-modules jdk.incubator.vector and the main classes on the classpath, and once it is on the classpath
+ * BBDCoordinateKernels loads it by name whenever the module is present at runtime.  Nothing else refers to it directly.
+ *
+ * Packed coordinates alternate x and y, and vectors always hold an even number of lanes, so every vector lines up with
+ * whole vertices.  Anything that treats x and y differently uses a vector with the x value in the even lanes and the y
+ * value in the odd ones, and swapping neighboring lanes lines each x up with its own y.
+ */
+class BBDVectorKernels extends BBDCoordinateKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final VectorShuffle<Float> SWAP_PAIRS = VectorShuffle.fromOp(SPECIES, lane -> lane ^ 1);
+
+    BBDVectorKernels(){
+        if(LANES < 2){
+            throw new UnsupportedOperationException("vectors of "+LANES+" lane can't hold a whole vertex");
+        }
+    }
+
+    /**
+     * Vector with x in the even lanes and y in the odd ones
+     */
+    private static FloatVector pairs(float x, float y){
+        float[] values = new float[LANES];
+        for(int lane = 0; lane < LANES; lane += 2){
+            values[lane] = x;
+            values[lane + 1] = y;
+        }
+        return FloatVector.fromArray(SPECIES, values, 0);
+    }
+
+    @Override
+    void affineTransform(float[] source, float[] destination, int start, int end, float m00, float m01, float m10,
+                         float m11, float tx, float ty){
+        FloatVector diagonal = pairs(m00, m11);
+        FloatVector cross = pairs(m01, m10);
+        FloatVector offset = pairs(tx, ty);
+        int i = 2 * start;
+        for(; i + LANES <= 2 * end; i += LANES){
+            FloatVector coordinates = FloatVector.fromArray(SPECIES, source, i);
+            coordinates.mul(diagonal).add(coordinates.rearrange(SWAP_PAIRS).mul(cross)).add(offset).intoArray(destination, i);
+        }
+        super.affineTransform(source, destination, i / 2, end, m00, m01, m10, m11, tx, ty);
+    }
+
+    @Override
+    void translate(float[] coordinates, int start, int end, float dx, float dy){
+        FloatVector offset = pairs(dx, dy);
+        int i = 2 * start;
+        for(; i + LANES <= 2 * end; i += LANES){
+            FloatVector.fromArray(SPECIES, coordinates, i).add(offset).intoArray(coordinates, i);
+        }
+        super.translate(coordinates, i / 2, end, dx, dy);
+    }
+
+    @Override
+    void bounds(float[] coordinates, int start, int end, float[] output){
+        FloatVector minimums = FloatVector.broadcast(SPECIES, Float.POSITIVE_INFINITY);
+        FloatVector maximums = FloatVector.broadcast(SPECIES, Float.NEGATIVE_INFINITY);
+        int i = 2 * start;
+        for(; i + LANES <= 2 * end; i += LANES){
+            FloatVector vector = FloatVector.fromArray(SPECIES, coordinates, i);
+            minimums = minimums.min(vector);
+            maximums = maximums.max(vector);
+        }
+        super.bounds(coordinates, i / 2, end, output);
+
+        //fold the lanes together, x from the even ones and y from the odd ones
+        for(int lane = 0; lane < LANES; lane += 2){
+            output[0] = Math.min(output[0], minimums.lane(lane));
+            output[1] = Math.min(output[1], minimums.lane(lane + 1));
+            output[2] = Math.max(output[2], maximums.lane(lane));
+            output[3] = Math.max(output[3], maximums.lane(lane + 1));
+        }
+    }
+
+    @Override
+    int pointsInBox(float[] coordinates, int start, int end, float minX, float minY, float maxX, float maxY, boolean[] inside){
+        FloatVector lower = pairs(minX, minY);
+        FloatVector upper = pairs(maxX, maxY);
+        int insideCount = 0;
+        int i = 2 * start;
+        for(; i + LANES <= 2 * end; i += LANES){
+            FloatVector vector = FloatVector.fromArray(SPECIES, coordinates, i);
+            VectorMask<Float> inRange = vector.compare(VectorOperators.GE, lower).and(vector.compare(VectorOperators.LE, upper));
+            long bits = inRange.toLong();
+            for(int lane = 0; lane < LANES; lane += 2){
+                //a vertex is inside when both its x and y lanes are
+                boolean vertexInside = ((bits >>> lane) & 3) == 3;
+                inside[(i + lane) / 2] = vertexInside;
+                if(vertexInside){
+                    insideCount++;
+                }
+            }
+        }
+        return insideCount + super.pointsInBox(coordinates, i / 2, end, minX, minY, maxX, maxY, inside);
+    }
+
+    @Override
+    void textureCoordinates(float[] coordinates, int start, int end, float minX, float maxY, float width, float height, float[] output){
+        //u = (x - minX) / width and v = (maxY - y) / height, as -y + maxY is exactly maxY - y
+        FloatVector sign = pairs(1, -1);
+        FloatVector offset = pairs(-minX, maxY);
+        FloatVector size = pairs(width, height);
+        int i = 2 * start;
+        for(; i + LANES <= 2 * end; i += LANES){
+            FloatVector.fromArray(SPECIES, coordinates, i).mul(sign).add(offset).div(size).intoArray(output, i);
+        }
+        super.textureCoordinates(coordinates, i / 2, end, minX, maxY, width, height, output);
+    }
+}
@@ -0,0 +1,78 @@
+package BBDGameLibrary.GameEngine;
+
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+
+/**
+ * Common interface for the structures that find which GameItem2d objects might be touching, so that a level can pick
+ * whichever one suits its contents without changing the code that uses it.  Each one works on the bounding boxes of the
+ * items' shapes, so only items with shapeInteracts set can be added, and the exact polygon tests are left to the caller.
+ *
+ * An item can only be in 1 broadphase at a time.  It remembers which one and calls update() on it whenever it moves,
+ * so once items are added the only thing to do each frame is ask for the pairs.  Items with motion set through
+ * GameItem2d.setMotion() are entered with the box swept out along their motion, so fast movers are paired with anything
+ * they might pass through on the way, which GameItem2d.timeOfImpact() can then sort out.
+ */
+public interface Broadphase {
+
+    /**
+     * Boxes are padded by half the geometry tolerance on each side, so 2 of them overlap whenever BBDPolygon.boundsOverlap()
+     * says they do
+     */
+    float PADDING = BBDGeometryHelpers.ALLOWABLE_DELTA / 2;
+
+    /**
+     * Add an item
+     * @param item item to add, must have shapeInteracts set and not already be in a broadphase
+     * @return was the item added
+     */
+    boolean add(GameItem2d item);
+
+    /**
+     * Take an item out
+     * @param item item to remove
+     * @return was the item in this broadphase
+     */
+    boolean remove(GameItem2d item);
+
+    /**
+     * Bring an item's entry up to date with its shape.  GameItem2d calls this for you whenever it moves, but if you change
+     * the shape directly you will need to call it yourself.
+     * @param item item that moved
+     */
+    void update(GameItem2d item);
+
+    /**
+     * Number of items
+     * @return item count
+     */
+    int size();
+
+    /**
+     * Find every pair of items whose bounding boxes overlap, each pair once.  Read the results with getPairCount(),
+     * getPairFirst() and getPairSecond(), they stay valid until the next call.
+     * @return number of pairs found
+     */
+    int findPairs();
+
+    int getPairCount();
+
+    GameItem2d getPairFirst(int index);
+
+    GameItem2d getPairSecond(int index);
+
+    /**
+     * Find every item whose bounding box overlaps a region
+     * @param results filled in with the items found.  If there are more than fit, the rest are counted but not stored.
+     * @return number of items found, which may be more than results.length
+     */
+    int query(float minX, float minY, float maxX, float maxY, GameItem2d[] results);
+
+    /**
+     * Find every other item whose bounding box overlaps this item's
+     * @param item item to find the neighbours of
+     * @param results filled in with the neighbours found.  If there are more than fit, the rest are counted but not
+     *                stored.
+     * @return number of neighbours found, which may be more than results.length
+     */
+    int findNeighbours(GameItem2d item, GameItem2d[] results);
+}
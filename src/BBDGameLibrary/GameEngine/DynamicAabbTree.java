@@ -0,0 +1,591 @@
+package BBDGameLibrary.GameEngine;
+
+import java.util.Arrays;
+
+/**
+ * Broadphase that keeps the items' bounding boxes in a binary tree, where each internal node's box covers both of its
+ * children.  Unlike a grid it doesn't care how big the items are, so it handles levels that mix huge terrain pieces
+ * with tiny projectiles.
+ *
+ * Each leaf stores a fattened copy of its item's box, grown by a margin on every side.  As long as the item's actual box
+ * stays inside the fat one, moving it only refreshes the actual box, so items that move a little each frame don't touch
+ * the tree at all.  Once an item leaves its fat box it is taken out and put back in.  New leaves go next to whichever
+ * node makes the tree's total box perimeter grow the least, and the nodes above are rebalanced with rotations so the
+ * tree stays about log n deep no matter what order things are added in.
+ *
+ * The nodes live in flat arrays with a free list, the region and ray queries walk the tree with a stack that is kept
+ * between calls, and the pair search recurses, so nothing is allocated once the arrays have grown to fit.  The tree is
+ * not thread safe.
+ */
+public class DynamicAabbTree implements Broadphase {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NULL_NODE = -1;
+
+    /**
+     * How far the fat boxes extend past the actual boxes
+     */
+    private final float margin;
+
+    private int root = NULL_NODE;
+    private int nodeCapacity = INITIAL_CAPACITY;
+    private int nodeCount = 0;
+    // Unused nodes are chained through nodeParent.
+    private int freeNode = NULL_NODE;
+    private int itemCount = 0;
+
+    // Fat boxes for leaves, and the union of the children for internal nodes.
+    private float[] nodeMinX;
+    private float[] nodeMinY;
+    private float[] nodeMaxX;
+    private float[] nodeMaxY;
+    private int[] nodeParent;
+    private int[] nodeLeft;
+    private int[] nodeRight;
+    // Leaves have a height of 0, unused nodes -1.
+    private int[] nodeHeight;
+
+    // Leaf data, the item and its actual padded box as of its last update.
+    private GameItem2d[] nodeItem;
+    private float[] itemMinX;
+    private float[] itemMinY;
+    private float[] itemMaxX;
+    private float[] itemMaxY;
+
+    // Traversal stack shared by the queries.
+    private int[] stack = new int[INITIAL_CAPACITY];
+
+    // Results of the last call to findPairs(), as leaf ids 2 per pair.
+    private int[] pairs = new int[2 * INITIAL_CAPACITY];
+    private int pairCount = 0;
+
+    /**
+     * Create an empty tree
+     * @param margin how far past an item's box its leaf extends.  Bigger margins mean fewer reinsertions for moving items
+     *               but more candidate pairs to weed out.  About how far a typical item moves in a few frames works well.
+     */
+    public DynamicAabbTree(float margin){
+        if(!(margin >= 0)){
+            throw new IllegalArgumentException("margin can not be negative, got "+margin);
+        }
+        this.margin = margin;
+
+        this.nodeMinX = new float[INITIAL_CAPACITY];
+        this.nodeMinY = new float[INITIAL_CAPACITY];
+        this.nodeMaxX = new float[INITIAL_CAPACITY];
+        this.nodeMaxY = new float[INITIAL_CAPACITY];
+        this.nodeParent = new int[INITIAL_CAPACITY];
+        this.nodeLeft = new int[INITIAL_CAPACITY];
+        this.nodeRight = new int[INITIAL_CAPACITY];
+        this.nodeHeight = new int[INITIAL_CAPACITY];
+        this.nodeItem = new GameItem2d[INITIAL_CAPACITY];
+        this.itemMinX = new float[INITIAL_CAPACITY];
+        this.itemMinY = new float[INITIAL_CAPACITY];
+        this.itemMaxX = new float[INITIAL_CAPACITY];
+        this.itemMaxY = new float[INITIAL_CAPACITY];
+        Arrays.fill(this.nodeHeight, -1);
+    }
+
+    public float getMargin(){
+        return this.margin;
+    }
+
+    @Override
+    public int size(){
+        return this.itemCount;
+    }
+
+    /**
+     * Height of the tree, 0 for a single leaf and -1 when empty.  A balanced tree of n items is about log2(n) high.
+     * @return height of the root
+     */
+    public int getHeight(){
+        return this.root == NULL_NODE ? -1 : this.nodeHeight[this.root];
+    }
+
+    @Override
+    public boolean add(GameItem2d item){
+        if(!item.shapeInteracts() || item.getBroadphase() != null){
+            return false;
+        }
+        int leaf = this.allocateNode();
+        this.nodeItem[leaf] = item;
+        this.nodeHeight[leaf] = 0;
+        this.nodeLeft[leaf] = NULL_NODE;
+        this.nodeRight[leaf] = NULL_NODE;
+        this.readBounds(leaf);
+        this.fatten(leaf);
+        this.insertLeaf(leaf);
+        item.setBroadphase(this, leaf);
+        this.itemCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(GameItem2d item){
+        if(item.getBroadphase() != this){
+            return false;
+        }
+        int leaf = item.getBroadphaseProxy();
+        this.removeLeaf(leaf);
+        this.freeNode(leaf);
+        item.setBroadphase(null, -1);
+        this.itemCount--;
+        return true;
+    }
+
+    /**
+     * Refresh an item's box, and move its leaf if the box has left the fat box around it
+     * @param item item that moved
+     */
+    @Override
+    public void update(GameItem2d item){
+        if(item.getBroadphase() != this){
+            return;
+        }
+        int leaf = item.getBroadphaseProxy();
+        this.readBounds(leaf);
+        if(this.nodeMinX[leaf] <= this.itemMinX[leaf] && this.nodeMinY[leaf] <= this.itemMinY[leaf]
+                && this.nodeMaxX[leaf] >= this.itemMaxX[leaf] && this.nodeMaxY[leaf] >= this.itemMaxY[leaf]){
+            return;
+        }
+        this.removeLeaf(leaf);
+        this.fatten(leaf);
+        this.insertLeaf(leaf);
+    }
+
+    private void readBounds(int leaf){
+        //moving items cover their whole path so they can be checked for impacts along the way
+        GameItem2d item = this.nodeItem[leaf];
+        this.itemMinX[leaf] = item.sweptMinX() - Broadphase.PADDING;
+        this.itemMinY[leaf] = item.sweptMinY() - Broadphase.PADDING;
+        this.itemMaxX[leaf] = item.sweptMaxX() + Broadphase.PADDING;
+        this.itemMaxY[leaf] = item.sweptMaxY() + Broadphase.PADDING;
+    }
+
+    private void fatten(int leaf){
+        this.nodeMinX[leaf] = this.itemMinX[leaf] - this.margin;
+        this.nodeMinY[leaf] = this.itemMinY[leaf] - this.margin;
+        this.nodeMaxX[leaf] = this.itemMaxX[leaf] + this.margin;
+        this.nodeMaxY[leaf] = this.itemMaxY[leaf] + this.margin;
+    }
+
+    private int allocateNode(){
+        if(this.freeNode != NULL_NODE){
+            int node = this.freeNode;
+            this.freeNode = this.nodeParent[node];
+            this.nodeParent[node] = NULL_NODE;
+            return node;
+        }
+        if(this.nodeCount == this.nodeCapacity){
+            this.nodeCapacity *= 2;
+            this.nodeMinX = Arrays.copyOf(this.nodeMinX, this.nodeCapacity);
+            this.nodeMinY = Arrays.copyOf(this.nodeMinY, this.nodeCapacity);
+            this.nodeMaxX = Arrays.copyOf(this.nodeMaxX, this.nodeCapacity);
+            this.nodeMaxY = Arrays.copyOf(this.nodeMaxY, this.nodeCapacity);
+            this.nodeParent = Arrays.copyOf(this.nodeParent, this.nodeCapacity);
+            this.nodeLeft = Arrays.copyOf(this.nodeLeft, this.nodeCapacity);
+            this.nodeRight = Arrays.copyOf(this.nodeRight, this.nodeCapacity);
+            this.nodeHeight = Arrays.copyOf(this.nodeHeight, this.nodeCapacity);
+            Arrays.fill(this.nodeHeight, this.nodeCount, this.nodeCapacity, -1);
+            this.nodeItem = Arrays.copyOf(this.nodeItem, this.nodeCapacity);
+            this.itemMinX = Arrays.copyOf(this.itemMinX, this.nodeCapacity);
+            this.itemMinY = Arrays.copyOf(this.itemMinY, this.nodeCapacity);
+            this.itemMaxX = Arrays.copyOf(this.itemMaxX, this.nodeCapacity);
+            this.itemMaxY = Arrays.copyOf(this.itemMaxY, this.nodeCapacity);
+        }
+        int node = this.nodeCount++;
+        this.nodeParent[node] = NULL_NODE;
+        return node;
+    }
+
+    private void freeNode(int node){
+        this.nodeItem[node] = null;
+        this.nodeHeight[node] = -1;
+        this.nodeParent[node] = this.freeNode;
+        this.freeNode = node;
+    }
+
+    private boolean isLeaf(int node){
+        return this.nodeLeft[node] == NULL_NODE;
+    }
+
+    private float perimeter(float minX, float minY, float maxX, float maxY){
+        return 2 * ((maxX - minX) + (maxY - minY));
+    }
+
+    private float combinedPerimeter(int first, int second){
+        return this.perimeter(Math.min(this.nodeMinX[first], this.nodeMinX[second]),
+                Math.min(this.nodeMinY[first], this.nodeMinY[second]),
+                Math.max(this.nodeMaxX[first], this.nodeMaxX[second]),
+                Math.max(this.nodeMaxY[first], this.nodeMaxY[second]));
+    }
+
+    private void insertLeaf(int leaf){
+        if(this.root == NULL_NODE){
+            this.root = leaf;
+            this.nodeParent[leaf] = NULL_NODE;
+            return;
+        }
+
+        //walk down toward the sibling that grows the total perimeter the least
+        float leafMinX = this.nodeMinX[leaf], leafMinY = this.nodeMinY[leaf];
+        float leafMaxX = this.nodeMaxX[leaf], leafMaxY = this.nodeMaxY[leaf];
+        int sibling = this.root;
+        while(!this.isLeaf(sibling)){
+            int left = this.nodeLeft[sibling];
+            int right = this.nodeRight[sibling];
+
+            float area = this.perimeter(this.nodeMinX[sibling], this.nodeMinY[sibling],
+                    this.nodeMaxX[sibling], this.nodeMaxY[sibling]);
+            float combinedArea = this.combinedPerimeter(sibling, leaf);
+
+            //cost of making a new parent for this node and the leaf
+            float cost = 2 * combinedArea;
+            //minimum cost of pushing the leaf further down
+            float inheritanceCost = 2 * (combinedArea - area);
+
+            float costLeft = this.descendCost(left, leaf, leafMinX, leafMinY, leafMaxX, leafMaxY) + inheritanceCost;
+            float costRight = this.descendCost(right, leaf, leafMinX, leafMinY, leafMaxX, leafMaxY) + inheritanceCost;
+
+            if(cost < costLeft && cost < costRight){
+                break;
+            }
+            sibling = costLeft < costRight ? left : right;
+        }
+
+        int oldParent = this.nodeParent[sibling];
+        int newParent = this.allocateNode();
+        this.nodeParent[newParent] = oldParent;
+        this.nodeItem[newParent] = null;
+        this.nodeLeft[newParent] = sibling;
+        this.nodeRight[newParent] = leaf;
+        this.nodeHeight[newParent] = this.nodeHeight[sibling] + 1;
+        this.fitNode(newParent);
+        this.nodeParent[sibling] = newParent;
+        this.nodeParent[leaf] = newParent;
+
+        if(oldParent == NULL_NODE){
+            this.root = newParent;
+        }else if(this.nodeLeft[oldParent] == sibling){
+            this.nodeLeft[oldParent] = newParent;
+        }else{
+            this.nodeRight[oldParent] = newParent;
+        }
+
+        this.refitUpward(this.nodeParent[leaf]);
+    }
+
+    /**
+     * How much putting the leaf somewhere under this child would grow the tree's total perimeter, at the least
+     */
+    private float descendCost(int child, int leaf, float leafMinX, float leafMinY, float leafMaxX, float leafMaxY){
+        float combined = this.combinedPerimeter(child, leaf);
+        if(this.isLeaf(child)){
+            return combined;
+        }
+        return combined - this.perimeter(this.nodeMinX[child], this.nodeMinY[child], this.nodeMaxX[child], this.nodeMaxY[child]);
+    }
+
+    private void removeLeaf(int leaf){
+        if(leaf == this.root){
+            this.root = NULL_NODE;
+            return;
+        }
+
+        int parent = this.nodeParent[leaf];
+        int grandParent = this.nodeParent[parent];
+        int sibling = this.nodeLeft[parent] == leaf ? this.nodeRight[parent] : this.nodeLeft[parent];
+
+        //the sibling takes the parent's place
+        if(grandParent == NULL_NODE){
+            this.root = sibling;
+            this.nodeParent[sibling] = NULL_NODE;
+        }else{
+            if(this.nodeLeft[grandParent] == parent){
+                this.nodeLeft[grandParent] = sibling;
+            }else{
+                this.nodeRight[grandParent] = sibling;
+            }
+            this.nodeParent[sibling] = grandParent;
+            this.refitUpward(grandParent);
+        }
+        this.freeNode(parent);
+        this.nodeParent[leaf] = NULL_NODE;
+    }
+
+    /**
+     * Rebalance and refit every node from this one up to the root
+     */
+    private void refitUpward(int node){
+        while(node != NULL_NODE){
+            node = this.balance(node);
+            this.nodeHeight[node] = 1 + Math.max(this.nodeHeight[this.nodeLeft[node]], this.nodeHeight[this.nodeRight[node]]);
+            this.fitNode(node);
+            node = this.nodeParent[node];
+        }
+    }
+
+    private void fitNode(int node){
+        int left = this.nodeLeft[node];
+        int right = this.nodeRight[node];
+        this.nodeMinX[node] = Math.min(this.nodeMinX[left], this.nodeMinX[right]);
+        this.nodeMinY[node] = Math.min(this.nodeMinY[left], this.nodeMinY[right]);
+        this.nodeMaxX[node] = Math.max(this.nodeMaxX[left], this.nodeMaxX[right]);
+        this.nodeMaxY[node] = Math.max(this.nodeMaxY[left], this.nodeMaxY[right]);
+    }
+
+    /**
+     * If one child of this node is more than 1 level taller than the other, rotate the taller child up into this node's
+     * place.
+     * @return the node now in this node's place
+     */
+    private int balance(int a){
+        if(this.isLeaf(a) || this.nodeHeight[a] < 2){
+            return a;
+        }
+        int b = this.nodeLeft[a];
+        int c = this.nodeRight[a];
+        int difference = this.nodeHeight[c] - this.nodeHeight[b];
+        if(difference > 1){
+            return this.rotateUp(a, c, b, false);
+        }
+        if(difference < -1){
+            return this.rotateUp(a, b, c, true);
+        }
+        return a;
+    }
+
+    /**
+     * Rotate the taller child of a up into a's place.  a keeps the shorter child and takes the shorter of the taller
+     * child's children, and the taller child keeps its other child and takes a.
+     * @param tallIsLeft is the taller child on the left of a
+     * @return the taller child, now in a's place
+     */
+    private int rotateUp(int a, int tall, int short_, boolean tallIsLeft){
+        int f = this.nodeLeft[tall];
+        int g = this.nodeRight[tall];
+
+        //tall replaces a
+        this.nodeLeft[tall] = a;
+        this.nodeParent[tall] = this.nodeParent[a];
+        this.nodeParent[a] = tall;
+        int parent = this.nodeParent[tall];
+        if(parent == NULL_NODE){
+            this.root = tall;
+        }else if(this.nodeLeft[parent] == a){
+            this.nodeLeft[parent] = tall;
+        }else{
+            this.nodeRight[parent] = tall;
+        }
+
+        //tall keeps its taller child, a gets the shorter one in tall's old slot
+        int keep = this.nodeHeight[f] > this.nodeHeight[g] ? f : g;
+        int give = keep == f ? g : f;
+        this.nodeRight[tall] = keep;
+        if(tallIsLeft){
+            this.nodeLeft[a] = give;
+        }else{
+            this.nodeRight[a] = give;
+        }
+        this.nodeParent[give] = a;
+
+        this.fitNode(a);
+        this.nodeHeight[a] = 1 + Math.max(this.nodeHeight[short_], this.nodeHeight[give]);
+        this.fitNode(tall);
+        this.nodeHeight[tall] = 1 + Math.max(this.nodeHeight[a], this.nodeHeight[keep]);
+        return tall;
+    }
+
+    private void push(int depth, int node){
+        if(depth == this.stack.length){
+            this.stack = Arrays.copyOf(this.stack, 2 * this.stack.length);
+        }
+        this.stack[depth] = node;
+    }
+
+    private boolean itemOverlaps(int leaf, float minX, float minY, float maxX, float maxY){
+        return this.itemMinX[leaf] <= maxX && this.itemMaxX[leaf] >= minX
+                && this.itemMinY[leaf] <= maxY && this.itemMaxY[leaf] >= minY;
+    }
+
+    private boolean nodeOverlaps(int node, float minX, float minY, float maxX, float maxY){
+        return this.nodeMinX[node] <= maxX && this.nodeMaxX[node] >= minX
+                && this.nodeMinY[node] <= maxY && this.nodeMaxY[node] >= minY;
+    }
+
+    /**
+     * Find every pair of items whose boxes overlap.  The tree is walked against itself, the pairs under a node are the
+     * pairs under each child plus the pairs between the 2 children, and a pair of subtrees is skipped as soon as their
+     * boxes don't overlap.  That way each pair is reported once without having to check for duplicates.
+     * @return number of pairs found
+     */
+    @Override
+    public int findPairs(){
+        this.pairCount = 0;
+        if(this.root != NULL_NODE){
+            this.selfPairs(this.root);
+        }
+        return this.pairCount;
+    }
+
+    private void selfPairs(int node){
+        if(this.isLeaf(node)){
+            return;
+        }
+        this.selfPairs(this.nodeLeft[node]);
+        this.selfPairs(this.nodeRight[node]);
+        this.crossPairs(this.nodeLeft[node], this.nodeRight[node]);
+    }
+
+    private void crossPairs(int first, int second){
+        if(!this.nodeOverlaps(first, this.nodeMinX[second], this.nodeMinY[second], this.nodeMaxX[second], this.nodeMaxY[second])){
+            return;
+        }
+        boolean firstLeaf = this.isLeaf(first);
+        boolean secondLeaf = this.isLeaf(second);
+        if(firstLeaf && secondLeaf){
+            if(this.itemOverlaps(first, this.itemMinX[second], this.itemMinY[second], this.itemMaxX[second], this.itemMaxY[second])){
+                this.addPair(first, second);
+            }
+        }else if(secondLeaf || (!firstLeaf && this.nodeHeight[first] >= this.nodeHeight[second])){
+            this.crossPairs(this.nodeLeft[first], second);
+            this.crossPairs(this.nodeRight[first], second);
+        }else{
+            this.crossPairs(first, this.nodeLeft[second]);
+            this.crossPairs(first, this.nodeRight[second]);
+        }
+    }
+
+    private void addPair(int first, int second){
+        if(2 * this.pairCount == this.pairs.length){
+            this.pairs = Arrays.copyOf(this.pairs, 2 * this.pairs.length);
+        }
+        this.pairs[2 * this.pairCount] = first;
+        this.pairs[2 * this.pairCount + 1] = second;
+        this.pairCount++;
+    }
+
+    @Override
+    public int getPairCount(){
+        return this.pairCount;
+    }
+
+    @Override
+    public GameItem2d getPairFirst(int index){
+        return this.nodeItem[this.pairs[2 * index]];
+    }
+
+    @Override
+    public GameItem2d getPairSecond(int index){
+        return this.nodeItem[this.pairs[2 * index + 1]];
+    }
+
+    @Override
+    public int query(float minX, float minY, float maxX, float maxY, GameItem2d[] results){
+        return this.query(minX, minY, maxX, maxY, NULL_NODE, results);
+    }
+
+    @Override
+    public int findNeighbours(GameItem2d item, GameItem2d[] results){
+        if(item.getBroadphase() != this){
+            return 0;
+        }
+        int leaf = item.getBroadphaseProxy();
+        return this.query(this.itemMinX[leaf], this.itemMinY[leaf], this.itemMaxX[leaf], this.itemMaxY[leaf], leaf, results);
+    }
+
+    private int query(float minX, float minY, float maxX, float maxY, int skip, GameItem2d[] results){
+        if(this.root == NULL_NODE){
+            return 0;
+        }
+        int found = 0;
+        int depth = 0;
+        this.push(depth++, this.root);
+        while(depth > 0){
+            int node = this.stack[--depth];
+            if(!this.nodeOverlaps(node, minX, minY, maxX, maxY)){
+                continue;
+            }
+            if(this.isLeaf(node)){
+                if(node != skip && this.itemOverlaps(node, minX, minY, maxX, maxY)){
+                    if(found < results.length){
+                        results[found] = this.nodeItem[node];
+                    }
+                    found++;
+                }
+            }else{
+                this.push(depth++, this.nodeLeft[node]);
+                this.push(depth++, this.nodeRight[node]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Find every item whose bounding box the segment from start to end passes through.  The items are not in any
+     * particular order.
+     * @param results filled in with the items found.  If there are more than fit, the rest are counted but not stored.
+     * @return number of items found, which may be more than results.length
+     */
+    public int raycast(float startX, float startY, float endX, float endY, GameItem2d[] results){
+        if(this.root == NULL_NODE){
+            return 0;
+        }
+        float directionX = endX - startX;
+        float directionY = endY - startY;
+        int found = 0;
+        int depth = 0;
+        this.push(depth++, this.root);
+        while(depth > 0){
+            int node = this.stack[--depth];
+            if(!rayHitsBox(startX, startY, directionX, directionY,
+                    this.nodeMinX[node], this.nodeMinY[node], this.nodeMaxX[node], this.nodeMaxY[node])){
+                continue;
+            }
+            if(this.isLeaf(node)){
+                if(rayHitsBox(startX, startY, directionX, directionY,
+                        this.itemMinX[node], this.itemMinY[node], this.itemMaxX[node], this.itemMaxY[node])){
+                    if(found < results.length){
+                        results[found] = this.nodeItem[node];
+                    }
+                    found++;
+                }
+            }else{
+                this.push(depth++, this.nodeLeft[node]);
+                this.push(depth++, this.nodeRight[node]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Slab test, clip the segment's parameter range from 0 to 1 against the x and y extents of the box
+     */
+    private static boolean rayHitsBox(float startX, float startY, float directionX, float directionY,
+                                      float minX, float minY, float maxX, float maxY){
+        float enter = 0;
+        float exit = 1;
+        if(directionX == 0){
+            if(startX < minX || startX > maxX){
+                return false;
+            }
+        }else{
+            float t1 = (minX - startX) / directionX;
+            float t2 = (maxX - startX) / directionX;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if(directionY == 0){
+            if(startY < minY || startY > maxY){
+                return false;
+            }
+        }else{
+            float t1 = (minY - startY) / directionY;
+            float t2 = (maxY - startY) / directionY;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return enter <= exit;
+    }
+}
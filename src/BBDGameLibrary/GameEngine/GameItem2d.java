@@ -1,12 +1,17 @@
 package BBDGameLibrary.GameEngine;
 
+import BBDGameLibrary.Geometry2d.BBDCollision;
+import BBDGameLibrary.Geometry2d.BBDContactManifold;
 import BBDGameLibrary.Geometry2d.BBDPoint;
 import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDTransformedPolygon;
 import BBDGameLibrary.OpenGL.Mesh;
 import BBDGameLibrary.OpenGL.ShaderProgram;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 
+import java.util.Arrays;
+
 /**
  * A class that represents a 2d object in a game.  It extends GameComponent and therefore uses the GameComponent interface
  * and is instantiated with some basic data such as a mesh and the shaderProgram.  It connects to the BBDGameLibrary.Geometry2d package
@@ -46,11 +51,53 @@ public class GameItem2d extends GameItem{
      */
     private final BBDPolygon shape;
 
+    /**
+     * Local space copy of the shape and its transform, which the shape is worked out from if it interacts with other
+     * shapes
+     */
+    private final BBDTransformedPolygon transformedShape;
+
+    /**
+     * Has the item moved since the shape's vertices were last worked out
+     */
+    private boolean shapeStale = false;
+
     /**
      * Does this shape need to interact with other BBDPolygons?
      */
     private final boolean shapeInteracts;
 
+    /**
+     * Broadphase this item is registered with for finding collision candidates, if any
+     */
+    private Broadphase broadphase = null;
+
+    /**
+     * Id of this item within its broadphase
+     */
+    private int broadphaseProxy = -1;
+
+    /**
+     * How far this item is about to move over the current step, see setMotion()
+     */
+    private float motionX = 0;
+    private float motionY = 0;
+
+    /**
+     * Meshes to draw at different camera distances, from most to least detailed, if any
+     */
+    private Mesh[] detailMeshes = null;
+
+    /**
+     * Squared camera distance at which each level of detail after the first starts being used
+     */
+    private float[] detailDistancesSquared = null;
+
+    /**
+     * Which of the detail meshes is currently drawn
+     */
+    private int detailLevel = 0;
+
     /**
      * General purpose constructor to create a GameItem2d object.  Will initialize translation, scale and position to
      * neutral values.
@@ -68,6 +115,7 @@ public class GameItem2d extends GameItem{
         this.layer = layer;
         this.shape = shape;
         this.shapeInteracts = shapeInteracts;
+        this.transformedShape = shapeInteracts ? new BBDTransformedPolygon(shape) : null;
         super.setPosition(0, 0, -layer*LAYER_INTERVAL);
         super.setScale(1);
         super.setRotation(0,0,0);
@@ -88,7 +136,7 @@ public class GameItem2d extends GameItem{
 
     public void setPosition(float x, float y) {
         if(shapeInteracts){
-            BBDPoint currentCenter = shape.center();
+            BBDPoint currentCenter = this.getShape().center();
             this.translate(x - currentCenter.getXLoc(), y - currentCenter.getYLoc());
         }else{
             this.setPosition(x, y, this.getPosition().z);
@@ -102,14 +150,16 @@ public class GameItem2d extends GameItem{
      */
     public void translate(float x, float y) {
         if(shapeInteracts){
-            shape.translate(x,y);
+            this.transformedShape.translate(x,y);
+            this.updateShape();
         }
         this.setPosition(this.getPosition().x + x, this.getPosition().y + y, this.getPosition().z);
     }
 
     public void setScale(float scale) {
         if(shapeInteracts){
-            this.shape.scale(scale/this.getScale());
+            this.transformedShape.scale(scale/this.getScale());
+            this.updateShape();
         }
 
         super.setScale(scale);
@@ -121,7 +171,8 @@ public class GameItem2d extends GameItem{
      */
     public void scale(float scaleFactor){
         if(shapeInteracts){
-            this.shape.scale(scaleFactor);
+            this.transformedShape.scale(scaleFactor);
+            this.updateShape();
         }
         super.setScale(this.getScale() * scaleFactor);
     }
@@ -134,7 +185,8 @@ public class GameItem2d extends GameItem{
      */
     public void scaleFromPoint(BBDPoint point, float scaleFactor){
         if(shapeInteracts){
-            this.shape.scaleFromPoint(point, scaleFactor);
+            this.transformedShape.scaleFromPoint(point, scaleFactor);
+            this.updateShape();
         }
         // translate
         float deltaX = this.getPosition().x - point.getXLoc();
@@ -151,7 +203,8 @@ public class GameItem2d extends GameItem{
         Vector3f rotation = this.getRotation();
         if (shapeInteracts){
             float currentRotation = rotation.z;
-            this.shape.rotate(z - currentRotation);
+            this.transformedShape.rotate(z - currentRotation);
+            this.updateShape();
         }
 
         this.setRotation(rotation.x, rotation.y, z);
@@ -173,7 +226,8 @@ public class GameItem2d extends GameItem{
         //this.setRotation(currentRotation.x, currentRotation.y, currentRotation.z + angle);
 
         if (shapeInteracts){
-            this.shape.rotate(angle);
+            this.transformedShape.rotate(angle);
+            this.updateShape();
         }
     }
 
@@ -193,7 +247,8 @@ public class GameItem2d extends GameItem{
         this.setRotation(currentRotation.x, currentRotation.y, (currentRotation.z + angle));
 
         if(shapeInteracts){
-            this.shape.rotateAroundPoint(point, angle);
+            this.transformedShape.rotateAroundPoint(point, angle);
+            this.updateShape();
         }
     }
 
@@ -213,10 +268,243 @@ public class GameItem2d extends GameItem{
                 .transformPosition(this.getPosition());
     }
 
+    /**
+     * Place this item in 1 step rather than moving, rotating and scaling it separately.  If the shape interacts its
+     * vertices are worked out once, straight from the shape as it was when this item was created, so that moving an
+     * item every frame doesn't build up errors in the shape.
+     * @param x x position of the item's origin
+     * @param y y position of the item's origin
+     * @param rotation rotation around the item's origin in radians
+     * @param scale scale around the item's origin
+     */
+    public void setTransform(float x, float y, float rotation, float scale) {
+        if(shapeInteracts){
+            this.transformedShape.setTransform(x, y, rotation, scale);
+            this.updateShape();
+        }
+        this.setPosition(x, y, this.getPosition().z);
+        this.setRotation(this.getRotation().x, this.getRotation().y, rotation);
+        super.setScale(scale);
+    }
+
+    /**
+     * The shape in world space.  If the shape interacts, move the item rather than the shape, since the shape's vertices
+     * are worked out again from the item's transform the next time this is called after the item moves.  Hold on to the
+     * item rather than the polygon, since the polygon itself isn't brought up to date until then.
+     * @return the shape
+     */
+    public BBDPolygon getShape() {
+        if(this.shapeStale){
+            this.transformedShape.getWorldPolygon();
+            this.shapeStale = false;
+        }
+        return shape;
+    }
+
+    public boolean shapeInteracts() {
+        return shapeInteracts;
+    }
+
+    /**
+     * The broadphase this item was added to for finding collision candidates
+     * @return the broadphase, or null if it hasn't been added to one
+     */
+    public Broadphase getBroadphase() {
+        return broadphase;
+    }
+
+    int getBroadphaseProxy() {
+        return broadphaseProxy;
+    }
+
+    void setBroadphase(Broadphase broadphase, int proxy) {
+        this.broadphase = broadphase;
+        this.broadphaseProxy = proxy;
+    }
+
+    /**
+     * Mark the shape as needing its vertices worked out again and let the broadphase know it has moved.  The vertices
+     * aren't worked out until getShape() or the broadphase needs them, so an item moved several times between checks
+     * only pays for it once.
+     */
+    private void updateShape() {
+        this.shapeStale = true;
+        this.updateBroadphase();
+    }
+
+    /**
+     * Let the broadphase know the shape has moved
+     */
+    private void updateBroadphase() {
+        if(this.broadphase != null){
+            this.broadphase.update(this);
+        }
+    }
+
+    /**
+     * Check if this item's shape collides with another's, and if so how.  Both shapes need to be convex and both items
+     * need to have shapeInteracts set, otherwise their shapes aren't kept in world space and there is nothing to test.
+     * @param other the other game item
+     * @param manifold receives the collision normal, depth and contact points, with the normal pointing from this item
+     *                 toward the other one
+     * @return do the shapes collide
+     */
+    public boolean checkCollision(GameItem2d other, BBDContactManifold manifold){
+        if(!this.shapeInteracts || !other.shapeInteracts){
+            manifold.clear();
+            return false;
+        }
+        return BBDCollision.collide(this.getShape(), other.getShape(), manifold);
+    }
+
+    /**
+     * Say how far this item is about to move over the coming step, so that fast movers can be checked along their whole
+     * path rather than just where they end up.  While an item has motion set, the broadphase covers the box swept out
+     * from where it is now to where it is going, and timeOfImpact() finds when along the way it hits things.  Items with
+     * no motion set are left as they are, so only the ones that need it pay for the bigger boxes.
+     * @param x distance to move in x over the step
+     * @param y distance to move in y over the step
+     */
+    public void setMotion(float x, float y) {
+        this.motionX = x;
+        this.motionY = y;
+        if(shapeInteracts){
+            this.updateBroadphase();
+        }
+    }
+
+    public float getMotionX() {
+        return motionX;
+    }
+
+    public float getMotionY() {
+        return motionY;
+    }
+
+    /**
+     * Move part of the way along the motion set with setMotion() and clear it
+     * @param fraction how much of the motion to make, such as the time of impact with whatever it ran into
+     */
+    public void applyMotion(float fraction) {
+        float x = this.motionX * fraction;
+        float y = this.motionY * fraction;
+        this.motionX = 0;
+        this.motionY = 0;
+        this.translate(x, y);
+    }
+
+    /**
+     * Find when during the current step this item's shape first touches another's, with both of them moving by the
+     * motion set with setMotion().  Both items need to have shapeInteracts set.  Concave shapes are tested a convex
+     * piece at a time, see BBDCollision.timeOfImpact().
+     * @param other the other game item
+     * @return fraction of the step from 0 to 1 at which they first touch, 0 if they already overlap, or -1 if they don't
+     * touch during the step
+     */
+    public float timeOfImpact(GameItem2d other) {
+        if(!this.shapeInteracts || !other.shapeInteracts){
+            return -1;
+        }
+        return BBDCollision.timeOfImpact(this.getShape(), this.motionX, this.motionY, other.getShape(), other.motionX,
+                other.motionY);
+    }
+
+    /**
+     * Does this item have any motion set
+     */
+    boolean isMoving() {
+        return this.motionX != 0 || this.motionY != 0;
+    }
+
+    // Bounds of the shape covering its whole motion, for broadphases.
+    float sweptMinX() {
+        return this.getShape().minX() + Math.min(0, this.motionX);
+    }
+
+    float sweptMinY() {
+        return this.getShape().minY() + Math.min(0, this.motionY);
+    }
+
+    float sweptMaxX() {
+        return this.getShape().maxX() + Math.max(0, this.motionX);
+    }
+
+    float sweptMaxY() {
+        return this.getShape().maxY() + Math.max(0, this.motionY);
+    }
+
+    /**
+     * Mesh to draw, which is the current level of detail if levels of detail have been set
+     * @return Mesh object
+     */
     public Mesh getMesh() {
+        if(this.detailMeshes != null){
+            return this.detailMeshes[this.detailLevel];
+        }
         return mesh;
     }
 
+    /**
+     * Give this item simpler meshes to draw as the camera gets further away, such as ones from
+     * Mesh.buildLevelsOfDetail().  The meshes are only drawn, the shape used for collisions stays as it is.  The Renderer
+     * picks the level for each item as it draws it, see updateLevelOfDetail().
+     * @param meshes meshes from most to least detailed, which can be shared with other items
+     * @param distances camera distance at which to switch to each mesh after the first, in increasing order, so 1 fewer
+     *                  than there are meshes
+     */
+    public void setLevelsOfDetail(Mesh[] meshes, float[] distances) {
+        if(meshes.length == 0 || distances.length != meshes.length - 1){
+            throw new IllegalArgumentException("need 1 distance for each mesh after the first, got "+meshes.length+" meshes and "+distances.length+" distances");
+        }
+        float[] distancesSquared = new float[distances.length];
+        for(int i = 0; i < distances.length; i++){
+            if(i > 0 && distances[i] < distances[i - 1]){
+                throw new IllegalArgumentException("level of detail distances must be increasing, got "+Arrays.toString(distances));
+            }
+            distancesSquared[i] = distances[i] * distances[i];
+        }
+        this.detailMeshes = meshes;
+        this.detailDistancesSquared = distancesSquared;
+        this.detailLevel = 0;
+    }
+
+    /**
+     * Stop using levels of detail and go back to always drawing the mesh this item was made with
+     */
+    public void clearLevelsOfDetail() {
+        this.detailMeshes = null;
+        this.detailDistancesSquared = null;
+        this.detailLevel = 0;
+    }
+
+    /**
+     * Pick which level of detail to draw based on how far the camera is from this item
+     * @param camera camera the item is being viewed through
+     * @return the level now in use, 0 being the most detailed
+     */
+    public int updateLevelOfDetail(Camera camera) {
+        if(this.detailMeshes == null){
+            return 0;
+        }
+        Vector3f cameraPosition = camera.getPositionReference();
+        Vector3f position = this.getPosition();
+        float deltaX = cameraPosition.x - position.x;
+        float deltaY = cameraPosition.y - position.y;
+        float deltaZ = cameraPosition.z - position.z;
+        float distanceSquared = deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
+
+        int level = 0;
+        while(level < this.detailDistancesSquared.length && distanceSquared >= this.detailDistancesSquared[level]){
+            level++;
+        }
+        this.detailLevel = level;
+        return level;
+    }
+
+    public int getLevelOfDetail() {
+        return detailLevel;
+    }
+
     /**
      * Set some uniforms for rendering.  This method should be overwritten if you have either
      * additional uniforms, such as textures, OR you don't use "projectionMatrix" and "worldMatrix" as
@@ -0,0 +1,492 @@
+package BBDGameLibrary.GameEngine;
+
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Static 2d tree over a set of positions, for proximity questions like "which enemy is closest to each of these units"
+ * that would otherwise need every unit checked against every enemy.
+ *
+ * The tree is meant to be rebuilt from scratch whenever the positions change, once a tick for moving units, which takes
+ * O(n log n).  Each range of positions is split at its median along whichever axis it is most spread out on, so the
+ * tree is implicit in the order of the packed coordinates and takes no memory besides them.  Rebuilding reuses the
+ * arrays once they have grown to fit.
+ *
+ * Results are reported as indices into whatever the tree was last built from, written into arrays the caller passes
+ * in.  Queries don't change the tree, so any number of threads can query it at once as long as nobody rebuilds it, which
+ * is what the batch methods do.  Distances are in the XY plane, the same as GameItem.distanceSquaredFlat().
+ */
+public class KdTree {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final byte SPLIT_X = 0;
+    private static final byte SPLIT_Y = 1;
+
+    /**
+     * Batches with fewer queries than this are answered on one thread
+     */
+    private static final int BATCH_THRESHOLD = 256;
+
+    // Positions in tree order, and where each one came from in the input.
+    private float[] xs = new float[INITIAL_CAPACITY];
+    private float[] ys = new float[INITIAL_CAPACITY];
+    private int[] indices = new int[INITIAL_CAPACITY];
+    // The axis each range is split on, stored at the position of its median.
+    private byte[] splitAxis = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Create an empty tree, build it with one of the build methods
+     */
+    public KdTree(){
+    }
+
+    /**
+     * Number of positions in the tree
+     * @return position count
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * Rebuild the tree from the locations of some points
+     * @param points points to use, results are indices into this list
+     */
+    public void build(ArrayList<BBDPoint> points){
+        this.ensureCapacity(points.size());
+        for(int i = 0; i < points.size(); i++){
+            BBDPoint point = points.get(i);
+            this.xs[i] = point.getXLoc();
+            this.ys[i] = point.getYLoc();
+        }
+        this.buildTree(points.size());
+    }
+
+    /**
+     * Rebuild the tree from the positions of some game items, ignoring their z
+     * @param items items to use, results are indices into this array
+     * @param count how many of the items to use, starting from the beginning of the array
+     */
+    public void build(GameItem[] items, int count){
+        this.ensureCapacity(count);
+        for(int i = 0; i < count; i++){
+            Vector3f position = items[i].getPosition();
+            this.xs[i] = position.x;
+            this.ys[i] = position.y;
+        }
+        this.buildTree(count);
+    }
+
+    /**
+     * Rebuild the tree from packed coordinates
+     * @param coordinates x and y of each position, one after the other
+     * @param count how many positions to use
+     */
+    public void build(float[] coordinates, int count){
+        this.ensureCapacity(count);
+        for(int i = 0; i < count; i++){
+            this.xs[i] = coordinates[2 * i];
+            this.ys[i] = coordinates[2 * i + 1];
+        }
+        this.buildTree(count);
+    }
+
+    private void ensureCapacity(int count){
+        if(count > this.xs.length){
+            int capacity = Math.max(count, 2 * this.xs.length);
+            this.xs = new float[capacity];
+            this.ys = new float[capacity];
+            this.indices = new int[capacity];
+            this.splitAxis = new byte[capacity];
+        }
+    }
+
+    private void buildTree(int count){
+        this.size = count;
+        for(int i = 0; i < count; i++){
+            this.indices[i] = i;
+        }
+        this.buildRange(0, count);
+    }
+
+    private void buildRange(int start, int end){
+        if(end - start < 2){
+            if(end > start){
+                this.splitAxis[start] = SPLIT_X;
+            }
+            return;
+        }
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for(int i = start; i < end; i++){
+            minX = Math.min(minX, this.xs[i]);
+            maxX = Math.max(maxX, this.xs[i]);
+            minY = Math.min(minY, this.ys[i]);
+            maxY = Math.max(maxY, this.ys[i]);
+        }
+        byte axis = maxX - minX >= maxY - minY ? SPLIT_X : SPLIT_Y;
+        int middle = (start + end) >>> 1;
+        this.select(start, end - 1, middle, axis == SPLIT_X ? this.xs : this.ys);
+        this.splitAxis[middle] = axis;
+        this.buildRange(start, middle);
+        this.buildRange(middle + 1, end);
+    }
+
+    /**
+     * Reorder positions first..last so that the one at target is where it would be if they were sorted on the key, with
+     * nothing bigger before it and nothing smaller after it
+     */
+    private void select(int first, int last, int target, float[] key){
+        while(first < last){
+            float pivot = key[target];
+            int low = first;
+            int high = last;
+            do{
+                while(key[low] < pivot){
+                    low++;
+                }
+                while(pivot < key[high]){
+                    high--;
+                }
+                if(low <= high){
+                    this.swap(low, high);
+                    low++;
+                    high--;
+                }
+            }while(low <= high);
+            if(high < target){
+                first = low;
+            }
+            if(target < low){
+                last = high;
+            }
+        }
+    }
+
+    private void swap(int first, int second){
+        float x = this.xs[first];
+        this.xs[first] = this.xs[second];
+        this.xs[second] = x;
+        float y = this.ys[first];
+        this.ys[first] = this.ys[second];
+        this.ys[second] = y;
+        int index = this.indices[first];
+        this.indices[first] = this.indices[second];
+        this.indices[second] = index;
+    }
+
+    /**
+     * Find the closest position to a location
+     * @return index of the closest position, or -1 if the tree is empty
+     */
+    public int nearest(float x, float y){
+        return this.nearest(x, y, -1);
+    }
+
+    /**
+     * Find the closest position to a location, other than one to skip.  Handy for finding each unit's closest neighbour
+     * in a tree built from the units themselves.
+     * @param exclude index of a position to skip, or -1 to skip none
+     * @return index of the closest position, or -1 if there are none
+     */
+    public int nearest(float x, float y, int exclude){
+        float[] best = {Float.MAX_VALUE};
+        int[] bestIndex = {-1};
+        this.nearest(0, this.size, x, y, exclude, best, bestIndex);
+        return bestIndex[0];
+    }
+
+    private void nearest(int start, int end, float x, float y, int exclude, float[] best, int[] bestIndex){
+        while(start < end){
+            int middle = (start + end) >>> 1;
+            float deltaX = this.xs[middle] - x;
+            float deltaY = this.ys[middle] - y;
+            float distance = deltaX * deltaX + deltaY * deltaY;
+            if(distance < best[0] && this.indices[middle] != exclude){
+                best[0] = distance;
+                bestIndex[0] = this.indices[middle];
+            }
+
+            //search the side the location is on first, then the other side if it could still hold something closer
+            float split = this.splitAxis[middle] == SPLIT_X ? -deltaX : -deltaY;
+            if(split < 0){
+                this.nearest(start, middle, x, y, exclude, best, bestIndex);
+                if(split * split >= best[0]){
+                    return;
+                }
+                start = middle + 1;
+            }else{
+                this.nearest(middle + 1, end, x, y, exclude, best, bestIndex);
+                if(split * split >= best[0]){
+                    return;
+                }
+                end = middle;
+            }
+        }
+    }
+
+    /**
+     * Find the k closest positions to a location, closest first
+     * @param k how many to find
+     * @param results filled in with the indices of the positions found, must have room for k
+     * @param distancesSquared filled in with the squared distance to each position found, must have room for k
+     * @return number of positions found, k unless the tree has fewer
+     */
+    public int nearest(float x, float y, int k, int[] results, float[] distancesSquared){
+        return this.nearest(x, y, k, -1, results, distancesSquared, 0);
+    }
+
+    /**
+     * Find the k closest positions to a location, other than one to skip
+     * @param exclude index of a position to skip, or -1 to skip none
+     * @param results filled in with the indices of the positions found, must have room for k
+     * @param distancesSquared filled in with the squared distance to each position found, must have room for k
+     * @return number of positions found, k unless there are fewer
+     */
+    public int nearest(float x, float y, int k, int exclude, int[] results, float[] distancesSquared){
+        return this.nearest(x, y, k, exclude, results, distancesSquared, 0);
+    }
+
+    /**
+     * The k nearest search, writing into the result arrays starting at offset.  The results are kept as a max heap while
+     * searching so the furthest one is always on hand to compare against, then sorted once the search is done.
+     */
+    private int nearest(float x, float y, int k, int exclude, int[] results, float[] distancesSquared, int offset){
+        if(k <= 0){
+            return 0;
+        }
+        int[] found = {0};
+        this.nearest(0, this.size, x, y, k, exclude, results, distancesSquared, offset, found);
+
+        //heap sort in place, moving the furthest to the back each time
+        for(int last = found[0] - 1; last > 0; last--){
+            swap(results, distancesSquared, offset, offset + last);
+            siftDown(results, distancesSquared, offset, 0, last);
+        }
+        return found[0];
+    }
+
+    private void nearest(int start, int end, float x, float y, int k, int exclude, int[] results, float[] distancesSquared,
+                         int offset, int[] found){
+        while(start < end){
+            int middle = (start + end) >>> 1;
+            float deltaX = this.xs[middle] - x;
+            float deltaY = this.ys[middle] - y;
+            float distance = deltaX * deltaX + deltaY * deltaY;
+            if(this.indices[middle] != exclude){
+                if(found[0] < k){
+                    pushHeap(results, distancesSquared, offset, found[0], distance, this.indices[middle]);
+                    found[0]++;
+                }else if(distance < distancesSquared[offset]){
+                    results[offset] = this.indices[middle];
+                    distancesSquared[offset] = distance;
+                    siftDown(results, distancesSquared, offset, 0, k);
+                }
+            }
+
+            float split = this.splitAxis[middle] == SPLIT_X ? -deltaX : -deltaY;
+            if(split < 0){
+                this.nearest(start, middle, x, y, k, exclude, results, distancesSquared, offset, found);
+                if(found[0] == k && split * split >= distancesSquared[offset]){
+                    return;
+                }
+                start = middle + 1;
+            }else{
+                this.nearest(middle + 1, end, x, y, k, exclude, results, distancesSquared, offset, found);
+                if(found[0] == k && split * split >= distancesSquared[offset]){
+                    return;
+                }
+                end = middle;
+            }
+        }
+    }
+
+    private static void pushHeap(int[] results, float[] distances, int offset, int index, float distance, int result){
+        while(index > 0){
+            int parent = (index - 1) / 2;
+            if(distances[offset + parent] >= distance){
+                break;
+            }
+            results[offset + index] = results[offset + parent];
+            distances[offset + index] = distances[offset + parent];
+            index = parent;
+        }
+        results[offset + index] = result;
+        distances[offset + index] = distance;
+    }
+
+    private static void siftDown(int[] results, float[] distances, int offset, int index, int heapSize){
+        int result = results[offset + index];
+        float distance = distances[offset + index];
+        while(true){
+            int child = 2 * index + 1;
+            if(child >= heapSize){
+                break;
+            }
+            if(child + 1 < heapSize && distances[offset + child + 1] > distances[offset + child]){
+                child++;
+            }
+            if(distances[offset + child] <= distance){
+                break;
+            }
+            results[offset + index] = results[offset + child];
+            distances[offset + index] = distances[offset + child];
+            index = child;
+        }
+        results[offset + index] = result;
+        distances[offset + index] = distance;
+    }
+
+    private static void swap(int[] results, float[] distances, int first, int second){
+        int result = results[first];
+        results[first] = results[second];
+        results[second] = result;
+        float distance = distances[first];
+        distances[first] = distances[second];
+        distances[second] = distance;
+    }
+
+    /**
+     * Find every position within a distance of a location, in no particular order
+     * @param radius how far to search, positions exactly this far away count
+     * @param results filled in with the indices of the positions found.  If there are more than fit, the rest are counted
+     *                but not stored.
+     * @return number of positions found, which may be more than results.length
+     */
+    public int withinRadius(float x, float y, float radius, int[] results){
+        return this.withinRadius(0, this.size, x, y, radius * radius, results, 0);
+    }
+
+    private int withinRadius(int start, int end, float x, float y, float radiusSquared, int[] results, int found){
+        while(start < end){
+            int middle = (start + end) >>> 1;
+            float deltaX = this.xs[middle] - x;
+            float deltaY = this.ys[middle] - y;
+            if(deltaX * deltaX + deltaY * deltaY <= radiusSquared){
+                if(found < results.length){
+                    results[found] = this.indices[middle];
+                }
+                found++;
+            }
+
+            float split = this.splitAxis[middle] == SPLIT_X ? -deltaX : -deltaY;
+            boolean crosses = split * split <= radiusSquared;
+            if(split < 0){
+                if(crosses){
+                    found = this.withinRadius(middle + 1, end, x, y, radiusSquared, results, found);
+                }
+                end = middle;
+            }else{
+                if(crosses){
+                    found = this.withinRadius(start, middle, x, y, radiusSquared, results, found);
+                }
+                start = middle + 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Find the closest position to each of a batch of locations, splitting the work across a pool's threads.  The tree
+     * must not be rebuilt until this returns.
+     * @param locations x and y of each location, one after the other
+     * @param count number of locations
+     * @param results filled in with the index of the closest position to each location, or -1 if the tree is empty
+     * @param pool pool to run on
+     */
+    public void nearestBatch(float[] locations, int count, int[] results, ForkJoinPool pool){
+        pool.invoke(new BatchTask(this, locations, 0, count, 1, results, null, null));
+    }
+
+    /**
+     * Find the closest position to each of a batch of locations using the common pool
+     * @see #nearestBatch(float[], int, int[], ForkJoinPool)
+     */
+    public void nearestBatch(float[] locations, int count, int[] results){
+        this.nearestBatch(locations, count, results, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Find the k closest positions to each of a batch of locations, splitting the work across a pool's threads.  The tree
+     * must not be rebuilt until this returns.
+     * @param locations x and y of each location, one after the other
+     * @param count number of locations
+     * @param k how many to find for each location
+     * @param results the indices found for location i are written to results[i*k] onwards, closest first.  Must have
+     *                room for count*k.
+     * @param distancesSquared the squared distances to match results, must have room for count*k
+     * @param foundCounts filled in with how many were found for each location, k unless the tree has fewer
+     * @param pool pool to run on
+     */
+    public void nearestBatch(float[] locations, int count, int k, int[] results, float[] distancesSquared,
+                             int[] foundCounts, ForkJoinPool pool){
+        pool.invoke(new BatchTask(this, locations, 0, count, k, results, distancesSquared, foundCounts));
+    }
+
+    /**
+     * Find the k closest positions to each of a batch of locations using the common pool
+     * @see #nearestBatch(float[], int, int, int[], float[], int[], ForkJoinPool)
+     */
+    public void nearestBatch(float[] locations, int count, int k, int[] results, float[] distancesSquared,
+                             int[] foundCounts){
+        this.nearestBatch(locations, count, k, results, distancesSquared, foundCounts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Answers a range of a batch, splitting in half until the ranges are small enough to be worth a thread.  Each
+     * location's answers go in their own part of the result arrays, so no two tasks write to the same place and the
+     * results don't depend on how the work was split.
+     */
+    private static class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final KdTree tree;
+        private final float[] locations;
+        private final int start;
+        private final int end;
+        private final int k;
+        private final int[] results;
+        // Null for single nearest batches.
+        private final float[] distancesSquared;
+        private final int[] foundCounts;
+
+        BatchTask(KdTree tree, float[] locations, int start, int end, int k, int[] results, float[] distancesSquared,
+                  int[] foundCounts){
+            this.tree = tree;
+            this.locations = locations;
+            this.start = start;
+            this.end = end;
+            this.k = k;
+            this.results = results;
+            this.distancesSquared = distancesSquared;
+            this.foundCounts = foundCounts;
+        }
+
+        @Override
+        protected void compute(){
+            if(this.end - this.start > BATCH_THRESHOLD){
+                int middle = (this.start + this.end) >>> 1;
+                invokeAll(new BatchTask(this.tree, this.locations, this.start, middle, this.k, this.results,
+                                this.distancesSquared, this.foundCounts),
+                        new BatchTask(this.tree, this.locations, middle, this.end, this.k, this.results,
+                                this.distancesSquared, this.foundCounts));
+                return;
+            }
+            for(int i = this.start; i < this.end; i++){
+                float x = this.locations[2 * i];
+                float y = this.locations[2 * i + 1];
+                if(this.distancesSquared == null){
+                    this.results[i] = this.tree.nearest(x, y);
+                }else{
+                    this.foundCounts[i] = this.tree.nearest(x, y, this.k, -1, this.results, this.distancesSquared,
+                            i * this.k);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package BBDGameLibrary.GameEngine;
+
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The step after a broadphase, which runs the exact polygon tests on the pairs it found and keeps the ones that really
+ * touch.  The tests are independent of each other, so the pair list is split into chunks that are run across a
+ * ForkJoinPool's threads, with idle threads stealing chunks from busy ones.
+ *
+ * Polygons fill in their cached bounds, coordinates and edge trees the first time they are queried, so before any
+ * threads start every shape involved has its caches brought up to date on the calling thread.  After that the tests
+ * only read the shapes.  Each pair's result goes in its own slot of arrays that are kept between runs, and the contacts
+ * are then collected from the slots in pair order, so the same pairs always give the same contacts in the same order
+ * no matter how the work was split up or which thread finished first.
+ *
+ * Pairs where either item has motion set with GameItem2d.setMotion() are tested with GameItem2d.timeOfImpact() instead,
+ * so fast movers are caught anywhere along their path, and the contact records when in the step they hit.  Concave
+ * shapes in these pairs are tested a convex piece at a time, with the pieces cached on the polygon like its other
+ * caches.  Only these pairs have their pieces worked out, so pairs that aren't moving don't pay for them.
+ *
+ * Items must not be moved while a run is in progress.
+ */
+public class NarrowPhase {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Pairs per chunk, below this a chunk is run on whichever thread has it rather than split further
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    private final ForkJoinPool pool;
+    private final float contactDistanceSquared;
+
+    // The pairs being tested, copied out of the broadphase.
+    private GameItem2d[] pairs = new GameItem2d[2 * INITIAL_CAPACITY];
+    private int pairCount = 0;
+    // Squared distance for each pair, or negative if it isn't a contact.
+    private float[] pairDistance = new float[INITIAL_CAPACITY];
+    // Time of impact for each pair, 0 for pairs that aren't moving.
+    private float[] pairTime = new float[INITIAL_CAPACITY];
+
+    // The contacts, in pair order.
+    private GameItem2d[] contacts = new GameItem2d[2 * INITIAL_CAPACITY];
+    private float[] contactDistance = new float[INITIAL_CAPACITY];
+    private float[] contactTime = new float[INITIAL_CAPACITY];
+    private int contactCount = 0;
+
+    /**
+     * Create a narrow phase that keeps pairs whose shapes overlap and runs on the common pool
+     */
+    public NarrowPhase(){
+        this(0, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a narrow phase
+     * @param contactDistance pairs whose shapes are within this distance of each other count as contacts.  0 keeps only
+     *                        pairs that overlap or touch, which is the cheapest test.
+     * @param pool pool to run the tests on
+     */
+    public NarrowPhase(float contactDistance, ForkJoinPool pool){
+        if(!(contactDistance >= 0)){
+            throw new IllegalArgumentException("contact distance can not be negative, got "+contactDistance);
+        }
+        this.contactDistanceSquared = contactDistance * contactDistance;
+        this.pool = pool;
+    }
+
+    /**
+     * Test the pairs a broadphase found the last time findPairs() was called on it
+     * @param broadphase broadphase to take the pairs from
+     * @return number of contacts found
+     */
+    public int run(Broadphase broadphase){
+        int count = broadphase.getPairCount();
+        if(count > this.pairDistance.length){
+            int capacity = Math.max(count, 2 * this.pairDistance.length);
+            this.pairs = new GameItem2d[2 * capacity];
+            this.pairDistance = new float[capacity];
+            this.pairTime = new float[capacity];
+        }
+        for(int i = 0; i < count; i++){
+            GameItem2d first = broadphase.getPairFirst(i);
+            GameItem2d second = broadphase.getPairSecond(i);
+            first.getShape().refreshCaches();
+            second.getShape().refreshCaches();
+            //only time of impact needs the convex pieces, which cost a triangulation for concave shapes
+            if(first.isMoving() || second.isMoving()){
+                first.getShape().refreshConvexPieces();
+                second.getShape().refreshConvexPieces();
+            }
+            this.pairs[2 * i] = first;
+            this.pairs[2 * i + 1] = second;
+        }
+        //clear out items left over from a bigger run so they can be collected
+        for(int i = 2 * count; i < 2 * this.pairCount; i++){
+            this.pairs[i] = null;
+        }
+        this.pairCount = count;
+
+        if(count <= CHUNK_SIZE){
+            this.testPairs(0, count);
+        }else{
+            this.pool.invoke(new ChunkTask(this, 0, count));
+        }
+        this.collectContacts();
+        return this.contactCount;
+    }
+
+    private void testPairs(int start, int end){
+        for(int i = start; i < end; i++){
+            GameItem2d firstItem = this.pairs[2 * i];
+            GameItem2d secondItem = this.pairs[2 * i + 1];
+            BBDPolygon first = firstItem.getShape();
+            BBDPolygon second = secondItem.getShape();
+            float distance;
+            float time = 0;
+            if(firstItem.isMoving() || secondItem.isMoving()){
+                time = firstItem.timeOfImpact(secondItem);
+                distance = time >= 0 ? 0 : -1;
+            }else if(this.contactDistanceSquared == 0){
+                distance = first.checkPolygonIntersectsPolygon(second) ? 0 : -1;
+            }else{
+                distance = first.distanceSquaredToPolygon(second);
+                if(distance > this.contactDistanceSquared){
+                    distance = -1;
+                }
+            }
+            this.pairDistance[i] = distance;
+            this.pairTime[i] = time;
+        }
+    }
+
+    private void collectContacts(){
+        int previousCount = this.contactCount;
+        int found = 0;
+        for(int i = 0; i < this.pairCount; i++){
+            if(this.pairDistance[i] >= 0){
+                found++;
+            }
+        }
+        if(found > this.contactDistance.length){
+            int capacity = Math.max(found, 2 * this.contactDistance.length);
+            this.contacts = new GameItem2d[2 * capacity];
+            this.contactDistance = new float[capacity];
+            this.contactTime = new float[capacity];
+        }
+        int contact = 0;
+        for(int i = 0; i < this.pairCount; i++){
+            if(this.pairDistance[i] >= 0){
+                this.contacts[2 * contact] = this.pairs[2 * i];
+                this.contacts[2 * contact + 1] = this.pairs[2 * i + 1];
+                this.contactDistance[contact] = this.pairDistance[i];
+                this.contactTime[contact] = this.pairTime[i];
+                contact++;
+            }
+        }
+        for(int i = 2 * found; i < 2 * previousCount && i < this.contacts.length; i++){
+            this.contacts[i] = null;
+        }
+        this.contactCount = found;
+    }
+
+    /**
+     * Number of contacts found by the last run
+     * @return contact count
+     */
+    public int getContactCount(){
+        return this.contactCount;
+    }
+
+    public GameItem2d getContactFirst(int index){
+        return this.contacts[2 * index];
+    }
+
+    public GameItem2d getContactSecond(int index){
+        return this.contacts[2 * index + 1];
+    }
+
+    /**
+     * How far apart the shapes of a contact are
+     * @param index which contact
+     * @return squared distance between the shapes, 0 if they overlap
+     */
+    public float getContactDistanceSquared(int index){
+        return this.contactDistance[index];
+    }
+
+    /**
+     * When during the step a contact happened, for pairs where at least one item has motion set
+     * @param index which contact
+     * @return fraction of the step from 0 to 1 at which the shapes first touch, 0 for pairs that aren't moving
+     */
+    public float getContactTimeOfImpact(int index){
+        return this.contactTime[index];
+    }
+
+    /**
+     * Tests a range of pairs, splitting it in half until the pieces are chunk sized
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final NarrowPhase narrowPhase;
+        private final int start;
+        private final int end;
+
+        ChunkTask(NarrowPhase narrowPhase, int start, int end){
+            this.narrowPhase = narrowPhase;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute(){
+            if(this.end - this.start <= CHUNK_SIZE){
+                this.narrowPhase.testPairs(this.start, this.end);
+                return;
+            }
+            int middle = (this.start + this.end) >>> 1;
+            invokeAll(new ChunkTask(this.narrowPhase, this.start, middle), new ChunkTask(this.narrowPhase, middle, this.end));
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package BBDGameLibrary.GameEngine;
+
+import java.util.Arrays;
+
+/**
+ * Broadphase for finding which GameItem2d objects might be touching, so that the exact polygon tests only run on items
+ * that are near each other rather than on every pair.  Space is divided into square cells, and each item is listed in
+ * every cell its bounding box covers.  Only the cells that have something in them take up any memory, since they are
+ * looked up through a hash table rather than a fixed grid, so the world can be any size.
+ *
+ * This works best when the items are all about the same size and the cell size is about as big as a typical item, in
+ * which case each item lands in 1 to 4 cells and finding every candidate pair is O(n).  That makes it a good fit for
+ * scenes with thousands of small moving units.
+ *
+ * Items keep track of the grid they were added to and update their entry whenever they translate, rotate or scale, so
+ * there is nothing to do each frame besides asking for the pairs.  An item that stays within the same cells only has
+ * its bounding box refreshed.  Everything is stored in flat arrays that are reused, so after the first few frames
+ * neither the updates nor the queries allocate anything.  The grid is not thread safe.
+ */
+public class SpatialHashGrid implements Broadphase {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Width and height of a cell in world units
+     */
+    private final float cellSize;
+
+    // Items by proxy id.  Ids of removed items are reused, freeProxy is the head of a list of them chained through
+    // proxyNextFree, or -1 if there are none.
+    private GameItem2d[] items;
+    private int[] proxyNextFree;
+    private int freeProxy = -1;
+    private int proxyCount = 0;
+    private int itemCount = 0;
+
+    // Padded bounding box of each item as of its last update.
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+
+    // Range of cells each item is listed in, inclusive.
+    private int[] cellMinX;
+    private int[] cellMinY;
+    private int[] cellMaxX;
+    private int[] cellMaxY;
+
+    // Marks items already visited during a query so they are only reported once.
+    private int[] queryMark;
+    private int queryStamp = 0;
+
+    // Cell entries, one per item per cell.  Each entry is in 2 lists, the doubly linked list of its hash bucket and the
+    // singly linked list of its item.  Unused entries are chained through entryNextInBucket starting at freeEntry.
+    private int[] entryProxy;
+    private int[] entryCellX;
+    private int[] entryCellY;
+    private int[] entryNextInBucket;
+    private int[] entryPreviousInBucket;
+    private int[] entryNextForProxy;
+    private int[] proxyFirstEntry;
+    private int freeEntry = -1;
+    private int entryCount = 0;
+    private int activeEntries = 0;
+
+    // First entry in each hash bucket, the length is always a power of 2.
+    private int[] buckets;
+
+    // Results of the last call to findPairs(), as proxy ids 2 per pair.
+    private int[] pairs = new int[2 * INITIAL_CAPACITY];
+    private int pairCount = 0;
+
+    /**
+     * Create an empty grid
+     * @param cellSize width and height of a cell.  About the size of a typical item works best.
+     */
+    public SpatialHashGrid(float cellSize){
+        if(!(cellSize > 0)){
+            throw new IllegalArgumentException("cell size must be positive, got "+cellSize);
+        }
+        this.cellSize = cellSize;
+
+        this.items = new GameItem2d[INITIAL_CAPACITY];
+        this.proxyNextFree = new int[INITIAL_CAPACITY];
+        this.minX = new float[INITIAL_CAPACITY];
+        this.minY = new float[INITIAL_CAPACITY];
+        this.maxX = new float[INITIAL_CAPACITY];
+        this.maxY = new float[INITIAL_CAPACITY];
+        this.cellMinX = new int[INITIAL_CAPACITY];
+        this.cellMinY = new int[INITIAL_CAPACITY];
+        this.cellMaxX = new int[INITIAL_CAPACITY];
+        this.cellMaxY = new int[INITIAL_CAPACITY];
+        this.queryMark = new int[INITIAL_CAPACITY];
+        this.proxyFirstEntry = new int[INITIAL_CAPACITY];
+
+        this.entryProxy = new int[INITIAL_CAPACITY];
+        this.entryCellX = new int[INITIAL_CAPACITY];
+        this.entryCellY = new int[INITIAL_CAPACITY];
+        this.entryNextInBucket = new int[INITIAL_CAPACITY];
+        this.entryPreviousInBucket = new int[INITIAL_CAPACITY];
+        this.entryNextForProxy = new int[INITIAL_CAPACITY];
+
+        this.buckets = new int[INITIAL_CAPACITY];
+        Arrays.fill(this.buckets, -1);
+    }
+
+    public float getCellSize(){
+        return this.cellSize;
+    }
+
+    /**
+     * Number of items in the grid
+     * @return item count
+     */
+    @Override
+    public int size(){
+        return this.itemCount;
+    }
+
+    /**
+     * Add an item to the grid.  The item's shape has to be kept in world space, so shapeInteracts must be set, and an
+     * item can only be in 1 grid at a time.
+     * @param item item to add
+     * @return was the item added
+     */
+    @Override
+    public boolean add(GameItem2d item){
+        if(!item.shapeInteracts() || item.getBroadphase() != null){
+            return false;
+        }
+        int proxy;
+        if(this.freeProxy != -1){
+            proxy = this.freeProxy;
+            this.freeProxy = this.proxyNextFree[proxy];
+        }else{
+            if(this.proxyCount == this.items.length){
+                this.growProxies();
+            }
+            proxy = this.proxyCount++;
+        }
+        this.items[proxy] = item;
+        this.proxyFirstEntry[proxy] = -1;
+        this.queryMark[proxy] = 0;
+        this.itemCount++;
+        item.setBroadphase(this, proxy);
+
+        this.readBounds(proxy);
+        this.insertEntries(proxy);
+        return true;
+    }
+
+    /**
+     * Take an item out of the grid
+     * @param item item to remove
+     * @return was the item in this grid
+     */
+    @Override
+    public boolean remove(GameItem2d item){
+        if(item.getBroadphase() != this){
+            return false;
+        }
+        int proxy = item.getBroadphaseProxy();
+        this.removeEntries(proxy);
+        item.setBroadphase(null, -1);
+        this.items[proxy] = null;
+        this.proxyNextFree[proxy] = this.freeProxy;
+        this.freeProxy = proxy;
+        this.itemCount--;
+        return true;
+    }
+
+    /**
+     * Bring an item's entry up to date with its shape.  GameItem2d calls this for you whenever it moves, but if you change
+     * the shape directly you will need to call it yourself.
+     * @param item item that moved
+     */
+    @Override
+    public void update(GameItem2d item){
+        if(item.getBroadphase() != this){
+            return;
+        }
+        int proxy = item.getBroadphaseProxy();
+        int oldMinX = this.cellMinX[proxy];
+        int oldMinY = this.cellMinY[proxy];
+        int oldMaxX = this.cellMaxX[proxy];
+        int oldMaxY = this.cellMaxY[proxy];
+        this.readBounds(proxy);
+        if(oldMinX != this.cellMinX[proxy] || oldMinY != this.cellMinY[proxy]
+                || oldMaxX != this.cellMaxX[proxy] || oldMaxY != this.cellMaxY[proxy]){
+            this.removeEntries(proxy);
+            this.insertEntries(proxy);
+        }
+    }
+
+    private void readBounds(int proxy){
+        //moving items cover their whole path so they can be checked for impacts along the way
+        GameItem2d item = this.items[proxy];
+        this.minX[proxy] = item.sweptMinX() - Broadphase.PADDING;
+        this.minY[proxy] = item.sweptMinY() - Broadphase.PADDING;
+        this.maxX[proxy] = item.sweptMaxX() + Broadphase.PADDING;
+        this.maxY[proxy] = item.sweptMaxY() + Broadphase.PADDING;
+        this.cellMinX[proxy] = this.cell(this.minX[proxy]);
+        this.cellMinY[proxy] = this.cell(this.minY[proxy]);
+        this.cellMaxX[proxy] = this.cell(this.maxX[proxy]);
+        this.cellMaxY[proxy] = this.cell(this.maxY[proxy]);
+    }
+
+    private int cell(float coordinate){
+        return (int)Math.floor(coordinate / this.cellSize);
+    }
+
+    private int bucket(int cellX, int cellY){
+        int hash = cellX * 0x9E3779B1 ^ cellY * 0x85EBCA77;
+        return (hash ^ (hash >>> 16)) & (this.buckets.length - 1);
+    }
+
+    private void insertEntries(int proxy){
+        for(int cellX = this.cellMinX[proxy]; cellX <= this.cellMaxX[proxy]; cellX++){
+            for(int cellY = this.cellMinY[proxy]; cellY <= this.cellMaxY[proxy]; cellY++){
+                int entry = this.allocateEntry();
+                this.entryProxy[entry] = proxy;
+                this.entryCellX[entry] = cellX;
+                this.entryCellY[entry] = cellY;
+                this.entryNextForProxy[entry] = this.proxyFirstEntry[proxy];
+                this.proxyFirstEntry[proxy] = entry;
+                this.linkIntoBucket(entry);
+            }
+        }
+        //keep the buckets at about 1 entry each
+        if(this.activeEntries > this.buckets.length){
+            this.rehash(this.buckets.length * 2);
+        }
+    }
+
+    private void removeEntries(int proxy){
+        int entry = this.proxyFirstEntry[proxy];
+        while(entry != -1){
+            int next = this.entryNextForProxy[entry];
+            int previousInBucket = this.entryPreviousInBucket[entry];
+            int nextInBucket = this.entryNextInBucket[entry];
+            if(previousInBucket == -1){
+                this.buckets[this.bucket(this.entryCellX[entry], this.entryCellY[entry])] = nextInBucket;
+            }else{
+                this.entryNextInBucket[previousInBucket] = nextInBucket;
+            }
+            if(nextInBucket != -1){
+                this.entryPreviousInBucket[nextInBucket] = previousInBucket;
+            }
+            this.entryNextInBucket[entry] = this.freeEntry;
+            this.freeEntry = entry;
+            this.activeEntries--;
+            entry = next;
+        }
+        this.proxyFirstEntry[proxy] = -1;
+    }
+
+    private void linkIntoBucket(int entry){
+        int bucket = this.bucket(this.entryCellX[entry], this.entryCellY[entry]);
+        int head = this.buckets[bucket];
+        this.entryPreviousInBucket[entry] = -1;
+        this.entryNextInBucket[entry] = head;
+        if(head != -1){
+            this.entryPreviousInBucket[head] = entry;
+        }
+        this.buckets[bucket] = entry;
+    }
+
+    private int allocateEntry(){
+        this.activeEntries++;
+        if(this.freeEntry != -1){
+            int entry = this.freeEntry;
+            this.freeEntry = this.entryNextInBucket[entry];
+            return entry;
+        }
+        if(this.entryCount == this.entryProxy.length){
+            int capacity = 2 * this.entryProxy.length;
+            this.entryProxy = Arrays.copyOf(this.entryProxy, capacity);
+            this.entryCellX = Arrays.copyOf(this.entryCellX, capacity);
+            this.entryCellY = Arrays.copyOf(this.entryCellY, capacity);
+            this.entryNextInBucket = Arrays.copyOf(this.entryNextInBucket, capacity);
+            this.entryPreviousInBucket = Arrays.copyOf(this.entryPreviousInBucket, capacity);
+            this.entryNextForProxy = Arrays.copyOf(this.entryNextForProxy, capacity);
+        }
+        return this.entryCount++;
+    }
+
+    private void rehash(int bucketCount){
+        this.buckets = new int[bucketCount];
+        Arrays.fill(this.buckets, -1);
+        for(int proxy = 0; proxy < this.proxyCount; proxy++){
+            if(this.items[proxy] == null){
+                continue;
+            }
+            for(int entry = this.proxyFirstEntry[proxy]; entry != -1; entry = this.entryNextForProxy[entry]){
+                this.linkIntoBucket(entry);
+            }
+        }
+    }
+
+    private void growProxies(){
+        int capacity = 2 * this.items.length;
+        this.items = Arrays.copyOf(this.items, capacity);
+        this.proxyNextFree = Arrays.copyOf(this.proxyNextFree, capacity);
+        this.minX = Arrays.copyOf(this.minX, capacity);
+        this.minY = Arrays.copyOf(this.minY, capacity);
+        this.maxX = Arrays.copyOf(this.maxX, capacity);
+        this.maxY = Arrays.copyOf(this.maxY, capacity);
+        this.cellMinX = Arrays.copyOf(this.cellMinX, capacity);
+        this.cellMinY = Arrays.copyOf(this.cellMinY, capacity);
+        this.cellMaxX = Arrays.copyOf(this.cellMaxX, capacity);
+        this.cellMaxY = Arrays.copyOf(this.cellMaxY, capacity);
+        this.queryMark = Arrays.copyOf(this.queryMark, capacity);
+        this.proxyFirstEntry = Arrays.copyOf(this.proxyFirstEntry, capacity);
+    }
+
+    private boolean boundsOverlap(int first, int second){
+        return this.minX[first] <= this.maxX[second] && this.maxX[first] >= this.minX[second]
+                && this.minY[first] <= this.maxY[second] && this.maxY[first] >= this.minY[second];
+    }
+
+    /**
+     * Find every pair of items whose bounding boxes overlap.  Each pair is reported once, from the lowest cell the 2
+     * items share, so no set is needed to weed out duplicates.  Read the results with getPairCount(), getPairFirst() and
+     * getPairSecond(), they stay valid until the next call.
+     * @return number of pairs found
+     */
+    @Override
+    public int findPairs(){
+        this.pairCount = 0;
+        for(int bucket = 0; bucket < this.buckets.length; bucket++){
+            for(int entry = this.buckets[bucket]; entry != -1; entry = this.entryNextInBucket[entry]){
+                int cellX = this.entryCellX[entry];
+                int cellY = this.entryCellY[entry];
+                int proxy = this.entryProxy[entry];
+                for(int other = this.entryNextInBucket[entry]; other != -1; other = this.entryNextInBucket[other]){
+                    //different cells can land in the same bucket
+                    if(this.entryCellX[other] != cellX || this.entryCellY[other] != cellY){
+                        continue;
+                    }
+                    int otherProxy = this.entryProxy[other];
+                    if(Math.max(this.cellMinX[proxy], this.cellMinX[otherProxy]) != cellX
+                            || Math.max(this.cellMinY[proxy], this.cellMinY[otherProxy]) != cellY
+                            || !this.boundsOverlap(proxy, otherProxy)){
+                        continue;
+                    }
+                    this.addPair(proxy, otherProxy);
+                }
+            }
+        }
+        return this.pairCount;
+    }
+
+    private void addPair(int first, int second){
+        if(2 * this.pairCount == this.pairs.length){
+            this.pairs = Arrays.copyOf(this.pairs, 2 * this.pairs.length);
+        }
+        this.pairs[2 * this.pairCount] = first;
+        this.pairs[2 * this.pairCount + 1] = second;
+        this.pairCount++;
+    }
+
+    @Override
+    public int getPairCount(){
+        return this.pairCount;
+    }
+
+    @Override
+    public GameItem2d getPairFirst(int index){
+        return this.items[this.pairs[2 * index]];
+    }
+
+    @Override
+    public GameItem2d getPairSecond(int index){
+        return this.items[this.pairs[2 * index + 1]];
+    }
+
+    /**
+     * Find every item whose bounding box overlaps a region
+     * @param results filled in with the items found.  If there are more than fit, the rest are counted but not stored.
+     * @return number of items found, which may be more than results.length
+     */
+    @Override
+    public int query(float minX, float minY, float maxX, float maxY, GameItem2d[] results){
+        return this.query(minX, minY, maxX, maxY, -1, results);
+    }
+
+    /**
+     * Find every other item whose bounding box overlaps this item's
+     * @param item item to find the neighbours of, must be in this grid
+     * @param results filled in with the neighbours found.  If there are more than fit, the rest are counted but not
+     *                stored.
+     * @return number of neighbours found, which may be more than results.length
+     */
+    @Override
+    public int findNeighbours(GameItem2d item, GameItem2d[] results){
+        if(item.getBroadphase() != this){
+            return 0;
+        }
+        int proxy = item.getBroadphaseProxy();
+        return this.query(this.minX[proxy], this.minY[proxy], this.maxX[proxy], this.maxY[proxy], proxy, results);
+    }
+
+    private int query(float minX, float minY, float maxX, float maxY, int skip, GameItem2d[] results){
+        this.queryStamp++;
+        if(this.queryStamp == 0){
+            //wrapped around, clear out the old marks so none of them look current
+            Arrays.fill(this.queryMark, 0);
+            this.queryStamp = 1;
+        }
+
+        int found = 0;
+        int lastX = this.cell(maxX);
+        int lastY = this.cell(maxY);
+        for(int cellX = this.cell(minX); cellX <= lastX; cellX++){
+            for(int cellY = this.cell(minY); cellY <= lastY; cellY++){
+                int bucket = this.bucket(cellX, cellY);
+                for(int entry = this.buckets[bucket]; entry != -1; entry = this.entryNextInBucket[entry]){
+                    int proxy = this.entryProxy[entry];
+                    if(proxy == skip || this.queryMark[proxy] == this.queryStamp
+                            || this.entryCellX[entry] != cellX || this.entryCellY[entry] != cellY){
+                        continue;
+                    }
+                    this.queryMark[proxy] = this.queryStamp;
+                    if(this.minX[proxy] <= maxX && this.maxX[proxy] >= minX
+                            && this.minY[proxy] <= maxY && this.maxY[proxy] >= minY){
+                        if(found < results.length){
+                            results[found] = this.items[proxy];
+                        }
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,535 @@
+package BBDGameLibrary.GameEngine;
+
+import java.util.Arrays;
+
+/**
+ * Broadphase that keeps the ends of every item's bounding box sorted along the x and y axes.  Two boxes overlap when
+ * their ranges overlap on both axes, and a range starts or stops overlapping another exactly when one of its ends passes
+ * one of the other's ends in the sorted order.  So rather than searching for pairs every frame, the arrays are re-sorted
+ * and each swap of a start past an end, or an end past a start, adds or removes a pair.
+ *
+ * Items that only move a little between frames barely change the order, and insertion sort on an almost sorted array is
+ * close to O(n), so keeping the overlaps up to date costs about O(n + number of swaps) per frame.  It suits scenes where
+ * most things are drifting along rather than teleporting.
+ *
+ * Moving an item only records its new box.  The sort runs in findPairs(), which also reports the pairs that started and
+ * stopped overlapping since the previous call, for things like triggers that only care about entering and leaving.  A
+ * pair that starts and then stops again between 2 calls isn't reported at all.  The endpoint and pair storage is all
+ * primitive arrays that are reused from frame to frame.  Not thread safe.
+ */
+public class SweepAndPrune implements Broadphase {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long EMPTY = -1L;
+
+    // Items by proxy id.  Removed ids are held back until the end of the next findPairs() so that the pairs of a
+    // removed item can't be mistaken for pairs of a new item with the same id.
+    private GameItem2d[] items;
+    private int[] proxyNextFree;
+    private int freeProxy = -1;
+    private int releasedProxy = -1;
+    private int proxyCount = 0;
+    private int itemCount = 0;
+
+    // Padded bounding box of each item as of its last update.
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+
+    // Endpoints along each axis, sorted by value with starts before ends on ties.  Each endpoint is stored as
+    // proxy * 2 for the start of a range and proxy * 2 + 1 for the end, and the position of each endpoint in the
+    // arrays is tracked so a moved item can update its values in place.
+    private float[] xValues;
+    private int[] xEndpoints;
+    private float[] yValues;
+    private int[] yEndpoints;
+    private int[] xPosition;
+    private int[] yPosition;
+    private int endpointCount = 0;
+    private boolean sorted = true;
+
+    // Open addressing hash table of pairs keyed on both proxy ids.  Pairs that stop overlapping stay in the table as
+    // inactive so their history for the current frame isn't lost, and get cleared out at the end of findPairs().
+    private long[] pairKeys;
+    private boolean[] pairActive;
+    private boolean[] pairWasActive;
+    private int[] pairTouched;
+    private GameItem2d[] pairFirstItem;
+    private GameItem2d[] pairSecondItem;
+    private int pairSlotsUsed = 0;
+    private int activePairs = 0;
+
+    // Slots changed since the last findPairs(), and the stamp that marks them.
+    private int[] touchedSlots = new int[INITIAL_CAPACITY];
+    private int touchedCount = 0;
+    private int touchStamp = 1;
+
+    // Results of the last findPairs().
+    private GameItem2d[] pairs = new GameItem2d[2 * INITIAL_CAPACITY];
+    private int pairCount = 0;
+    private GameItem2d[] begins = new GameItem2d[2 * INITIAL_CAPACITY];
+    private int beginCount = 0;
+    private GameItem2d[] ends = new GameItem2d[2 * INITIAL_CAPACITY];
+    private int endCount = 0;
+
+    /**
+     * Create an empty broadphase
+     */
+    public SweepAndPrune(){
+        this.items = new GameItem2d[INITIAL_CAPACITY];
+        this.proxyNextFree = new int[INITIAL_CAPACITY];
+        this.minX = new float[INITIAL_CAPACITY];
+        this.minY = new float[INITIAL_CAPACITY];
+        this.maxX = new float[INITIAL_CAPACITY];
+        this.maxY = new float[INITIAL_CAPACITY];
+        this.xPosition = new int[2 * INITIAL_CAPACITY];
+        this.yPosition = new int[2 * INITIAL_CAPACITY];
+        this.xValues = new float[2 * INITIAL_CAPACITY];
+        this.xEndpoints = new int[2 * INITIAL_CAPACITY];
+        this.yValues = new float[2 * INITIAL_CAPACITY];
+        this.yEndpoints = new int[2 * INITIAL_CAPACITY];
+        this.allocatePairTable(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public int size(){
+        return this.itemCount;
+    }
+
+    @Override
+    public boolean add(GameItem2d item){
+        if(!item.shapeInteracts() || item.getBroadphase() != null){
+            return false;
+        }
+        int proxy;
+        if(this.freeProxy != -1){
+            proxy = this.freeProxy;
+            this.freeProxy = this.proxyNextFree[proxy];
+        }else{
+            if(this.proxyCount == this.items.length){
+                this.growProxies();
+            }
+            proxy = this.proxyCount++;
+        }
+        this.items[proxy] = item;
+        this.itemCount++;
+        item.setBroadphase(this, proxy);
+        this.readBounds(proxy);
+
+        //the new endpoints go on the end and the next sort moves them into place, reporting the new pairs as it goes
+        this.appendEndpoint(2 * proxy, this.minX[proxy], this.minY[proxy]);
+        this.appendEndpoint(2 * proxy + 1, this.maxX[proxy], this.maxY[proxy]);
+        this.sorted = false;
+        return true;
+    }
+
+    private void appendEndpoint(int endpoint, float x, float y){
+        if(this.endpointCount == this.xValues.length){
+            int capacity = 2 * this.xValues.length;
+            this.xValues = Arrays.copyOf(this.xValues, capacity);
+            this.xEndpoints = Arrays.copyOf(this.xEndpoints, capacity);
+            this.yValues = Arrays.copyOf(this.yValues, capacity);
+            this.yEndpoints = Arrays.copyOf(this.yEndpoints, capacity);
+        }
+        this.xValues[this.endpointCount] = x;
+        this.xEndpoints[this.endpointCount] = endpoint;
+        this.xPosition[endpoint] = this.endpointCount;
+        this.yValues[this.endpointCount] = y;
+        this.yEndpoints[this.endpointCount] = endpoint;
+        this.yPosition[endpoint] = this.endpointCount;
+        this.endpointCount++;
+    }
+
+    @Override
+    public boolean remove(GameItem2d item){
+        if(item.getBroadphase() != this){
+            return false;
+        }
+        int proxy = item.getBroadphaseProxy();
+
+        //end every pair the item is in
+        for(int slot = 0; slot < this.pairKeys.length; slot++){
+            long key = this.pairKeys[slot];
+            if(key != EMPTY && this.pairActive[slot] && ((int)(key >>> 32) == proxy || (int)key == proxy)){
+                this.touch(slot);
+                this.pairActive[slot] = false;
+                this.activePairs--;
+            }
+        }
+
+        this.removeEndpoints(this.xValues, this.xEndpoints, this.xPosition, proxy);
+        this.removeEndpoints(this.yValues, this.yEndpoints, this.yPosition, proxy);
+        this.endpointCount -= 2;
+
+        item.setBroadphase(null, -1);
+        this.items[proxy] = null;
+        this.proxyNextFree[proxy] = this.releasedProxy;
+        this.releasedProxy = proxy;
+        this.itemCount--;
+        return true;
+    }
+
+    /**
+     * Close up the gaps left by both endpoints of a proxy, keeping the rest in order
+     */
+    private void removeEndpoints(float[] values, int[] endpoints, int[] positions, int proxy){
+        int write = 0;
+        for(int read = 0; read < this.endpointCount; read++){
+            int endpoint = endpoints[read];
+            if(endpoint >> 1 == proxy){
+                continue;
+            }
+            values[write] = values[read];
+            endpoints[write] = endpoint;
+            positions[endpoint] = write;
+            write++;
+        }
+    }
+
+    /**
+     * Record an item's new box.  The sorting happens on the next findPairs() or query.
+     * @param item item that moved
+     */
+    @Override
+    public void update(GameItem2d item){
+        if(item.getBroadphase() != this){
+            return;
+        }
+        int proxy = item.getBroadphaseProxy();
+        this.readBounds(proxy);
+        this.xValues[this.xPosition[2 * proxy]] = this.minX[proxy];
+        this.xValues[this.xPosition[2 * proxy + 1]] = this.maxX[proxy];
+        this.yValues[this.yPosition[2 * proxy]] = this.minY[proxy];
+        this.yValues[this.yPosition[2 * proxy + 1]] = this.maxY[proxy];
+        this.sorted = false;
+    }
+
+    private void readBounds(int proxy){
+        //moving items cover their whole path so they can be checked for impacts along the way
+        GameItem2d item = this.items[proxy];
+        this.minX[proxy] = item.sweptMinX() - Broadphase.PADDING;
+        this.minY[proxy] = item.sweptMinY() - Broadphase.PADDING;
+        this.maxX[proxy] = item.sweptMaxX() + Broadphase.PADDING;
+        this.maxY[proxy] = item.sweptMaxY() + Broadphase.PADDING;
+    }
+
+    private void growProxies(){
+        int capacity = 2 * this.items.length;
+        this.items = Arrays.copyOf(this.items, capacity);
+        this.proxyNextFree = Arrays.copyOf(this.proxyNextFree, capacity);
+        this.minX = Arrays.copyOf(this.minX, capacity);
+        this.minY = Arrays.copyOf(this.minY, capacity);
+        this.maxX = Arrays.copyOf(this.maxX, capacity);
+        this.maxY = Arrays.copyOf(this.maxY, capacity);
+        this.xPosition = Arrays.copyOf(this.xPosition, 2 * capacity);
+        this.yPosition = Arrays.copyOf(this.yPosition, 2 * capacity);
+    }
+
+    private boolean boundsOverlap(int first, int second){
+        return this.minX[first] <= this.maxX[second] && this.maxX[first] >= this.minX[second]
+                && this.minY[first] <= this.maxY[second] && this.maxY[first] >= this.minY[second];
+    }
+
+    private void sort(){
+        if(!this.sorted){
+            this.sortAxis(this.xValues, this.xEndpoints, this.xPosition);
+            this.sortAxis(this.yValues, this.yEndpoints, this.yPosition);
+            this.sorted = true;
+        }
+    }
+
+    /**
+     * Insertion sort that adds and removes pairs as endpoints pass each other.  Only the passes that change whether
+     * 2 ranges overlap matter, a start moving below an end may start an overlap, and an end moving below a start always
+     * stops one.
+     */
+    private void sortAxis(float[] values, int[] endpoints, int[] positions){
+        for(int i = 1; i < this.endpointCount; i++){
+            float value = values[i];
+            int endpoint = endpoints[i];
+            boolean isEnd = (endpoint & 1) == 1;
+            int j = i - 1;
+            while(j >= 0 && comesAfter(values[j], endpoints[j], value, isEnd)){
+                int other = endpoints[j];
+                boolean otherIsEnd = (other & 1) == 1;
+                if(!isEnd && otherIsEnd){
+                    //the final boxes decide, since the other axis may not be sorted yet
+                    if(this.boundsOverlap(endpoint >> 1, other >> 1)){
+                        this.activate(endpoint >> 1, other >> 1);
+                    }
+                }else if(isEnd && !otherIsEnd){
+                    this.deactivate(endpoint >> 1, other >> 1);
+                }
+                values[j + 1] = values[j];
+                endpoints[j + 1] = other;
+                positions[other] = j + 1;
+                j--;
+            }
+            values[j + 1] = value;
+            endpoints[j + 1] = endpoint;
+            positions[endpoint] = j + 1;
+        }
+    }
+
+    /**
+     * Should the endpoint with value a go after the one with value b.  Starts go before ends on ties so that touching
+     * boxes count as overlapping.
+     */
+    private static boolean comesAfter(float a, int endpointA, float b, boolean bIsEnd){
+        return a > b || (a == b && (endpointA & 1) == 1 && !bIsEnd);
+    }
+
+    private void allocatePairTable(int capacity){
+        this.pairKeys = new long[capacity];
+        Arrays.fill(this.pairKeys, EMPTY);
+        this.pairActive = new boolean[capacity];
+        this.pairWasActive = new boolean[capacity];
+        this.pairTouched = new int[capacity];
+        this.pairFirstItem = new GameItem2d[capacity];
+        this.pairSecondItem = new GameItem2d[capacity];
+        this.pairSlotsUsed = 0;
+    }
+
+    private static long pairKey(int first, int second){
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        return ((long)low << 32) | high;
+    }
+
+    private int slotFor(long key){
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int)(hash ^ (hash >>> 32)) & (this.pairKeys.length - 1);
+    }
+
+    /**
+     * Find the slot holding a pair, or the empty slot it would go in
+     */
+    private int findSlot(long key){
+        int mask = this.pairKeys.length - 1;
+        int slot = this.slotFor(key);
+        while(this.pairKeys[slot] != EMPTY && this.pairKeys[slot] != key){
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void touch(int slot){
+        if(this.pairTouched[slot] == this.touchStamp){
+            return;
+        }
+        this.pairTouched[slot] = this.touchStamp;
+        this.pairWasActive[slot] = this.pairActive[slot];
+        if(this.touchedCount == this.touchedSlots.length){
+            this.touchedSlots = Arrays.copyOf(this.touchedSlots, 2 * this.touchedSlots.length);
+        }
+        this.touchedSlots[this.touchedCount++] = slot;
+    }
+
+    private void activate(int first, int second){
+        long key = pairKey(first, second);
+        int slot = this.findSlot(key);
+        if(this.pairKeys[slot] == EMPTY){
+            //keep the table at most half full
+            if(2 * (this.pairSlotsUsed + 1) > this.pairKeys.length){
+                this.rebuildPairTable(2 * this.pairKeys.length);
+                slot = this.findSlot(key);
+            }
+            this.pairKeys[slot] = key;
+            this.pairActive[slot] = false;
+            this.pairTouched[slot] = 0;
+            this.pairSlotsUsed++;
+        }
+        if(!this.pairActive[slot]){
+            this.touch(slot);
+            this.pairActive[slot] = true;
+            this.pairFirstItem[slot] = this.items[(int)(key >>> 32)];
+            this.pairSecondItem[slot] = this.items[(int)key];
+            this.activePairs++;
+        }
+    }
+
+    private void deactivate(int first, int second){
+        int slot = this.findSlot(pairKey(first, second));
+        if(this.pairKeys[slot] != EMPTY && this.pairActive[slot]){
+            this.touch(slot);
+            this.pairActive[slot] = false;
+            this.activePairs--;
+        }
+    }
+
+    /**
+     * Move the pairs worth keeping into a new table, which are the active ones and any changed since the last
+     * findPairs().  Everything else is dropped.
+     */
+    private void rebuildPairTable(int capacity){
+        long[] oldKeys = this.pairKeys;
+        boolean[] oldActive = this.pairActive;
+        boolean[] oldWasActive = this.pairWasActive;
+        int[] oldTouched = this.pairTouched;
+        GameItem2d[] oldFirst = this.pairFirstItem;
+        GameItem2d[] oldSecond = this.pairSecondItem;
+        this.allocatePairTable(capacity);
+        this.touchedCount = 0;
+
+        for(int slot = 0; slot < oldKeys.length; slot++){
+            boolean touched = oldTouched[slot] == this.touchStamp;
+            if(oldKeys[slot] == EMPTY || !(oldActive[slot] || touched)){
+                continue;
+            }
+            int newSlot = this.findSlot(oldKeys[slot]);
+            this.pairKeys[newSlot] = oldKeys[slot];
+            this.pairActive[newSlot] = oldActive[slot];
+            this.pairWasActive[newSlot] = oldWasActive[slot];
+            this.pairFirstItem[newSlot] = oldFirst[slot];
+            this.pairSecondItem[newSlot] = oldSecond[slot];
+            this.pairSlotsUsed++;
+            if(touched){
+                this.pairTouched[newSlot] = this.touchStamp;
+                if(this.touchedCount == this.touchedSlots.length){
+                    this.touchedSlots = Arrays.copyOf(this.touchedSlots, 2 * this.touchedSlots.length);
+                }
+                this.touchedSlots[this.touchedCount++] = newSlot;
+            }
+        }
+    }
+
+    /**
+     * Bring the sort up to date, report the overlapping pairs, and work out which pairs started or stopped overlapping
+     * since the last call.  Read those with getBeginCount() and getEndCount() and their getters.
+     * @return number of overlapping pairs
+     */
+    @Override
+    public int findPairs(){
+        this.sort();
+
+        this.beginCount = 0;
+        this.endCount = 0;
+        for(int i = 0; i < this.touchedCount; i++){
+            int slot = this.touchedSlots[i];
+            boolean active = this.pairActive[slot];
+            if(active && !this.pairWasActive[slot]){
+                this.begins = addPair(this.begins, this.beginCount++, this.pairFirstItem[slot], this.pairSecondItem[slot]);
+            }else if(!active && this.pairWasActive[slot]){
+                this.ends = addPair(this.ends, this.endCount++, this.pairFirstItem[slot], this.pairSecondItem[slot]);
+            }
+        }
+        this.touchedCount = 0;
+        this.touchStamp++;
+
+        //ids removed since the last call can be handed out again now that their pairs have been reported
+        while(this.releasedProxy != -1){
+            int proxy = this.releasedProxy;
+            this.releasedProxy = this.proxyNextFree[proxy];
+            this.proxyNextFree[proxy] = this.freeProxy;
+            this.freeProxy = proxy;
+        }
+
+        this.pairCount = 0;
+        for(int slot = 0; slot < this.pairKeys.length; slot++){
+            if(this.pairKeys[slot] != EMPTY && this.pairActive[slot]){
+                this.pairs = addPair(this.pairs, this.pairCount++, this.pairFirstItem[slot], this.pairSecondItem[slot]);
+            }
+        }
+
+        //clear out inactive pairs once they make up most of the table
+        if(this.pairSlotsUsed > 2 * this.activePairs + INITIAL_CAPACITY){
+            this.rebuildPairTable(this.pairKeys.length);
+        }
+        return this.pairCount;
+    }
+
+    private static GameItem2d[] addPair(GameItem2d[] pairs, int index, GameItem2d first, GameItem2d second){
+        if(2 * index + 1 >= pairs.length){
+            pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+        }
+        pairs[2 * index] = first;
+        pairs[2 * index + 1] = second;
+        return pairs;
+    }
+
+    @Override
+    public int getPairCount(){
+        return this.pairCount;
+    }
+
+    @Override
+    public GameItem2d getPairFirst(int index){
+        return this.pairs[2 * index];
+    }
+
+    @Override
+    public GameItem2d getPairSecond(int index){
+        return this.pairs[2 * index + 1];
+    }
+
+    /**
+     * Number of pairs that started overlapping between the last 2 calls to findPairs()
+     * @return number of new pairs
+     */
+    public int getBeginCount(){
+        return this.beginCount;
+    }
+
+    public GameItem2d getBeginFirst(int index){
+        return this.begins[2 * index];
+    }
+
+    public GameItem2d getBeginSecond(int index){
+        return this.begins[2 * index + 1];
+    }
+
+    /**
+     * Number of pairs that stopped overlapping between the last 2 calls to findPairs(), including pairs with an item
+     * that was removed
+     * @return number of ended pairs
+     */
+    public int getEndCount(){
+        return this.endCount;
+    }
+
+    public GameItem2d getEndFirst(int index){
+        return this.ends[2 * index];
+    }
+
+    public GameItem2d getEndSecond(int index){
+        return this.ends[2 * index + 1];
+    }
+
+    /**
+     * Find every item whose bounding box overlaps a region.  Walks the x axis up to the end of the region, so regions
+     * toward the low end of the world are cheaper.
+     */
+    @Override
+    public int query(float minX, float minY, float maxX, float maxY, GameItem2d[] results){
+        return this.query(minX, minY, maxX, maxY, -1, results);
+    }
+
+    @Override
+    public int findNeighbours(GameItem2d item, GameItem2d[] results){
+        if(item.getBroadphase() != this){
+            return 0;
+        }
+        int proxy = item.getBroadphaseProxy();
+        return this.query(this.minX[proxy], this.minY[proxy], this.maxX[proxy], this.maxY[proxy], proxy, results);
+    }
+
+    private int query(float minX, float minY, float maxX, float maxY, int skip, GameItem2d[] results){
+        this.sort();
+        int found = 0;
+        for(int i = 0; i < this.endpointCount && this.xValues[i] <= maxX; i++){
+            int endpoint = this.xEndpoints[i];
+            int proxy = endpoint >> 1;
+            if((endpoint & 1) == 1 || proxy == skip){
+                continue;
+            }
+            if(this.maxX[proxy] >= minX && this.minY[proxy] <= maxY && this.maxY[proxy] >= minY){
+                if(found < results.length){
+                    results[found] = this.items[proxy];
+                }
+                found++;
+            }
+        }
+        return found;
+    }
+}
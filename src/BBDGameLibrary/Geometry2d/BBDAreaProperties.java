@@ -0,0 +1,149 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.List;
+
+/**
+ * The area related properties of a closed polygon: signed area, winding direction and centroid.  All three come out of
+ * the same pass of the shoelace formula, so they are calculated together rather than separately.  Objects of this class
+ * are immutable snapshots, BBDPolygon caches one until the polygon is modified.
+ */
+public class BBDAreaProperties {
+
+    /**
+     * Signed area, positive for counterclockwise polygons and negative for clockwise ones.
+     */
+    private final float signedArea;
+
+    /**
+     * Area weighted centroid of the polygon
+     */
+    private final float centroidX;
+    private final float centroidY;
+
+    private BBDAreaProperties(float signedArea, float centroidX, float centroidY){
+        this.signedArea = signedArea;
+        this.centroidX = centroidX;
+        this.centroidY = centroidY;
+    }
+
+    /**
+     * Calculate the properties of a polygon defined by a list of points.
+     * @param points vertices of the polygon, in order
+     * @return area properties of the polygon
+     */
+    public static BBDAreaProperties fromPoints(List<BBDPoint> points){
+        int count = points.size();
+        float[] coordinates = new float[2 * count];
+        for(int i = 0; i < count; i++){
+            coordinates[2 * i] = points.get(i).getXLoc();
+            coordinates[2 * i + 1] = points.get(i).getYLoc();
+        }
+        return fromCoordinates(coordinates, count);
+    }
+
+    /**
+     * Calculate the properties of a polygon stored as packed coordinates.
+     * @param coordinates packed coordinates in the form x0, y0, x1, y1...
+     * @param vertexCount number of vertices to read from the array
+     * @return area properties of the polygon
+     */
+    public static BBDAreaProperties fromCoordinates(float[] coordinates, int vertexCount){
+        if(vertexCount == 0){
+            return new BBDAreaProperties(0, 0, 0);
+        }
+
+        //work relative to the first vertex to keep the products small for polygons far from the origin
+        double originX = coordinates[0];
+        double originY = coordinates[1];
+
+        double doubledArea = 0;
+        double centroidXSum = 0;
+        double centroidYSum = 0;
+        double averageX = 0;
+        double averageY = 0;
+
+        for(int i = 0; i < vertexCount; i++){
+            int next = (i + 1) % vertexCount;
+            double x0 = coordinates[2 * i] - originX;
+            double y0 = coordinates[2 * i + 1] - originY;
+            double x1 = coordinates[2 * next] - originX;
+            double y1 = coordinates[2 * next + 1] - originY;
+
+            double cross = x0 * y1 - x1 * y0;
+            doubledArea += cross;
+            centroidXSum += (x0 + x1) * cross;
+            centroidYSum += (y0 + y1) * cross;
+            averageX += x0;
+            averageY += y0;
+        }
+
+        double centroidX;
+        double centroidY;
+        if(doubledArea != 0){
+            centroidX = centroidXSum / (3 * doubledArea);
+            centroidY = centroidYSum / (3 * doubledArea);
+        }else{
+            //no area to weight by, so fall back on the average of the vertices
+            centroidX = averageX / vertexCount;
+            centroidY = averageY / vertexCount;
+        }
+
+        return new BBDAreaProperties((float)(doubledArea / 2), (float)(centroidX + originX), (float)(centroidY + originY));
+    }
+
+    /**
+     * The same polygon with the vertices in the opposite order
+     * @return properties with the sign of the area flipped
+     */
+    public BBDAreaProperties reversed(){
+        return new BBDAreaProperties(-this.signedArea, this.centroidX, this.centroidY);
+    }
+
+    /**
+     * Signed area of the polygon.  Positive is counterclockwise, negative is clockwise.
+     * @return signed area
+     */
+    public float getSignedArea(){
+        return this.signedArea;
+    }
+
+    /**
+     * Unsigned area of the polygon
+     * @return area
+     */
+    public float getArea(){
+        return Math.abs(this.signedArea);
+    }
+
+    /**
+     * Which way the vertices wind.  A polygon with no area is reported as counterclockwise.
+     * @return an integer from BBDGeometryHelpers designating in what direction the vertices are.
+     */
+    public int getDirectionality(){
+        if(this.signedArea < 0){
+            return BBDGeometryHelpers.CLOCKWISE_POLYGON;
+        }
+        return BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON;
+    }
+
+    public float getCentroidX(){
+        return this.centroidX;
+    }
+
+    public float getCentroidY(){
+        return this.centroidY;
+    }
+
+    /**
+     * Area weighted centroid.  Unlike BBDPolygon.center() this is the center of mass rather than the center of the
+     * bounding box.
+     * @return a new point at the centroid
+     */
+    public BBDPoint getCentroid(){
+        return new BBDPoint(this.centroidX, this.centroidY);
+    }
+
+    public String toString(){
+        return "BBDAreaProperties with signed area "+this.signedArea+" and centroid ("+this.centroidX+","+this.centroidY+")";
+    }
+}
@@ -0,0 +1,294 @@
+package BBDGameLibrary.Geometry2d;
+
+/**
+ * Narrow phase collision between convex polygons using the separating axis theorem.  For 2 convex shapes, if there is
+ * any axis they don't overlap on, one of their edge normals is such an axis.  So each polygon's edge normals are tried
+ * against the other's vertices, and if every one of them overlaps the axis with the least overlap gives the collision
+ * normal and depth.  The contact points come from clipping the edge of the other polygon that faces that axis against
+ * the sides of the reference edge, which gives 1 contact for a corner hit and 2 for edges lying against each other.
+ *
+ * timeOfImpact() runs the same axes over a time step instead, finding when the projections of 2 moving shapes start
+ * overlapping on each axis.  The shapes first touch once they overlap on every axis at the same time, so a shape that
+ * moves further than its own width in a step still can't pass through another without being caught.  Concave polygons
+ * are split into convex pieces for this, and the earliest time any 2 pieces touch is when the shapes do.
+ *
+ * Edge normals, coordinates and convex pieces come from the caches on BBDPolygon, so testing shapes that haven't changed
+ * since the last test doesn't allocate anything.  collide() doesn't support concave polygons, it will give a result for
+ * their convex hull at best.
+ */
+public class BBDCollision {
+
+    private static final float DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA;
+
+    /**
+     * Test 2 convex polygons for collision and fill in the contact manifold.  Shapes that are just touching collide with
+     * a depth of 0.
+     * @param first first polygon
+     * @param second second polygon
+     * @param manifold receives the result, with the normal pointing from first toward second
+     * @return do the polygons collide
+     */
+    public static boolean collide(BBDPolygon first, BBDPolygon second, BBDContactManifold manifold){
+        manifold.clear();
+        if(first.getPoints().size() < 3 || second.getPoints().size() < 3 || !first.boundsOverlap(second)){
+            return false;
+        }
+
+        float[] firstCoordinates = first.getPackedCoordinates();
+        float[] firstNormals = first.getEdgeNormals();
+        float[] secondCoordinates = second.getPackedCoordinates();
+        float[] secondNormals = second.getEdgeNormals();
+
+        int firstEdge = maxSeparationEdge(firstCoordinates, firstNormals, secondCoordinates);
+        float firstSeparation = separation(firstCoordinates, firstNormals, firstEdge, secondCoordinates);
+        if(firstSeparation > DELTA){
+            return false;
+        }
+        int secondEdge = maxSeparationEdge(secondCoordinates, secondNormals, firstCoordinates);
+        float secondSeparation = separation(secondCoordinates, secondNormals, secondEdge, firstCoordinates);
+        if(secondSeparation > DELTA){
+            return false;
+        }
+
+        //prefer the first polygon as the reference unless the second gives a clearly better axis, which keeps the
+        //result from flipping back and forth between nearly equal axes
+        if(secondSeparation > firstSeparation + DELTA){
+            return buildManifold(secondCoordinates, secondNormals, secondEdge, firstCoordinates, firstNormals, true, manifold);
+        }
+        return buildManifold(firstCoordinates, firstNormals, firstEdge, secondCoordinates, secondNormals, false, manifold);
+    }
+
+    /**
+     * Find when during a time step 2 moving polygons first touch.  Each polygon moves in a straight line from where it
+     * is now by the given amount over the step, without rotating.  Either one can be standing still.  Concave polygons
+     * are tested piece by piece, see BBDPolygon.isConvex(), which costs a test for each pair of pieces whose boxes come
+     * together during the step.
+     * @param first first polygon, at the start of the step
+     * @param firstX how far the first polygon moves in x over the step
+     * @param firstY how far the first polygon moves in y over the step
+     * @param second second polygon, at the start of the step
+     * @param secondX how far the second polygon moves in x over the step
+     * @param secondY how far the second polygon moves in y over the step
+     * @return fraction of the step from 0 to 1 at which they first touch, 0 if they already overlap, or -1 if they don't
+     * touch during the step
+     */
+    public static float timeOfImpact(BBDPolygon first, float firstX, float firstY,
+                                     BBDPolygon second, float secondX, float secondY){
+        if(first.getPoints().size() < 3 || second.getPoints().size() < 3){
+            return -1;
+        }
+        BBDPolygon[] firstPieces = first.getConvexPieces();
+        BBDPolygon[] secondPieces = second.getConvexPieces();
+        if(firstPieces.length == 1 && secondPieces.length == 1){
+            return convexTimeOfImpact(first, firstX, firstY, second, secondX, secondY);
+        }
+
+        //in the first polygon's frame only the second one moves, so its pieces' boxes sweep out toward the first's
+        float motionX = secondX - firstX;
+        float motionY = secondY - firstY;
+        float earliest = -1;
+        for(BBDPolygon secondPiece : secondPieces){
+            float sweptMinX = secondPiece.minX() + Math.min(0, motionX) - DELTA;
+            float sweptMaxX = secondPiece.maxX() + Math.max(0, motionX) + DELTA;
+            float sweptMinY = secondPiece.minY() + Math.min(0, motionY) - DELTA;
+            float sweptMaxY = secondPiece.maxY() + Math.max(0, motionY) + DELTA;
+            for(BBDPolygon firstPiece : firstPieces){
+                if(firstPiece.maxX() < sweptMinX || firstPiece.minX() > sweptMaxX
+                        || firstPiece.maxY() < sweptMinY || firstPiece.minY() > sweptMaxY){
+                    continue;
+                }
+                float time = convexTimeOfImpact(firstPiece, firstX, firstY, secondPiece, secondX, secondY);
+                if(time >= 0 && (earliest < 0 || time < earliest)){
+                    if(time == 0){
+                        return 0;
+                    }
+                    earliest = time;
+                }
+            }
+        }
+        return earliest;
+    }
+
+    private static float convexTimeOfImpact(BBDPolygon first, float firstX, float firstY,
+                                            BBDPolygon second, float secondX, float secondY){
+        float[] firstCoordinates = first.getPackedCoordinates();
+        float[] secondCoordinates = second.getPackedCoordinates();
+        float[] firstNormals = first.getEdgeNormals();
+        float[] secondNormals = second.getEdgeNormals();
+
+        //work in the first polygon's frame, where only the second one moves
+        float motionX = secondX - firstX;
+        float motionY = secondY - firstY;
+        float enter = 0;
+        float exit = 1;
+        for(int side = 0; side < 2; side++){
+            float[] normals = side == 0 ? firstNormals : secondNormals;
+            for(int edge = 0; edge < normals.length / 2; edge++){
+                float normalX = normals[2 * edge];
+                float normalY = normals[2 * edge + 1];
+                if(normalX == 0 && normalY == 0){
+                    continue;
+                }
+                float firstMin = Float.MAX_VALUE, firstMax = -Float.MAX_VALUE;
+                for(int i = 0; i < firstCoordinates.length; i += 2){
+                    float projection = normalX * firstCoordinates[i] + normalY * firstCoordinates[i + 1];
+                    firstMin = Math.min(firstMin, projection);
+                    firstMax = Math.max(firstMax, projection);
+                }
+                float secondMin = Float.MAX_VALUE, secondMax = -Float.MAX_VALUE;
+                for(int i = 0; i < secondCoordinates.length; i += 2){
+                    float projection = normalX * secondCoordinates[i] + normalY * secondCoordinates[i + 1];
+                    secondMin = Math.min(secondMin, projection);
+                    secondMax = Math.max(secondMax, projection);
+                }
+
+                //the second projection slides along the axis at this speed, find when it overlaps the first.  The
+                //start is when they actually meet rather than when they come within tolerance, so that moving by the
+                //time of impact leaves the shapes touching rather than right on the edge of the tolerance.
+                float speed = normalX * motionX + normalY * motionY;
+                float start;
+                float end;
+                if(speed > 0){
+                    start = (firstMin - secondMax) / speed;
+                    end = (firstMax + DELTA - secondMin) / speed;
+                }else if(speed < 0){
+                    start = (firstMax - secondMin) / speed;
+                    end = (firstMin - DELTA - secondMax) / speed;
+                }else{
+                    if(secondMax < firstMin - DELTA || secondMin > firstMax + DELTA){
+                        return -1;
+                    }
+                    continue;
+                }
+                enter = Math.max(enter, start);
+                exit = Math.min(exit, end);
+                if(enter > exit){
+                    return -1;
+                }
+            }
+        }
+        return enter;
+    }
+
+    /**
+     * Find the edge of the reference polygon that the other polygon's vertices are furthest outside of.
+     */
+    private static int maxSeparationEdge(float[] coordinates, float[] normals, float[] otherCoordinates){
+        int bestEdge = 0;
+        float bestSeparation = -Float.MAX_VALUE;
+        int count = coordinates.length / 2;
+        for(int edge = 0; edge < count; edge++){
+            if(normals[2 * edge] == 0 && normals[2 * edge + 1] == 0){
+                continue;
+            }
+            float separation = separation(coordinates, normals, edge, otherCoordinates);
+            if(separation > bestSeparation){
+                bestSeparation = separation;
+                bestEdge = edge;
+            }
+        }
+        return bestEdge;
+    }
+
+    /**
+     * Distance of the other polygon's deepest vertex outside of an edge.  Negative if every vertex is inside.
+     */
+    private static float separation(float[] coordinates, float[] normals, int edge, float[] otherCoordinates){
+        float normalX = normals[2 * edge];
+        float normalY = normals[2 * edge + 1];
+        float x = coordinates[2 * edge];
+        float y = coordinates[2 * edge + 1];
+        float smallest = Float.MAX_VALUE;
+        for(int i = 0; i < otherCoordinates.length; i += 2){
+            float distance = normalX * (otherCoordinates[i] - x) + normalY * (otherCoordinates[i + 1] - y);
+            if(distance < smallest){
+                smallest = distance;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Clip the incident edge against the reference edge and record the contacts.
+     * @param flip true if the reference polygon is the second polygon, so the normal needs to be reversed
+     */
+    private static boolean buildManifold(float[] reference, float[] referenceNormals, int referenceEdge,
+                                         float[] incident, float[] incidentNormals, boolean flip, BBDContactManifold manifold){
+        float normalX = referenceNormals[2 * referenceEdge];
+        float normalY = referenceNormals[2 * referenceEdge + 1];
+
+        //the incident edge is the one facing most directly against the reference normal
+        int incidentCount = incident.length / 2;
+        int incidentEdge = 0;
+        float smallestDot = Float.MAX_VALUE;
+        for(int edge = 0; edge < incidentCount; edge++){
+            float dot = normalX * incidentNormals[2 * edge] + normalY * incidentNormals[2 * edge + 1];
+            if(dot < smallestDot){
+                smallestDot = dot;
+                incidentEdge = edge;
+            }
+        }
+
+        int referenceNext = (referenceEdge + 1) % (reference.length / 2);
+        float v1x = reference[2 * referenceEdge], v1y = reference[2 * referenceEdge + 1];
+        float v2x = reference[2 * referenceNext], v2y = reference[2 * referenceNext + 1];
+        int incidentNext = (incidentEdge + 1) % incidentCount;
+        float p1x = incident[2 * incidentEdge], p1y = incident[2 * incidentEdge + 1];
+        float p2x = incident[2 * incidentNext], p2y = incident[2 * incidentNext + 1];
+
+        //tangent along the reference edge, which is the normal rotated back a quarter turn
+        float tangentX = v2x - v1x;
+        float tangentY = v2y - v1y;
+        float lower = tangentX * v1x + tangentY * v1y;
+        float upper = tangentX * v2x + tangentY * v2y;
+
+        //clip against the side plane at the start of the reference edge
+        float d1 = lower - (tangentX * p1x + tangentY * p1y);
+        float d2 = lower - (tangentX * p2x + tangentY * p2y);
+        if(d1 > 0 && d2 > 0){
+            return false;
+        }
+        if(d1 > 0){
+            float t = d1 / (d1 - d2);
+            p1x += (p2x - p1x) * t;
+            p1y += (p2y - p1y) * t;
+        }else if(d2 > 0){
+            float t = d2 / (d2 - d1);
+            p2x += (p1x - p2x) * t;
+            p2y += (p1y - p2y) * t;
+        }
+
+        //and the side plane at the end
+        d1 = (tangentX * p1x + tangentY * p1y) - upper;
+        d2 = (tangentX * p2x + tangentY * p2y) - upper;
+        if(d1 > 0 && d2 > 0){
+            return false;
+        }
+        if(d1 > 0){
+            float t = d1 / (d1 - d2);
+            p1x += (p2x - p1x) * t;
+            p1y += (p2y - p1y) * t;
+        }else if(d2 > 0){
+            float t = d2 / (d2 - d1);
+            p2x += (p1x - p2x) * t;
+            p2y += (p1y - p2y) * t;
+        }
+
+        manifold.setNormal(flip ? -normalX : normalX, flip ? -normalY : normalY);
+        float separation1 = normalX * (p1x - v1x) + normalY * (p1y - v1y);
+        if(separation1 <= DELTA){
+            manifold.addContact(p1x, p1y, Math.max(0, -separation1));
+        }
+        float separation2 = normalX * (p2x - v1x) + normalY * (p2y - v1y);
+        if(separation2 <= DELTA && !(manifold.getContactCount() == 1
+                && Math.abs(p2x - p1x) < DELTA && Math.abs(p2y - p1y) < DELTA)){
+            manifold.addContact(p2x, p2y, Math.max(0, -separation2));
+        }
+
+        if(manifold.getContactCount() == 0){
+            manifold.clear();
+            return false;
+        }
+        return true;
+    }
+}
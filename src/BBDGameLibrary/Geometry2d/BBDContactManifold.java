@@ -0,0 +1,92 @@
+package BBDGameLibrary.Geometry2d;
+
+/**
+ * The result of a collision test between 2 shapes: which way to push them apart, how far, and where they touch.  The
+ * normal is a unit vector pointing from the first shape toward the second, so moving the second shape depth units along
+ * the normal (or the first shape the same distance against it) separates them.
+ *
+ * Objects of this class are meant to be reused across many collision tests, each test overwrites the previous result.
+ */
+public class BBDContactManifold {
+
+    /**
+     * Most contact points a pair of convex polygons can have
+     */
+    public static final int MAX_CONTACTS = 2;
+
+    private float normalX;
+    private float normalY;
+    private float depth;
+    private int contactCount;
+    private final float[] contactX = new float[MAX_CONTACTS];
+    private final float[] contactY = new float[MAX_CONTACTS];
+    private final float[] contactDepth = new float[MAX_CONTACTS];
+
+    /**
+     * Reset to an empty result
+     */
+    public void clear(){
+        this.normalX = 0;
+        this.normalY = 0;
+        this.depth = 0;
+        this.contactCount = 0;
+    }
+
+    void setNormal(float normalX, float normalY){
+        this.normalX = normalX;
+        this.normalY = normalY;
+    }
+
+    void addContact(float x, float y, float contactDepth){
+        this.contactX[this.contactCount] = x;
+        this.contactY[this.contactCount] = y;
+        this.contactDepth[this.contactCount] = contactDepth;
+        this.contactCount++;
+        this.depth = Math.max(this.depth, contactDepth);
+    }
+
+    public float getNormalX(){
+        return this.normalX;
+    }
+
+    public float getNormalY(){
+        return this.normalY;
+    }
+
+    /**
+     * How far the shapes overlap along the normal.  0 for shapes that are just touching.
+     * @return penetration depth
+     */
+    public float getDepth(){
+        return this.depth;
+    }
+
+    /**
+     * Number of contact points, 0 if the shapes aren't touching
+     * @return number of contacts
+     */
+    public int getContactCount(){
+        return this.contactCount;
+    }
+
+    public float getContactX(int index){
+        return this.contactX[index];
+    }
+
+    public float getContactY(int index){
+        return this.contactY[index];
+    }
+
+    /**
+     * How far this particular contact point is past the other shape's surface
+     * @param index contact index
+     * @return penetration of this contact
+     */
+    public float getContactDepth(int index){
+        return this.contactDepth[index];
+    }
+
+    public String toString(){
+        return "BBDContactManifold with "+this.contactCount+" contacts, normal ("+this.normalX+","+this.normalY+") and depth "+this.depth;
+    }
+}
@@ -0,0 +1,195 @@
+package BBDGameLibrary.Geometry2d;
+
+/**
+ * Bulk operations on packed coordinates in the form x0, y0, x1, y1..., for moving and measuring lots of vertices at
+ * once such as whole formations of units or large meshes that are rebuilt every frame.
+ *
+ * When BBDVectorKernels from the optional src-vector source root is on the classpath and the jdk.incubator.vector
+ * module is available at runtime (run with --add-modules jdk.incubator.vector) the work is done with SIMD instructions,
+ * otherwise it falls back to the plain loops in this class.  Both
+ * give exactly the same results, since the vector code does the same float operations in the same order, just several
+ * vertices at a time.
+ *
+ * Every method takes the number of vertices to work on, so arrays can be reused and only partly filled.
+ */
+public class BBDCoordinateKernels {
+
+    private static final BBDCoordinateKernels IMPLEMENTATION = load();
+
+    BBDCoordinateKernels(){
+    }
+
+    private static BBDCoordinateKernels load(){
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()){
+            try{
+                return (BBDCoordinateKernels)Class.forName("BBDGameLibrary.Geometry2d.BBDVectorKernels").getDeclaredConstructor().newInstance();
+            }catch(ReflectiveOperationException | LinkageError e){
+                //src-vector left out of the build or not supported on this machine, so use the plain loops
+            }
+        }
+        return new BBDCoordinateKernels();
+    }
+
+    /**
+     * Are the kernels using SIMD instructions through the vector API
+     * @return true if vectorized, false if using the plain loops
+     */
+    public static boolean isVectorized(){
+        return !IMPLEMENTATION.getClass().equals(BBDCoordinateKernels.class);
+    }
+
+    /**
+     * Apply an affine transform to every vertex, so that x becomes m00 * x + m01 * y + tx and y becomes
+     * m10 * x + m11 * y + ty.  The source and destination may be the same array.
+     * @param source packed coordinates to transform
+     * @param destination array to write the transformed coordinates to
+     * @param count number of vertices
+     */
+    public static void affineTransform(float[] source, float[] destination, int count, float m00, float m01, float m10,
+                                       float m11, float tx, float ty){
+        IMPLEMENTATION.affineTransform(source, destination, 0, count, m00, m01, m10, m11, tx, ty);
+    }
+
+    /**
+     * Move every vertex by the same amount, in place
+     * @param coordinates packed coordinates
+     * @param count number of vertices
+     * @param dx distance to translate on the x-axis
+     * @param dy distance to translate on the y-axis
+     */
+    public static void translate(float[] coordinates, int count, float dx, float dy){
+        IMPLEMENTATION.translate(coordinates, 0, count, dx, dy);
+    }
+
+    /**
+     * Scale every vertex from a point, in place
+     * @param coordinates packed coordinates
+     * @param count number of vertices
+     * @param centerX x coordinate of the point to scale from
+     * @param centerY y coordinate of the point to scale from
+     * @param scaleFactor factor to scale by
+     */
+    public static void scaleFromPoint(float[] coordinates, int count, float centerX, float centerY, float scaleFactor){
+        IMPLEMENTATION.affineTransform(coordinates, coordinates, 0, count, scaleFactor, 0, 0, scaleFactor,
+                centerX - scaleFactor * centerX, centerY - scaleFactor * centerY);
+    }
+
+    /**
+     * Rotate every vertex around a point, in place.  Positive radians are counterclockwise.
+     * @param coordinates packed coordinates
+     * @param count number of vertices
+     * @param centerX x coordinate of the center of rotation
+     * @param centerY y coordinate of the center of rotation
+     * @param radians how much to rotate
+     */
+    public static void rotateAroundPoint(float[] coordinates, int count, float centerX, float centerY, float radians){
+        float cos = (float)Math.cos(radians);
+        float sin = (float)Math.sin(radians);
+        IMPLEMENTATION.affineTransform(coordinates, coordinates, 0, count, cos, -sin, sin, cos,
+                centerX - cos * centerX + sin * centerY, centerY - sin * centerX - cos * centerY);
+    }
+
+    /**
+     * Find the axis aligned bounding box of the vertices
+     * @param coordinates packed coordinates
+     * @param count number of vertices
+     * @param output receives minX, minY, maxX, maxY in that order.  An empty list gives infinite bounds with the minimums
+     *               above the maximums.
+     */
+    public static void bounds(float[] coordinates, int count, float[] output){
+        IMPLEMENTATION.bounds(coordinates, 0, count, output);
+    }
+
+    /**
+     * Check which vertices are inside an axis aligned box, edges included
+     * @param coordinates packed coordinates
+     * @param count number of vertices
+     * @param inside receives whether each vertex is in the box
+     * @return how many vertices are in the box
+     */
+    public static int pointsInBox(float[] coordinates, int count, float minX, float minY, float maxX, float maxY, boolean[] inside){
+        return IMPLEMENTATION.pointsInBox(coordinates, 0, count, minX, minY, maxX, maxY, inside);
+    }
+
+    /**
+     * Work out texture coordinates that stretch a texture over a box, the way Mesh does.  0,0 is the upper left corner
+     * of the texture and 1,1 the lower right, so u runs from minX to minX + width and v from maxY down to maxY - height.
+     * @param coordinates packed coordinates
+     * @param count number of vertices
+     * @param output receives u0, v0, u1, v1...
+     */
+    public static void textureCoordinates(float[] coordinates, int count, float minX, float maxY, float width, float height, float[] output){
+        IMPLEMENTATION.textureCoordinates(coordinates, 0, count, minX, maxY, width, height, output);
+    }
+
+    /**
+     * Spread the vertices out into 3d positions with z = 0, the layout Mesh uses
+     * @param coordinates packed coordinates
+     * @param count number of vertices
+     * @param output receives x0, y0, 0, x1, y1, 0...
+     */
+    public static void meshPositions(float[] coordinates, int count, float[] output){
+        for(int i = 0; i < count; i++){
+            output[3 * i] = coordinates[2 * i];
+            output[3 * i + 1] = coordinates[2 * i + 1];
+            output[3 * i + 2] = 0;
+        }
+    }
+
+    // The plain loops, each working on the vertices from start up to end.  BBDVectorKernels overrides these and uses
+    // them for whatever is left over after the last full vector.
+
+    void affineTransform(float[] source, float[] destination, int start, int end, float m00, float m01, float m10,
+                         float m11, float tx, float ty){
+        for(int i = start; i < end; i++){
+            float x = source[2 * i];
+            float y = source[2 * i + 1];
+            destination[2 * i] = m00 * x + m01 * y + tx;
+            destination[2 * i + 1] = m11 * y + m10 * x + ty;
+        }
+    }
+
+    void translate(float[] coordinates, int start, int end, float dx, float dy){
+        for(int i = start; i < end; i++){
+            coordinates[2 * i] += dx;
+            coordinates[2 * i + 1] += dy;
+        }
+    }
+
+    void bounds(float[] coordinates, int start, int end, float[] output){
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for(int i = start; i < end; i++){
+            minX = Math.min(minX, coordinates[2 * i]);
+            minY = Math.min(minY, coordinates[2 * i + 1]);
+            maxX = Math.max(maxX, coordinates[2 * i]);
+            maxY = Math.max(maxY, coordinates[2 * i + 1]);
+        }
+        output[0] = minX;
+        output[1] = minY;
+        output[2] = maxX;
+        output[3] = maxY;
+    }
+
+    int pointsInBox(float[] coordinates, int start, int end, float minX, float minY, float maxX, float maxY, boolean[] inside){
+        int insideCount = 0;
+        for(int i = start; i < end; i++){
+            float x = coordinates[2 * i];
+            float y = coordinates[2 * i + 1];
+            inside[i] = x >= minX && x <= maxX && y >= minY && y <= maxY;
+            if(inside[i]){
+                insideCount++;
+            }
+        }
+        return insideCount;
+    }
+
+    void textureCoordinates(float[] coordinates, int start, int end, float minX, float maxY, float width, float height, float[] output){
+        for(int i = start; i < end; i++){
+            output[2 * i] = (coordinates[2 * i] - minX) / width;
+            output[2 * i + 1] = (maxY - coordinates[2 * i + 1]) / height;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package BBDGameLibrary.Geometry2d;
+
+/**
+ * Buckets the edges of a polygon into horizontal bands so that point queries only look at the edges near the point.
+ * Every edge is listed in each band its y range touches, so an edge that a horizontal line through a point could cross
+ * is always in that point's band.  That is all the winding number test and the on perimeter test need, which brings
+ * them from O(n) per query down to the number of edges in one band.
+ *
+ * The index is read only once built, and every field is final, so it can be shared between threads as long as the
+ * coordinates it was built from aren't modified.
+ */
+class BBDEdgeIndex {
+
+    private static final float DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA;
+
+    private final float[] coordinates;
+    private final int vertexCount;
+
+    private final float minX;
+    private final float maxX;
+    private final float minY;
+    private final float maxY;
+
+    private final int bandCount;
+    private final float bandHeight;
+
+    // Band contents in compressed form, the edges of band b are bandEdges[bandStart[b]] to bandEdges[bandStart[b+1]-1].
+    private final int[] bandStart;
+    private final int[] bandEdges;
+
+    /**
+     * Build an index over a polygon
+     * @param coordinates packed coordinates in the form x0, y0, x1, y1...  The array is not copied, so it must not be
+     *                    modified while the index is in use.
+     */
+    BBDEdgeIndex(float[] coordinates){
+        this.coordinates = coordinates;
+        this.vertexCount = coordinates.length / 2;
+
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for(int i = 0; i < this.vertexCount; i++){
+            minX = Math.min(minX, coordinates[2 * i]);
+            maxX = Math.max(maxX, coordinates[2 * i]);
+            minY = Math.min(minY, coordinates[2 * i + 1]);
+            maxY = Math.max(maxY, coordinates[2 * i + 1]);
+        }
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+
+        //about one band per edge, which keeps each band short without the index getting too big
+        this.bandCount = Math.max(1, this.vertexCount);
+        float height = (this.maxY - this.minY) / this.bandCount;
+        this.bandHeight = height > 0 ? height : 1;
+
+        int[] counts = new int[this.bandCount + 1];
+        for(int edge = 0; edge < this.vertexCount; edge++){
+            int last = this.lastBand(edge);
+            for(int band = this.firstBand(edge); band <= last; band++){
+                counts[band + 1]++;
+            }
+        }
+        for(int band = 0; band < this.bandCount; band++){
+            counts[band + 1] += counts[band];
+        }
+        this.bandStart = counts;
+
+        this.bandEdges = new int[counts[this.bandCount]];
+        int[] fill = new int[this.bandCount];
+        for(int edge = 0; edge < this.vertexCount; edge++){
+            int last = this.lastBand(edge);
+            for(int band = this.firstBand(edge); band <= last; band++){
+                this.bandEdges[this.bandStart[band] + fill[band]++] = edge;
+            }
+        }
+    }
+
+    private int band(float y){
+        int band = (int)((y - this.minY) / this.bandHeight);
+        return Math.max(0, Math.min(this.bandCount - 1, band));
+    }
+
+    private int firstBand(int edge){
+        int next = (edge + 1) % this.vertexCount;
+        return this.band(Math.min(this.coordinates[2 * edge + 1], this.coordinates[2 * next + 1]) - DELTA);
+    }
+
+    private int lastBand(int edge){
+        int next = (edge + 1) % this.vertexCount;
+        return this.band(Math.max(this.coordinates[2 * edge + 1], this.coordinates[2 * next + 1]) + DELTA);
+    }
+
+    private boolean nearBounds(float x, float y){
+        return x >= this.minX - DELTA && x <= this.maxX + DELTA && y >= this.minY - DELTA && y <= this.maxY + DELTA;
+    }
+
+    /**
+     * Find an edge that the point is on, within tolerance
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return index of the edge, running from vertex index to the vertex after it, or -1 if the point is not on the
+     * perimeter
+     */
+    int findEdgeContaining(float x, float y){
+        if(this.vertexCount < 2 || !this.nearBounds(x, y)){
+            return -1;
+        }
+        int band = this.band(y);
+        for(int i = this.bandStart[band]; i < this.bandStart[band + 1]; i++){
+            int edge = this.bandEdges[i];
+            int next = (edge + 1) % this.vertexCount;
+            if(BBDSegmentIntersection.pointOnSegment(x, y, this.coordinates[2 * edge], this.coordinates[2 * edge + 1],
+                    this.coordinates[2 * next], this.coordinates[2 * next + 1])){
+                return edge;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Winding number point in polygon test over the edges in the point's band
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param includePerimeter should a point on the perimeter count as inside
+     * @return is the point inside
+     */
+    boolean checkPointInside(float x, float y, boolean includePerimeter){
+        if(this.vertexCount < 3 || !this.nearBounds(x, y)){
+            return false;
+        }
+        int windingNumber = 0;
+        int band = this.band(y);
+        for(int i = this.bandStart[band]; i < this.bandStart[band + 1]; i++){
+            int edge = this.bandEdges[i];
+            int next = (edge + 1) % this.vertexCount;
+            float startX = this.coordinates[2 * edge];
+            float startY = this.coordinates[2 * edge + 1];
+            float endX = this.coordinates[2 * next];
+            float endY = this.coordinates[2 * next + 1];
+
+            if(BBDSegmentIntersection.pointOnSegment(x, y, startX, startY, endX, endY)){
+                return includePerimeter;
+            }
+
+            double side = ((double)endX - startX) * ((double)y - startY) - ((double)x - startX) * ((double)endY - startY);
+            if(startY <= y){
+                if(endY > y && side > 0){
+                    windingNumber++;
+                }
+            }else{
+                if(endY <= y && side < 0){
+                    windingNumber--;
+                }
+            }
+        }
+        return windingNumber != 0;
+    }
+
+    private float bandBottom(int band){
+        return this.minY + band * this.bandHeight;
+    }
+
+    /**
+     * Vertical gap between a band and a range of y values, 0 if they overlap.  Nothing listed only in that band can be
+     * closer than this to anything in the range.
+     */
+    private float bandGap(int band, float lowY, float highY){
+        float bottom = band == 0 ? -Float.MAX_VALUE : this.bandBottom(band);
+        float top = band == this.bandCount - 1 ? Float.MAX_VALUE : this.bandBottom(band + 1);
+        return Math.max(0, Math.max(bottom - highY, lowY - top));
+    }
+
+    /**
+     * Check if segment AB touches or crosses any edge
+     * @return does it touch the perimeter
+     */
+    boolean segmentIntersects(float ax, float ay, float bx, float by){
+        if(this.vertexCount < 2 || Math.max(ax, bx) < this.minX - DELTA || Math.min(ax, bx) > this.maxX + DELTA
+                || Math.max(ay, by) < this.minY - DELTA || Math.min(ay, by) > this.maxY + DELTA){
+            return false;
+        }
+        float segmentMinX = Math.min(ax, bx);
+        float segmentMaxX = Math.max(ax, bx);
+        int last = this.band(Math.max(ay, by) + DELTA);
+        for(int band = this.band(Math.min(ay, by) - DELTA); band <= last; band++){
+            for(int i = this.bandStart[band]; i < this.bandStart[band + 1]; i++){
+                int edge = this.bandEdges[i];
+                int next = (edge + 1) % this.vertexCount;
+                float cx = this.coordinates[2 * edge], cy = this.coordinates[2 * edge + 1];
+                float dx = this.coordinates[2 * next], dy = this.coordinates[2 * next + 1];
+                if(Math.max(cx, dx) < segmentMinX - DELTA || Math.min(cx, dx) > segmentMaxX + DELTA){
+                    continue;
+                }
+                if(BBDSegmentIntersection.intersect(ax, ay, bx, by, cx, cy, dx, dy, null) != BBDSegmentIntersection.DISJOINT){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Smallest distance squared from a point to the perimeter.  Bands are searched outward from the point's own band
+     * and the search stops once the next band is further away than the best distance found so far.
+     * @return distance squared to the closest edge
+     */
+    float distanceSquaredToPoint(float x, float y){
+        return this.distanceSquaredToSegment(x, y, x, y);
+    }
+
+    /**
+     * Smallest distance squared from segment AB to the perimeter, assuming they don't intersect.  Searches outward from
+     * the bands the segment covers the same way as distanceSquaredToPoint().
+     * @return distance squared to the closest edge
+     */
+    float distanceSquaredToSegment(float ax, float ay, float bx, float by){
+        if(this.vertexCount < 2){
+            return Float.MAX_VALUE;
+        }
+        float lowY = Math.min(ay, by);
+        float highY = Math.max(ay, by);
+        int low = this.band(lowY);
+        int high = this.band(highY);
+
+        float best = Float.MAX_VALUE;
+        for(int band = low; band <= high; band++){
+            best = this.bandDistance(band, ax, ay, bx, by, best);
+        }
+        int below = low - 1;
+        int above = high + 1;
+        while(below >= 0 || above < this.bandCount){
+            float gapBelow = below >= 0 ? this.bandGap(below, lowY, highY) : Float.MAX_VALUE;
+            float gapAbove = above < this.bandCount ? this.bandGap(above, lowY, highY) : Float.MAX_VALUE;
+            //take the closer of the 2 candidates, and stop once even that can't beat what we have
+            if(gapBelow <= gapAbove){
+                if(gapBelow * gapBelow > best){
+                    break;
+                }
+                best = this.bandDistance(below--, ax, ay, bx, by, best);
+            }else{
+                if(gapAbove * gapAbove > best){
+                    break;
+                }
+                best = this.bandDistance(above++, ax, ay, bx, by, best);
+            }
+        }
+        return best;
+    }
+
+    private float bandDistance(int band, float ax, float ay, float bx, float by, float best){
+        boolean point = ax == bx && ay == by;
+        for(int i = this.bandStart[band]; i < this.bandStart[band + 1]; i++){
+            int edge = this.bandEdges[i];
+            int next = (edge + 1) % this.vertexCount;
+            float cx = this.coordinates[2 * edge], cy = this.coordinates[2 * edge + 1];
+            float dx = this.coordinates[2 * next], dy = this.coordinates[2 * next + 1];
+            float distance = BBDSegmentIntersection.distanceSquaredToSegment(ax, ay, cx, cy, dx, dy);
+            if(!point){
+                //with no intersection the closest pair always involves an end point of one of the segments
+                distance = Math.min(distance, BBDSegmentIntersection.distanceSquaredToSegment(bx, by, cx, cy, dx, dy));
+                distance = Math.min(distance, BBDSegmentIntersection.distanceSquaredToSegment(cx, cy, ax, ay, bx, by));
+                distance = Math.min(distance, BBDSegmentIntersection.distanceSquaredToSegment(dx, dy, ax, ay, bx, by));
+            }
+            if(distance < best){
+                best = distance;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,355 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.Arrays;
+
+/**
+ * Finds every place where the perimeters of 2 polygons meet using a sweep line along the longer side of their combined
+ * bounds.  Edges are sorted by where they start along that axis and swept in order, with each polygon keeping a list of
+ * the edges that the sweep line is currently crossing.  The lists are sorted by where the edges start across the sweep,
+ * so a new edge finds the active edges of the other polygon that overlap it with a binary search.  Instead of testing
+ * all n*m pairs the work is the sort plus the pairs that are actually near each other, as long as no edge is much
+ * longer across the sweep than the rest, since that widens every search.
+ *
+ * Each candidate pair is classified with BBDSegmentIntersection, so shared end points and colinear overlaps are handled
+ * the same way as everywhere else.  Results are sorted by edge of the first polygon and then by distance along that
+ * edge, which makes the output independent of the order the sweep happened to find them in.
+ *
+ * Objects of this class hold the results of a single sweep.  Use the static intersects() for a simple yes or no.  The
+ * coordinate arrays are only ever read, so a polygon's cached coordinates can be passed in from several threads at once.
+ */
+public class BBDEdgeSweep {
+
+    private static final float DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA;
+
+    private final float[] first;
+    private final float[] second;
+    private final int firstCount;
+    private final int secondCount;
+
+    // Results, stored in parallel arrays and sorted once the sweep is done.
+    private int intersectionCount = 0;
+    private float[] intersectionX = new float[8];
+    private float[] intersectionY = new float[8];
+    private float[] firstParameter = new float[8];
+    private int[] firstEdge = new int[8];
+    private int[] secondEdge = new int[8];
+
+    /**
+     * Sweep the perimeters of 2 polygons and record every point where they meet.
+     * @param first packed coordinates of the first polygon in the form x0, y0, x1, y1...
+     * @param second packed coordinates of the second polygon
+     */
+    public BBDEdgeSweep(float[] first, float[] second){
+        this.first = first;
+        this.second = second;
+        this.firstCount = first.length / 2;
+        this.secondCount = second.length / 2;
+        this.sweep(false);
+        this.sortResults();
+    }
+
+    private BBDEdgeSweep(float[] first, float[] second, boolean stopAtFirst){
+        this.first = first;
+        this.second = second;
+        this.firstCount = first.length / 2;
+        this.secondCount = second.length / 2;
+        this.sweep(stopAtFirst);
+    }
+
+    /**
+     * Check if the perimeters of 2 polygons touch or cross anywhere.  Stops at the first hit.
+     * @param first packed coordinates of the first polygon in the form x0, y0, x1, y1...
+     * @param second packed coordinates of the second polygon
+     * @return do the perimeters meet
+     */
+    public static boolean intersects(float[] first, float[] second){
+        return new BBDEdgeSweep(first, second, true).intersectionCount > 0;
+    }
+
+    /**
+     * Number of intersections found.  A colinear overlap is recorded as 2 intersections, one at each end of the shared
+     * portion, and a point where several edges meet is recorded once for each pair of edges.
+     * @return number of intersections
+     */
+    public int getIntersectionCount(){
+        return this.intersectionCount;
+    }
+
+    public float getX(int index){
+        return this.intersectionX[index];
+    }
+
+    public float getY(int index){
+        return this.intersectionY[index];
+    }
+
+    /**
+     * Which edge of the first polygon the intersection is on.  Edge i runs from vertex i to vertex i+1.
+     * @param index index of the intersection
+     * @return edge index in the first polygon
+     */
+    public int getFirstEdge(int index){
+        return this.firstEdge[index];
+    }
+
+    /**
+     * Which edge of the second polygon the intersection is on.
+     * @param index index of the intersection
+     * @return edge index in the second polygon
+     */
+    public int getSecondEdge(int index){
+        return this.secondEdge[index];
+    }
+
+    /**
+     * How far along the edge of the first polygon the intersection is, from 0 at the start of the edge to 1 at the end.
+     * @param index index of the intersection
+     * @return parameter along the edge
+     */
+    public float getFirstParameter(int index){
+        return this.firstParameter[index];
+    }
+
+    private void sweep(boolean stopAtFirst){
+        if(this.firstCount < 2 || this.secondCount < 2){
+            return;
+        }
+        int total = this.firstCount + this.secondCount;
+
+        //edge bounds, with the edges of the second polygon numbered after those of the first
+        float[] minX = new float[total];
+        float[] maxX = new float[total];
+        float[] minY = new float[total];
+        float[] maxY = new float[total];
+        float[] bounds = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY,
+                Float.NEGATIVE_INFINITY};
+        for(int edge = 0; edge < total; edge++){
+            float[] coordinates = edge < this.firstCount ? this.first : this.second;
+            int start = edge < this.firstCount ? edge : edge - this.firstCount;
+            int count = edge < this.firstCount ? this.firstCount : this.secondCount;
+            int end = (start + 1) % count;
+            minX[edge] = Math.min(coordinates[2 * start], coordinates[2 * end]);
+            maxX[edge] = Math.max(coordinates[2 * start], coordinates[2 * end]);
+            minY[edge] = Math.min(coordinates[2 * start + 1], coordinates[2 * end + 1]);
+            maxY[edge] = Math.max(coordinates[2 * start + 1], coordinates[2 * end + 1]);
+            bounds[0] = Math.min(bounds[0], minX[edge]);
+            bounds[1] = Math.min(bounds[1], minY[edge]);
+            bounds[2] = Math.max(bounds[2], maxX[edge]);
+            bounds[3] = Math.max(bounds[3], maxY[edge]);
+        }
+
+        //sweep along the longer side so the sweep line crosses as few edges as possible
+        boolean alongX = bounds[2] - bounds[0] >= bounds[3] - bounds[1];
+        float[] sweepMin = alongX ? minX : minY;
+        float[] sweepMax = alongX ? maxX : maxY;
+        float[] acrossMin = alongX ? minY : minX;
+        float[] acrossMax = alongX ? maxY : maxX;
+
+        long[] order = new long[total];
+        double firstLongest = 0;
+        double secondLongest = 0;
+        for(int edge = 0; edge < total; edge++){
+            order[edge] = sortKey(sweepMin[edge], edge);
+            if(edge < this.firstCount){
+                firstLongest = Math.max(firstLongest, (double)acrossMax[edge] - acrossMin[edge]);
+            }else{
+                secondLongest = Math.max(secondLongest, (double)acrossMax[edge] - acrossMin[edge]);
+            }
+        }
+        Arrays.sort(order);
+
+        ActiveEdges activeFirst = new ActiveEdges(this.firstCount, firstLongest);
+        ActiveEdges activeSecond = new ActiveEdges(this.secondCount, secondLongest);
+        float[] scratch = new float[4];
+
+        for(long key : order){
+            int edge = (int)key;
+            boolean isFirst = edge < this.firstCount;
+            ActiveEdges others = isFirst ? activeSecond : activeFirst;
+            float passed = sweepMin[edge] - DELTA;
+
+            //only the active edges that start close enough across the sweep to overlap this one need looking at
+            float reach = acrossMin[edge] - DELTA;
+            int low = others.lowerBound(Math.nextDown(reach - others.longest));
+            int high = others.lowerBound(Math.nextUp(acrossMax[edge] + DELTA));
+            for(int i = low; i < high; i++){
+                int other = others.edges[i];
+                if(sweepMax[other] < passed || acrossMax[other] < reach){
+                    continue;
+                }
+                int firstIndex = isFirst ? edge : other;
+                int secondIndex = (isFirst ? other : edge) - this.firstCount;
+                if(this.test(firstIndex, secondIndex, scratch) && stopAtFirst){
+                    return;
+                }
+            }
+
+            (isFirst ? activeFirst : activeSecond).add(edge, acrossMin[edge], sweepMax, passed);
+        }
+    }
+
+    /**
+     * Edges of 1 polygon that the sweep line is crossing, kept sorted by where they start across the sweep so that the
+     * ones near a new edge can be found with a binary search rather than by checking all of them.  Edges the sweep has
+     * passed are skipped when they come up and cleared out whenever the list has doubled in size since the last time,
+     * which keeps that to a constant amount of work per edge.
+     */
+    private static final class ActiveEdges {
+
+        private final int[] edges;
+        private final float[] starts;
+        private int count = 0;
+        private int purgeAt = 16;
+
+        // Longest any edge of this polygon is across the sweep, so a search knows how far back an overlapping edge
+        // could start.
+        private final double longest;
+
+        private ActiveEdges(int capacity, double longest){
+            this.edges = new int[capacity];
+            this.starts = new float[capacity];
+            this.longest = longest;
+        }
+
+        /**
+         * Index of the first edge that starts at or after a position
+         */
+        private int lowerBound(double position){
+            int low = 0;
+            int high = this.count;
+            while(low < high){
+                int middle = (low + high) >>> 1;
+                if(this.starts[middle] < position){
+                    low = middle + 1;
+                }else{
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Add an edge in order, first clearing out the edges that end before the sweep line if it's time to
+         * @param sweepMax where each edge ends along the sweep
+         * @param passed edges ending before this have been passed by the sweep line
+         */
+        private void add(int edge, float start, float[] sweepMax, float passed){
+            if(this.count >= this.purgeAt){
+                int kept = 0;
+                for(int i = 0; i < this.count; i++){
+                    if(sweepMax[this.edges[i]] >= passed){
+                        this.edges[kept] = this.edges[i];
+                        this.starts[kept++] = this.starts[i];
+                    }
+                }
+                this.count = kept;
+                this.purgeAt = Math.max(16, 2 * kept);
+            }
+            int index = this.lowerBound(Math.nextUp(start));
+            System.arraycopy(this.edges, index, this.edges, index + 1, this.count - index);
+            System.arraycopy(this.starts, index, this.starts, index + 1, this.count - index);
+            this.edges[index] = edge;
+            this.starts[index] = start;
+            this.count++;
+        }
+    }
+
+    /**
+     * Classify a single pair of edges and record any intersection
+     * @return did they intersect
+     */
+    private boolean test(int firstIndex, int secondIndex, float[] scratch){
+        int firstNext = (firstIndex + 1) % this.firstCount;
+        int secondNext = (secondIndex + 1) % this.secondCount;
+        float ax = this.first[2 * firstIndex], ay = this.first[2 * firstIndex + 1];
+        float bx = this.first[2 * firstNext], by = this.first[2 * firstNext + 1];
+
+        int result = BBDSegmentIntersection.intersect(ax, ay, bx, by,
+                this.second[2 * secondIndex], this.second[2 * secondIndex + 1],
+                this.second[2 * secondNext], this.second[2 * secondNext + 1], scratch);
+        if(result == BBDSegmentIntersection.DISJOINT){
+            return false;
+        }
+        this.record(firstIndex, secondIndex, scratch[0], scratch[1], ax, ay, bx, by);
+        if(result == BBDSegmentIntersection.COLLINEAR_OVERLAP){
+            this.record(firstIndex, secondIndex, scratch[2], scratch[3], ax, ay, bx, by);
+        }
+        return true;
+    }
+
+    private void record(int firstIndex, int secondIndex, float x, float y, float ax, float ay, float bx, float by){
+        if(this.intersectionCount == this.intersectionX.length){
+            int size = 2 * this.intersectionCount;
+            this.intersectionX = Arrays.copyOf(this.intersectionX, size);
+            this.intersectionY = Arrays.copyOf(this.intersectionY, size);
+            this.firstParameter = Arrays.copyOf(this.firstParameter, size);
+            this.firstEdge = Arrays.copyOf(this.firstEdge, size);
+            this.secondEdge = Arrays.copyOf(this.secondEdge, size);
+        }
+
+        double abx = (double)bx - ax;
+        double aby = (double)by - ay;
+        double lengthSquared = abx * abx + aby * aby;
+        double parameter = lengthSquared == 0 ? 0 : (((double)x - ax) * abx + ((double)y - ay) * aby) / lengthSquared;
+
+        int index = this.intersectionCount++;
+        this.intersectionX[index] = x;
+        this.intersectionY[index] = y;
+        this.firstParameter[index] = (float)Math.max(0, Math.min(1, parameter));
+        this.firstEdge[index] = firstIndex;
+        this.secondEdge[index] = secondIndex;
+    }
+
+    /**
+     * Put the results in order of edge of the first polygon, then parameter along that edge, then edge of the second
+     * polygon.
+     */
+    private void sortResults(){
+        long[] keys = new long[this.intersectionCount];
+        for(int i = 0; i < this.intersectionCount; i++){
+            keys[i] = ((long)this.firstEdge[i] << 32) | (sortableBits(this.firstParameter[i]) & 0xffffffffL);
+        }
+        Integer[] order = new Integer[this.intersectionCount];
+        for(int i = 0; i < order.length; i++){
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int comparison = Long.compare(keys[a], keys[b]);
+            return comparison != 0 ? comparison : Integer.compare(this.secondEdge[a], this.secondEdge[b]);
+        });
+
+        float[] sortedX = new float[this.intersectionX.length];
+        float[] sortedY = new float[this.intersectionX.length];
+        float[] sortedParameter = new float[this.intersectionX.length];
+        int[] sortedFirst = new int[this.intersectionX.length];
+        int[] sortedSecond = new int[this.intersectionX.length];
+        for(int i = 0; i < order.length; i++){
+            int from = order[i];
+            sortedX[i] = this.intersectionX[from];
+            sortedY[i] = this.intersectionY[from];
+            sortedParameter[i] = this.firstParameter[from];
+            sortedFirst[i] = this.firstEdge[from];
+            sortedSecond[i] = this.secondEdge[from];
+        }
+        this.intersectionX = sortedX;
+        this.intersectionY = sortedY;
+        this.firstParameter = sortedParameter;
+        this.firstEdge = sortedFirst;
+        this.secondEdge = sortedSecond;
+    }
+
+    /**
+     * Pack a float and an index into a long that sorts by the float first.
+     */
+    private static long sortKey(float value, int index){
+        return ((long)sortableBits(value) << 32) | (index & 0xffffffffL);
+    }
+
+    /**
+     * Bits of a float rearranged so that comparing them as signed ints gives the same order as comparing the floats.
+     */
+    private static int sortableBits(float value){
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+}
@@ -0,0 +1,514 @@
+package BBDGameLibrary.Geometry2d;
+
+/**
+ * Bounding volume hierarchy over the edges of a polygon.  Each node holds the bounding box of the edges below it, and
+ * the leaves hold a few edges each.  Distance queries descend into the closest nodes first and skip any node whose box
+ * is further away than the best edge found so far, and containment only visits nodes that a ray from the point could
+ * cross, so on polygons with thousands of vertices a query looks at O(log n) edges rather than all of them.
+ *
+ * The tree is built by splitting the edges at the median of the longer axis, so it stays balanced no matter what shape
+ * the polygon is.  Moving a single vertex only changes the 2 edges that use it, so moveVertex() refits the boxes on the
+ * path from those leaves to the root instead of rebuilding.
+ *
+ * The nodes are stored in flat arrays and the queries recurse rather than keeping a stack, so nothing is allocated
+ * after the tree is built.
+ */
+class BBDEdgeTree {
+
+    private static final float DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA;
+    private static final int LEAF_SIZE = 4;
+    private static final int ON_PERIMETER = Integer.MIN_VALUE;
+
+    // Copy of the vertices, kept in sync with the polygon through moveVertex() and refit().
+    private final float[] coordinates;
+    private final int vertexCount;
+
+    // Edge indices arranged so that each node covers a contiguous range, edge i runs from vertex i to vertex i+1.
+    private final int[] edges;
+    // The leaf each edge ended up in, for refitting after a vertex moves.
+    private final int[] edgeLeaf;
+
+    private int nodeCount = 0;
+    private final float[] nodeMinX;
+    private final float[] nodeMinY;
+    private final float[] nodeMaxX;
+    private final float[] nodeMaxY;
+    // Children of internal nodes, -1 for leaves.
+    private final int[] nodeLeft;
+    private final int[] nodeRight;
+    // Range of the edges array covered by a node, start inclusive and end exclusive.
+    private final int[] nodeStart;
+    private final int[] nodeEnd;
+    private final int[] nodeParent;
+
+    /**
+     * Build a tree over a polygon
+     * @param coordinates packed coordinates in the form x0, y0, x1, y1...  The array is copied.
+     */
+    BBDEdgeTree(float[] coordinates){
+        this.vertexCount = coordinates.length / 2;
+        this.coordinates = new float[2 * this.vertexCount];
+        System.arraycopy(coordinates, 0, this.coordinates, 0, this.coordinates.length);
+
+        this.edges = new int[this.vertexCount];
+        this.edgeLeaf = new int[this.vertexCount];
+        for(int i = 0; i < this.vertexCount; i++){
+            this.edges[i] = i;
+        }
+
+        //splitting at the median leaves at most n leaves, so at most 2n - 1 nodes
+        int capacity = Math.max(1, 2 * this.vertexCount - 1);
+        this.nodeMinX = new float[capacity];
+        this.nodeMinY = new float[capacity];
+        this.nodeMaxX = new float[capacity];
+        this.nodeMaxY = new float[capacity];
+        this.nodeLeft = new int[capacity];
+        this.nodeRight = new int[capacity];
+        this.nodeStart = new int[capacity];
+        this.nodeEnd = new int[capacity];
+        this.nodeParent = new int[capacity];
+
+        if(this.vertexCount > 0){
+            this.build(0, this.vertexCount, -1);
+        }
+    }
+
+    int getVertexCount(){
+        return this.vertexCount;
+    }
+
+    float minX(){
+        return this.nodeMinX[0];
+    }
+
+    float maxX(){
+        return this.nodeMaxX[0];
+    }
+
+    float minY(){
+        return this.nodeMinY[0];
+    }
+
+    float maxY(){
+        return this.nodeMaxY[0];
+    }
+
+    private int build(int start, int end, int parent){
+        int node = this.nodeCount++;
+        this.nodeStart[node] = start;
+        this.nodeEnd[node] = end;
+        this.nodeParent[node] = parent;
+
+        if(end - start <= LEAF_SIZE){
+            this.nodeLeft[node] = -1;
+            this.nodeRight[node] = -1;
+            for(int i = start; i < end; i++){
+                this.edgeLeaf[this.edges[i]] = node;
+            }
+            this.fitLeaf(node);
+            return node;
+        }
+
+        //split across the longer side of the box around the edge centers
+        float minX = Float.MAX_VALUE, maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for(int i = start; i < end; i++){
+            float x = this.centerX(this.edges[i]);
+            float y = this.centerY(this.edges[i]);
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        boolean splitOnX = maxX - minX >= maxY - minY;
+        int middle = (start + end) >>> 1;
+        this.select(start, end - 1, middle, splitOnX);
+
+        int left = this.build(start, middle, node);
+        int right = this.build(middle, end, node);
+        this.nodeLeft[node] = left;
+        this.nodeRight[node] = right;
+        this.fitInternal(node);
+        return node;
+    }
+
+    /**
+     * Partially sort edges[low..high] so that the k-th one is in place, with every edge before it having a center no
+     * greater and every edge after it no less.
+     */
+    private void select(int low, int high, int k, boolean onX){
+        while(low < high){
+            float pivot = this.center(this.edges[(low + high) >>> 1], onX);
+            int i = low;
+            int j = high;
+            while(i <= j){
+                while(this.center(this.edges[i], onX) < pivot){
+                    i++;
+                }
+                while(this.center(this.edges[j], onX) > pivot){
+                    j--;
+                }
+                if(i <= j){
+                    int swap = this.edges[i];
+                    this.edges[i] = this.edges[j];
+                    this.edges[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if(k <= j){
+                high = j;
+            }else if(k >= i){
+                low = i;
+            }else{
+                return;
+            }
+        }
+    }
+
+    private float center(int edge, boolean onX){
+        return onX ? this.centerX(edge) : this.centerY(edge);
+    }
+
+    private float centerX(int edge){
+        int next = (edge + 1) % this.vertexCount;
+        return (this.coordinates[2 * edge] + this.coordinates[2 * next]) * 0.5f;
+    }
+
+    private float centerY(int edge){
+        int next = (edge + 1) % this.vertexCount;
+        return (this.coordinates[2 * edge + 1] + this.coordinates[2 * next + 1]) * 0.5f;
+    }
+
+    private void fitLeaf(int node){
+        float minX = Float.MAX_VALUE, maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for(int i = this.nodeStart[node]; i < this.nodeEnd[node]; i++){
+            int edge = this.edges[i];
+            int next = (edge + 1) % this.vertexCount;
+            minX = Math.min(minX, Math.min(this.coordinates[2 * edge], this.coordinates[2 * next]));
+            maxX = Math.max(maxX, Math.max(this.coordinates[2 * edge], this.coordinates[2 * next]));
+            minY = Math.min(minY, Math.min(this.coordinates[2 * edge + 1], this.coordinates[2 * next + 1]));
+            maxY = Math.max(maxY, Math.max(this.coordinates[2 * edge + 1], this.coordinates[2 * next + 1]));
+        }
+        this.nodeMinX[node] = minX;
+        this.nodeMaxX[node] = maxX;
+        this.nodeMinY[node] = minY;
+        this.nodeMaxY[node] = maxY;
+    }
+
+    private void fitInternal(int node){
+        int left = this.nodeLeft[node];
+        int right = this.nodeRight[node];
+        this.nodeMinX[node] = Math.min(this.nodeMinX[left], this.nodeMinX[right]);
+        this.nodeMaxX[node] = Math.max(this.nodeMaxX[left], this.nodeMaxX[right]);
+        this.nodeMinY[node] = Math.min(this.nodeMinY[left], this.nodeMinY[right]);
+        this.nodeMaxY[node] = Math.max(this.nodeMaxY[left], this.nodeMaxY[right]);
+    }
+
+    /**
+     * Move a vertex and refit the boxes of the 2 leaves that hold its edges, and everything above them.  O(log n).
+     * @param index vertex to move
+     * @param x new x coordinate
+     * @param y new y coordinate
+     */
+    void moveVertex(int index, float x, float y){
+        this.coordinates[2 * index] = x;
+        this.coordinates[2 * index + 1] = y;
+        int previousEdge = (index + this.vertexCount - 1) % this.vertexCount;
+        this.refitFromLeaf(this.edgeLeaf[previousEdge]);
+        if(this.edgeLeaf[index] != this.edgeLeaf[previousEdge]){
+            this.refitFromLeaf(this.edgeLeaf[index]);
+        }
+    }
+
+    private void refitFromLeaf(int leaf){
+        this.fitLeaf(leaf);
+        for(int node = this.nodeParent[leaf]; node != -1; node = this.nodeParent[node]){
+            this.fitInternal(node);
+        }
+    }
+
+    /**
+     * Take on new positions for every vertex without changing the structure of the tree, which is cheaper than a rebuild
+     * and still correct, though the boxes can get looser than a fresh build would give if the shape distorts a lot.
+     * Translating, rotating and scaling keep them just as tight.
+     * @param coordinates packed coordinates with the same number of vertices the tree was built with
+     */
+    void refit(float[] coordinates){
+        System.arraycopy(coordinates, 0, this.coordinates, 0, this.coordinates.length);
+        //children always come after their parents, so walking backwards fits every child before its parent
+        for(int node = this.nodeCount - 1; node >= 0; node--){
+            if(this.nodeLeft[node] == -1){
+                this.fitLeaf(node);
+            }else{
+                this.fitInternal(node);
+            }
+        }
+    }
+
+    private boolean nodeNearPoint(int node, float x, float y){
+        return x >= this.nodeMinX[node] - DELTA && x <= this.nodeMaxX[node] + DELTA
+                && y >= this.nodeMinY[node] - DELTA && y <= this.nodeMaxY[node] + DELTA;
+    }
+
+    /**
+     * Find an edge that the point is on, within tolerance
+     * @return index of the edge, or -1 if the point is not on the perimeter
+     */
+    int findEdgeContaining(float x, float y){
+        if(this.vertexCount < 2){
+            return -1;
+        }
+        return this.findEdgeContaining(0, x, y);
+    }
+
+    private int findEdgeContaining(int node, float x, float y){
+        if(!this.nodeNearPoint(node, x, y)){
+            return -1;
+        }
+        if(this.nodeLeft[node] == -1){
+            for(int i = this.nodeStart[node]; i < this.nodeEnd[node]; i++){
+                int edge = this.edges[i];
+                int next = (edge + 1) % this.vertexCount;
+                if(BBDSegmentIntersection.pointOnSegment(x, y, this.coordinates[2 * edge], this.coordinates[2 * edge + 1],
+                        this.coordinates[2 * next], this.coordinates[2 * next + 1])){
+                    return edge;
+                }
+            }
+            return -1;
+        }
+        int found = this.findEdgeContaining(this.nodeLeft[node], x, y);
+        return found != -1 ? found : this.findEdgeContaining(this.nodeRight[node], x, y);
+    }
+
+    /**
+     * Winding number point in polygon test.  Only edges to the right of the point can change the winding number, so
+     * only nodes that a ray from the point toward +x passes through are visited.
+     * @param includePerimeter should a point on the perimeter count as inside
+     * @return is the point inside
+     */
+    boolean checkPointInside(float x, float y, boolean includePerimeter){
+        if(this.vertexCount < 3){
+            return false;
+        }
+        int windingNumber = this.windingNumber(0, x, y);
+        if(windingNumber == ON_PERIMETER){
+            return includePerimeter;
+        }
+        return windingNumber != 0;
+    }
+
+    private int windingNumber(int node, float x, float y){
+        if(y < this.nodeMinY[node] - DELTA || y > this.nodeMaxY[node] + DELTA || x > this.nodeMaxX[node] + DELTA){
+            return 0;
+        }
+        if(this.nodeLeft[node] != -1){
+            int left = this.windingNumber(this.nodeLeft[node], x, y);
+            if(left == ON_PERIMETER){
+                return ON_PERIMETER;
+            }
+            int right = this.windingNumber(this.nodeRight[node], x, y);
+            return right == ON_PERIMETER ? ON_PERIMETER : left + right;
+        }
+
+        int windingNumber = 0;
+        for(int i = this.nodeStart[node]; i < this.nodeEnd[node]; i++){
+            int edge = this.edges[i];
+            int next = (edge + 1) % this.vertexCount;
+            float startX = this.coordinates[2 * edge];
+            float startY = this.coordinates[2 * edge + 1];
+            float endX = this.coordinates[2 * next];
+            float endY = this.coordinates[2 * next + 1];
+
+            if(BBDSegmentIntersection.pointOnSegment(x, y, startX, startY, endX, endY)){
+                return ON_PERIMETER;
+            }
+
+            double side = ((double)endX - startX) * ((double)y - startY) - ((double)x - startX) * ((double)endY - startY);
+            if(startY <= y){
+                if(endY > y && side > 0){
+                    windingNumber++;
+                }
+            }else{
+                if(endY <= y && side < 0){
+                    windingNumber--;
+                }
+            }
+        }
+        return windingNumber;
+    }
+
+    /**
+     * Smallest distance squared from a point to the perimeter
+     * @return distance squared to the closest edge
+     */
+    float distanceSquaredToPoint(float x, float y){
+        return this.distanceSquaredToSegment(x, y, x, y, Float.MAX_VALUE);
+    }
+
+    /**
+     * Smallest distance squared from segment AB to the perimeter, 0 if it touches or crosses an edge
+     * @param best only distances smaller than this are of interest, pass Float.MAX_VALUE for the plain distance
+     * @return distance squared to the closest edge, or best if nothing closer was found
+     */
+    float distanceSquaredToSegment(float ax, float ay, float bx, float by, float best){
+        if(this.vertexCount < 2){
+            return best;
+        }
+        return this.segmentDistance(0, ax, ay, bx, by, Math.min(ax, bx), Math.min(ay, by), Math.max(ax, bx),
+                Math.max(ay, by), best);
+    }
+
+    private float segmentDistance(int node, float ax, float ay, float bx, float by,
+                                  float minX, float minY, float maxX, float maxY, float best){
+        if(this.nodeLeft[node] == -1){
+            boolean point = ax == bx && ay == by;
+            for(int i = this.nodeStart[node]; i < this.nodeEnd[node] && best > 0; i++){
+                int edge = this.edges[i];
+                int next = (edge + 1) % this.vertexCount;
+                float cx = this.coordinates[2 * edge], cy = this.coordinates[2 * edge + 1];
+                float dx = this.coordinates[2 * next], dy = this.coordinates[2 * next + 1];
+                float distance;
+                if(point){
+                    distance = BBDSegmentIntersection.distanceSquaredToSegment(ax, ay, cx, cy, dx, dy);
+                }else{
+                    distance = edgeDistanceSquared(ax, ay, bx, by, cx, cy, dx, dy);
+                }
+                if(distance < best){
+                    best = distance;
+                }
+            }
+            return best;
+        }
+
+        //closer child first, so the further one is more likely to get pruned
+        int left = this.nodeLeft[node];
+        int right = this.nodeRight[node];
+        float leftGap = this.boxGap(left, minX, minY, maxX, maxY);
+        float rightGap = this.boxGap(right, minX, minY, maxX, maxY);
+        if(rightGap < leftGap){
+            int swapNode = left;
+            left = right;
+            right = swapNode;
+            float swapGap = leftGap;
+            leftGap = rightGap;
+            rightGap = swapGap;
+        }
+        if(leftGap < best){
+            best = this.segmentDistance(left, ax, ay, bx, by, minX, minY, maxX, maxY, best);
+        }
+        if(rightGap < best){
+            best = this.segmentDistance(right, ax, ay, bx, by, minX, minY, maxX, maxY, best);
+        }
+        return best;
+    }
+
+    /**
+     * Smallest distance squared between the perimeters of 2 polygons, 0 if any edges touch or cross.  Descends both
+     * trees together, always splitting the bigger of the 2 nodes.
+     * @param other tree of the other polygon
+     * @param best only distances smaller than this are of interest, pass Float.MAX_VALUE for the plain distance
+     * @return distance squared between the closest pair of edges, or best if nothing closer was found
+     */
+    float distanceSquaredToTree(BBDEdgeTree other, float best){
+        if(this.vertexCount < 2 || other.vertexCount < 2){
+            return best;
+        }
+        return this.treeDistance(0, other, 0, best);
+    }
+
+    private float treeDistance(int node, BBDEdgeTree other, int otherNode, float best){
+        boolean leaf = this.nodeLeft[node] == -1;
+        boolean otherLeaf = other.nodeLeft[otherNode] == -1;
+
+        if(leaf && otherLeaf){
+            for(int i = this.nodeStart[node]; i < this.nodeEnd[node] && best > 0; i++){
+                int edge = this.edges[i];
+                int next = (edge + 1) % this.vertexCount;
+                float ax = this.coordinates[2 * edge], ay = this.coordinates[2 * edge + 1];
+                float bx = this.coordinates[2 * next], by = this.coordinates[2 * next + 1];
+                for(int j = other.nodeStart[otherNode]; j < other.nodeEnd[otherNode]; j++){
+                    int otherEdge = other.edges[j];
+                    int otherNext = (otherEdge + 1) % other.vertexCount;
+                    float distance = edgeDistanceSquared(ax, ay, bx, by,
+                            other.coordinates[2 * otherEdge], other.coordinates[2 * otherEdge + 1],
+                            other.coordinates[2 * otherNext], other.coordinates[2 * otherNext + 1]);
+                    if(distance < best){
+                        best = distance;
+                    }
+                }
+            }
+            return best;
+        }
+
+        //split whichever side is bigger, or the only one that can be split
+        boolean splitThis = otherLeaf || (!leaf && this.nodeEnd[node] - this.nodeStart[node]
+                >= other.nodeEnd[otherNode] - other.nodeStart[otherNode]);
+        if(splitThis){
+            int left = this.nodeLeft[node];
+            int right = this.nodeRight[node];
+            float leftGap = other.boxGap(otherNode, this.nodeMinX[left], this.nodeMinY[left], this.nodeMaxX[left], this.nodeMaxY[left]);
+            float rightGap = other.boxGap(otherNode, this.nodeMinX[right], this.nodeMinY[right], this.nodeMaxX[right], this.nodeMaxY[right]);
+            if(rightGap < leftGap){
+                if(rightGap < best){
+                    best = this.treeDistance(right, other, otherNode, best);
+                }
+                if(leftGap < best){
+                    best = this.treeDistance(left, other, otherNode, best);
+                }
+            }else{
+                if(leftGap < best){
+                    best = this.treeDistance(left, other, otherNode, best);
+                }
+                if(rightGap < best){
+                    best = this.treeDistance(right, other, otherNode, best);
+                }
+            }
+        }else{
+            int left = other.nodeLeft[otherNode];
+            int right = other.nodeRight[otherNode];
+            float leftGap = this.boxGap(node, other.nodeMinX[left], other.nodeMinY[left], other.nodeMaxX[left], other.nodeMaxY[left]);
+            float rightGap = this.boxGap(node, other.nodeMinX[right], other.nodeMinY[right], other.nodeMaxX[right], other.nodeMaxY[right]);
+            if(rightGap < leftGap){
+                if(rightGap < best){
+                    best = this.treeDistance(node, other, right, best);
+                }
+                if(leftGap < best){
+                    best = this.treeDistance(node, other, left, best);
+                }
+            }else{
+                if(leftGap < best){
+                    best = this.treeDistance(node, other, left, best);
+                }
+                if(rightGap < best){
+                    best = this.treeDistance(node, other, right, best);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Distance squared between a node's box and another box, 0 if they overlap.  Nothing inside the node can be closer.
+     */
+    private float boxGap(int node, float minX, float minY, float maxX, float maxY){
+        float dx = Math.max(0, Math.max(this.nodeMinX[node] - maxX, minX - this.nodeMaxX[node]));
+        float dy = Math.max(0, Math.max(this.nodeMinY[node] - maxY, minY - this.nodeMaxY[node]));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Distance squared between segments AB and CD, 0 if they touch
+     */
+    private static float edgeDistanceSquared(float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy){
+        if(BBDSegmentIntersection.intersect(ax, ay, bx, by, cx, cy, dx, dy, null) != BBDSegmentIntersection.DISJOINT){
+            return 0;
+        }
+        //with no intersection the closest pair always involves an end point of one of the segments
+        float distance = BBDSegmentIntersection.distanceSquaredToSegment(ax, ay, cx, cy, dx, dy);
+        distance = Math.min(distance, BBDSegmentIntersection.distanceSquaredToSegment(bx, by, cx, cy, dx, dy));
+        distance = Math.min(distance, BBDSegmentIntersection.distanceSquaredToSegment(cx, cy, ax, ay, bx, by));
+        return Math.min(distance, BBDSegmentIntersection.distanceSquaredToSegment(dx, dy, ax, ay, bx, by));
+    }
+}
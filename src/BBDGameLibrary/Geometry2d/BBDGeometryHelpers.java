@@ -48,61 +48,76 @@ public class BBDGeometryHelpers {
     }
 
     public static boolean checkParallelSegments(BBDSegment seg1, BBDSegment seg2){
-        return seg1.slopeInDegrees() == seg2.slopeInDegrees();
+        BBDPoint start1 = seg1.getStartPoint();
+        BBDPoint end1 = seg1.getEndPoint();
+        BBDPoint start2 = seg2.getStartPoint();
+        BBDPoint end2 = seg2.getEndPoint();
+        return BBDSegmentIntersection.parallel(start1.getXLoc(), start1.getYLoc(), end1.getXLoc(), end1.getYLoc(),
+                start2.getXLoc(), start2.getYLoc(), end2.getXLoc(), end2.getYLoc());
     }
 
+    /**
+     * Create the intersection of 2 polygons.  If the intersection is in several pieces only the largest is returned, use
+     * createPolygonIntersections() to get all of them.
+     * @param polygon1 first polygon
+     * @param polygon2 second polygon
+     * @return the overlapping area of the 2 polygons, or null if they don't overlap
+     */
     public static BBDPolygon createPolygonIntersection(BBDPolygon polygon1, BBDPolygon polygon2){
-        //let's catch some corner cases first
-        if(polygon1.checkPolygonContainsPolygon(polygon2)){
-            return polygon2.copyPolygon();
-        }
-        if(polygon2.checkPolygonContainsPolygon(polygon1)){
-            return polygon1.copyPolygon();
+        ArrayList<BBDPolygon> pieces = createPolygonIntersections(polygon1, polygon2);
+        BBDPolygon largest = null;
+        for(BBDPolygon piece : pieces){
+            if(largest == null || piece.area() > largest.area()){
+                largest = piece;
+            }
         }
+        return largest;
+    }
 
-        if(!polygon1.checkPolygonIntersectsPolygon(polygon2)){
-            return null;
+    /**
+     * Create the intersection of 2 polygons
+     * @param polygon1 first polygon
+     * @param polygon2 second polygon
+     * @return every separate piece of the overlapping area, empty if they don't overlap
+     */
+    public static ArrayList<BBDPolygon> createPolygonIntersections(BBDPolygon polygon1, BBDPolygon polygon2){
+        if(!polygon1.boundsOverlap(polygon2)){
+            return new ArrayList<>();
         }
+        return BBDPolygonBoolean.compute(polygon1, polygon2, BBDPolygonBoolean.INTERSECTION);
+    }
 
-        BBDPolygon polyThis = polygon1.prepPolygonForBooleanOperations(polygon2);
-        BBDPolygon polyOther = polygon2.prepPolygonForBooleanOperations(polygon1);
-
-        ArrayList<BBDPoint> newPolygonList = new ArrayList<>();
-
-        //find the first point that is inside while the preceding one is outside
-        int startingIndexThis = 0;
-        int currentIndexThis = 0;
-        int currentIndexOther;
-        int thisLength = polyThis.getPoints().size();
-        int otherLength = polyOther.getPoints().size();
-        for (int i=0; i<polyThis.getPoints().size(); i++){
-            if(polyOther.checkPointInside(polyThis.getPoints().get(i)) && !polyOther.checkPointInside(polyThis.getPoints().get((i + thisLength-1)%thisLength))){
-                startingIndexThis = i;
-                currentIndexThis = i;
-                break;
-            }
-        }
+    /**
+     * Create the union of 2 polygons.  Counterclockwise polygons in the result are outer boundaries, and clockwise ones
+     * are holes enclosed by them.
+     * @param polygon1 first polygon
+     * @param polygon2 second polygon
+     * @return the combined area, which is 2 polygons if the inputs don't touch
+     */
+    public static ArrayList<BBDPolygon> createPolygonUnion(BBDPolygon polygon1, BBDPolygon polygon2){
+        return BBDPolygonBoolean.compute(polygon1, polygon2, BBDPolygonBoolean.UNION);
+    }
 
-        // the goal is to make a full circuit around polyThis, so once we get all the way around we are done
-        // we can't use that as the only conditional because otherwise we will skip the whole block initially since
-        // the start and current index begin the same.  Therefore we check if it is empty initially, and once that becomes
-        // false on all other loops we will be checking if we have completed the full circuit
-        while (newPolygonList.isEmpty() || currentIndexThis-1 != startingIndexThis){
-            while(polyOther.checkPointInside(polyThis.getPoints().get(currentIndexThis % thisLength))){
-                newPolygonList.add(polyThis.getPoints().get(currentIndexThis % thisLength));
-                currentIndexThis++;
-            }
-            //at this point we are just added an intersection point, so let's find the same intersection on the other one, and then use the next point
-            currentIndexOther = polyOther.getPoints().indexOf(polyThis.getPoints().get((currentIndexThis-1)  % thisLength)) + 1;
-            while(polyThis.checkPointInside(polyOther.getPoints().get(currentIndexOther % otherLength))){
-                newPolygonList.add(polyOther.getPoints().get(currentIndexOther % otherLength));
-                currentIndexOther++;
-            }
-            currentIndexThis = polyThis.getPoints().indexOf(polyOther.getPoints().get((currentIndexOther-1) % otherLength)) + 1;
-        }
-        //remove the last one because it is a repeat of the first one
-        newPolygonList.remove(newPolygonList.size()-1);
-        return new BBDPolygon(newPolygonList);
+    /**
+     * Subtract one polygon from another.  Counterclockwise polygons in the result are outer boundaries, and clockwise ones
+     * are holes enclosed by them.
+     * @param polygon1 polygon to subtract from
+     * @param polygon2 polygon to subtract
+     * @return what is left of polygon1, empty if nothing is
+     */
+    public static ArrayList<BBDPolygon> createPolygonDifference(BBDPolygon polygon1, BBDPolygon polygon2){
+        return BBDPolygonBoolean.compute(polygon1, polygon2, BBDPolygonBoolean.DIFFERENCE);
+    }
+
+    /**
+     * Find the area covered by exactly one of 2 polygons.  Counterclockwise polygons in the result are outer boundaries,
+     * and clockwise ones are holes enclosed by them.
+     * @param polygon1 first polygon
+     * @param polygon2 second polygon
+     * @return the parts of each polygon not covered by the other
+     */
+    public static ArrayList<BBDPolygon> createPolygonXor(BBDPolygon polygon1, BBDPolygon polygon2){
+        return BBDPolygonBoolean.compute(polygon1, polygon2, BBDPolygonBoolean.XOR);
     }
 
 
@@ -194,14 +209,12 @@ public class BBDGeometryHelpers {
         //find original verts to carry over
         ArrayList<BBDPoint> otherPoints = new ArrayList<>();
         if(otherSegments.size() != 0) {
+            BBDPointSet uniquePoints = new BBDPointSet();
             for (BBDSegment nonOffsetSegment : otherSegments) {
-                if (!otherPoints.contains(nonOffsetSegment.getStartPoint())) {
-                    otherPoints.add(nonOffsetSegment.getStartPoint());
-                }
-                if (!otherPoints.contains(nonOffsetSegment.getEndPoint())) {
-                    otherPoints.add(nonOffsetSegment.getEndPoint());
-                }
+                uniquePoints.add(nonOffsetSegment.getStartPoint());
+                uniquePoints.add(nonOffsetSegment.getEndPoint());
             }
+            otherPoints = uniquePoints.toList();
             //remove last and first as they will be effectively repeats of the first and last of the offsets
             otherPoints.remove(otherPoints.size() - 1);
             otherPoints.remove(0);
@@ -0,0 +1,544 @@
+package BBDGameLibrary.Geometry2d;
+
+import BBDGameLibrary.Geometry2d.Exceptions.CoordinateOverflowException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A closed polygon stored as a single packed array of coordinates in the form x0, y0, x1, y1...  Edges are implied by
+ * consecutive vertices, with the last vertex connecting back to the first, so there are no point or segment objects to
+ * allocate or chase through memory.  This makes it a better fit than BBDPolygon for large numbers of static shapes like
+ * collision meshes and terrain, where the shape is mostly iterated over in bulk.
+ *
+ * The query and transform methods mirror those on BBDPolygon, and the two can be converted back and forth.
+ */
+public class BBDPackedPolygon implements BBDGeometry{
+
+    private float[] coordinates;
+    private final int vertexCount;
+
+    // Axis aligned bounding box, kept up to date by every method that moves vertices.
+    private float boundsMinX;
+    private float boundsMaxX;
+    private float boundsMinY;
+    private float boundsMaxY;
+
+    // Cached area, winding and centroid, cleared whenever vertices move.
+    private BBDAreaProperties areaProperties = null;
+
+    /**
+     * Create a polygon from packed coordinates.  The array is copied, so the caller is free to reuse it.
+     * @param coordinates packed coordinates in the form x0, y0, x1, y1...
+     */
+    public BBDPackedPolygon(float[] coordinates){
+        this.coordinates = Arrays.copyOf(coordinates, coordinates.length - coordinates.length % 2);
+        this.vertexCount = this.coordinates.length / 2;
+        this.refreshBounds();
+    }
+
+    /**
+     * Create a packed copy of a BBDPolygon
+     * @param polygon polygon to copy
+     */
+    public BBDPackedPolygon(BBDPolygon polygon){
+        this.coordinates = polygon.toCoordinates();
+        this.vertexCount = this.coordinates.length / 2;
+        this.refreshBounds();
+    }
+
+    public BBDPackedPolygon copyPolygon(){
+        return new BBDPackedPolygon(this.coordinates);
+    }
+
+    /**
+     * Convert back into a BBDPolygon with its own points and segments
+     * @return a new BBDPolygon with the same vertices
+     */
+    public BBDPolygon toPolygon(){
+        ArrayList<BBDPoint> points = new ArrayList<>(this.vertexCount);
+        for(int i = 0; i < this.vertexCount; i++){
+            points.add(new BBDPoint(this.coordinates[2 * i], this.coordinates[2 * i + 1]));
+        }
+        return new BBDPolygon(points);
+    }
+
+    /**
+     * The backing array of coordinates.  This is not a copy, so it is intended for read only bulk access such as
+     * uploading to a mesh.  If you do write to it call markModified() afterward.
+     * @return packed coordinates in the form x0, y0, x1, y1...
+     */
+    public float[] getCoordinates(){
+        return this.coordinates;
+    }
+
+    public int getVertexCount(){
+        return this.vertexCount;
+    }
+
+    public float getX(int index){
+        return this.coordinates[2 * index];
+    }
+
+    public float getY(int index){
+        return this.coordinates[2 * index + 1];
+    }
+
+    /**
+     * Get a single vertex as a point.  The point is a copy, changing it does not affect the polygon.
+     * @param index index of the vertex
+     * @return new point at the vertex
+     */
+    public BBDPoint getPoint(int index){
+        return new BBDPoint(this.coordinates[2 * index], this.coordinates[2 * index + 1]);
+    }
+
+    /**
+     * Get a single edge as a segment, from vertex index to the vertex after it.  The segment is a copy.
+     * @param index index of the starting vertex
+     * @return new segment along the edge
+     */
+    public BBDSegment getSegment(int index){
+        return new BBDSegment(this.getPoint(index), this.getPoint((index + 1) % this.vertexCount));
+    }
+
+    /**
+     * Flag that the coordinates were changed directly through getCoordinates() so that the bounds and cached area get
+     * recalculated.
+     */
+    public void markModified(){
+        this.refreshBounds();
+    }
+
+    private void refreshBounds(){
+        float[] bounds = new float[4];
+        BBDCoordinateKernels.bounds(this.coordinates, this.vertexCount, bounds);
+        //an infinite coordinate always ends up as one of the bounds
+        for(float bound : bounds){
+            if(Float.isInfinite(bound) && this.vertexCount > 0){
+                throw new CoordinateOverflowException("Coordinate of a packed polygon has reached the bounds provided by the float type");
+            }
+        }
+        this.boundsMinX = bounds[0];
+        this.boundsMaxX = bounds[2];
+        this.boundsMinY = bounds[1];
+        this.boundsMaxY = bounds[3];
+        this.areaProperties = null;
+    }
+
+    /**
+     * The horizontal dimension of this polygon
+     * @return max width of the polygon
+     */
+    public float width(){
+        return this.boundsMaxX - this.boundsMinX;
+    }
+
+    /**
+     * The vertical dimension of this polygon
+     * @return max height of the polygon
+     */
+    public float height(){
+        return this.boundsMaxY - this.boundsMinY;
+    }
+
+    public float maxX(){
+        return this.boundsMaxX;
+    }
+
+    public float maxY(){
+        return this.boundsMaxY;
+    }
+
+    public float minX(){
+        return this.boundsMinX;
+    }
+
+    public float minY(){
+        return this.boundsMinY;
+    }
+
+    /**
+     * Check if the bounding boxes of 2 polygons overlap or touch.
+     * @param otherPolygon the other polygon
+     * @return do the bounding boxes overlap
+     */
+    public boolean boundsOverlap(BBDPackedPolygon otherPolygon){
+        return this.boundsOverlap(otherPolygon.boundsMinX, otherPolygon.boundsMinY, otherPolygon.boundsMaxX, otherPolygon.boundsMaxY);
+    }
+
+    /**
+     * Check if the bounding box of this polygon overlaps or touches the given box, with the usual tolerance.
+     * @return do the boxes overlap
+     */
+    public boolean boundsOverlap(float minX, float minY, float maxX, float maxY){
+        float delta = BBDGeometryHelpers.ALLOWABLE_DELTA;
+        return this.boundsMinX <= maxX + delta && minX <= this.boundsMaxX + delta
+                && this.boundsMinY <= maxY + delta && minY <= this.boundsMaxY + delta;
+    }
+
+    public boolean boundsContainPoint(float x, float y){
+        return this.boundsOverlap(x, y, x, y);
+    }
+
+    /**
+     * Translate the polygon a specified amount in both cardinal directions
+     * @param dx distance on x axis
+     * @param dy distance on y axis
+     */
+    @Override
+    public void translate(float dx, float dy) {
+        BBDCoordinateKernels.translate(this.coordinates, this.vertexCount, dx, dy);
+        this.refreshBounds();
+    }
+
+    /**
+     * Scale the polygon by a given amount using the center as the location to scale from
+     * @param scaleFactor factor to scale by
+     */
+    @Override
+    public void scale(float scaleFactor) {
+        this.scaleFromPoint((this.boundsMinX + this.boundsMaxX) / 2, (this.boundsMinY + this.boundsMaxY) / 2, scaleFactor);
+    }
+
+    /**
+     * Scale the polygon by a given amount centered on a given location
+     * @param centerOfScale point from which the polygon is scaled
+     * @param scaleFactor factor to scale by
+     */
+    @Override
+    public void scaleFromPoint(BBDPoint centerOfScale, float scaleFactor) {
+        this.scaleFromPoint(centerOfScale.getXLoc(), centerOfScale.getYLoc(), scaleFactor);
+    }
+
+    public void scaleFromPoint(float centerX, float centerY, float scaleFactor){
+        BBDCoordinateKernels.scaleFromPoint(this.coordinates, this.vertexCount, centerX, centerY, scaleFactor);
+        this.refreshBounds();
+    }
+
+    /**
+     * Rotate the polygon around the center.  Same direction convention as BBDPolygon.
+     * @param radians how much to rotate
+     */
+    @Override
+    public void rotate(float radians) {
+        this.rotateAroundPoint((this.boundsMinX + this.boundsMaxX) / 2, (this.boundsMinY + this.boundsMaxY) / 2, radians);
+    }
+
+    /**
+     * Rotate the polygon around a specific point.  Same direction convention as BBDPolygon.
+     * @param centerOfRotation point from which the polygon is rotated
+     * @param radians how much to rotate
+     */
+    @Override
+    public void rotateAroundPoint(BBDPoint centerOfRotation, float radians) {
+        this.rotateAroundPoint(centerOfRotation.getXLoc(), centerOfRotation.getYLoc(), radians);
+    }
+
+    public void rotateAroundPoint(float centerX, float centerY, float radians){
+        //the sine and cosine are the same for every vertex, so the kernel calculates them once
+        BBDCoordinateKernels.rotateAroundPoint(this.coordinates, this.vertexCount, centerX, centerY, radians);
+        this.refreshBounds();
+    }
+
+    /**
+     * Center of the bounding box, same as BBDPolygon.center()
+     * @return geometric center of polygon
+     */
+    @Override
+    public BBDPoint center() {
+        return new BBDPoint((this.boundsMinX + this.boundsMaxX) / 2, (this.boundsMinY + this.boundsMaxY) / 2);
+    }
+
+    /**
+     * Average of all the vertices
+     * @return the average of all the points
+     */
+    public BBDPoint centerAverage(){
+        float aggX = 0;
+        float aggY = 0;
+        for(int i = 0; i < this.coordinates.length; i += 2){
+            aggX += this.coordinates[i];
+            aggY += this.coordinates[i + 1];
+        }
+        return new BBDPoint(aggX / this.vertexCount, aggY / this.vertexCount);
+    }
+
+    /**
+     * Get the signed area, winding and centroid of this polygon, cached until the vertices move.
+     * @return area properties of the polygon
+     */
+    public BBDAreaProperties getAreaProperties(){
+        if(this.areaProperties == null){
+            this.areaProperties = BBDAreaProperties.fromCoordinates(this.coordinates, this.vertexCount);
+        }
+        return this.areaProperties;
+    }
+
+    public float area(){
+        return this.getAreaProperties().getArea();
+    }
+
+    public BBDPoint centroid(){
+        return this.getAreaProperties().getCentroid();
+    }
+
+    /**
+     * Determine if the vertices of the polygon are ordered clockwise or counterclockwise
+     * @return an integer from BBDGeometryHelpers designating in what direction the vertices are.
+     */
+    public int determineDirectionality(){
+        return this.getAreaProperties().getDirectionality();
+    }
+
+    /**
+     * Ensure that this polygon's vertices go in a specific direction.
+     * @param direction desired direction, should be a relevant constant from BBDGeometryHelpers.
+     */
+    public void enforceDirectionality(int direction){
+        BBDAreaProperties properties = this.getAreaProperties();
+
+        if (properties.getDirectionality() != direction && (direction == 0 || direction == 1)){
+            for(int low = 0, high = this.vertexCount - 1; low < high; low++, high--){
+                float x = this.coordinates[2 * low];
+                float y = this.coordinates[2 * low + 1];
+                this.coordinates[2 * low] = this.coordinates[2 * high];
+                this.coordinates[2 * low + 1] = this.coordinates[2 * high + 1];
+                this.coordinates[2 * high] = x;
+                this.coordinates[2 * high + 1] = y;
+            }
+            this.areaProperties = properties.reversed();
+        }
+    }
+
+    /**
+     * Check if the given point is on the perimeter of the polygon.
+     * @param pointToCheck point to check
+     * @return boolean stating is the pointToCheck on the perimeter
+     */
+    public boolean checkPointOnPerimeter(BBDPoint pointToCheck){
+        float x = pointToCheck.getXLoc();
+        float y = pointToCheck.getYLoc();
+        if(!this.boundsContainPoint(x, y)){
+            return false;
+        }
+        int previous = 2 * (this.vertexCount - 1);
+        for(int current = 0; current < this.coordinates.length; current += 2){
+            if(BBDSegmentIntersection.pointOnSegment(x, y, this.coordinates[previous], this.coordinates[previous + 1],
+                    this.coordinates[current], this.coordinates[current + 1])){
+                return true;
+            }
+            previous = current;
+        }
+        return false;
+    }
+
+    /**
+     * Check if a point is inside the polygon.  Points on the perimeter count as inside.
+     * @param pointToCheck point to check
+     * @return boolean stating if the point is inside the polygon.
+     */
+    public boolean checkPointInside(BBDPoint pointToCheck){
+        return this.checkPointInside(pointToCheck.getXLoc(), pointToCheck.getYLoc(), true);
+    }
+
+    /**
+     * Winding number point in polygon test, same as BBDPolygon.checkPointInside(float, float, boolean)
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @param includePerimeter should a point on the perimeter count as inside
+     * @return boolean stating if the point is inside the polygon
+     */
+    public boolean checkPointInside(float x, float y, boolean includePerimeter){
+        if(!this.boundsContainPoint(x, y)){
+            return false;
+        }
+
+        int windingNumber = 0;
+        int previous = 2 * (this.vertexCount - 1);
+        for(int current = 0; current < this.coordinates.length; current += 2){
+            float startX = this.coordinates[previous];
+            float startY = this.coordinates[previous + 1];
+            float endX = this.coordinates[current];
+            float endY = this.coordinates[current + 1];
+
+            if(BBDSegmentIntersection.pointOnSegment(x, y, startX, startY, endX, endY)){
+                return includePerimeter;
+            }
+
+            double side = ((double)endX - startX) * ((double)y - startY) - ((double)x - startX) * ((double)endY - startY);
+            if(startY <= y){
+                if(endY > y && side > 0){
+                    windingNumber++;
+                }
+            }else{
+                if(endY <= y && side < 0){
+                    windingNumber--;
+                }
+            }
+            previous = current;
+        }
+        return windingNumber != 0;
+    }
+
+    /**
+     * Check if a segment intersects the perimeter of this polygon
+     * @param segmentToCheck segment to check
+     * @return do they intersect
+     */
+    public boolean checkSegmentIntersectPolygon(BBDSegment segmentToCheck){
+        BBDPoint start = segmentToCheck.getStartPoint();
+        BBDPoint end = segmentToCheck.getEndPoint();
+        return this.checkSegmentIntersectPolygon(start.getXLoc(), start.getYLoc(), end.getXLoc(), end.getYLoc());
+    }
+
+    public boolean checkSegmentIntersectPolygon(float ax, float ay, float bx, float by){
+        if(!this.boundsOverlap(Math.min(ax, bx), Math.min(ay, by), Math.max(ax, bx), Math.max(ay, by))){
+            return false;
+        }
+        int previous = 2 * (this.vertexCount - 1);
+        for(int current = 0; current < this.coordinates.length; current += 2){
+            if(BBDSegmentIntersection.intersect(ax, ay, bx, by, this.coordinates[previous], this.coordinates[previous + 1],
+                    this.coordinates[current], this.coordinates[current + 1], null) != BBDSegmentIntersection.DISJOINT){
+                return true;
+            }
+            previous = current;
+        }
+        return false;
+    }
+
+    /**
+     * Test if this polygon intersects another, including one containing the other.
+     * @param otherPolygon the other polygon
+     * @return boolean stating if these polygons intersect
+     */
+    public boolean checkPolygonIntersectsPolygon(BBDPackedPolygon otherPolygon){
+        if(!this.boundsOverlap(otherPolygon)){
+            return false;
+        }
+        if(BBDEdgeSweep.intersects(this.coordinates, otherPolygon.coordinates)){
+            return true;
+        }
+        return this.checkPolygonContainsPolygon(otherPolygon) || otherPolygon.checkPolygonContainsPolygon(this);
+    }
+
+    /**
+     * Test if this polygon contains another
+     * @param otherPolygon other polygon that might be contained within this one
+     * @return boolean stating if the given polygon is contained within this one
+     */
+    public boolean checkPolygonContainsPolygon(BBDPackedPolygon otherPolygon){
+        float delta = BBDGeometryHelpers.ALLOWABLE_DELTA;
+        if(otherPolygon.boundsMinX < this.boundsMinX - delta || otherPolygon.boundsMaxX > this.boundsMaxX + delta
+                || otherPolygon.boundsMinY < this.boundsMinY - delta || otherPolygon.boundsMaxY > this.boundsMaxY + delta){
+            return false;
+        }
+        float[] other = otherPolygon.coordinates;
+        for(int i = 0; i < other.length; i += 2){
+            if(!this.checkPointInside(other[i], other[i + 1], true)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine the distance squared to a point.  Points inside the polygon have a distance of 0.
+     * @param otherPoint other point to measure distance to
+     * @return distance squared to the other point
+     */
+    public float distanceSquaredToPoint(BBDPoint otherPoint){
+        return this.distanceSquaredToPoint(otherPoint.getXLoc(), otherPoint.getYLoc());
+    }
+
+    public float distanceSquaredToPoint(float x, float y){
+        if(this.checkPointInside(x, y, true)){
+            return 0;
+        }
+        float minDist = Float.MAX_VALUE;
+        int previous = 2 * (this.vertexCount - 1);
+        for(int current = 0; current < this.coordinates.length; current += 2){
+            float distance = BBDSegmentIntersection.distanceSquaredToSegment(x, y, this.coordinates[previous],
+                    this.coordinates[previous + 1], this.coordinates[current], this.coordinates[current + 1]);
+            if(distance < minDist){
+                minDist = distance;
+            }
+            previous = current;
+        }
+        return minDist;
+    }
+
+    /**
+     * Determine the distance squared to a segment.  Segments touching or inside the polygon have a distance of 0.
+     * @param otherSegment other segment to measure distance to
+     * @return distance squared to the other segment
+     */
+    public float distanceSquaredToSegment(BBDSegment otherSegment){
+        BBDPoint start = otherSegment.getStartPoint();
+        BBDPoint end = otherSegment.getEndPoint();
+        float ax = start.getXLoc(), ay = start.getYLoc();
+        float bx = end.getXLoc(), by = end.getYLoc();
+        if(this.checkPointInside(ax, ay, true) || this.checkSegmentIntersectPolygon(ax, ay, bx, by)){
+            return 0;
+        }
+        return this.edgeDistanceSquared(ax, ay, bx, by);
+    }
+
+    /**
+     * Determine the distance squared to another polygon.  Overlapping polygons have a distance of 0.
+     * @param otherPolygon other polygon to measure distance to
+     * @return distance squared to the other polygon
+     */
+    public float distanceSquaredToPolygon(BBDPackedPolygon otherPolygon){
+        if(this.checkPolygonIntersectsPolygon(otherPolygon)){
+            return 0;
+        }
+        float minDist = Float.MAX_VALUE;
+        float[] other = otherPolygon.coordinates;
+        int previous = 2 * (otherPolygon.vertexCount - 1);
+        for(int current = 0; current < other.length; current += 2){
+            float distance = this.edgeDistanceSquared(other[previous], other[previous + 1], other[current], other[current + 1]);
+            if(distance < minDist){
+                minDist = distance;
+            }
+            previous = current;
+        }
+        return minDist;
+    }
+
+    /**
+     * Smallest distance squared between segment AB and any edge of this polygon, assuming they don't intersect.  With no
+     * intersection the closest pair always involves an end point of one of the segments.
+     */
+    private float edgeDistanceSquared(float ax, float ay, float bx, float by){
+        float minDist = Float.MAX_VALUE;
+        int previous = 2 * (this.vertexCount - 1);
+        for(int current = 0; current < this.coordinates.length; current += 2){
+            float cx = this.coordinates[previous], cy = this.coordinates[previous + 1];
+            float dx = this.coordinates[current], dy = this.coordinates[current + 1];
+            float distance = Math.min(
+                    Math.min(BBDSegmentIntersection.distanceSquaredToSegment(ax, ay, cx, cy, dx, dy),
+                            BBDSegmentIntersection.distanceSquaredToSegment(bx, by, cx, cy, dx, dy)),
+                    Math.min(BBDSegmentIntersection.distanceSquaredToSegment(cx, cy, ax, ay, bx, by),
+                            BBDSegmentIntersection.distanceSquaredToSegment(dx, dy, ax, ay, bx, by)));
+            if(distance < minDist){
+                minDist = distance;
+            }
+            previous = current;
+        }
+        return minDist;
+    }
+
+    /**
+     * Triangulate the polygon into an index buffer.
+     * @param triangleDirectionality do you want the triangles to have a specific directionality
+     * @return indices into this polygon's vertices, 3 per triangle
+     */
+    public int[] triangulate(Integer triangleDirectionality){
+        return BBDTriangulator.triangulate(this.coordinates, triangleDirectionality);
+    }
+
+    public String toString(){
+        return "BBDPackedPolygon object consisting of "+this.vertexCount+" vertices ";
+    }
+}
@@ -114,6 +114,16 @@ public class BBDPoint implements BBDGeometry{
         validateCoordinates();
     }
 
+    /**
+     * Move the point straight to a new location, for polygons that work out their vertices themselves
+     */
+    void setLocation(float x, float y){
+        this.xLoc = x;
+        this.yLoc = y;
+
+        validateCoordinates();
+    }
+
     /**
      * Center point.  Should return the point itself
      * @return this point
@@ -170,6 +180,18 @@ public class BBDPoint implements BBDGeometry{
                 && Math.abs(this.yLoc - otherPoint.yLoc) < BBDGeometryHelpers.ALLOWABLE_DELTA);
     }
 
+    /**
+     * Points are equal when they are within ALLOWABLE_DELTA of each other, so however the coordinates were rounded into
+     * a hash there would be equal points on either side of a rounding boundary with different hashes.  Instead every
+     * point has the same hash, which keeps HashSet and HashMap correct but no faster than a list.  Use BBDPointSet or
+     * BBDPointMap to look points up by location quickly.
+     * @return the same value for every point
+     */
+    @Override
+    public int hashCode(){
+        return 0;
+    }
+
     private void validateCoordinates(){
         //validate xLoc
         if(this.xLoc == Float.MAX_VALUE
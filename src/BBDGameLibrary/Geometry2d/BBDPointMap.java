@@ -0,0 +1,222 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.Arrays;
+
+/**
+ * Hash map keyed by location that matches keys the same way BBDPoint.equals() does, within ALLOWABLE_DELTA on both
+ * axes.  Looking points up in a list with contains() or indexOf() checks every element, so deduplicating n points that
+ * way takes O(n^2).  This takes O(1) a point.
+ *
+ * Keys are snapped to a grid with cells ALLOWABLE_DELTA wide.  Any 2 points in the same cell are equal, so each cell
+ * holds about 1 key, and a point can only equal keys in its own cell or the 8 around it, so a lookup checks those 9.
+ * Points near a cell border still match across it.  When more than 1 key is within tolerance, which can happen since
+ * tolerant equality isn't transitive, the closest one is used.
+ *
+ * Entries are kept in the order they were first added and can be read back by index.  Keys keep the location they were
+ * first added with, later matches only replace the value.
+ * @param <V> type of the values
+ */
+public class BBDPointMap<V> {
+
+    private static final float CELL_SIZE = BBDGeometryHelpers.ALLOWABLE_DELTA;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY = -1;
+
+    // Entries in the order they were added.
+    private float[] keyX = new float[INITIAL_CAPACITY];
+    private float[] keyY = new float[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Open addressing table from grid cell to entry, always at most half full.
+    private long[] slotCellX = new long[2 * INITIAL_CAPACITY];
+    private long[] slotCellY = new long[2 * INITIAL_CAPACITY];
+    private int[] slotEntry = new int[2 * INITIAL_CAPACITY];
+
+    public BBDPointMap(){
+        Arrays.fill(this.slotEntry, EMPTY);
+    }
+
+    /**
+     * Number of distinct keys
+     * @return key count
+     */
+    public int size(){
+        return this.size;
+    }
+
+    public boolean isEmpty(){
+        return this.size == 0;
+    }
+
+    /**
+     * Remove every entry, keeping the space that has been allocated
+     */
+    public void clear(){
+        Arrays.fill(this.values, 0, this.size, null);
+        Arrays.fill(this.slotEntry, EMPTY);
+        this.size = 0;
+    }
+
+    /**
+     * Set the value for a location
+     * @param key location to use as the key
+     * @param value value to store
+     * @return the value previously stored for a matching key, or null if there wasn't one
+     */
+    public V put(BBDPoint key, V value){
+        return this.put(key.getXLoc(), key.getYLoc(), value);
+    }
+
+    /**
+     * Set the value for a location
+     * @param x x coordinate of the key
+     * @param y y coordinate of the key
+     * @param value value to store
+     * @return the value previously stored for a matching key, or null if there wasn't one
+     */
+    public V put(float x, float y, V value){
+        int entry = this.find(x, y);
+        if(entry != EMPTY){
+            V previous = this.getValue(entry);
+            this.values[entry] = value;
+            return previous;
+        }
+        this.add(x, y, value);
+        return null;
+    }
+
+    /**
+     * Set the value for a location if there isn't one there already
+     * @return index of the entry for the location, which is size() - 1 if it was just added
+     */
+    int putIfAbsent(float x, float y, V value){
+        int entry = this.find(x, y);
+        if(entry != EMPTY){
+            return entry;
+        }
+        return this.add(x, y, value);
+    }
+
+    public V get(BBDPoint key){
+        return this.get(key.getXLoc(), key.getYLoc());
+    }
+
+    /**
+     * Look up the value for a location
+     * @return the value stored for the closest matching key, or null if there isn't one
+     */
+    public V get(float x, float y){
+        int entry = this.find(x, y);
+        return entry == EMPTY ? null : this.getValue(entry);
+    }
+
+    public boolean containsKey(BBDPoint key){
+        return this.find(key.getXLoc(), key.getYLoc()) != EMPTY;
+    }
+
+    public boolean containsKey(float x, float y){
+        return this.find(x, y) != EMPTY;
+    }
+
+    /**
+     * Index of the entry whose key matches a location
+     * @return index of the closest matching entry, or -1 if none match
+     */
+    public int indexOf(float x, float y){
+        return this.find(x, y);
+    }
+
+    public float getKeyX(int index){
+        return this.keyX[index];
+    }
+
+    public float getKeyY(int index){
+        return this.keyY[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getValue(int index){
+        return (V)this.values[index];
+    }
+
+    private int add(float x, float y, V value){
+        if(this.size == this.keyX.length){
+            int capacity = 2 * this.keyX.length;
+            this.keyX = Arrays.copyOf(this.keyX, capacity);
+            this.keyY = Arrays.copyOf(this.keyY, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.rehash(2 * capacity);
+        }
+        int entry = this.size++;
+        this.keyX[entry] = x;
+        this.keyY[entry] = y;
+        this.values[entry] = value;
+        this.insertSlot(cell(x), cell(y), entry);
+        return entry;
+    }
+
+    /**
+     * Check the cell a location falls in and the ones around it for the closest matching key
+     */
+    private int find(float x, float y){
+        if(this.size == 0){
+            return EMPTY;
+        }
+        long cellX = cell(x);
+        long cellY = cell(y);
+        int best = EMPTY;
+        float bestDistance = Float.MAX_VALUE;
+        int mask = this.slotEntry.length - 1;
+        for(long offsetX = -1; offsetX <= 1; offsetX++){
+            for(long offsetY = -1; offsetY <= 1; offsetY++){
+                long searchX = cellX + offsetX;
+                long searchY = cellY + offsetY;
+                //rounding can very rarely put 2 keys in a cell, so keep going to the end of the probe run
+                for(int slot = hash(searchX, searchY) & mask; this.slotEntry[slot] != EMPTY; slot = (slot + 1) & mask){
+                    if(this.slotCellX[slot] != searchX || this.slotCellY[slot] != searchY){
+                        continue;
+                    }
+                    int entry = this.slotEntry[slot];
+                    float deltaX = Math.abs(this.keyX[entry] - x);
+                    float deltaY = Math.abs(this.keyY[entry] - y);
+                    if(deltaX < CELL_SIZE && deltaY < CELL_SIZE && Math.max(deltaX, deltaY) < bestDistance){
+                        bestDistance = Math.max(deltaX, deltaY);
+                        best = entry;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static long cell(float value){
+        return (long)Math.floor((double)value / CELL_SIZE);
+    }
+
+    private static int hash(long cellX, long cellY){
+        long hash = cellX * 0x9E3779B97F4A7C15L + cellY * 0xC2B2AE3D27D4EB4FL;
+        return (int)(hash ^ (hash >>> 32));
+    }
+
+    private void insertSlot(long cellX, long cellY, int entry){
+        int mask = this.slotEntry.length - 1;
+        int slot = hash(cellX, cellY) & mask;
+        while(this.slotEntry[slot] != EMPTY){
+            slot = (slot + 1) & mask;
+        }
+        this.slotCellX[slot] = cellX;
+        this.slotCellY[slot] = cellY;
+        this.slotEntry[slot] = entry;
+    }
+
+    private void rehash(int slotCount){
+        this.slotCellX = new long[slotCount];
+        this.slotCellY = new long[slotCount];
+        this.slotEntry = new int[slotCount];
+        Arrays.fill(this.slotEntry, EMPTY);
+        for(int entry = 0; entry < this.size; entry++){
+            this.insertSlot(cell(this.keyX[entry]), cell(this.keyY[entry]), entry);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.ArrayList;
+
+/**
+ * Set of points that treats points as the same the way BBDPoint.equals() does, for deduplicating points in O(1) each
+ * rather than checking a list with contains().  See BBDPointMap for how the matching works.
+ *
+ * The set holds on to the point objects that were added, in the order they were added, and a point that matches one
+ * already in the set is not added.
+ */
+public class BBDPointSet {
+
+    private final BBDPointMap<BBDPoint> points = new BBDPointMap<>();
+
+    /**
+     * Add a point unless it matches one already in the set
+     * @param point point to add
+     * @return was the point added
+     */
+    public boolean add(BBDPoint point){
+        int size = this.points.size();
+        return this.points.putIfAbsent(point.getXLoc(), point.getYLoc(), point) == size;
+    }
+
+    public boolean contains(BBDPoint point){
+        return this.points.containsKey(point);
+    }
+
+    public boolean contains(float x, float y){
+        return this.points.containsKey(x, y);
+    }
+
+    /**
+     * Find the point in the set that matches a location
+     * @return the closest matching point, or null if none match
+     */
+    public BBDPoint find(float x, float y){
+        return this.points.get(x, y);
+    }
+
+    public int size(){
+        return this.points.size();
+    }
+
+    public boolean isEmpty(){
+        return this.points.isEmpty();
+    }
+
+    public void clear(){
+        this.points.clear();
+    }
+
+    /**
+     * Get one of the points
+     * @param index position in the order the points were added
+     * @return the point
+     */
+    public BBDPoint get(int index){
+        return this.points.getValue(index);
+    }
+
+    /**
+     * Copy the points into a list, in the order they were added
+     * @return new list of the points
+     */
+    public ArrayList<BBDPoint> toList(){
+        ArrayList<BBDPoint> list = new ArrayList<>(this.points.size());
+        for(int i = 0; i < this.points.size(); i++){
+            list.add(this.points.getValue(i));
+        }
+        return list;
+    }
+}
@@ -1,7 +1,5 @@
 package BBDGameLibrary.Geometry2d;
 
-import BBDGameLibrary.Geometry2d.Exceptions.ParallelLinesException;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -12,10 +10,43 @@ public class BBDPolygon implements BBDGeometry{
      * Class to handle closed polygons.
      */
 
+    // Sine of the angle between 2 segments below which cleanPolygon() treats them as colinear.
+    private static final double COLINEAR_SINE = Math.sin(Math.toRadians(BBDGeometryHelpers.ALLOWABLE_DELTA_COARSE));
+
     // Pieces that define the polygon.
     private ArrayList<BBDPoint> points;
     private ArrayList<BBDSegment> segments;
 
+    // Incremented every time the polygon is modified so that cached values know when they are stale.
+    private int modificationCount = 0;
+
+    // Cached area, winding and centroid, valid while areaPropertiesVersion matches modificationCount.
+    private BBDAreaProperties areaProperties = null;
+    private int areaPropertiesVersion = -1;
+
+    // Cached axis aligned bounding box, valid while boundsVersion matches modificationCount.
+    private float boundsMinX;
+    private float boundsMaxX;
+    private float boundsMinY;
+    private float boundsMaxY;
+    private int boundsVersion = -1;
+
+    // Cached packed coordinates and unit outward edge normals, valid while their versions match modificationCount.
+    private float[] packedCoordinates = null;
+    private int packedCoordinatesVersion = -1;
+    private float[] edgeNormals = null;
+    private int edgeNormalsVersion = -1;
+
+    // Optional hierarchy over the edges for large polygons, valid while edgeTreeVersion matches modificationCount.
+    private boolean edgeTreeEnabled = false;
+    private BBDEdgeTree edgeTree = null;
+    private int edgeTreeVersion = -1;
+
+    // Cached convexity and convex pieces, valid while convexPiecesVersion matches modificationCount.
+    private boolean convex;
+    private BBDPolygon[] convexPieces = null;
+    private int convexPiecesVersion = -1;
+
     public ArrayList<BBDPoint> getPoints(){
         return this.points;
     }
@@ -70,6 +101,215 @@ public class BBDPolygon implements BBDGeometry{
 
         this.points = inputPoints;
         this.segments = segments;
+        this.markModified();
+    }
+
+    /**
+     * Flag that the shape of this polygon has changed so that any cached values get recalculated.  All of the methods on
+     * this class call it for you, but if you move points obtained from getPoints() directly you will need to call it
+     * yourself.
+     */
+    public void markModified(){
+        this.modificationCount++;
+    }
+
+    /**
+     * Bring every cached value up to date now rather than on the next query that needs it.  Queries only fill in the
+     * caches, they don't otherwise change the polygon, so once this has been called any number of threads can query the
+     * polygon at the same time until it is next modified.  The convex pieces used by BBDCollision.timeOfImpact() cost
+     * a triangulation for concave polygons, so they are left to refreshConvexPieces().
+     */
+    public void refreshCaches(){
+        this.currentEdgeTree();
+        this.refreshBounds();
+        this.getEdgeNormals();
+    }
+
+    /**
+     * Copy the vertices into a packed array, which is the form the lower level geometry routines work with.
+     * @return packed coordinates in the form x0, y0, x1, y1...
+     */
+    public float[] toCoordinates(){
+        float[] coordinates = new float[2 * this.points.size()];
+        for(int i = 0; i < this.points.size(); i++){
+            coordinates[2 * i] = this.points.get(i).getXLoc();
+            coordinates[2 * i + 1] = this.points.get(i).getYLoc();
+        }
+        return coordinates;
+    }
+
+    /**
+     * Packed coordinates cached until the polygon is modified.  Used by the collision routines so that repeated tests
+     * against a shape that hasn't moved don't allocate anything.  The array is shared, so it must not be modified.
+     * @return packed coordinates in the form x0, y0, x1, y1...
+     */
+    float[] getPackedCoordinates(){
+        if(this.packedCoordinates == null || this.packedCoordinatesVersion != this.modificationCount){
+            if(this.packedCoordinates != null && this.packedCoordinates.length == 2 * this.points.size()){
+                for(int i = 0; i < this.points.size(); i++){
+                    this.packedCoordinates[2 * i] = this.points.get(i).getXLoc();
+                    this.packedCoordinates[2 * i + 1] = this.points.get(i).getYLoc();
+                }
+            }else{
+                this.packedCoordinates = this.toCoordinates();
+            }
+            this.packedCoordinatesVersion = this.modificationCount;
+        }
+        return this.packedCoordinates;
+    }
+
+    /**
+     * Copy the unit normal of each edge pointing out of the polygon into a packed array, laid out the same way as the
+     * coordinates so that edge i, from vertex i to vertex i+1, has its normal at 2i and 2i+1.  Zero length edges get a
+     * zero normal.
+     * @return packed edge normals
+     */
+    public float[] toEdgeNormals(){
+        return this.getEdgeNormals().clone();
+    }
+
+    /**
+     * Edge normals as in toEdgeNormals(), cached until the polygon is modified.  Used by the collision routines so that
+     * repeated tests against a shape that hasn't moved don't allocate anything.  The array is shared, so it must not be
+     * modified.
+     * @return packed edge normals
+     */
+    float[] getEdgeNormals(){
+        if(this.edgeNormals == null || this.edgeNormalsVersion != this.modificationCount){
+            float[] coordinates = this.getPackedCoordinates();
+            int count = this.points.size();
+            if(this.edgeNormals == null || this.edgeNormals.length != coordinates.length){
+                this.edgeNormals = new float[coordinates.length];
+            }
+            //rotating the edge direction a quarter turn points outward for counterclockwise polygons, flip it otherwise
+            float sign = this.getAreaProperties().getSignedArea() < 0 ? -1 : 1;
+            for(int i = 0; i < count; i++){
+                int next = (i + 1) % count;
+                double dx = coordinates[2 * next] - coordinates[2 * i];
+                double dy = coordinates[2 * next + 1] - coordinates[2 * i + 1];
+                double length = Math.sqrt(dx * dx + dy * dy);
+                if(length == 0){
+                    this.edgeNormals[2 * i] = 0;
+                    this.edgeNormals[2 * i + 1] = 0;
+                }else{
+                    this.edgeNormals[2 * i] = (float)(sign * dy / length);
+                    this.edgeNormals[2 * i + 1] = (float)(-sign * dx / length);
+                }
+            }
+            this.edgeNormalsVersion = this.modificationCount;
+        }
+        return this.edgeNormals;
+    }
+
+    /**
+     * Check if the polygon is convex, meaning no vertex turns the opposite way from the polygon as a whole.  Colinear
+     * vertices are allowed.
+     * @return is the polygon convex
+     */
+    public boolean isConvex(){
+        this.refreshConvexPieces();
+        return this.convex;
+    }
+
+    /**
+     * Convex pieces that together cover the polygon, for the routines that only work on convex shapes.  A convex polygon
+     * is its own only piece, and a concave one is split into triangles made of copies of its points.  The pieces are
+     * cached until the polygon is modified, and the array is shared so it must not be modified.
+     * @return convex pieces of the polygon
+     */
+    BBDPolygon[] getConvexPieces(){
+        this.refreshConvexPieces();
+        return this.convexPieces;
+    }
+
+    /**
+     * Have the convex pieces been worked out for the polygon as it is now
+     * @return are the pieces up to date
+     */
+    public boolean hasConvexPieces(){
+        return this.convexPieces != null && this.convexPiecesVersion == this.modificationCount;
+    }
+
+    /**
+     * Work out the convex pieces now rather than on the next query that needs them, so that BBDCollision.timeOfImpact()
+     * can be called on the polygon from several threads at once.  Call refreshCaches() as well for the other caches.
+     */
+    public void refreshConvexPieces(){
+        if(this.convexPiecesVersion == this.modificationCount){
+            return;
+        }
+        float[] coordinates = this.getPackedCoordinates();
+        int count = this.points.size();
+        double orientation = this.getAreaProperties().getSignedArea() < 0 ? -1 : 1;
+        this.convex = count < 3 || BBDPreparedPolygon.isConvex(coordinates, count, orientation);
+        if(this.convex){
+            this.convexPieces = new BBDPolygon[]{this};
+        }else{
+            int[] indices = BBDTriangulator.triangulate(coordinates, null);
+            this.convexPieces = new BBDPolygon[indices.length / 3];
+            for(int i = 0; i < this.convexPieces.length; i++){
+                ArrayList<BBDPoint> trianglePoints = new ArrayList<>(3);
+                for(int corner = 0; corner < 3; corner++){
+                    int index = indices[3 * i + corner];
+                    trianglePoints.add(new BBDPoint(coordinates[2 * index], coordinates[2 * index + 1]));
+                }
+                BBDPolygon triangle = new BBDPolygon(trianglePoints);
+                //the pieces are only ever read, so fill in their caches now to keep them safe to share between threads
+                triangle.refreshCaches();
+                triangle.refreshConvexPieces();
+                this.convexPieces[i] = triangle;
+            }
+        }
+        this.convexPiecesVersion = this.modificationCount;
+    }
+
+    /**
+     * Turn on a bounding volume hierarchy over the edges of this polygon.  Once enabled, containment, perimeter and
+     * distance queries descend the tree in O(log n) rather than checking every edge, which is worth it for polygons
+     * with thousands of vertices like imported maps and coastlines.  For small polygons the plain loop is faster.
+     *
+     * The tree is built on the next query.  movePoint() refits it in O(log n), transforms refit it in O(n), and adding
+     * or removing points rebuilds it.
+     */
+    public void enableEdgeTree(){
+        this.edgeTreeEnabled = true;
+    }
+
+    /**
+     * Turn off the edge hierarchy and release it
+     */
+    public void disableEdgeTree(){
+        this.edgeTreeEnabled = false;
+        this.edgeTree = null;
+    }
+
+    public boolean isEdgeTreeEnabled(){
+        return this.edgeTreeEnabled;
+    }
+
+    /**
+     * The edge tree brought up to date with the current vertices, or null if it isn't enabled.
+     */
+    private BBDEdgeTree currentEdgeTree(){
+        if(!this.edgeTreeEnabled || this.points.size() < 3){
+            return null;
+        }
+        if(this.edgeTree == null || this.edgeTreeVersion != this.modificationCount){
+            if(this.edgeTree != null && this.edgeTree.getVertexCount() == this.points.size()){
+                this.edgeTree.refit(this.getPackedCoordinates());
+            }else{
+                this.edgeTree = new BBDEdgeTree(this.getPackedCoordinates());
+            }
+            this.edgeTreeVersion = this.modificationCount;
+        }
+        return this.edgeTree;
+    }
+
+    /**
+     * Whether the edge tree is up to date with the vertices, so a single vertex edit can refit it in place.
+     */
+    private boolean edgeTreeCurrent(){
+        return this.edgeTree != null && this.edgeTreeVersion == this.modificationCount;
     }
 
     public BBDPolygon copyPolygon(){
@@ -87,50 +327,127 @@ public class BBDPolygon implements BBDGeometry{
      * @return a cleaner polygon that still has the same shape
      */
     public BBDPolygon cleanPolygon(){
-        ArrayList<BBDPoint> points = (ArrayList<BBDPoint>) this.points.clone();
-        BBDPolygon returnPolygon = new BBDPolygon(points);
-
-        boolean done = false;
-        BBDPoint pointToRemove = null;
-        float zeroLengthThreshold = BBDGeometryHelpers.ALLOWABLE_DELTA * BBDGeometryHelpers.ALLOWABLE_DELTA;
-
-        while(!done){
-            for (int i = 0; i < returnPolygon.points.size(); i++){
-                //remove 0 length segments
-                if(returnPolygon.segments.get(i).lengthSquared() <= zeroLengthThreshold){
-                    pointToRemove = returnPolygon.segments.get(i).getEndPoint();
-                    break;
-                }
+        return this.cleanPolygon(false);
+    }
 
-                float slope1 = returnPolygon.segments.get(i).slopeInDegrees();
-                float slope2 = returnPolygon.segments.get((i + 1) % returnPolygon.segments.size()).slopeInDegrees();
+    /**
+     * Remove adjacent duplicate vertices and vertices between colinear segments, either from a copy or from this polygon.
+     * This is a single pass over the vertices that keeps the vertices kept so far on a stack.  Each new vertex pops any
+     * vertex it makes redundant off the top, and a final pass tidies up where the end of the list meets the start, so it
+     * runs in O(n).
+     * @param inPlace clean this polygon rather than a copy of it
+     * @return the cleaned polygon, which shares point objects with this one, or this polygon if cleaning in place
+     */
+    public BBDPolygon cleanPolygon(boolean inPlace){
+        BBDPoint[] kept = new BBDPoint[this.points.size()];
+        int first = 0;
+        int end = 0;
 
-                if(Math.abs(slope1 - slope2) < BBDGeometryHelpers.ALLOWABLE_DELTA_COARSE){
-                    pointToRemove = returnPolygon.segments.get(i).getEndPoint();
+        for(BBDPoint point : this.points){
+            boolean duplicate = false;
+            while(end > 0){
+                if(isDuplicatePoint(kept[end - 1], point)){
+                    duplicate = true;
+                    break;
+                }
+                if(end < 2 || !isColinearVertex(kept[end - 2], kept[end - 1], point)){
                     break;
                 }
+                end--;
             }
+            if(!duplicate){
+                kept[end++] = point;
+            }
+        }
 
-            if(pointToRemove != null){
-                returnPolygon.deletePoint(pointToRemove);
-                pointToRemove = null;
+        //where the last vertex meets the first, keep going until nothing changes
+        boolean changed = true;
+        while(changed && end - first > 3){
+            if(isDuplicatePoint(kept[end - 1], kept[first])){
+                first++;
+            }else if(isColinearVertex(kept[end - 2], kept[end - 1], kept[first])){
+                end--;
+            }else if(isColinearVertex(kept[end - 1], kept[first], kept[first + 1])){
+                first++;
             }else{
-                done = true;
+                changed = false;
             }
         }
-        return returnPolygon;
+
+        ArrayList<BBDPoint> cleanPoints = new ArrayList<>(Arrays.asList(kept).subList(first, end));
+        if(!inPlace){
+            return new BBDPolygon(cleanPoints);
+        }
+        if(cleanPoints.size() != this.points.size()){
+            this.points.clear();
+            this.points.addAll(cleanPoints);
+            this.buildSegments(this.points);
+        }
+        return this;
+    }
+
+    private static boolean isDuplicatePoint(BBDPoint first, BBDPoint second){
+        return first.distanceSquaredToPoint(second) <= BBDGeometryHelpers.ALLOWABLE_DELTA * BBDGeometryHelpers.ALLOWABLE_DELTA;
     }
 
+    /**
+     * Check if the segments either side of a vertex lie on the same line, in either direction, using the cross product
+     * of the 2 segments compared against their lengths so that no trigonometry is needed
+     */
+    private static boolean isColinearVertex(BBDPoint previous, BBDPoint vertex, BBDPoint next){
+        double firstX = vertex.getXLoc() - previous.getXLoc();
+        double firstY = vertex.getYLoc() - previous.getYLoc();
+        double secondX = next.getXLoc() - vertex.getXLoc();
+        double secondY = next.getYLoc() - vertex.getYLoc();
+        double cross = firstX * secondY - firstY * secondX;
+        double lengthsSquared = (firstX * firstX + firstY * firstY) * (secondX * secondX + secondY * secondY);
+        return cross * cross <= COLINEAR_SINE * COLINEAR_SINE * lengthsSquared;
+    }
+
+
+    /**
+     * Recalculate the bounding box if the polygon has been modified since it was last calculated.
+     */
+    private void refreshBounds(){
+        if (this.boundsVersion == this.modificationCount){
+            return;
+        }
+        if (this.edgeTreeCurrent()){
+            //the root of the edge tree already covers every vertex
+            this.boundsMinX = this.edgeTree.minX();
+            this.boundsMaxX = this.edgeTree.maxX();
+            this.boundsMinY = this.edgeTree.minY();
+            this.boundsMaxY = this.edgeTree.maxY();
+            this.boundsVersion = this.modificationCount;
+            return;
+        }
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+
+        for (BBDPoint point : points){
+            float x = point.getXLoc();
+            float y = point.getYLoc();
+            if(x < minX){minX = x;}
+            if(x > maxX){maxX = x;}
+            if(y < minY){minY = y;}
+            if(y > maxY){maxY = y;}
+        }
+        this.boundsMinX = minX;
+        this.boundsMaxX = maxX;
+        this.boundsMinY = minY;
+        this.boundsMaxY = maxY;
+        this.boundsVersion = this.modificationCount;
+    }
 
     /**
      * The horizontal dimension of this polygon
      * @return max width of the polygon
      */
     public float width(){
-        float maxX = maxX();
-        float minX = minX();
-
-        return maxX - minX;
+        this.refreshBounds();
+        return this.boundsMaxX - this.boundsMinX;
     }
 
     /**
@@ -138,10 +455,8 @@ public class BBDPolygon implements BBDGeometry{
      * @return max height of the polygon
      */
     public float height(){
-        float maxY = maxY();
-        float minY = minY();
-
-        return maxY - minY;
+        this.refreshBounds();
+        return this.boundsMaxY - this.boundsMinY;
     }
 
     /**
@@ -149,12 +464,8 @@ public class BBDPolygon implements BBDGeometry{
      * @return maximum X value
      */
     public float maxX(){
-        float maxX = Float.NEGATIVE_INFINITY;
-        for (BBDPoint point : points){
-            float x = point.getXLoc();
-            if(x > maxX){maxX = x;}
-        }
-        return maxX;
+        this.refreshBounds();
+        return this.boundsMaxX;
     }
 
     /**
@@ -162,12 +473,8 @@ public class BBDPolygon implements BBDGeometry{
      * @return maximum Y value
      */
     public float maxY(){
-        float maxY = Float.NEGATIVE_INFINITY;
-        for (BBDPoint point : points){
-            float y = point.getYLoc();
-            if(y > maxY){maxY = y;}
-        }
-        return maxY;
+        this.refreshBounds();
+        return this.boundsMaxY;
     }
 
     /**
@@ -175,12 +482,8 @@ public class BBDPolygon implements BBDGeometry{
      * @return minimum X value
      */
     public float minX(){
-        float minX = Float.POSITIVE_INFINITY;
-        for (BBDPoint point : points){
-            float x = point.getXLoc();
-            if(x < minX){minX = x;}
-        }
-        return minX;
+        this.refreshBounds();
+        return this.boundsMinX;
     }
 
     /**
@@ -188,14 +491,72 @@ public class BBDPolygon implements BBDGeometry{
      * @return minimum Y value
      */
     public float minY(){
-        float minY = Float.POSITIVE_INFINITY;
-        for (BBDPoint point : points){
-            float y = point.getYLoc();
-            if(y < minY){minY = y;}
-        }
-        return minY;
+        this.refreshBounds();
+        return this.boundsMinY;
+    }
+
+    /**
+     * Check if the bounding boxes of 2 polygons overlap or touch.  This is a cheap test that any pair of polygons has to
+     * pass before they can intersect, touch or contain each other.
+     * @param otherPolygon the other polygon
+     * @return do the bounding boxes overlap
+     */
+    public boolean boundsOverlap(BBDPolygon otherPolygon){
+        this.refreshBounds();
+        otherPolygon.refreshBounds();
+        return this.boundsOverlap(otherPolygon.boundsMinX, otherPolygon.boundsMinY, otherPolygon.boundsMaxX, otherPolygon.boundsMaxY);
+    }
+
+    /**
+     * Check if the bounding box of this polygon overlaps or touches the given box.  Uses the same tolerance as the rest
+     * of the geometry classes so that things that would count as touching are never rejected.
+     * @param minX minimum X of the box
+     * @param minY minimum Y of the box
+     * @param maxX maximum X of the box
+     * @param maxY maximum Y of the box
+     * @return do the boxes overlap
+     */
+    public boolean boundsOverlap(float minX, float minY, float maxX, float maxY){
+        this.refreshBounds();
+        float delta = BBDGeometryHelpers.ALLOWABLE_DELTA;
+        return this.boundsMinX <= maxX + delta && minX <= this.boundsMaxX + delta
+                && this.boundsMinY <= maxY + delta && minY <= this.boundsMaxY + delta;
     }
 
+    /**
+     * Check if a point is within the bounding box of this polygon, including a small tolerance
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return is the point within the bounding box
+     */
+    public boolean boundsContainPoint(float x, float y){
+        return this.boundsOverlap(x, y, x, y);
+    }
+
+    /**
+     * Check if the bounding box of this polygon completely contains the bounding box of the other polygon
+     * @param otherPolygon the other polygon
+     * @return is the other polygon's box inside this one's
+     */
+    private boolean boundsContainBounds(BBDPolygon otherPolygon){
+        this.refreshBounds();
+        otherPolygon.refreshBounds();
+        float delta = BBDGeometryHelpers.ALLOWABLE_DELTA;
+        return otherPolygon.boundsMinX >= this.boundsMinX - delta && otherPolygon.boundsMaxX <= this.boundsMaxX + delta
+                && otherPolygon.boundsMinY >= this.boundsMinY - delta && otherPolygon.boundsMaxY <= this.boundsMaxY + delta;
+    }
+
+    /**
+     * Check if a segment's bounding box overlaps the bounding box of this polygon
+     * @param segment segment to check
+     * @return do the boxes overlap
+     */
+    private boolean boundsOverlapSegment(BBDSegment segment){
+        BBDPoint start = segment.getStartPoint();
+        BBDPoint end = segment.getEndPoint();
+        return this.boundsOverlap(Math.min(start.getXLoc(), end.getXLoc()), Math.min(start.getYLoc(), end.getYLoc()),
+                Math.max(start.getXLoc(), end.getXLoc()), Math.max(start.getYLoc(), end.getYLoc()));
+    }
 
     /**
      *
@@ -209,6 +570,7 @@ public class BBDPolygon implements BBDGeometry{
         for (BBDPoint point: this.points){
             point.translate(dx, dy);
         }
+        this.markModified();
     }
 
     /**
@@ -221,6 +583,7 @@ public class BBDPolygon implements BBDGeometry{
         for (BBDPoint point: this.points){
             point.scaleFromPoint(center, scaleFactor);
         }
+        this.markModified();
     }
 
     /**
@@ -233,6 +596,7 @@ public class BBDPolygon implements BBDGeometry{
         for (BBDPoint point: this.points){
             point.scaleFromPoint(centerOfScale, scaleFactor);
         }
+        this.markModified();
     }
 
     /**
@@ -253,9 +617,17 @@ public class BBDPolygon implements BBDGeometry{
      */
     @Override
     public void rotateAroundPoint(BBDPoint centerOfRotation, float radians) {
+        //1 sin and cos for the whole polygon rather than converting every point to polar coordinates and back
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        double centerX = centerOfRotation.getXLoc();
+        double centerY = centerOfRotation.getYLoc();
         for (BBDPoint point: points){
-            point.rotateAroundPoint(centerOfRotation, radians);
+            double dx = point.getXLoc() - centerX;
+            double dy = point.getYLoc() - centerY;
+            point.setLocation((float)(centerX + cos * dx - sin * dy), (float)(centerY + sin * dx + cos * dy));
         }
+        this.markModified();
     }
 
 
@@ -266,20 +638,8 @@ public class BBDPolygon implements BBDGeometry{
      */
     @Override
     public BBDPoint center() {
-        float maxX = Float.NEGATIVE_INFINITY;
-        float maxY = Float.NEGATIVE_INFINITY;
-        float minX = Float.POSITIVE_INFINITY;
-        float minY = Float.POSITIVE_INFINITY;
-
-        for (BBDPoint point : points){
-            float x = point.getXLoc();
-            float y = point.getYLoc();
-            if(x < minX){minX = x;}
-            if(x > maxX){maxX = x;}
-            if(y < minY){minY = y;}
-            if(y > maxY){maxY = y;}
-        }
-        return new BBDPoint((minX+maxX)/2, (minY+maxY)/2);
+        this.refreshBounds();
+        return new BBDPoint((this.boundsMinX+this.boundsMaxX)/2, (this.boundsMinY+this.boundsMaxY)/2);
     }
 
     /**
@@ -303,15 +663,20 @@ public class BBDPolygon implements BBDGeometry{
     }
 
     /**
-     * Insert a point into the polygon's perimeter
+     * Insert a point into the polygon's perimeter.  Only the edge that the point splits is replaced.
      * @param point new point
      * @param index where to insert in the order
      * @return was a point inserted
      */
     public boolean insertPoint(BBDPoint point, int index){
         if(index >= 0 && index < this.points.size()) {
+            int count = this.points.size();
+            BBDPoint previous = this.points.get((index - 1 + count) % count);
+            BBDPoint next = this.points.get(index);
             this.points.add(index, point);
-            this.buildSegments(this.points);
+            this.segments.set((index - 1 + count) % count, new BBDSegment(previous, point));
+            this.segments.add(index, new BBDSegment(point, next));
+            this.markModified();
             return true;
         }else{
             return false;
@@ -319,14 +684,59 @@ public class BBDPolygon implements BBDGeometry{
     }
 
     /**
-     * Attempt to delete a point at an index
+     * Insert several points at once, rebuilding the edges a single time at the end rather than after every point.
+     * @param newPoints points to insert
+     * @param indices where to insert each point, as indices into the polygon as it was before any of them were
+     *                inserted.  Each point goes in front of the vertex at its index, and points with the same index go
+     *                in the order they are listed.
+     * @return were the points inserted.  If any index is out of range nothing is inserted.
+     */
+    public boolean insertPoints(ArrayList<BBDPoint> newPoints, int[] indices){
+        int count = this.points.size();
+        if(newPoints.size() != indices.length){
+            return false;
+        }
+        //count how many go in front of each vertex, then lay them out in one pass
+        int[] starts = new int[count + 1];
+        for(int index : indices){
+            if(index < 0 || index >= count){
+                return false;
+            }
+            starts[index + 1]++;
+        }
+        for(int i = 0; i < count; i++){
+            starts[i + 1] += starts[i];
+        }
+        BBDPoint[] ordered = new BBDPoint[newPoints.size()];
+        int[] filled = new int[count];
+        for(int i = 0; i < indices.length; i++){
+            ordered[starts[indices[i]] + filled[indices[i]]++] = newPoints.get(i);
+        }
+
+        ArrayList<BBDPoint> merged = new ArrayList<>(count + newPoints.size());
+        for(int i = 0; i < count; i++){
+            for(int j = starts[i]; j < starts[i + 1]; j++){
+                merged.add(ordered[j]);
+            }
+            merged.add(this.points.get(i));
+        }
+        this.buildSegments(merged);
+        return true;
+    }
+
+    /**
+     * Attempt to delete a point at an index.  Only the 2 edges on either side of the point are replaced.
      * @param index index of the point to delte
      * @return was a point successfully deleted
      */
     public boolean deletePoint(int index){
         if(index >= 0 && index < this.points.size() && this.points.size() >= 4) {
             this.points.remove(index);
-            this.buildSegments(this.points);
+            this.segments.remove(index);
+            int count = this.points.size();
+            int previous = (index - 1 + count) % count;
+            this.segments.set(previous, new BBDSegment(this.points.get(previous), this.points.get(index % count)));
+            this.markModified();
             return true;
         }else{
             return false;
@@ -339,13 +749,39 @@ public class BBDPolygon implements BBDGeometry{
      * @return was a point successfully deleted
      */
     public boolean deletePoint(BBDPoint point){
-        if(this.points.contains(point) && this.points.size() >= 4) {
-            this.points.remove(point);
-            this.buildSegments(this.points);
-            return true;
-        }else{
+        return this.deletePoint(this.points.indexOf(point));
+    }
+
+    /**
+     * Delete several points at once, rebuilding the edges a single time at the end rather than after every point.
+     * @param indices indices of the points to delete, in any order.  Repeats are ignored.
+     * @return were the points deleted.  If any index is out of range, or fewer than 3 points would be left, nothing is
+     * deleted.
+     */
+    public boolean deletePoints(int[] indices){
+        int count = this.points.size();
+        boolean[] deleted = new boolean[count];
+        int remaining = count;
+        for(int index : indices){
+            if(index < 0 || index >= count){
+                return false;
+            }
+            if(!deleted[index]){
+                deleted[index] = true;
+                remaining--;
+            }
+        }
+        if(remaining < 3){
             return false;
         }
+        ArrayList<BBDPoint> kept = new ArrayList<>(remaining);
+        for(int i = 0; i < count; i++){
+            if(!deleted[i]){
+                kept.add(this.points.get(i));
+            }
+        }
+        this.buildSegments(kept);
+        return true;
     }
 
     /**
@@ -357,8 +793,15 @@ public class BBDPolygon implements BBDGeometry{
      */
     public boolean movePoint(int index, float dx, float dy){
         if(index >= 0 && index < this.points.size()) {
-            this.points.get(index).translate(dx, dy);
-            this.buildSegments(this.points);
+            boolean refitTree = this.edgeTreeCurrent();
+            BBDPoint point = this.points.get(index);
+            point.translate(dx, dy);
+            //the segments share the point objects, so they are already up to date
+            this.markModified();
+            if(refitTree){
+                this.edgeTree.moveVertex(index, point.getXLoc(), point.getYLoc());
+                this.edgeTreeVersion = this.modificationCount;
+            }
             return true;
         }else{
             return false;
@@ -375,10 +818,18 @@ public class BBDPolygon implements BBDGeometry{
      */
     public boolean moveContiguousPoints(int startIndex, int endIndex, float dx, float dy){
         if(startIndex <= endIndex && startIndex<=0 && endIndex < this.points.size()){
+            boolean refitTree = this.edgeTreeCurrent();
             for (int i=startIndex; i<=endIndex; i++){
                 this.points.get(i).translate(dx, dy);
             }
-            this.buildSegments(this.points);
+            this.markModified();
+            if(refitTree){
+                for (int i=startIndex; i<=endIndex; i++){
+                    BBDPoint point = this.points.get(i);
+                    this.edgeTree.moveVertex(i, point.getXLoc(), point.getYLoc());
+                }
+                this.edgeTreeVersion = this.modificationCount;
+            }
             return true;
         }else{
             return false;
@@ -391,10 +842,14 @@ public class BBDPolygon implements BBDGeometry{
      * @param direction desired direction, should be a relevant constant from BBDGeometryUtils.
      */
     public void enforceDirectionality(int direction){
-        int currentDirection = this.determineDirectionality();
+        BBDAreaProperties properties = this.getAreaProperties();
 
-        if (currentDirection != direction && (direction == 0 || direction == 1)){
+        if (properties.getDirectionality() != direction && (direction == 0 || direction == 1)){
             Collections.reverse(this.points);
+            this.markModified();
+            //reversing the order only flips the sign of the area, no need to do the whole calculation again
+            this.areaProperties = properties.reversed();
+            this.areaPropertiesVersion = this.modificationCount;
         }
     }
 
@@ -403,41 +858,29 @@ public class BBDPolygon implements BBDGeometry{
      * @return an integer from BBDGeometryUtils designating in what direction the vertices are.
      */
     public int determineDirectionality(){
-        BBDPolygon[] triangles = null;
-        if(this.points.size() !=3){
-            triangles = new BBDPolygon[]{this};
-        } else{
-            triangles = this.decomposeIntoTriangles(null);
-        }
-        //the first triangle is likely to be the cleanest one that doesn't skip points
-        return this.determineDirectionality(triangles[0]);
+        return this.getAreaProperties().getDirectionality();
     }
 
     /**
-     * An internal method to determine the directionality of a polygon.
-     * @param triangle A triangle.  It is assumed that this triangle is NOT 3 colinear points.
-     * @return an integer from BBDGeometryUtils designating in what direction the vertices are.
+     * Get the signed area, winding and centroid of this polygon.  These are all calculated in a single O(n) pass and then
+     * cached until the polygon is modified.
+     * @return area properties of the polygon
      */
-    private int determineDirectionality(BBDPolygon triangle){
-        BBDPoint averageCenter = triangle.centerAverage();
-
-        float angle1 = averageCenter.angleToOtherPoint(triangle.points.get(0));
-        float angle2 = averageCenter.angleToOtherPoint(triangle.points.get(1));
-
-        angle1 += 2 * Math.PI;
-        angle2 += 2 * Math.PI;
-
-        float angleDiff1 = angle2 - angle1;
-        float angleDiff2 = angle1 - angle2;
-
-        if(angle1 > angle2){
-            if(angleDiff2 > Math.PI) return BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON;
-            else return BBDGeometryHelpers.CLOCKWISE_POLYGON;
-        } else{
-            if (angleDiff1 > Math.PI) return BBDGeometryHelpers.CLOCKWISE_POLYGON;
-            else return BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON;
+    public BBDAreaProperties getAreaProperties(){
+        if (this.areaProperties == null || this.areaPropertiesVersion != this.modificationCount){
+            this.areaProperties = BBDAreaProperties.fromPoints(this.points);
+            this.areaPropertiesVersion = this.modificationCount;
         }
+        return this.areaProperties;
+    }
 
+    /**
+     * Area weighted center of the polygon.  Unlike center() this accounts for how the area is distributed rather than
+     * just the bounds.
+     * @return the centroid of the polygon
+     */
+    public BBDPoint centroid(){
+        return this.getAreaProperties().getCentroid();
     }
 
     /**
@@ -446,6 +889,13 @@ public class BBDPolygon implements BBDGeometry{
      * @return boolean stating is the pointToCheck on the perimeter
      */
     public boolean checkPointOnPerimeter(BBDPoint pointToCheck){
+        if(!this.boundsContainPoint(pointToCheck.getXLoc(), pointToCheck.getYLoc())){
+            return false;
+        }
+        BBDEdgeTree tree = this.currentEdgeTree();
+        if(tree != null){
+            return tree.findEdgeContaining(pointToCheck.getXLoc(), pointToCheck.getYLoc()) != -1;
+        }
         for(BBDSegment segment: segments){
             if (segment.pointOnSegment(pointToCheck)){
                 return true;
@@ -462,14 +912,13 @@ public class BBDPolygon implements BBDGeometry{
      */
     public BBDSegment[] segmentIntersectPolygonList(BBDSegment segmentToCheck){
         ArrayList<BBDSegment> intersectingSegments = new ArrayList<>();
+        if(!this.boundsOverlapSegment(segmentToCheck)){
+            return new BBDSegment[0];
+        }
 
         for (BBDSegment segment: segments){
-            boolean thisSegmentIntersects = false;
             // by default the segment intersection should check end points
             if(segment.intersects(segmentToCheck)){
-                thisSegmentIntersects = true;
-            }
-            if (thisSegmentIntersects){
                 intersectingSegments.add(segment);
             }
         }
@@ -478,33 +927,33 @@ public class BBDPolygon implements BBDGeometry{
 
     /**
      * Create a list of intersection points for a segment and this polygon.
-     * Can also include the end points of the segment if they are on the polygon perimeter.
+     * Can also include the end points of the segment if they are on the polygon perimeter.  Where the segment runs
+     * along part of the perimeter both ends of the shared portion are included.
      * @param segmentToCheck  test segment
      * @return list of intersection points
      */
     public BBDPoint[] segmentIntersectPolygonPoints(BBDSegment segmentToCheck){
-        BBDSegment[] intersectionList = segmentIntersectPolygonList(segmentToCheck);
+        if(!this.boundsOverlapSegment(segmentToCheck)){
+            return new BBDPoint[0];
+        }
 
         // find unique intersection points
-        ArrayList<BBDPoint> intersectionPoints = new ArrayList<>();
+        BBDPointSet intersectionPoints = new BBDPointSet();
+        float[] intersection = new float[4];
 
-        BBDPoint intersection = null;
-        for(BBDSegment seg: intersectionList){
-            try {
-                intersection = seg.interceptPoint(segmentToCheck);
-            } catch(ParallelLinesException e){
-                /*if we get here, it is because the lines are parallel. If they are colinear, we will do nothing
-                 * , because the perimeter segment is guaranteed to have both points on the test segment
-                 * due the way the test is created.  Therefore both points will be covered by the
-                 * neighboring segments.  If they aren't then there is no intersection anyway, so no change.
-                 * But we need the try catch because it is a thrown exception.
-                 */
+        for(BBDSegment seg: this.segments){
+            int result = segmentToCheck.intersect(seg, intersection);
+            if(result == BBDSegmentIntersection.DISJOINT){
+                continue;
+            }
+            if(!intersectionPoints.contains(intersection[0], intersection[1])){
+                intersectionPoints.add(new BBDPoint(intersection[0], intersection[1]));
             }
-            if(intersection != null && !intersectionPoints.contains(intersection)) {
-                intersectionPoints.add(intersection);
+            if(result == BBDSegmentIntersection.COLLINEAR_OVERLAP && !intersectionPoints.contains(intersection[2], intersection[3])){
+                intersectionPoints.add(new BBDPoint(intersection[2], intersection[3]));
             }
         }
-        return intersectionPoints.toArray(new BBDPoint[0]);
+        return intersectionPoints.toList().toArray(new BBDPoint[0]);
     }
 
     /**
@@ -515,8 +964,21 @@ public class BBDPolygon implements BBDGeometry{
      */
     public ArrayList<BBDPoint> polygonIntersectPolygonPoints(BBDPolygon otherPolygon){
         ArrayList<BBDPoint> intersectPoints = new ArrayList<>();
-        for (BBDSegment segment: otherPolygon.getSegments()){
-            Collections.addAll(intersectPoints, this.segmentIntersectPolygonPoints(segment));
+        if(!this.boundsOverlap(otherPolygon)){
+            return intersectPoints;
+        }
+
+        //results come back in order around this polygon, so repeats of the same point are next to each other
+        BBDEdgeSweep sweep = new BBDEdgeSweep(this.getPackedCoordinates(), otherPolygon.getPackedCoordinates());
+        for(int i = 0; i < sweep.getIntersectionCount(); i++){
+            BBDPoint point = new BBDPoint(sweep.getX(i), sweep.getY(i));
+            if(intersectPoints.isEmpty() || !intersectPoints.get(intersectPoints.size() - 1).equals(point)){
+                intersectPoints.add(point);
+            }
+        }
+        //a point at the first vertex shows up at both the start and end of the loop
+        if(intersectPoints.size() > 1 && intersectPoints.get(0).equals(intersectPoints.get(intersectPoints.size() - 1))){
+            intersectPoints.remove(intersectPoints.size() - 1);
         }
         return intersectPoints;
     }
@@ -527,23 +989,74 @@ public class BBDPolygon implements BBDGeometry{
      * @return boolean stating if this segment intersects the polygon
      */
     public boolean checkSegmentIntersectPolygon(BBDSegment segmentToCheck){
-        BBDPoint[] intersectionList = segmentIntersectPolygonPoints(segmentToCheck);
-
-        return (intersectionList.length != 0);
+        if(!this.boundsOverlapSegment(segmentToCheck)){
+            return false;
+        }
+        for (BBDSegment segment: segments){
+            if(segment.intersects(segmentToCheck)){
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Function to check if a point is inside the polygon.
+     * Function to check if a point is inside the polygon.  Points on the perimeter count as inside.
      *
      * @param pointToCheck Point that is not part of the polygon to check
      * @return boolean stating if the point is inside the polygon.
      */
     public boolean checkPointInside(BBDPoint pointToCheck){
-        BBDSegment segmentToCheck = new BBDSegment(pointToCheck, 0, this.width()+10);
-        BBDPoint[] intersectionPoints = this.segmentIntersectPolygonPoints(segmentToCheck);
+        return this.checkPointInside(pointToCheck.getXLoc(), pointToCheck.getYLoc(), true);
+    }
 
-        //if the segment intersects an odd number of things, than it is inside the polygon.
-        return intersectionPoints.length % 2 ==1 || this.checkPointOnPerimeter(pointToCheck);
+    /**
+     * Check if a point is inside the polygon using its winding number.  This is a single pass over the vertices that
+     * also catches points on the perimeter, and it doesn't allocate anything so it is safe to call in bulk.
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @param includePerimeter should a point on the perimeter count as inside
+     * @return boolean stating if the point is inside the polygon
+     */
+    public boolean checkPointInside(float x, float y, boolean includePerimeter){
+        if(!this.boundsContainPoint(x, y)){
+            return false;
+        }
+        BBDEdgeTree tree = this.currentEdgeTree();
+        if(tree != null){
+            return tree.checkPointInside(x, y, includePerimeter);
+        }
+
+        int count = this.points.size();
+        int windingNumber = 0;
+        BBDPoint start = this.points.get(count - 1);
+        for(int i = 0; i < count; i++){
+            BBDPoint end = this.points.get(i);
+            float startX = start.getXLoc();
+            float startY = start.getYLoc();
+            float endX = end.getXLoc();
+            float endY = end.getYLoc();
+
+            if(BBDSegmentIntersection.pointOnSegment(x, y, startX, startY, endX, endY)){
+                return includePerimeter;
+            }
+
+            //which side of the edge the point is on, positive for left
+            double side = ((double)endX - startX) * ((double)y - startY) - ((double)x - startX) * ((double)endY - startY);
+            if(startY <= y){
+                //an upward crossing with the point on the left
+                if(endY > y && side > 0){
+                    windingNumber++;
+                }
+            }else{
+                //a downward crossing with the point on the right
+                if(endY <= y && side < 0){
+                    windingNumber--;
+                }
+            }
+            start = end;
+        }
+        return windingNumber != 0;
     }
 
     /**
@@ -552,10 +1065,11 @@ public class BBDPolygon implements BBDGeometry{
      * @return boolean stating if these polygons intersect
      */
     public boolean checkPolygonIntersectsPolygon(BBDPolygon otherPolygon){
-        for (BBDSegment otherSegment: otherPolygon.segments){
-            if(this.checkSegmentIntersectPolygon(otherSegment)){
-                return true;
-            }
+        if(!this.boundsOverlap(otherPolygon)){
+            return false;
+        }
+        if(BBDEdgeSweep.intersects(this.getPackedCoordinates(), otherPolygon.getPackedCoordinates())){
+            return true;
         }
         //if they don't intersect traditionally, we need to make sure that one isn't contained
         //as that would technically count as an intersection.
@@ -587,6 +1101,9 @@ public class BBDPolygon implements BBDGeometry{
      * @return boolean stating if these polygons touch
      */
     public boolean checkPolygonTouchesPolygon(BBDPolygon otherPolygon){
+        if(!this.boundsOverlap(otherPolygon)){
+            return false;
+        }
         int pointsOnPerimeter = 0;
         int pointsInside = 0;
 
@@ -617,6 +1134,9 @@ public class BBDPolygon implements BBDGeometry{
      * @return boolean stating if the given polygon is contained within this one
      */
     public boolean checkPolygonContainsPolygon(BBDPolygon otherPolygon){
+        if(!this.boundsContainBounds(otherPolygon)){
+            return false;
+        }
         for (BBDPoint otherPoint: otherPolygon.points){
             if (!this.checkPointInside(otherPoint)){
                 return false;
@@ -633,16 +1153,36 @@ public class BBDPolygon implements BBDGeometry{
      * @return distance to the other polygon
      */
     public float distanceSquaredToPolygon(BBDPolygon otherPolygon){
-        if (this.checkPolygonIntersectsPolygon(otherPolygon)){
+        //polygons with separate bounds can't be overlapping, so skip straight to measuring
+        if (this.boundsOverlap(otherPolygon) && this.checkPolygonIntersectsPolygon(otherPolygon)){
             return 0;
         }
 
+        BBDEdgeTree tree = this.currentEdgeTree();
+        BBDEdgeTree otherTree = otherPolygon.currentEdgeTree();
+        if(tree != null && otherTree != null){
+            return tree.distanceSquaredToTree(otherTree, Float.MAX_VALUE);
+        }
+        if(tree != null || otherTree != null){
+            //run the edges of the polygon without a tree against the one that has it
+            BBDEdgeTree indexed = tree != null ? tree : otherTree;
+            BBDPolygon looped = tree != null ? otherPolygon : this;
+            float minDist = Float.MAX_VALUE;
+            for (BBDSegment segment: looped.segments){
+                BBDPoint start = segment.getStartPoint();
+                BBDPoint end = segment.getEndPoint();
+                minDist = indexed.distanceSquaredToSegment(start.getXLoc(), start.getYLoc(), end.getXLoc(), end.getYLoc(), minDist);
+            }
+            return minDist;
+        }
+
         float minDist = Float.MAX_VALUE;
 
         for (BBDSegment thisSegment: this.segments){
             for (BBDSegment otherSegment: otherPolygon.segments){
-                if (thisSegment.distanceSquaredToSegment(otherSegment) < minDist){
-                    minDist = thisSegment.distanceSquaredToSegment(otherSegment);
+                float distance = thisSegment.distanceSquaredToSegment(otherSegment);
+                if (distance < minDist){
+                    minDist = distance;
                 }
             }
         }
@@ -656,22 +1196,33 @@ public class BBDPolygon implements BBDGeometry{
      * @return distance to the other segment
      */
     public float distanceSquaredToSegment (BBDSegment otherSegment){
-        //check if all or part is inside or touching.
-        BBDPoint[] points = otherSegment.getPoints();
-        if(this.checkPointInside(points[0]) || this.checkPointInside(points[1])){
-            return 0;
+        if(this.boundsOverlapSegment(otherSegment)) {
+            //check if all or part is inside or touching.
+            BBDPoint[] points = otherSegment.getPoints();
+            if (this.checkPointInside(points[0]) || this.checkPointInside(points[1])) {
+                return 0;
+            }
+
+            //check for points of intersection
+            if (this.currentEdgeTree() == null && this.segmentIntersectPolygonPoints(otherSegment).length != 0) {
+                return 0;
+            }
         }
 
-        //check for points of intersection
-        if(this.segmentIntersectPolygonPoints(otherSegment).length != 0){
-            return 0;
+        BBDEdgeTree tree = this.currentEdgeTree();
+        if(tree != null){
+            //the tree reports 0 for segments crossing the perimeter itself
+            BBDPoint start = otherSegment.getStartPoint();
+            BBDPoint end = otherSegment.getEndPoint();
+            return tree.distanceSquaredToSegment(start.getXLoc(), start.getYLoc(), end.getXLoc(), end.getYLoc(), Float.MAX_VALUE);
         }
 
         float minDist = Float.MAX_VALUE;
 
         for (BBDSegment thisSegment: this.segments){
-            if (thisSegment.distanceSquaredToSegment(otherSegment) < minDist){
-                minDist = thisSegment.distanceSquaredToSegment(otherSegment);
+            float distance = thisSegment.distanceSquaredToSegment(otherSegment);
+            if (distance < minDist){
+                minDist = distance;
             }
         }
         return minDist;
@@ -687,73 +1238,67 @@ public class BBDPolygon implements BBDGeometry{
         if(this.checkPointInside(otherPoint)){
             return 0;
         }
+        BBDEdgeTree tree = this.currentEdgeTree();
+        if(tree != null){
+            return tree.distanceSquaredToPoint(otherPoint.getXLoc(), otherPoint.getYLoc());
+        }
 
         float minDist = Float.MAX_VALUE;
 
         for (BBDSegment thisSegment: this.segments){
-            if (thisSegment.distanceSquaredToPoint(otherPoint) < minDist){
-                minDist = thisSegment.distanceSquaredToPoint(otherPoint);
+            float distance = thisSegment.distanceSquaredToPoint(otherPoint);
+            if (distance < minDist){
+                minDist = distance;
             }
         }
         return minDist;
     }
 
     /**
-     * Create a polygon containing  a copy of all the points of the source polygon and the points of intersection inserted
-     * to the correct location.  This method is likely never called by the end user, but serves as an important step in
-     * polygon boolean operations.
-     * @param otherPolygon the other polygon we are looking at
-     * @return a new polygon with the same shape, but a few extra points
+     * Convert the polygon to an array of triangles.  Each triangle is guaranteed to be a
+     * part of the overall polygon.  The triangles share the point objects of this polygon.
+     * @param triangleDirectionality do you want the triangles to have a specific directionality
+     * @return array of BBDPolygon triangles
      */
-    BBDPolygon prepPolygonForBooleanOperations(BBDPolygon otherPolygon){
-        BBDPolygon returnPoly = this.copyPolygon();
-
-        ArrayList<BBDPoint> pointsToInsert = this.polygonIntersectPolygonPoints(otherPolygon);
-
-        while (!pointsToInsert.isEmpty()){
-            BBDPoint point = pointsToInsert.get(0);
-            for(int i = 0; i < returnPoly.segments.size(); i++){
-                if(returnPoly.segments.get(i).pointOnSegment(point)){
-                    returnPoly.points.add(i+1, point);
-                    returnPoly.buildSegments(returnPoly.points);
-                    pointsToInsert.remove(0);
-                    break;
-                }
-            }
+    public BBDPolygon[] decomposeIntoTriangles(Integer triangleDirectionality){
+        int[] indices = this.triangulate(triangleDirectionality);
+        BBDPolygon[] triangles = new BBDPolygon[indices.length / 3];
+        for(int i = 0; i < triangles.length; i++){
+            triangles[i] = new BBDPolygon(new ArrayList<BBDPoint>(Arrays.asList(this.points.get(indices[3 * i]),
+                    this.points.get(indices[3 * i + 1]), this.points.get(indices[3 * i + 2]))));
         }
-        returnPoly.enforceDirectionality(BBDGeometryHelpers.CLOCKWISE_POLYGON);
-        return returnPoly;
+        return triangles;
     }
 
-
     /**
-     * Convert the polygon to an array of triangles.  Each triangle is guaranteed to be a
-     * part of the overall polygon.
+     * Triangulate the polygon into an index buffer.  Cheaper than decomposeIntoTriangles() since no new polygons are
+     * created, and the output can be handed directly to a Mesh.
      * @param triangleDirectionality do you want the triangles to have a specific directionality
-     * @return array of BBDPolygon triangles
+     * @return indices into this polygon's point list, 3 per triangle
      */
-    public BBDPolygon[] decomposeIntoTriangles(Integer triangleDirectionality){
-        ArrayList<BBDPoint> remainingPoints = new ArrayList<BBDPoint>(this.points);
-        ArrayList<BBDPolygon> triangles = new ArrayList<>();
-
-        while(remainingPoints.size() >= 3){
-            BBDPolygon temp = new BBDPolygon(remainingPoints);
-            //cycle through 3 adjacent vertices until we find a triangle with an interior inside the polygon
-            BBDPolygon test;
-            for(int i=1; i< remainingPoints.size()-1; i++){
-                test = new BBDPolygon(new ArrayList<BBDPoint>(Arrays.asList(remainingPoints.get(i - 1), remainingPoints.get(i), remainingPoints.get(i + 1))));
-                BBDPoint center = test.centerAverage();
-                if(temp.checkPointInside(center) || remainingPoints.size() == 3){
-                    if(triangleDirectionality != null){
-                        test.enforceDirectionality(triangleDirectionality);
-                    }
-                    triangles.add(test);
-                    remainingPoints.remove(i);
-                    break;
-                }
-            }
-        }
-        return triangles.toArray(new BBDPolygon[0]);
+    public int[] triangulate(Integer triangleDirectionality){
+        return BBDTriangulator.triangulate(this, triangleDirectionality);
+    }
+
+    /**
+     * Get a simpler copy of this polygon with fewer vertices, such as for drawing or colliding with it at a distance.
+     * Every vertex of this polygon stays within the tolerance of the simplified outline, which never intersects itself
+     * as long as this polygon doesn't.  See BBDPolygonSimplifier.
+     * @param tolerance how far the simplified outline may be from this polygon's vertices
+     * @return new polygon made of copies of the points that were kept
+     */
+    public BBDPolygon simplify(float tolerance){
+        return BBDPolygonSimplifier.simplify(this, new float[]{tolerance}).get(0);
+    }
+
+    /**
+     * Simplify this polygon to several tolerances in 1 pass, for levels of detail.  Each level keeps a subset of the
+     * vertices of the level before it.
+     * @param tolerances how far each level's outline may be from this polygon's vertices, in increasing order
+     * @return 1 simplified copy per tolerance, from most to least detailed
+     */
+    public ArrayList<BBDPolygon> levelsOfDetail(float[] tolerances){
+        return BBDPolygonSimplifier.simplify(this, tolerances);
     }
 
     /**
@@ -761,16 +1306,7 @@ public class BBDPolygon implements BBDGeometry{
      * @return area
      */
     public float area(){
-        float accumulatedTotal = 0;
-        BBDPolygon[] triangles = this.decomposeIntoTriangles(null);
-        for(BBDPolygon triangle:triangles){
-            ArrayList<BBDPoint> points = triangle.getPoints();
-            accumulatedTotal += Math.abs((points.get(0).getXLoc()*(points.get(1).getYLoc()-points.get(2).getYLoc())
-                                        + points.get(1).getXLoc()*(points.get(2).getYLoc()-points.get(0).getYLoc())
-                                        + points.get(2).getXLoc()*(points.get(0).getYLoc()-points.get(1).getYLoc()))
-                    / 2.0);
-        }
-        return accumulatedTotal;
+        return this.getAreaProperties().getArea();
     }
 
     public String toString(){
@@ -785,6 +1321,14 @@ public class BBDPolygon implements BBDGeometry{
         return aggregatedString.toString();
     }
 
+    /**
+     * Polygons are equal when they have matching vertices in the same order around the outline, no matter which vertex
+     * each one starts from or which way around it goes.  Vertices match the way BBDPoint.equals() does.
+     *
+     * Rather than trying every rotation of the other polygon, only the vertices that match this polygon's first vertex
+     * can line the outlines up, and the vertices next to them decide which way around to go.  Usually only 1 vertex
+     * matches, so this is O(n) and doesn't copy anything.
+     */
     @Override
     public boolean equals(Object other){
         if (this == other){
@@ -795,30 +1339,51 @@ public class BBDPolygon implements BBDGeometry{
         }
         BBDPolygon otherPolygon = (BBDPolygon)other;
         // check size first
-        if (otherPolygon.points.size() != this.points.size()){
+        int count = this.points.size();
+        if (otherPolygon.points.size() != count){
             return false;
         }
+        if (count == 0){
+            return true;
+        }
 
-        // then rotate through the points until we have a sequential match
-        // checking forward and backward ordered lists
-        ArrayList<BBDPoint> forwardList = new ArrayList<>(this.points);
-        ArrayList<BBDPoint> backwardList = new ArrayList<>(this.points);
-        Collections.reverse(backwardList);
-
-        int count = this.points.size();
-        for (int i = 0; i < count; i++){
-            int index = 0;
-            while(index < count && (otherPolygon.points.get(index).equals(forwardList.get(index))
-                    || otherPolygon.points.get(index).equals(backwardList.get(index)))) {
-                index++;
-            }
-            // if we made it all the way through the polygon's points
-            if (index == count){
+        BBDPoint firstPoint = this.points.get(0);
+        for (int start = 0; start < count; start++){
+            if (firstPoint.equals(otherPolygon.points.get(start))
+                    && (this.matchesFrom(otherPolygon, start, 1) || this.matchesFrom(otherPolygon, start, count - 1))){
                 return true;
             }
-            Collections.rotate(forwardList, 1);
-            Collections.rotate(backwardList, 1);
         }
         return false;
     }
+
+    /**
+     * Check the rest of the vertices against another polygon's, starting from a vertex that matches this polygon's first
+     * @param otherPolygon polygon with the same number of vertices
+     * @param start index in the other polygon that matches this polygon's first vertex
+     * @param step 1 to go forward through the other polygon, or count - 1 to go backward
+     */
+    private boolean matchesFrom(BBDPolygon otherPolygon, int start, int step){
+        int count = this.points.size();
+        int otherIndex = start;
+        for (int index = 1; index < count; index++){
+            otherIndex = (otherIndex + step) % count;
+            if (!this.points.get(index).equals(otherPolygon.points.get(otherIndex))){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Equal polygons can have their vertices anywhere within ALLOWABLE_DELTA of each other, so as with BBDPoint any hash
+     * worked out from the coordinates would give some equal polygons different hashes.  The number of vertices is the
+     * one thing equal polygons always share, so that is the hash.  It keeps HashSet and HashMap correct and separates
+     * polygons by vertex count, use BBDPolygonMap to look polygons up by shape quickly.
+     * @return the number of vertices
+     */
+    @Override
+    public int hashCode(){
+        return this.points.size();
+    }
 }
@@ -0,0 +1,375 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.ArrayList;
+
+/**
+ * Boolean operations between 2 polygons: intersection, union, difference and exclusive or.
+ *
+ * Both perimeters are cut at every point where they meet, which splits them into chains of edges that are each entirely
+ * inside the other polygon, entirely outside it, or running along its perimeter.  Each chain only needs a single point
+ * in polygon test to classify, since nothing can change without passing through a cut.  The operation then keeps the
+ * chains it needs and links them end to end into closed polygons.  This is the same idea as Greiner-Hormann, but working
+ * with whole chains rather than entry and exit flags on single vertices handles shared vertices and shared edges without
+ * needing to perturb the input.
+ *
+ * The result can be any number of polygons.  Inputs are treated as counterclockwise, so counterclockwise results are
+ * outer boundaries and clockwise results are holes, which only happen when a union or difference encloses some space.
+ */
+public class BBDPolygonBoolean {
+
+    public static final int INTERSECTION = 0;
+    public static final int UNION = 1;
+    public static final int DIFFERENCE = 2;
+    public static final int XOR = 3;
+
+    private static final float DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA;
+
+    // How a chain sits relative to the other polygon.
+    private static final int INSIDE = 0;
+    private static final int OUTSIDE = 1;
+    private static final int SHARED_SAME_DIRECTION = 2;
+    private static final int SHARED_OPPOSITE_DIRECTION = 3;
+
+    /**
+     * Perform a boolean operation on 2 polygons.  Neither input is modified.
+     * @param polygon1 first polygon
+     * @param polygon2 second polygon
+     * @param operation one of INTERSECTION, UNION, DIFFERENCE (polygon1 minus polygon2) or XOR
+     * @return list of resulting polygons, empty if there is nothing left
+     */
+    public static ArrayList<BBDPolygon> compute(BBDPolygon polygon1, BBDPolygon polygon2, int operation){
+        float[] first = counterClockwise(polygon1.toCoordinates());
+        float[] second = counterClockwise(polygon2.toCoordinates());
+        ArrayList<BBDPolygon> results = new ArrayList<>();
+        if(first.length < 6 || second.length < 6){
+            return results;
+        }
+
+        if(operation == XOR){
+            //the parts of each that aren't in the other
+            collect(first, second, DIFFERENCE, results);
+            collect(second, first, DIFFERENCE, results);
+        }else{
+            collect(first, second, operation, results);
+        }
+        return results;
+    }
+
+    private static void collect(float[] first, float[] second, int operation, ArrayList<BBDPolygon> results){
+        ArrayList<Chain> firstChains = buildChains(first, new BBDEdgeSweep(first, second), new BBDEdgeIndex(second), second);
+        ArrayList<Chain> secondChains = buildChains(second, new BBDEdgeSweep(second, first), new BBDEdgeIndex(first), first);
+
+        ArrayList<Chain> kept = new ArrayList<>();
+        for(Chain chain : firstChains){
+            boolean keep;
+            if(operation == INTERSECTION){
+                keep = chain.classification == INSIDE || chain.classification == SHARED_SAME_DIRECTION;
+            }else if(operation == UNION){
+                keep = chain.classification == OUTSIDE || chain.classification == SHARED_SAME_DIRECTION;
+            }else{
+                keep = chain.classification == OUTSIDE || chain.classification == SHARED_OPPOSITE_DIRECTION;
+            }
+            if(keep){
+                kept.add(chain);
+            }
+        }
+        //shared chains are only ever taken from the first polygon so that they aren't doubled up
+        for(Chain chain : secondChains){
+            if(operation == INTERSECTION && chain.classification == INSIDE){
+                kept.add(chain);
+            }else if(operation == UNION && chain.classification == OUTSIDE){
+                kept.add(chain);
+            }else if(operation == DIFFERENCE && chain.classification == INSIDE){
+                chain.reversed = true;
+                kept.add(chain);
+            }
+        }
+
+        link(kept, results);
+    }
+
+    /**
+     * Cut a perimeter at every intersection with the other polygon and classify the pieces.
+     */
+    private static ArrayList<Chain> buildChains(float[] coordinates, BBDEdgeSweep sweep, BBDEdgeIndex other, float[] otherCoordinates){
+        int vertexCount = coordinates.length / 2;
+        int intersectionCount = sweep.getIntersectionCount();
+
+        //vertices that sit on an intersection are cuts too
+        boolean[] vertexCut = new boolean[vertexCount];
+        for(int i = 0; i < intersectionCount; i++){
+            int edge = sweep.getFirstEdge(i);
+            int next = (edge + 1) % vertexCount;
+            if(same(sweep.getX(i), sweep.getY(i), coordinates[2 * edge], coordinates[2 * edge + 1])){
+                vertexCut[edge] = true;
+            }
+            if(same(sweep.getX(i), sweep.getY(i), coordinates[2 * next], coordinates[2 * next + 1])){
+                vertexCut[next] = true;
+            }
+        }
+
+        //the perimeter with the intersection points merged in
+        Ring ring = new Ring(vertexCount + intersectionCount);
+        int intersection = 0;
+        for(int edge = 0; edge < vertexCount; edge++){
+            int next = (edge + 1) % vertexCount;
+            ring.add(coordinates[2 * edge], coordinates[2 * edge + 1], vertexCut[edge]);
+            while(intersection < intersectionCount && sweep.getFirstEdge(intersection) == edge){
+                float x = sweep.getX(intersection);
+                float y = sweep.getY(intersection);
+                intersection++;
+                if(!same(x, y, ring.x[ring.count - 1], ring.y[ring.count - 1])
+                        && !same(x, y, coordinates[2 * next], coordinates[2 * next + 1])){
+                    ring.add(x, y, true);
+                }
+            }
+        }
+
+        ArrayList<Chain> chains = new ArrayList<>();
+        int firstCut = -1;
+        for(int i = 0; i < ring.count; i++){
+            if(ring.cut[i]){
+                firstCut = i;
+                break;
+            }
+        }
+
+        if(firstCut == -1){
+            //the perimeters never meet, so the whole thing is either inside or outside
+            Chain chain = new Chain(ring, 0, ring.count, true);
+            chain.classification = other.checkPointInside(ring.x[0], ring.y[0], true) ? INSIDE : OUTSIDE;
+            chains.add(chain);
+            return chains;
+        }
+
+        int start = firstCut;
+        do{
+            int end = (start + 1) % ring.count;
+            while(!ring.cut[end]){
+                end = (end + 1) % ring.count;
+            }
+            int length = (end - start + ring.count) % ring.count;
+            if(length == 0){
+                length = ring.count;
+            }
+            Chain chain = new Chain(ring, start, length, false);
+            chain.classification = classify(ring, start, other, otherCoordinates);
+            chains.add(chain);
+            start = end;
+        }while(start != firstCut);
+
+        return chains;
+    }
+
+    /**
+     * Classify a chain using the midpoint of its first edge.
+     */
+    private static int classify(Ring ring, int start, BBDEdgeIndex other, float[] otherCoordinates){
+        int next = (start + 1) % ring.count;
+        float ax = ring.x[start], ay = ring.y[start];
+        float bx = ring.x[next], by = ring.y[next];
+        float midX = (ax + bx) / 2;
+        float midY = (ay + by) / 2;
+
+        int edge = other.findEdgeContaining(midX, midY);
+        if(edge != -1){
+            int otherNext = (edge + 1) % (otherCoordinates.length / 2);
+            double dx = (double)otherCoordinates[2 * otherNext] - otherCoordinates[2 * edge];
+            double dy = (double)otherCoordinates[2 * otherNext + 1] - otherCoordinates[2 * edge + 1];
+            double dot = ((double)bx - ax) * dx + ((double)by - ay) * dy;
+            return dot > 0 ? SHARED_SAME_DIRECTION : SHARED_OPPOSITE_DIRECTION;
+        }
+        return other.checkPointInside(midX, midY, true) ? INSIDE : OUTSIDE;
+    }
+
+    /**
+     * Join chains end to end into closed polygons.  Chains are grouped by their start point in a BBDPointMap so the chain
+     * that continues from a given point can be found without searching.
+     */
+    private static void link(ArrayList<Chain> chains, ArrayList<BBDPolygon> results){
+        int count = chains.size();
+        boolean[] used = new boolean[count];
+
+        //closed chains are already complete polygons
+        for(int i = 0; i < count; i++){
+            Chain chain = chains.get(i);
+            if(chain.closed){
+                used[i] = true;
+                addResult(chain.appendTo(new ArrayList<>()), results);
+            }
+        }
+
+        //several chains can start at the same point, so each start holds a list linked through nextAtStart
+        BBDPointMap<Integer> starts = new BBDPointMap<>();
+        int[] nextAtStart = new int[count];
+        int[] lastAtStart = new int[count];
+        for(int i = 0; i < count; i++){
+            nextAtStart[i] = -1;
+            if(used[i]){
+                continue;
+            }
+            Chain chain = chains.get(i);
+            int start = starts.putIfAbsent(chain.startX(), chain.startY(), i);
+            int first = starts.getValue(start);
+            if(first != i){
+                nextAtStart[lastAtStart[first]] = i;
+            }
+            lastAtStart[first] = i;
+        }
+
+        for(int i = 0; i < count; i++){
+            if(used[i]){
+                continue;
+            }
+            ArrayList<BBDPoint> points = new ArrayList<>();
+            Chain chain = chains.get(i);
+            used[i] = true;
+            float loopX = chain.startX();
+            float loopY = chain.startY();
+
+            while(true){
+                chain.appendTo(points);
+                float endX = chain.endX();
+                float endY = chain.endY();
+                if(same(endX, endY, loopX, loopY)){
+                    break;
+                }
+                int next = findChain(starts, nextAtStart, used, endX, endY);
+                if(next == -1){
+                    //can only happen if the input was degenerate, close the loop off where it is
+                    break;
+                }
+                used[next] = true;
+                chain = chains.get(next);
+            }
+            addResult(points, results);
+        }
+    }
+
+    private static int findChain(BBDPointMap<Integer> starts, int[] nextAtStart, boolean[] used, float x, float y){
+        Integer first = starts.get(x, y);
+        for(int index = first == null ? -1 : first; index != -1; index = nextAtStart[index]){
+            if(!used[index]){
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static void addResult(ArrayList<BBDPoint> points, ArrayList<BBDPolygon> results){
+        //drop any repeated points where chains were joined
+        ArrayList<BBDPoint> cleaned = new ArrayList<>(points.size());
+        for(BBDPoint point : points){
+            if(cleaned.isEmpty() || !cleaned.get(cleaned.size() - 1).equals(point)){
+                cleaned.add(point);
+            }
+        }
+        while(cleaned.size() > 1 && cleaned.get(0).equals(cleaned.get(cleaned.size() - 1))){
+            cleaned.remove(cleaned.size() - 1);
+        }
+        if(cleaned.size() < 3){
+            return;
+        }
+        BBDPolygon polygon = new BBDPolygon(cleaned);
+        if(polygon.area() > DELTA * DELTA){
+            results.add(polygon);
+        }
+    }
+
+    private static float[] counterClockwise(float[] coordinates){
+        int vertexCount = coordinates.length / 2;
+        if(BBDAreaProperties.fromCoordinates(coordinates, vertexCount).getSignedArea() < 0){
+            for(int low = 0, high = vertexCount - 1; low < high; low++, high--){
+                float x = coordinates[2 * low];
+                float y = coordinates[2 * low + 1];
+                coordinates[2 * low] = coordinates[2 * high];
+                coordinates[2 * low + 1] = coordinates[2 * high + 1];
+                coordinates[2 * high] = x;
+                coordinates[2 * high + 1] = y;
+            }
+        }
+        return coordinates;
+    }
+
+    /**
+     * Same test as BBDPoint.equals() without needing the objects
+     */
+    private static boolean same(float x1, float y1, float x2, float y2){
+        return Math.abs(x1 - x2) < DELTA && Math.abs(y1 - y2) < DELTA;
+    }
+
+    /**
+     * A perimeter with the cut points merged in
+     */
+    private static class Ring {
+        float[] x;
+        float[] y;
+        boolean[] cut;
+        int count = 0;
+
+        Ring(int capacity){
+            this.x = new float[capacity];
+            this.y = new float[capacity];
+            this.cut = new boolean[capacity];
+        }
+
+        void add(float x, float y, boolean cut){
+            this.x[this.count] = x;
+            this.y[this.count] = y;
+            this.cut[this.count] = cut;
+            this.count++;
+        }
+    }
+
+    /**
+     * A run of the ring from one cut to the next.  Length is the number of edges in the run.
+     */
+    private static class Chain {
+        final Ring ring;
+        final int start;
+        final int length;
+        final boolean closed;
+        int classification;
+        boolean reversed = false;
+
+        Chain(Ring ring, int start, int length, boolean closed){
+            this.ring = ring;
+            this.start = start;
+            this.length = length;
+            this.closed = closed;
+        }
+
+        private int node(int step){
+            int offset = this.reversed ? this.length - step : step;
+            return (this.start + offset) % this.ring.count;
+        }
+
+        float startX(){
+            return this.ring.x[this.node(0)];
+        }
+
+        float startY(){
+            return this.ring.y[this.node(0)];
+        }
+
+        float endX(){
+            return this.ring.x[this.node(this.length)];
+        }
+
+        float endY(){
+            return this.ring.y[this.node(this.length)];
+        }
+
+        /**
+         * Add the points of this chain in travel order.  The last point is left off since it is the first point of the
+         * next chain, or for a closed loop the same as the first point of this one.
+         */
+        ArrayList<BBDPoint> appendTo(ArrayList<BBDPoint> points){
+            for(int step = 0; step < this.length; step++){
+                int node = this.node(step);
+                points.add(new BBDPoint(this.ring.x[node], this.ring.y[node]));
+            }
+            return points;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Hash map keyed by polygon that matches keys the same way BBDPolygon.equals() does, for things like sharing 1 mesh
+ * between every copy of a repeated tile shape.  BBDPolygon.hashCode() can only use the vertex count, so a HashMap keyed
+ * by polygons compares against every key with that many vertices.  This only compares against keys in about the same
+ * place.
+ *
+ * Equal polygons have every vertex within ALLOWABLE_DELTA of a matching one, so the lower left corners of their bounding
+ * boxes are too.  Keys are filed under the grid cell their corner falls in, with cells ALLOWABLE_DELTA wide, and a
+ * lookup only has to check keys in the cell its own corner falls in and the 8 around it.  When more than 1 key matches,
+ * which can happen since tolerant equality isn't transitive, the one added first is used.
+ *
+ * Entries are kept in the order they were first added and can be read back by index.  Keys are copied when they are
+ * added, so changing a polygon after using it as a key doesn't affect the map, and later matches only replace the value.
+ * @param <V> type of the values
+ */
+public class BBDPolygonMap<V> {
+
+    private static final float CELL_SIZE = BBDGeometryHelpers.ALLOWABLE_DELTA;
+    private static final int EMPTY = -1;
+
+    // Entries in the order they were added.
+    private final ArrayList<BBDPolygon> keys = new ArrayList<>();
+    private final ArrayList<V> values = new ArrayList<>();
+
+    // Entries filed by the grid cell of their bounding box corner.  Cells that hash the same share a list, which only
+    // costs a few extra comparisons.
+    private final HashMap<Long, ArrayList<Integer>> cells = new HashMap<>();
+
+    /**
+     * Number of distinct keys
+     * @return key count
+     */
+    public int size(){
+        return this.keys.size();
+    }
+
+    public boolean isEmpty(){
+        return this.keys.isEmpty();
+    }
+
+    public void clear(){
+        this.keys.clear();
+        this.values.clear();
+        this.cells.clear();
+    }
+
+    /**
+     * Set the value for a polygon
+     * @param key polygon to use as the key
+     * @param value value to store
+     * @return the value previously stored for a matching key, or null if there wasn't one
+     */
+    public V put(BBDPolygon key, V value){
+        int entry = this.find(key);
+        if(entry != EMPTY){
+            return this.values.set(entry, value);
+        }
+        this.add(key, value);
+        return null;
+    }
+
+    /**
+     * Set the value for a polygon if there isn't one there already, such as to deduplicate shapes
+     * @return index of the entry for the polygon, which is size() - 1 if it was just added
+     */
+    public int putIfAbsent(BBDPolygon key, V value){
+        int entry = this.find(key);
+        if(entry != EMPTY){
+            return entry;
+        }
+        return this.add(key, value);
+    }
+
+    /**
+     * Look up the value for a polygon
+     * @return the value stored for the matching key, or null if there isn't one
+     */
+    public V get(BBDPolygon key){
+        int entry = this.find(key);
+        return entry == EMPTY ? null : this.values.get(entry);
+    }
+
+    public boolean containsKey(BBDPolygon key){
+        return this.find(key) != EMPTY;
+    }
+
+    /**
+     * Index of the entry whose key matches a polygon
+     * @return index of the matching entry, or -1 if none match
+     */
+    public int indexOf(BBDPolygon key){
+        return this.find(key);
+    }
+
+    /**
+     * Get a key by index.  This is the map's own copy, so don't change it.
+     */
+    public BBDPolygon getKey(int index){
+        return this.keys.get(index);
+    }
+
+    public V getValue(int index){
+        return this.values.get(index);
+    }
+
+    private int add(BBDPolygon key, V value){
+        int entry = this.keys.size();
+        this.keys.add(key.copyPolygon());
+        this.values.add(value);
+        long[] corner = cornerCell(key);
+        this.cells.computeIfAbsent(cellKey(corner[0], corner[1]), cellKey -> new ArrayList<>()).add(entry);
+        return entry;
+    }
+
+    /**
+     * Check the cell a polygon's corner falls in and the ones around it for the first matching key
+     */
+    private int find(BBDPolygon key){
+        if(this.keys.isEmpty()){
+            return EMPTY;
+        }
+        long[] corner = cornerCell(key);
+        int best = EMPTY;
+        for(int offsetX = -1; offsetX <= 1; offsetX++){
+            for(int offsetY = -1; offsetY <= 1; offsetY++){
+                ArrayList<Integer> entries = this.cells.get(cellKey(corner[0] + offsetX, corner[1] + offsetY));
+                if(entries == null){
+                    continue;
+                }
+                for(int entry : entries){
+                    if((best == EMPTY || entry < best) && this.keys.get(entry).equals(key)){
+                        best = entry;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Grid cell the lower left corner of a polygon's bounding box falls in.  The corner is worked out from the points
+     * rather than with minX() and minY() so a polygon whose points were changed without markModified() still ends up
+     * in the right cell.
+     */
+    private static long[] cornerCell(BBDPolygon polygon){
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        for(BBDPoint point : polygon.getPoints()){
+            minX = Math.min(minX, point.getXLoc());
+            minY = Math.min(minY, point.getYLoc());
+        }
+        return new long[]{cell(minX), cell(minY)};
+    }
+
+    private static long cellKey(long cellX, long cellY){
+        return cellX * 0x9E3779B97F4A7C15L + cellY * 0xC2B2AE3D27D4EB4FL;
+    }
+
+    private static long cell(float value){
+        return (long)Math.floor((double)value / CELL_SIZE);
+    }
+}
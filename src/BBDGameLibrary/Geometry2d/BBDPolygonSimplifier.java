@@ -0,0 +1,335 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Simplifies polygons into levels of detail by removing vertices, in the style of Visvalingam-Whyatt.  Each pass removes
+ * the vertex that changes the outline the least, where the change is measured the way Ramer-Douglas-Peucker measures
+ * it: how far the original vertices between the 2 neighbors end up from the new edge.  That way every vertex of the
+ * original polygon stays within the tolerance of the simplified outline, no matter how many times an area was
+ * simplified.
+ *
+ * Removing a vertex swaps its 2 edges for the edge between its neighbors.  If any other remaining vertex sits in the
+ * triangle between the old edges and the new one, the new edge would cross the outline, so that vertex is left alone
+ * for now.  Starting from a simple polygon the result is always a simple polygon with at least 3 vertices.
+ *
+ * Vertices are removed in order of how much they change the outline, so a larger tolerance only ever removes more of
+ * them, and all levels of detail are made in a single pass.
+ */
+public class BBDPolygonSimplifier {
+
+    private static final int NONE = -1;
+
+    /**
+     * Simplify a polygon to several tolerances at once
+     * @param polygon polygon to simplify, which should not intersect itself
+     * @param tolerances how far each level's outline may be from the original vertices, in increasing order
+     * @return 1 polygon per tolerance, each with its own copies of the points it kept, in the original order
+     */
+    public static ArrayList<BBDPolygon> simplify(BBDPolygon polygon, float[] tolerances){
+        for(int i = 0; i < tolerances.length; i++){
+            if(tolerances[i] < 0 || (i > 0 && tolerances[i] < tolerances[i - 1])){
+                throw new IllegalArgumentException("tolerances must be increasing and not negative, got "+Arrays.toString(tolerances));
+            }
+        }
+        return new BBDPolygonSimplifier(polygon.toCoordinates()).run(tolerances);
+    }
+
+    private final float[] coordinates;
+    private final int vertexCount;
+    private final int[] previous;
+    private final int[] next;
+    private final boolean[] removed;
+    private int remaining;
+
+    // Indexed min heap of vertices by how far the outline moves if they are removed.
+    private final float[] error;
+    private final int[] heap;
+    private final int[] heapSlot;
+    private int heapSize = 0;
+
+    // Vertices that couldn't be removed without crossing the outline, to try again once other vertices have gone.
+    private final int[] blocked;
+    private final boolean[] isBlocked;
+    private int blockedCount = 0;
+
+    // Uniform grid of the remaining vertices for the crossing checks, rebuilt as they thin out.
+    private float gridMinX;
+    private float gridMinY;
+    private float cellSize;
+    private int columns;
+    private int rows;
+    private int[] cellStart;
+    private int[] cellVertices;
+    private int gridVertexCount;
+
+    private BBDPolygonSimplifier(float[] coordinates){
+        this.coordinates = coordinates;
+        this.vertexCount = coordinates.length / 2;
+        this.previous = new int[this.vertexCount];
+        this.next = new int[this.vertexCount];
+        this.removed = new boolean[this.vertexCount];
+        this.error = new float[this.vertexCount];
+        this.heap = new int[this.vertexCount];
+        this.heapSlot = new int[this.vertexCount];
+        this.blocked = new int[this.vertexCount];
+        this.isBlocked = new boolean[this.vertexCount];
+        this.remaining = this.vertexCount;
+        for(int i = 0; i < this.vertexCount; i++){
+            this.previous[i] = (i + this.vertexCount - 1) % this.vertexCount;
+            this.next[i] = (i + 1) % this.vertexCount;
+            this.heapSlot[i] = NONE;
+        }
+    }
+
+    private ArrayList<BBDPolygon> run(float[] tolerances){
+        ArrayList<BBDPolygon> levels = new ArrayList<>(tolerances.length);
+        if(this.vertexCount > 3){
+            this.buildGrid();
+            for(int i = 0; i < this.vertexCount; i++){
+                this.error[i] = this.removalError(i);
+                this.heapPush(i);
+            }
+        }
+        for(float tolerance : tolerances){
+            this.removeUpTo(tolerance);
+            levels.add(this.buildPolygon());
+        }
+        return levels;
+    }
+
+    /**
+     * Remove vertices until every vertex left would move the outline more than the tolerance, or would cross it
+     */
+    private void removeUpTo(float tolerance){
+        boolean retry = true;
+        while(retry){
+            int remainingBefore = this.remaining;
+            while(this.remaining > 3 && this.heapSize > 0 && this.error[this.heap[0]] <= tolerance){
+                int vertex = this.heapPop();
+                if(this.otherVertexInTriangle(this.previous[vertex], vertex, this.next[vertex])){
+                    this.isBlocked[vertex] = true;
+                    this.blocked[this.blockedCount++] = vertex;
+                }else{
+                    this.remove(vertex);
+                }
+            }
+            //anything blocked may have been cleared by the vertices removed since, so give them another look
+            retry = this.blockedCount > 0 && this.remaining < remainingBefore && this.remaining > 3;
+            for(int i = 0; i < this.blockedCount; i++){
+                int vertex = this.blocked[i];
+                this.isBlocked[vertex] = false;
+                if(!this.removed[vertex] && this.heapSlot[vertex] == NONE){
+                    this.heapPush(vertex);
+                }
+            }
+            this.blockedCount = 0;
+        }
+    }
+
+    private void remove(int vertex){
+        int prev = this.previous[vertex];
+        int nxt = this.next[vertex];
+        this.next[prev] = nxt;
+        this.previous[nxt] = prev;
+        this.removed[vertex] = true;
+        this.remaining--;
+
+        this.updateError(prev);
+        this.updateError(nxt);
+
+        if(2 * this.remaining < this.gridVertexCount){
+            this.buildGrid();
+        }
+    }
+
+    private void updateError(int vertex){
+        this.error[vertex] = this.removalError(vertex);
+        if(this.heapSlot[vertex] != NONE){
+            this.heapSiftUp(this.heapSlot[vertex]);
+            this.heapSiftDown(this.heapSlot[vertex]);
+        }else if(!this.isBlocked[vertex]){
+            this.heapPush(vertex);
+        }
+    }
+
+    /**
+     * How far the original vertices from one neighbor of a vertex to the other would be from the edge replacing them
+     */
+    private float removalError(int vertex){
+        int start = this.previous[vertex];
+        int end = this.next[vertex];
+        double startX = this.coordinates[2 * start];
+        double startY = this.coordinates[2 * start + 1];
+        double edgeX = this.coordinates[2 * end] - startX;
+        double edgeY = this.coordinates[2 * end + 1] - startY;
+        double lengthSquared = edgeX * edgeX + edgeY * edgeY;
+
+        double worst = 0;
+        for(int i = (start + 1) % this.vertexCount; i != end; i = (i + 1) % this.vertexCount){
+            double deltaX = this.coordinates[2 * i] - startX;
+            double deltaY = this.coordinates[2 * i + 1] - startY;
+            double along = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (deltaX * edgeX + deltaY * edgeY) / lengthSquared));
+            deltaX -= along * edgeX;
+            deltaY -= along * edgeY;
+            worst = Math.max(worst, deltaX * deltaX + deltaY * deltaY);
+        }
+        return (float)Math.sqrt(worst);
+    }
+
+    /**
+     * Check if any remaining vertex other than the corners is inside or on the edge of a triangle
+     */
+    private boolean otherVertexInTriangle(int first, int second, int third){
+        double x1 = this.coordinates[2 * first];
+        double y1 = this.coordinates[2 * first + 1];
+        double x2 = this.coordinates[2 * second];
+        double y2 = this.coordinates[2 * second + 1];
+        double x3 = this.coordinates[2 * third];
+        double y3 = this.coordinates[2 * third + 1];
+
+        int minColumn = this.column((float)Math.min(x1, Math.min(x2, x3)));
+        int maxColumn = this.column((float)Math.max(x1, Math.max(x2, x3)));
+        int minRow = this.row((float)Math.min(y1, Math.min(y2, y3)));
+        int maxRow = this.row((float)Math.max(y1, Math.max(y2, y3)));
+        for(int row = minRow; row <= maxRow; row++){
+            for(int column = minColumn; column <= maxColumn; column++){
+                int cell = row * this.columns + column;
+                for(int i = this.cellStart[cell]; i < this.cellStart[cell + 1]; i++){
+                    int vertex = this.cellVertices[i];
+                    if(this.removed[vertex] || vertex == first || vertex == second || vertex == third){
+                        continue;
+                    }
+                    double x = this.coordinates[2 * vertex];
+                    double y = this.coordinates[2 * vertex + 1];
+                    double side1 = (x2 - x1) * (y - y1) - (y2 - y1) * (x - x1);
+                    double side2 = (x3 - x2) * (y - y2) - (y3 - y2) * (x - x2);
+                    double side3 = (x1 - x3) * (y - y3) - (y1 - y3) * (x - x3);
+                    if((side1 >= 0 && side2 >= 0 && side3 >= 0) || (side1 <= 0 && side2 <= 0 && side3 <= 0)){
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bucket the remaining vertices into a grid with about 1 vertex per cell
+     */
+    private void buildGrid(){
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for(int i = 0; i < this.vertexCount; i++){
+            if(!this.removed[i]){
+                minX = Math.min(minX, this.coordinates[2 * i]);
+                minY = Math.min(minY, this.coordinates[2 * i + 1]);
+                maxX = Math.max(maxX, this.coordinates[2 * i]);
+                maxY = Math.max(maxY, this.coordinates[2 * i + 1]);
+            }
+        }
+        float width = Math.max(maxX - minX, BBDGeometryHelpers.ALLOWABLE_DELTA);
+        float height = Math.max(maxY - minY, BBDGeometryHelpers.ALLOWABLE_DELTA);
+        this.gridMinX = minX;
+        this.gridMinY = minY;
+        this.cellSize = (float)Math.sqrt(width * height / this.remaining);
+        this.columns = Math.max(1, Math.min(this.remaining, (int)(width / this.cellSize) + 1));
+        this.rows = Math.max(1, Math.min(this.remaining, (int)(height / this.cellSize) + 1));
+
+        this.cellStart = new int[this.columns * this.rows + 1];
+        this.cellVertices = new int[this.remaining];
+        int[] cells = new int[this.vertexCount];
+        for(int i = 0; i < this.vertexCount; i++){
+            if(!this.removed[i]){
+                cells[i] = this.row(this.coordinates[2 * i + 1]) * this.columns + this.column(this.coordinates[2 * i]);
+                this.cellStart[cells[i] + 1]++;
+            }
+        }
+        for(int cell = 0; cell < this.columns * this.rows; cell++){
+            this.cellStart[cell + 1] += this.cellStart[cell];
+        }
+        int[] fill = Arrays.copyOf(this.cellStart, this.cellStart.length - 1);
+        for(int i = 0; i < this.vertexCount; i++){
+            if(!this.removed[i]){
+                this.cellVertices[fill[cells[i]]++] = i;
+            }
+        }
+        this.gridVertexCount = this.remaining;
+    }
+
+    private int column(float x){
+        return Math.max(0, Math.min(this.columns - 1, (int)((x - this.gridMinX) / this.cellSize)));
+    }
+
+    private int row(float y){
+        return Math.max(0, Math.min(this.rows - 1, (int)((y - this.gridMinY) / this.cellSize)));
+    }
+
+    private BBDPolygon buildPolygon(){
+        ArrayList<BBDPoint> points = new ArrayList<>(this.remaining);
+        int start = 0;
+        while(this.removed[start]){
+            start++;
+        }
+        int vertex = start;
+        do{
+            points.add(new BBDPoint(this.coordinates[2 * vertex], this.coordinates[2 * vertex + 1]));
+            vertex = this.next[vertex];
+        }while(vertex != start);
+        return new BBDPolygon(points);
+    }
+
+    private void heapPush(int vertex){
+        this.heap[this.heapSize] = vertex;
+        this.heapSlot[vertex] = this.heapSize;
+        this.heapSiftUp(this.heapSize++);
+    }
+
+    private int heapPop(){
+        int top = this.heap[0];
+        this.heapSlot[top] = NONE;
+        this.heapSize--;
+        if(this.heapSize > 0){
+            this.heap[0] = this.heap[this.heapSize];
+            this.heapSlot[this.heap[0]] = 0;
+            this.heapSiftDown(0);
+        }
+        return top;
+    }
+
+    private void heapSiftUp(int slot){
+        int vertex = this.heap[slot];
+        while(slot > 0){
+            int parent = (slot - 1) / 2;
+            if(this.error[this.heap[parent]] <= this.error[vertex]){
+                break;
+            }
+            this.heap[slot] = this.heap[parent];
+            this.heapSlot[this.heap[slot]] = slot;
+            slot = parent;
+        }
+        this.heap[slot] = vertex;
+        this.heapSlot[vertex] = slot;
+    }
+
+    private void heapSiftDown(int slot){
+        int vertex = this.heap[slot];
+        while(2 * slot + 1 < this.heapSize){
+            int child = 2 * slot + 1;
+            if(child + 1 < this.heapSize && this.error[this.heap[child + 1]] < this.error[this.heap[child]]){
+                child++;
+            }
+            if(this.error[vertex] <= this.error[this.heap[child]]){
+                break;
+            }
+            this.heap[slot] = this.heap[child];
+            this.heapSlot[this.heap[slot]] = slot;
+            slot = child;
+        }
+        this.heap[slot] = vertex;
+        this.heapSlot[vertex] = slot;
+    }
+}
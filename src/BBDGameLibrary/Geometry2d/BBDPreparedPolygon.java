@@ -0,0 +1,306 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.Arrays;
+
+/**
+ * A read only snapshot of a polygon with acceleration data built up front, for shapes that get queried over and over but
+ * never move, like level boundaries and zones.  Building one costs about the same as a handful of queries against the
+ * plain polygon, after which point, distance and segment queries only look at the edges near the query rather than the
+ * whole perimeter:
+ *
+ * - an edge index that buckets edges into horizontal bands, used for everything on concave polygons
+ * - a convexity flag, convex polygons answer point queries with a binary search over a triangle fan
+ * - the bounding box, to reject far away queries immediately
+ * - a triangulation, for anything that wants to work with the interior
+ *
+ * Changes to the source polygon after preparing it are not picked up, prepare it again if it moves.  Every field is
+ * final and no query allocates or writes anything, so one prepared polygon can be shared between threads.
+ */
+public class BBDPreparedPolygon {
+
+    private static final float DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA;
+
+    // Vertices in counterclockwise order.
+    private final float[] coordinates;
+    private final int vertexCount;
+
+    private final float minX;
+    private final float maxX;
+    private final float minY;
+    private final float maxY;
+
+    private final boolean convex;
+    private final float area;
+    private final BBDEdgeIndex edgeIndex;
+    private final int[] triangles;
+
+    /**
+     * Prepare a polygon for repeated queries
+     * @param polygon polygon to take a snapshot of
+     */
+    public BBDPreparedPolygon(BBDPolygon polygon){
+        this(polygon.toCoordinates());
+    }
+
+    /**
+     * Prepare a polygon stored as packed coordinates
+     * @param coordinates packed coordinates in the form x0, y0, x1, y1...  The array is copied.
+     */
+    public BBDPreparedPolygon(float[] coordinates){
+        float[] copy = Arrays.copyOf(coordinates, coordinates.length - coordinates.length % 2);
+        this.vertexCount = copy.length / 2;
+
+        //work in counterclockwise order so the convex test has a fixed orientation
+        BBDAreaProperties properties = BBDAreaProperties.fromCoordinates(copy, this.vertexCount);
+        if(properties.getSignedArea() < 0){
+            for(int low = 0, high = this.vertexCount - 1; low < high; low++, high--){
+                float x = copy[2 * low];
+                float y = copy[2 * low + 1];
+                copy[2 * low] = copy[2 * high];
+                copy[2 * low + 1] = copy[2 * high + 1];
+                copy[2 * high] = x;
+                copy[2 * high + 1] = y;
+            }
+        }
+        this.coordinates = copy;
+        this.area = properties.getArea();
+
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for(int i = 0; i < copy.length; i += 2){
+            minX = Math.min(minX, copy[i]);
+            maxX = Math.max(maxX, copy[i]);
+            minY = Math.min(minY, copy[i + 1]);
+            maxY = Math.max(maxY, copy[i + 1]);
+        }
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+
+        this.convex = this.vertexCount >= 3 && this.area > 0 && isConvex(copy, this.vertexCount);
+        this.edgeIndex = new BBDEdgeIndex(copy);
+        this.triangles = BBDTriangulator.triangulate(copy, BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON);
+    }
+
+    /**
+     * No vertex turns the opposite way from the polygon as a whole.  Colinear vertices are allowed.
+     */
+    private static boolean isConvex(float[] coordinates, int vertexCount){
+        return isConvex(coordinates, vertexCount, 1);
+    }
+
+    /**
+     * No vertex turns the opposite way from the polygon as a whole.  Colinear vertices are allowed.
+     * @param orientation 1 if the coordinates are counterclockwise, -1 if they are clockwise
+     */
+    static boolean isConvex(float[] coordinates, int vertexCount, double orientation){
+        for(int i = 0; i < vertexCount; i++){
+            int next = (i + 1) % vertexCount;
+            int after = (i + 2) % vertexCount;
+            if(orientation * cross(coordinates, i, next, after) < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cross product of AB and AC, positive if C is to the left of AB
+     */
+    private static double cross(float[] coordinates, int a, int b, int c){
+        double abx = (double)coordinates[2 * b] - coordinates[2 * a];
+        double aby = (double)coordinates[2 * b + 1] - coordinates[2 * a + 1];
+        double acx = (double)coordinates[2 * c] - coordinates[2 * a];
+        double acy = (double)coordinates[2 * c + 1] - coordinates[2 * a + 1];
+        return abx * acy - aby * acx;
+    }
+
+    public boolean isConvex(){
+        return this.convex;
+    }
+
+    public float area(){
+        return this.area;
+    }
+
+    public int getVertexCount(){
+        return this.vertexCount;
+    }
+
+    public float minX(){
+        return this.minX;
+    }
+
+    public float maxX(){
+        return this.maxX;
+    }
+
+    public float minY(){
+        return this.minY;
+    }
+
+    public float maxY(){
+        return this.maxY;
+    }
+
+    /**
+     * Number of triangles in the prepared triangulation
+     * @return number of triangles
+     */
+    public int getTriangleCount(){
+        return this.triangles.length / 3;
+    }
+
+    /**
+     * The prepared triangulation.  Indices refer to the vertices in counterclockwise order, which is the reverse of the
+     * source polygon if it was clockwise.
+     * @return a copy of the index buffer, 3 indices per triangle
+     */
+    public int[] getTriangles(){
+        return Arrays.copyOf(this.triangles, this.triangles.length);
+    }
+
+    /**
+     * A copy of the vertices in counterclockwise order
+     * @return packed coordinates in the form x0, y0, x1, y1...
+     */
+    public float[] getCoordinates(){
+        return Arrays.copyOf(this.coordinates, this.coordinates.length);
+    }
+
+    public boolean boundsContainPoint(float x, float y){
+        return x >= this.minX - DELTA && x <= this.maxX + DELTA && y >= this.minY - DELTA && y <= this.maxY + DELTA;
+    }
+
+    /**
+     * Check if a point is inside the polygon.  Points on the perimeter count as inside.
+     * @param point point to check
+     * @return is the point inside
+     */
+    public boolean checkPointInside(BBDPoint point){
+        return this.checkPointInside(point.getXLoc(), point.getYLoc(), true);
+    }
+
+    /**
+     * Check if a point is inside the polygon.  O(log n) for convex polygons, and for concave ones proportional to the
+     * number of edges near the point's y coordinate.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param includePerimeter should a point on the perimeter count as inside
+     * @return is the point inside
+     */
+    public boolean checkPointInside(float x, float y, boolean includePerimeter){
+        if(this.vertexCount < 3 || !this.boundsContainPoint(x, y)){
+            return false;
+        }
+        if(this.convex){
+            return this.checkPointInsideConvex(x, y, includePerimeter);
+        }
+        return this.edgeIndex.checkPointInside(x, y, includePerimeter);
+    }
+
+    /**
+     * Binary search for the slice of the triangle fan around vertex 0 that the point falls in, then check it against the
+     * single outer edge of that slice.
+     */
+    private boolean checkPointInsideConvex(float x, float y, boolean includePerimeter){
+        int last = this.vertexCount - 1;
+
+        //outside the wedge formed by the 2 edges at vertex 0
+        if(this.side(0, 1, x, y) < 0 || this.side(0, last, x, y) > 0){
+            return includePerimeter && (this.onEdge(0, x, y) || this.onEdge(last, x, y));
+        }
+
+        //last fan vertex with the point on its left
+        int low = 1;
+        int high = last;
+        while(high - low > 1){
+            int middle = (low + high) >>> 1;
+            if(this.side(0, middle, x, y) >= 0){
+                low = middle;
+            }else{
+                high = middle;
+            }
+        }
+
+        if(this.onEdge(low, x, y) || (low == 1 && this.onEdge(0, x, y)) || (high == last && this.onEdge(last, x, y))){
+            return includePerimeter;
+        }
+        //the point must be on the inner side of the edge from low to high
+        return this.side(low, high, x, y) > 0;
+    }
+
+    /**
+     * Which side of the line from vertex a to vertex b the point is on, positive for left
+     */
+    private double side(int a, int b, float x, float y){
+        double abx = (double)this.coordinates[2 * b] - this.coordinates[2 * a];
+        double aby = (double)this.coordinates[2 * b + 1] - this.coordinates[2 * a + 1];
+        return abx * ((double)y - this.coordinates[2 * a + 1]) - aby * ((double)x - this.coordinates[2 * a]);
+    }
+
+    private boolean onEdge(int edge, float x, float y){
+        int next = (edge + 1) % this.vertexCount;
+        return BBDSegmentIntersection.pointOnSegment(x, y, this.coordinates[2 * edge], this.coordinates[2 * edge + 1],
+                this.coordinates[2 * next], this.coordinates[2 * next + 1]);
+    }
+
+    /**
+     * Check if the given point is on the perimeter of the polygon.
+     * @param point point to check
+     * @return is it on the perimeter
+     */
+    public boolean checkPointOnPerimeter(BBDPoint point){
+        return this.edgeIndex.findEdgeContaining(point.getXLoc(), point.getYLoc()) != -1;
+    }
+
+    /**
+     * Check if a segment touches or crosses the perimeter
+     * @param segment segment to check
+     * @return does it touch the perimeter
+     */
+    public boolean checkSegmentIntersectPolygon(BBDSegment segment){
+        BBDPoint start = segment.getStartPoint();
+        BBDPoint end = segment.getEndPoint();
+        return this.edgeIndex.segmentIntersects(start.getXLoc(), start.getYLoc(), end.getXLoc(), end.getYLoc());
+    }
+
+    /**
+     * Distance squared to a point, 0 if the point is inside.
+     * @param point point to measure to
+     * @return distance squared
+     */
+    public float distanceSquaredToPoint(BBDPoint point){
+        return this.distanceSquaredToPoint(point.getXLoc(), point.getYLoc());
+    }
+
+    public float distanceSquaredToPoint(float x, float y){
+        if(this.checkPointInside(x, y, true)){
+            return 0;
+        }
+        return this.edgeIndex.distanceSquaredToPoint(x, y);
+    }
+
+    /**
+     * Distance squared to a segment, 0 if any part of it is inside or touching.
+     * @param segment segment to measure to
+     * @return distance squared
+     */
+    public float distanceSquaredToSegment(BBDSegment segment){
+        BBDPoint start = segment.getStartPoint();
+        BBDPoint end = segment.getEndPoint();
+        float ax = start.getXLoc(), ay = start.getYLoc();
+        float bx = end.getXLoc(), by = end.getYLoc();
+        if(this.checkPointInside(ax, ay, true) || this.edgeIndex.segmentIntersects(ax, ay, bx, by)){
+            return 0;
+        }
+        return this.edgeIndex.distanceSquaredToSegment(ax, ay, bx, by);
+    }
+
+    public String toString(){
+        return "BBDPreparedPolygon object consisting of "+this.vertexCount+" vertices"+(this.convex ? ", convex" : "");
+    }
+}
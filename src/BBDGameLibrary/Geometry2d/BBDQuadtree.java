@@ -0,0 +1,655 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Loose quadtree over a set of polygons and points, for answering "what is in this rectangle", "what is within this
+ * range" and "what are the k closest" questions about static map features without checking every one of them.
+ *
+ * Each node covers a square cell, but anything stored in it only has to have its center in the cell and be no bigger
+ * than the cell, so a node's contents can stick out past its cell by up to half a cell on every side.  That way every
+ * feature fits in exactly one node no matter where it sits, rather than being split across or stuck above the cell
+ * boundaries it happens to cross.  Nodes split into 4 once they hold more than a handful of features.
+ *
+ * Polygons are indexed by their bounds as of when they were added, and points by their coordinates, so features need
+ * to be removed before they are moved and added back after.  Anything with its center outside the area the tree was
+ * built for is kept at the root, which still works but isn't accelerated.
+ *
+ * The nodes and entries are stored in primitive arrays, so a large index stays compact.  Queries don't allocate besides
+ * growing the caller's result list, but they share scratch space, so the tree is not thread safe.
+ */
+public class BBDQuadtree {
+
+    private static final int NODE_CAPACITY = 8;
+    private static final int MAX_DEPTH = 20;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Nodes.  Children are allocated 4 at a time and stored together, in the order low x low y, high x low y, low x
+    // high y, high x high y.  Each node's entries form a linked list through entryNext.
+    private float[] nodeCenterX;
+    private float[] nodeCenterY;
+    private float[] nodeHalfSize;
+    private int[] nodeDepth;
+    private int[] nodeFirstChild;
+    private int[] nodeFirstEntry;
+    private int[] nodeEntryCount;
+    private int nodeCount = 0;
+
+    // Entries.  Removed entries are chained through entryNext starting at freeEntry.
+    private BBDGeometry[] entryGeometry;
+    private float[] entryMinX;
+    private float[] entryMinY;
+    private float[] entryMaxX;
+    private float[] entryMaxY;
+    private int[] entryNext;
+    private int entryCapacityUsed = 0;
+    private int freeEntry = -1;
+    private int size = 0;
+
+    // Scratch space for nearest neighbour queries, a max heap of the best k found so far.
+    private float[] heapDistance = new float[INITIAL_CAPACITY];
+    private int[] heapEntry = new int[INITIAL_CAPACITY];
+    private int heapSize = 0;
+
+    /**
+     * Create an empty tree covering a square area.  Features can still be added outside of it, they just won't be
+     * accelerated.
+     * @param centerX x coordinate of the center of the area
+     * @param centerY y coordinate of the center of the area
+     * @param halfSize half the width of the area
+     */
+    public BBDQuadtree(float centerX, float centerY, float halfSize){
+        this.allocate(INITIAL_CAPACITY, INITIAL_CAPACITY);
+        this.addNode(centerX, centerY, Math.max(halfSize, BBDGeometryHelpers.ALLOWABLE_DELTA), 0);
+    }
+
+    /**
+     * Build a tree around a set of features all at once.  The area is fitted to the features, and they are partitioned
+     * from the top down rather than added one at a time.
+     * @param polygons polygons to index, may be null
+     * @param points points to index, may be null
+     */
+    public BBDQuadtree(ArrayList<BBDPolygon> polygons, ArrayList<BBDPoint> points){
+        int count = (polygons == null ? 0 : polygons.size()) + (points == null ? 0 : points.size());
+        this.allocate(Math.max(INITIAL_CAPACITY, count), Math.max(INITIAL_CAPACITY, count / 2));
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        int[] entries = new int[count];
+        if(polygons != null){
+            for(BBDPolygon polygon : polygons){
+                int entry = this.addEntry(polygon, polygon.minX(), polygon.minY(), polygon.maxX(), polygon.maxY());
+                entries[entry] = entry;
+            }
+        }
+        if(points != null){
+            for(BBDPoint point : points){
+                int entry = this.addEntry(point, point.getXLoc(), point.getYLoc(), point.getXLoc(), point.getYLoc());
+                entries[entry] = entry;
+            }
+        }
+        for(int entry = 0; entry < count; entry++){
+            minX = Math.min(minX, this.centerX(entry));
+            minY = Math.min(minY, this.centerY(entry));
+            maxX = Math.max(maxX, this.centerX(entry));
+            maxY = Math.max(maxY, this.centerY(entry));
+        }
+        if(count == 0){
+            minX = minY = maxX = maxY = 0;
+        }
+
+        //pad a little so features on the far edges still have their centers inside
+        float halfSize = Math.max(Math.max(maxX - minX, maxY - minY) / 2, BBDGeometryHelpers.ALLOWABLE_DELTA) * 1.0001f;
+        int root = this.addNode((minX + maxX) / 2, (minY + maxY) / 2, halfSize, 0);
+        this.buildNode(root, entries, 0, count);
+    }
+
+    private void allocate(int entryCapacity, int nodeCapacity){
+        this.nodeCenterX = new float[nodeCapacity];
+        this.nodeCenterY = new float[nodeCapacity];
+        this.nodeHalfSize = new float[nodeCapacity];
+        this.nodeDepth = new int[nodeCapacity];
+        this.nodeFirstChild = new int[nodeCapacity];
+        this.nodeFirstEntry = new int[nodeCapacity];
+        this.nodeEntryCount = new int[nodeCapacity];
+
+        this.entryGeometry = new BBDGeometry[entryCapacity];
+        this.entryMinX = new float[entryCapacity];
+        this.entryMinY = new float[entryCapacity];
+        this.entryMaxX = new float[entryCapacity];
+        this.entryMaxY = new float[entryCapacity];
+        this.entryNext = new int[entryCapacity];
+    }
+
+    /**
+     * Partition entries[start..end) into this node and its children
+     */
+    private void buildNode(int node, int[] entries, int start, int end){
+        if(end - start <= NODE_CAPACITY || this.nodeDepth[node] >= MAX_DEPTH){
+            for(int i = start; i < end; i++){
+                this.linkEntry(node, entries[i]);
+            }
+            return;
+        }
+
+        //anything too big for a child stays here, move it to the front
+        float childHalf = this.nodeHalfSize[node] / 2;
+        int split = start;
+        for(int i = start; i < end; i++){
+            if(!this.fitsInChild(entries[i], childHalf)){
+                int swap = entries[split];
+                entries[split] = entries[i];
+                entries[i] = swap;
+                this.linkEntry(node, entries[split]);
+                split++;
+            }
+        }
+        if(split == end){
+            return;
+        }
+
+        //then sort the rest into quadrants, first on x and then each half on y
+        float centerX = this.nodeCenterX[node];
+        float centerY = this.nodeCenterY[node];
+        int middleX = this.partition(entries, split, end, centerX, true);
+        int middleLowY = this.partition(entries, split, middleX, centerY, false);
+        int middleHighY = this.partition(entries, middleX, end, centerY, false);
+
+        int firstChild = this.split(node);
+        this.buildNode(firstChild, entries, split, middleLowY);
+        this.buildNode(firstChild + 1, entries, middleX, middleHighY);
+        this.buildNode(firstChild + 2, entries, middleLowY, middleX);
+        this.buildNode(firstChild + 3, entries, middleHighY, end);
+    }
+
+    /**
+     * Move the entries with centers below the divider to the front
+     * @return index of the first entry at or above the divider
+     */
+    private int partition(int[] entries, int start, int end, float divider, boolean onX){
+        int low = start;
+        for(int i = start; i < end; i++){
+            float center = onX ? this.centerX(entries[i]) : this.centerY(entries[i]);
+            if(center < divider){
+                int swap = entries[low];
+                entries[low] = entries[i];
+                entries[i] = swap;
+                low++;
+            }
+        }
+        return low;
+    }
+
+    private float centerX(int entry){
+        return (this.entryMinX[entry] + this.entryMaxX[entry]) / 2;
+    }
+
+    private float centerY(int entry){
+        return (this.entryMinY[entry] + this.entryMaxY[entry]) / 2;
+    }
+
+    private boolean fitsInChild(int entry, float childHalf){
+        return this.entryMaxX[entry] - this.entryMinX[entry] <= childHalf
+                && this.entryMaxY[entry] - this.entryMinY[entry] <= childHalf;
+    }
+
+    private int addNode(float centerX, float centerY, float halfSize, int depth){
+        if(this.nodeCount == this.nodeCenterX.length){
+            int capacity = 2 * this.nodeCenterX.length;
+            this.nodeCenterX = Arrays.copyOf(this.nodeCenterX, capacity);
+            this.nodeCenterY = Arrays.copyOf(this.nodeCenterY, capacity);
+            this.nodeHalfSize = Arrays.copyOf(this.nodeHalfSize, capacity);
+            this.nodeDepth = Arrays.copyOf(this.nodeDepth, capacity);
+            this.nodeFirstChild = Arrays.copyOf(this.nodeFirstChild, capacity);
+            this.nodeFirstEntry = Arrays.copyOf(this.nodeFirstEntry, capacity);
+            this.nodeEntryCount = Arrays.copyOf(this.nodeEntryCount, capacity);
+        }
+        int node = this.nodeCount++;
+        this.nodeCenterX[node] = centerX;
+        this.nodeCenterY[node] = centerY;
+        this.nodeHalfSize[node] = halfSize;
+        this.nodeDepth[node] = depth;
+        this.nodeFirstChild[node] = -1;
+        this.nodeFirstEntry[node] = -1;
+        this.nodeEntryCount[node] = 0;
+        return node;
+    }
+
+    /**
+     * Give a node its 4 children
+     * @return index of the first child
+     */
+    private int split(int node){
+        float quarter = this.nodeHalfSize[node] / 2;
+        float centerX = this.nodeCenterX[node];
+        float centerY = this.nodeCenterY[node];
+        int depth = this.nodeDepth[node] + 1;
+        int firstChild = this.addNode(centerX - quarter, centerY - quarter, quarter, depth);
+        this.addNode(centerX + quarter, centerY - quarter, quarter, depth);
+        this.addNode(centerX - quarter, centerY + quarter, quarter, depth);
+        this.addNode(centerX + quarter, centerY + quarter, quarter, depth);
+        this.nodeFirstChild[node] = firstChild;
+        return firstChild;
+    }
+
+    private int addEntry(BBDGeometry geometry, float minX, float minY, float maxX, float maxY){
+        int entry;
+        if(this.freeEntry != -1){
+            entry = this.freeEntry;
+            this.freeEntry = this.entryNext[entry];
+        }else{
+            if(this.entryCapacityUsed == this.entryGeometry.length){
+                int capacity = 2 * this.entryGeometry.length;
+                this.entryGeometry = Arrays.copyOf(this.entryGeometry, capacity);
+                this.entryMinX = Arrays.copyOf(this.entryMinX, capacity);
+                this.entryMinY = Arrays.copyOf(this.entryMinY, capacity);
+                this.entryMaxX = Arrays.copyOf(this.entryMaxX, capacity);
+                this.entryMaxY = Arrays.copyOf(this.entryMaxY, capacity);
+                this.entryNext = Arrays.copyOf(this.entryNext, capacity);
+            }
+            entry = this.entryCapacityUsed++;
+        }
+        this.entryGeometry[entry] = geometry;
+        this.entryMinX[entry] = minX;
+        this.entryMinY[entry] = minY;
+        this.entryMaxX[entry] = maxX;
+        this.entryMaxY[entry] = maxY;
+        this.entryNext[entry] = -1;
+        this.size++;
+        return entry;
+    }
+
+    private void linkEntry(int node, int entry){
+        this.entryNext[entry] = this.nodeFirstEntry[node];
+        this.nodeFirstEntry[node] = entry;
+        this.nodeEntryCount[node]++;
+    }
+
+    /**
+     * Number of features in the tree
+     * @return feature count
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * Add a polygon, indexed by its current bounds
+     * @param polygon polygon to add
+     */
+    public void insert(BBDPolygon polygon){
+        this.insertEntry(this.addEntry(polygon, polygon.minX(), polygon.minY(), polygon.maxX(), polygon.maxY()));
+    }
+
+    /**
+     * Add a point, indexed by its current coordinates
+     * @param point point to add
+     */
+    public void insert(BBDPoint point){
+        this.insertEntry(this.addEntry(point, point.getXLoc(), point.getYLoc(), point.getXLoc(), point.getYLoc()));
+    }
+
+    private void insertEntry(int entry){
+        int node = this.findNode(entry);
+        this.linkEntry(node, entry);
+
+        //split once a leaf gets too full, pushing down whatever fits in the children
+        if(this.nodeFirstChild[node] == -1 && this.nodeEntryCount[node] > NODE_CAPACITY && this.nodeDepth[node] < MAX_DEPTH){
+            float childHalf = this.nodeHalfSize[node] / 2;
+            int firstChild = this.split(node);
+            int current = this.nodeFirstEntry[node];
+            this.nodeFirstEntry[node] = -1;
+            this.nodeEntryCount[node] = 0;
+            while(current != -1){
+                int next = this.entryNext[current];
+                if(this.fitsInChild(current, childHalf)
+                        && this.cellContains(node, this.centerX(current), this.centerY(current))){
+                    this.linkEntry(firstChild + this.quadrant(node, current), current);
+                }else{
+                    this.linkEntry(node, current);
+                }
+                current = next;
+            }
+        }
+    }
+
+    /**
+     * The deepest existing node that an entry belongs in, going by its center and size
+     */
+    private int findNode(int entry){
+        int node = 0;
+        if(!this.cellContains(node, this.centerX(entry), this.centerY(entry))){
+            return node;
+        }
+        while(this.nodeFirstChild[node] != -1 && this.fitsInChild(entry, this.nodeHalfSize[node] / 2)){
+            node = this.nodeFirstChild[node] + this.quadrant(node, entry);
+        }
+        return node;
+    }
+
+    private int quadrant(int node, int entry){
+        int quadrant = 0;
+        if(this.centerX(entry) >= this.nodeCenterX[node]){
+            quadrant += 1;
+        }
+        if(this.centerY(entry) >= this.nodeCenterY[node]){
+            quadrant += 2;
+        }
+        return quadrant;
+    }
+
+    private boolean cellContains(int node, float x, float y){
+        float half = this.nodeHalfSize[node];
+        return Math.abs(x - this.nodeCenterX[node]) <= half && Math.abs(y - this.nodeCenterY[node]) <= half;
+    }
+
+    /**
+     * Remove a polygon.  It has to be in the same place it was when it was added.
+     * @param polygon polygon to remove
+     * @return was the polygon found
+     */
+    public boolean remove(BBDPolygon polygon){
+        return this.removeGeometry(polygon, polygon.minX(), polygon.minY(), polygon.maxX(), polygon.maxY());
+    }
+
+    /**
+     * Remove a point.  It has to be in the same place it was when it was added.
+     * @param point point to remove
+     * @return was the point found
+     */
+    public boolean remove(BBDPoint point){
+        return this.removeGeometry(point, point.getXLoc(), point.getYLoc(), point.getXLoc(), point.getYLoc());
+    }
+
+    private boolean removeGeometry(BBDGeometry geometry, float minX, float minY, float maxX, float maxY){
+        //walk the same path an insert would take, the entry is in one of the nodes along it
+        float centerX = (minX + maxX) / 2;
+        float centerY = (minY + maxY) / 2;
+        float width = Math.max(maxX - minX, maxY - minY);
+        int node = 0;
+        while(node != -1){
+            int previous = -1;
+            for(int entry = this.nodeFirstEntry[node]; entry != -1; previous = entry, entry = this.entryNext[entry]){
+                if(this.entryGeometry[entry] != geometry){
+                    continue;
+                }
+                if(previous == -1){
+                    this.nodeFirstEntry[node] = this.entryNext[entry];
+                }else{
+                    this.entryNext[previous] = this.entryNext[entry];
+                }
+                this.nodeEntryCount[node]--;
+                this.entryGeometry[entry] = null;
+                this.entryNext[entry] = this.freeEntry;
+                this.freeEntry = entry;
+                this.size--;
+                return true;
+            }
+            if(this.nodeFirstChild[node] == -1 || width > this.nodeHalfSize[node] / 2
+                    || !this.cellContains(node, centerX, centerY)){
+                return false;
+            }
+            int quadrant = (centerX >= this.nodeCenterX[node] ? 1 : 0) + (centerY >= this.nodeCenterY[node] ? 2 : 0);
+            node = this.nodeFirstChild[node] + quadrant;
+        }
+        return false;
+    }
+
+    /**
+     * The box that everything in a node's subtree lies in, its cell grown by half a cell on every side.  The root keeps
+     * anything that doesn't fit, so it is never pruned.
+     */
+    private boolean looseBoundsOverlap(int node, float minX, float minY, float maxX, float maxY){
+        if(node == 0){
+            return true;
+        }
+        float loose = 2 * this.nodeHalfSize[node];
+        return this.nodeCenterX[node] - loose <= maxX && this.nodeCenterX[node] + loose >= minX
+                && this.nodeCenterY[node] - loose <= maxY && this.nodeCenterY[node] + loose >= minY;
+    }
+
+    private float looseBoundsDistanceSquared(int node, float x, float y){
+        if(node == 0){
+            return 0;
+        }
+        float loose = 2 * this.nodeHalfSize[node];
+        float dx = Math.max(0, Math.abs(x - this.nodeCenterX[node]) - loose);
+        float dy = Math.max(0, Math.abs(y - this.nodeCenterY[node]) - loose);
+        return dx * dx + dy * dy;
+    }
+
+    private float boundsDistanceSquared(int entry, float x, float y){
+        float dx = Math.max(0, Math.max(this.entryMinX[entry] - x, x - this.entryMaxX[entry]));
+        float dy = Math.max(0, Math.max(this.entryMinY[entry] - y, y - this.entryMaxY[entry]));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Find the features that overlap a rectangle.  Points have to be inside or on the edge, and polygons have to share
+     * some area or boundary with it, not just have overlapping bounds.
+     * @param results the features found are added to the end of this list
+     * @return number of features found
+     */
+    public int queryRectangle(float minX, float minY, float maxX, float maxY, ArrayList<BBDGeometry> results){
+        return this.queryRectangle(0, minX, minY, maxX, maxY, results);
+    }
+
+    private int queryRectangle(int node, float minX, float minY, float maxX, float maxY, ArrayList<BBDGeometry> results){
+        if(!this.looseBoundsOverlap(node, minX, minY, maxX, maxY)){
+            return 0;
+        }
+        int found = 0;
+        for(int entry = this.nodeFirstEntry[node]; entry != -1; entry = this.entryNext[entry]){
+            if(this.entryMinX[entry] > maxX || this.entryMaxX[entry] < minX
+                    || this.entryMinY[entry] > maxY || this.entryMaxY[entry] < minY){
+                continue;
+            }
+            BBDGeometry geometry = this.entryGeometry[entry];
+            if(geometry instanceof BBDPolygon && !polygonOverlapsRectangle((BBDPolygon)geometry, minX, minY, maxX, maxY)){
+                continue;
+            }
+            results.add(geometry);
+            found++;
+        }
+        int firstChild = this.nodeFirstChild[node];
+        if(firstChild != -1){
+            for(int child = firstChild; child < firstChild + 4; child++){
+                found += this.queryRectangle(child, minX, minY, maxX, maxY, results);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Exact overlap test for a polygon whose bounds overlap the rectangle.  Either a vertex is inside the rectangle, the
+     * rectangle is inside the polygon, or their edges cross.
+     */
+    private static boolean polygonOverlapsRectangle(BBDPolygon polygon, float minX, float minY, float maxX, float maxY){
+        if(polygon.minX() >= minX && polygon.maxX() <= maxX && polygon.minY() >= minY && polygon.maxY() <= maxY){
+            return true;
+        }
+        float[] coordinates = polygon.getPackedCoordinates();
+        int count = coordinates.length / 2;
+        for(int i = 0; i < count; i++){
+            float x = coordinates[2 * i];
+            float y = coordinates[2 * i + 1];
+            if(x >= minX && x <= maxX && y >= minY && y <= maxY){
+                return true;
+            }
+        }
+        if(polygon.checkPointInside(minX, minY, true)){
+            return true;
+        }
+        for(int i = 0; i < count; i++){
+            int next = (i + 1) % count;
+            float ax = coordinates[2 * i], ay = coordinates[2 * i + 1];
+            float bx = coordinates[2 * next], by = coordinates[2 * next + 1];
+            if(touches(ax, ay, bx, by, minX, minY, maxX, minY) || touches(ax, ay, bx, by, maxX, minY, maxX, maxY)
+                    || touches(ax, ay, bx, by, maxX, maxY, minX, maxY) || touches(ax, ay, bx, by, minX, maxY, minX, minY)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean touches(float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy){
+        return BBDSegmentIntersection.intersect(ax, ay, bx, by, cx, cy, dx, dy, null) != BBDSegmentIntersection.DISJOINT;
+    }
+
+    /**
+     * Find the features within a distance of a point.  Polygons count if any part of them is within range, including the
+     * point being inside.
+     * @param point center of the search
+     * @param radius how far to search
+     * @param results the features found are added to the end of this list
+     * @return number of features found
+     */
+    public int queryRadius(BBDPoint point, float radius, ArrayList<BBDGeometry> results){
+        return this.queryRadius(0, point, radius * radius, results);
+    }
+
+    private int queryRadius(int node, BBDPoint point, float radiusSquared, ArrayList<BBDGeometry> results){
+        float x = point.getXLoc();
+        float y = point.getYLoc();
+        if(this.looseBoundsDistanceSquared(node, x, y) > radiusSquared){
+            return 0;
+        }
+        int found = 0;
+        for(int entry = this.nodeFirstEntry[node]; entry != -1; entry = this.entryNext[entry]){
+            if(this.boundsDistanceSquared(entry, x, y) <= radiusSquared
+                    && this.distanceSquared(entry, point) <= radiusSquared){
+                results.add(this.entryGeometry[entry]);
+                found++;
+            }
+        }
+        int firstChild = this.nodeFirstChild[node];
+        if(firstChild != -1){
+            for(int child = firstChild; child < firstChild + 4; child++){
+                found += this.queryRadius(child, point, radiusSquared, results);
+            }
+        }
+        return found;
+    }
+
+    private float distanceSquared(int entry, BBDPoint point){
+        BBDGeometry geometry = this.entryGeometry[entry];
+        if(geometry instanceof BBDPolygon){
+            return ((BBDPolygon)geometry).distanceSquaredToPoint(point);
+        }
+        //points are their own bounds
+        return this.boundsDistanceSquared(entry, point.getXLoc(), point.getYLoc());
+    }
+
+    /**
+     * Find the k features closest to a point, closest first.  Polygons are measured to their nearest edge, or 0 if the
+     * point is inside.
+     * @param point point to search around
+     * @param k how many to find
+     * @param results the features found are added to the end of this list
+     * @return number of features found, k unless the tree has fewer
+     */
+    public int nearest(BBDPoint point, int k, ArrayList<BBDGeometry> results){
+        if(k <= 0){
+            return 0;
+        }
+        if(k > this.heapDistance.length){
+            this.heapDistance = new float[k];
+            this.heapEntry = new int[k];
+        }
+        this.heapSize = 0;
+        this.nearest(0, point, k);
+
+        //pop the heap into the back of the range so it comes out closest first
+        int found = this.heapSize;
+        int start = results.size();
+        for(int i = 0; i < found; i++){
+            results.add(null);
+        }
+        for(int i = found - 1; i >= 0; i--){
+            results.set(start + i, this.entryGeometry[this.heapEntry[0]]);
+            this.popHeap();
+        }
+        return found;
+    }
+
+    private void nearest(int node, BBDPoint point, int k){
+        float x = point.getXLoc();
+        float y = point.getYLoc();
+        for(int entry = this.nodeFirstEntry[node]; entry != -1; entry = this.entryNext[entry]){
+            if(this.heapSize == k && this.boundsDistanceSquared(entry, x, y) >= this.heapDistance[0]){
+                continue;
+            }
+            float distance = this.distanceSquared(entry, point);
+            if(this.heapSize < k){
+                this.pushHeap(distance, entry);
+            }else if(distance < this.heapDistance[0]){
+                this.heapDistance[0] = distance;
+                this.heapEntry[0] = entry;
+                this.siftDown(0);
+            }
+        }
+
+        int firstChild = this.nodeFirstChild[node];
+        if(firstChild == -1){
+            return;
+        }
+        //visit the children closest first so the further ones are more likely to be pruned
+        int childX = x >= this.nodeCenterX[node] ? 1 : 0;
+        int childY = y >= this.nodeCenterY[node] ? 2 : 0;
+        int nearestChild = childX + childY;
+        for(int step = 0; step < 4; step++){
+            int child = firstChild + (nearestChild ^ step);
+            if(this.heapSize == k && this.looseBoundsDistanceSquared(child, x, y) >= this.heapDistance[0]){
+                continue;
+            }
+            this.nearest(child, point, k);
+        }
+    }
+
+    private void pushHeap(float distance, int entry){
+        int index = this.heapSize++;
+        while(index > 0){
+            int parent = (index - 1) / 2;
+            if(this.heapDistance[parent] >= distance){
+                break;
+            }
+            this.heapDistance[index] = this.heapDistance[parent];
+            this.heapEntry[index] = this.heapEntry[parent];
+            index = parent;
+        }
+        this.heapDistance[index] = distance;
+        this.heapEntry[index] = entry;
+    }
+
+    private void popHeap(){
+        this.heapSize--;
+        if(this.heapSize > 0){
+            this.heapDistance[0] = this.heapDistance[this.heapSize];
+            this.heapEntry[0] = this.heapEntry[this.heapSize];
+            this.siftDown(0);
+        }
+    }
+
+    private void siftDown(int index){
+        float distance = this.heapDistance[index];
+        int entry = this.heapEntry[index];
+        while(true){
+            int child = 2 * index + 1;
+            if(child >= this.heapSize){
+                break;
+            }
+            if(child + 1 < this.heapSize && this.heapDistance[child + 1] > this.heapDistance[child]){
+                child++;
+            }
+            if(this.heapDistance[child] <= distance){
+                break;
+            }
+            this.heapDistance[index] = this.heapDistance[child];
+            this.heapEntry[index] = this.heapEntry[child];
+            index = child;
+        }
+        this.heapDistance[index] = distance;
+        this.heapEntry[index] = entry;
+    }
+}
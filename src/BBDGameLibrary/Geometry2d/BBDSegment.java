@@ -159,183 +159,56 @@ public class BBDSegment implements BBDGeometry{
     }
 
     /**
-     * Determines if the given point lies on the segment.  If it does,
-     * then the slopes should match.  Need to do comparison with a
-     * epsilon value though due to floating point math.  If the point
-     * is on the segment it will also fall within the bounds of the 2 points.
+     * Determines if the given point lies on the segment.  The point has to be within ALLOWABLE_DELTA
+     * of the line through the segment, and within the bounds of the 2 end points, again with a little
+     * allowance for floating point drift.
      * @param point point to test
      * @return is the point on the segment  ?
      */
     public boolean pointOnSegment(BBDPoint point){
-        //can we cut out early?
-        if (startPoint.equals(point)
-                || endPoint.equals(point)){
-            return true;
-        }
-
-        BBDSegment seg1 = new BBDSegment(this.startPoint, point);
-        BBDSegment seg2 = new BBDSegment(point, this.endPoint);
-
-        // if delta of slopes is effectively 0, then they are the same
-        // if both slopes are basically vertical, then they are the same, but they might be +- of vert
-        // depending on floating point drift
-        float seg1deg = seg1.slopeInDegrees();
-        float seg2deg = seg2.slopeInDegrees();
-        float seg1rad = seg1.slopeInRadians();
-        float seg2rad = seg2.slopeInRadians();
-        float degreeDif = Math.abs(seg1deg - seg2deg);
-        boolean condition1 = (degreeDif<= BBDGeometryHelpers.ALLOWABLE_DELTA_COARSE);
-        boolean sameSlope =  (condition1
-                || ((1.57079-Math.abs(seg1rad) <= 0.001) && (1.57079-Math.abs(seg2rad) <= 0.001)));
-
-        //need to check end points first because otherwise
-        // dx is 0, leading to one slope being Infinity
-        if (!sameSlope){
-            return false;
-        }
-
-        float maxX, minX, maxY, minY;
-        if (startPoint.getXLoc()>endPoint.getXLoc()){
-            maxX = startPoint.getXLoc();
-            minX = endPoint.getXLoc();
-        }else{
-            minX = startPoint.getXLoc();
-            maxX = endPoint.getXLoc();
-        }
-        if (startPoint.getYLoc()>endPoint.getYLoc()){
-            maxY = startPoint.getYLoc();
-            minY = endPoint.getYLoc();
-        }else{
-            minY = startPoint.getYLoc();
-            maxY = endPoint.getYLoc();
-        }
-
-        boolean within = withinSegmentBounds(point, maxX, minX, maxY, minY);
-
-        if(within){
-            return true;
-        }else{
-            //apply a delta around the min and max due to floating point math drift
-            maxX += BBDGeometryHelpers.ALLOWABLE_DELTA;
-            maxY += BBDGeometryHelpers.ALLOWABLE_DELTA;
-            minX -= BBDGeometryHelpers.ALLOWABLE_DELTA;
-            minY -= BBDGeometryHelpers.ALLOWABLE_DELTA;
-
-            return withinSegmentBounds(point, maxX, minX, maxY, minY);
-        }
-    }
-
-    /**
-     * Check if a point is within the box defined by the given bounds
-     * @param point point to check
-     * @param maxX max X value
-     * @param minX min X value
-     * @param maxY max Y value
-     * @param minY min Y value
-     * @return is the point within the bounds
-     */
-    private boolean withinSegmentBounds(BBDPoint point, float maxX, float minX, float maxY, float minY){
-        return (maxX >= point.getXLoc())
-                && (point.getXLoc() >= minX)
-                && (maxY >= point.getYLoc())
-                && (point.getYLoc() >= minY);
+        return BBDSegmentIntersection.pointOnSegment(point.getXLoc(), point.getYLoc(),
+                startPoint.getXLoc(), startPoint.getYLoc(), endPoint.getXLoc(), endPoint.getYLoc());
     }
 
     /**
-     * Uses good old fashioned algebra to calculate the intercept point.  Each line is put into
-     * point-slope form, with y isolated.  The 2 are set equal and solved for x.  Once x is
-     * solved we can solve for the y coordinate of the point.  Ensure that you don't send two parallel
-     * lines into this function as it will throw an exception.  Using intersects() is an insufficient
-     * filter because that one returns true for parallel co-linear overlapping segments.
+     * Calculates the point where the lines through these 2 segments would cross, so the result might not be on
+     * either segment.  Ensure that you don't send two parallel lines into this function as it will throw an exception.
+     * Using intersects() is an insufficient filter because that one returns true for parallel co-linear overlapping
+     * segments.  If you want the actual intersection of the segments use intersect() instead, which doesn't throw.
      * @param otherSegment other segment we want to find an intercept for.
      * @return the point at which these 2 segments would intersect
      */
     public BBDPoint interceptPoint(BBDSegment otherSegment) throws ParallelLinesException{
-        if(BBDGeometryHelpers.checkParallelSegments(this, otherSegment)){
+        float[] intercept = new float[2];
+        if(!BBDSegmentIntersection.lineIntersection(startPoint.getXLoc(), startPoint.getYLoc(), endPoint.getXLoc(), endPoint.getYLoc(),
+                otherSegment.startPoint.getXLoc(), otherSegment.startPoint.getYLoc(),
+                otherSegment.endPoint.getXLoc(), otherSegment.endPoint.getYLoc(), intercept)){
             throw new ParallelLinesException("Can not calculate an intercept point between 2 parallel lines: "
                     + this.toString()+ " and "+ otherSegment.toString());
         }
-
-        BBDSegment thisCopy = new BBDSegment(this);
-        BBDSegment otherCopy = new BBDSegment(otherSegment);
-
-        //will we be rotating the whole assembly?
-        boolean verticalLineInvolved = false;
-        BBDSegment verticalLine = null;
-        //if we are kinda close to vertical, let's just call it and do some rotation.
-        if( 90-Math.abs(this.slopeInDegrees()) <= 0.1) {
-            verticalLineInvolved = true;
-            verticalLine = thisCopy;
-        }else if(90-Math.abs(otherSegment.slopeInDegrees()) <= 0.1){
-            verticalLineInvolved = true;
-            verticalLine = otherCopy;
-        }
-
-        BBDPoint intercept;
-
-        //if we are kinda close to vertical, let's just call it and do some rotation.
-        if(verticalLineInvolved){
-            BBDSegment nonVertical;
-            if(verticalLine == thisCopy){
-                nonVertical = otherCopy;
-            }else{
-                nonVertical = thisCopy;
-            }
-
-            float xCoord = verticalLine.startPoint.getXLoc();
-            //use point-slope form of a line (dy = m(dx))
-
-            float yCoord = nonVertical.slopeInRatio()*(xCoord-nonVertical.startPoint.getXLoc()) + nonVertical.startPoint.getYLoc();
-
-            intercept = new BBDPoint(xCoord, yCoord);
-        }else{
-            intercept = calculateIntercept(thisCopy, otherCopy);
-        }
-
-        return intercept;
+        return new BBDPoint(intercept[0], intercept[1]);
     }
 
     /**
-     * Private function to remove math logic from the interceptPoint function
-     * to improve its logic flow
-     * @param thisCopy copy of this segment
-     * @param otherCopy copy of a different segment
-     * @return the point of intercept for these segments
+     * Classify how this segment intersects another one, and find where.  See BBDSegmentIntersection for what
+     * gets written for each case.
+     * @param otherSegment the other segment to check against
+     * @param output array of at least length 2 to receive the point of intersection, can be null
+     * @return one of the classification constants from BBDSegmentIntersection
      */
-    private BBDPoint calculateIntercept(BBDSegment thisCopy, BBDSegment otherCopy){
-        float thisSlope = thisCopy.slopeInRatio();
-        float otherSlope = otherCopy.slopeInRatio();
-
-        float xLoc = (thisSlope * thisCopy.startPoint.getXLoc()
-                - otherSlope * otherCopy.startPoint.getXLoc()
-                + otherCopy.startPoint.getYLoc()
-                - thisCopy.startPoint.getYLoc())
-                / (thisSlope-otherSlope);
-
-        float yLoc = thisSlope * (xLoc - thisCopy.startPoint.getXLoc()) + thisCopy.startPoint.getYLoc();
-
-        return new BBDPoint(xLoc, yLoc);
+    public int intersect(BBDSegment otherSegment, float[] output){
+        return BBDSegmentIntersection.intersect(startPoint.getXLoc(), startPoint.getYLoc(), endPoint.getXLoc(), endPoint.getYLoc(),
+                otherSegment.startPoint.getXLoc(), otherSegment.startPoint.getYLoc(),
+                otherSegment.endPoint.getXLoc(), otherSegment.endPoint.getYLoc(), output);
     }
 
     /**
-     * Does this segment intersect the other one?  Do not use this method to determine
-     * the location of intersection since parallel lines will eventually trip you up
+     * Does this segment intersect the other one?  Touching end points and co-linear overlaps count as intersecting.
      * @param otherSegment the other segment to check against
      * @return intersect?
      */
     public boolean intersects(BBDSegment otherSegment){
-        // if segments are co-linear, then if at least one vertex is on the other segment than
-        // they intersect
-        BBDPoint interceptPoint;
-        try{
-            interceptPoint = this.interceptPoint(otherSegment);
-        } catch (ParallelLinesException e){
-            return (this.pointOnSegment(otherSegment.startPoint) || this.pointOnSegment(otherSegment.endPoint)
-                    || otherSegment.pointOnSegment(this.startPoint) || otherSegment.pointOnSegment(this.endPoint));
-        }
-        boolean bool1 = this.pointOnSegment(interceptPoint);
-        boolean bool2 = otherSegment.pointOnSegment(interceptPoint);
-        return (bool1 && bool2);
+        return this.intersect(otherSegment, null) != BBDSegmentIntersection.DISJOINT;
     }
 
     /**
@@ -351,25 +224,19 @@ public class BBDSegment implements BBDGeometry{
     }
 
     /**
-     * Distance squared between 2 segments
+     * Distance squared between 2 segments.  If they intersect the distance is 0.
      * @param otherSegment the other segment to measure to
      * @return the distance between the segments
      */
     public float distanceSquaredToSegment(BBDSegment otherSegment){
-        float minDist = Float.MAX_VALUE;
-
-        for (BBDPoint thisPoint: this.getPoints()){
-            float distance = otherSegment.distanceSquaredToPoint(thisPoint);
-            if(distance < minDist){
-                minDist = distance;
-            }
-        }
-        for (BBDPoint otherPoint: otherSegment.getPoints()){
-            float distance = this.distanceSquaredToPoint(otherPoint);
-            if(distance < minDist){
-                minDist = distance;
-            }
+        if(this.intersects(otherSegment)){
+            return 0;
         }
+        //if they don't intersect then the closest approach always involves one of the end points
+        float minDist = otherSegment.distanceSquaredToPoint(this.startPoint);
+        minDist = Math.min(minDist, otherSegment.distanceSquaredToPoint(this.endPoint));
+        minDist = Math.min(minDist, this.distanceSquaredToPoint(otherSegment.startPoint));
+        minDist = Math.min(minDist, this.distanceSquaredToPoint(otherSegment.endPoint));
         return minDist;
     }
 
@@ -379,28 +246,10 @@ public class BBDSegment implements BBDGeometry{
      * @return the distance to the other point
      */
     public float distanceSquaredToPoint(BBDPoint otherPoint){
-        BBDSegment perpendicularSegment = new BBDSegment(otherPoint, this.slopeInDegrees()+90, 1);
-        BBDPoint interceptPoint = null;
-        try{
-            interceptPoint = this.interceptPoint(perpendicularSegment);
-        } catch(ParallelLinesException e){
-            System.out.println("Somehow you managed to make what should be a perpendicular segment be parallel...");
-            e.printStackTrace();
-        }
-
-        if (interceptPoint != null && this.pointOnSegment(interceptPoint)){
-            return interceptPoint.distanceSquaredToPoint(otherPoint);
-        }
-
-        float startDist = this.startPoint.distanceSquaredToPoint(otherPoint);
-        float endDist = this.endPoint.distanceSquaredToPoint(otherPoint);
-
-        return Math.min(startDist, endDist);
+        return BBDSegmentIntersection.distanceSquaredToSegment(otherPoint.getXLoc(), otherPoint.getYLoc(),
+                startPoint.getXLoc(), startPoint.getYLoc(), endPoint.getXLoc(), endPoint.getYLoc());
     }
 
-
-
-
     /**
      * Return the length squared of the segment.  Using squared distance to be consistent with the other distance items.
      * @return the length squared of the segment
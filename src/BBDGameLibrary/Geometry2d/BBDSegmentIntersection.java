@@ -0,0 +1,265 @@
+package BBDGameLibrary.Geometry2d;
+
+/**
+ * Low level segment intersection routines that work on raw coordinates.  Everything here is built on cross product
+ * orientation tests rather than slopes, so vertical lines need no special handling, nothing is allocated, and parallel
+ * lines are reported through the return value rather than an exception.  Results are written into a caller supplied
+ * float array so that the same buffer can be reused across an entire query.
+ *
+ * The same ALLOWABLE_DELTA tolerance used by BBDPoint.equals() is applied as a perpendicular distance, so a point within
+ * that distance of a segment counts as being on it.
+ */
+public class BBDSegmentIntersection {
+
+    /**
+     * The segments have no points in common
+     */
+    public static final int DISJOINT = 0;
+
+    /**
+     * The segments cross at a single point that is not an end point of either segment
+     */
+    public static final int CROSSING = 1;
+
+    /**
+     * The segments meet at a single point that is an end point of at least one of them
+     */
+    public static final int TOUCHING = 2;
+
+    /**
+     * The segments are colinear and share more than a single point
+     */
+    public static final int COLLINEAR_OVERLAP = 3;
+
+    private static final double DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA;
+    private static final double DELTA_SQUARED = DELTA * DELTA;
+
+    /**
+     * Classify how segment AB and segment CD intersect.  For CROSSING and TOUCHING the point of intersection is written
+     * into output[0] and output[1].  For COLLINEAR_OVERLAP the start of the shared portion is written into output[0] and
+     * output[1], and if the array is long enough the end of it is written into output[2] and output[3].  When the
+     * intersection lands on an end point the exact end point coordinates are written, so that shared vertices compare
+     * exactly.
+     * @param output array of at least length 2 to receive the intersection, or null if only the classification matters
+     * @return one of DISJOINT, CROSSING, TOUCHING or COLLINEAR_OVERLAP
+     */
+    public static int intersect(float ax, float ay, float bx, float by,
+                                float cx, float cy, float dx, float dy, float[] output){
+        double abx = (double)bx - ax;
+        double aby = (double)by - ay;
+        double cdx = (double)dx - cx;
+        double cdy = (double)dy - cy;
+        double lengthSquaredAB = abx * abx + aby * aby;
+        double lengthSquaredCD = cdx * cdx + cdy * cdy;
+
+        //degenerate segments are just points
+        if(lengthSquaredAB <= DELTA_SQUARED){
+            if(pointOnSegment(ax, ay, cx, cy, dx, dy)){
+                write(output, ax, ay);
+                return TOUCHING;
+            }
+            return DISJOINT;
+        }
+        if(lengthSquaredCD <= DELTA_SQUARED){
+            if(pointOnSegment(cx, cy, ax, ay, bx, by)){
+                write(output, cx, cy);
+                return TOUCHING;
+            }
+            return DISJOINT;
+        }
+
+        //which side of the other segment's line each end point is on
+        int sideA = side(cdx * ((double)ay - cy) - cdy * ((double)ax - cx), lengthSquaredCD);
+        int sideB = side(cdx * ((double)by - cy) - cdy * ((double)bx - cx), lengthSquaredCD);
+        int sideC = side(abx * ((double)cy - ay) - aby * ((double)cx - ax), lengthSquaredAB);
+        int sideD = side(abx * ((double)dy - ay) - aby * ((double)dx - ax), lengthSquaredAB);
+
+        if((sideA == 0 && sideB == 0) || (sideC == 0 && sideD == 0)){
+            return collinearOverlap(ax, ay, bx, by, cx, cy, dx, dy, abx, aby, lengthSquaredAB, output);
+        }
+
+        if(sideA * sideB > 0 || sideC * sideD > 0){
+            return DISJOINT;
+        }
+
+        if(sideA == 0){
+            write(output, ax, ay);
+            return TOUCHING;
+        }
+        if(sideB == 0){
+            write(output, bx, by);
+            return TOUCHING;
+        }
+        if(sideC == 0){
+            write(output, cx, cy);
+            return TOUCHING;
+        }
+        if(sideD == 0){
+            write(output, dx, dy);
+            return TOUCHING;
+        }
+
+        double denominator = abx * cdy - aby * cdx;
+        double t = (((double)cx - ax) * cdy - ((double)cy - ay) * cdx) / denominator;
+        write(output, (float)(ax + t * abx), (float)(ay + t * aby));
+        return CROSSING;
+    }
+
+    /**
+     * Find where the infinite lines through AB and CD cross.
+     * @param output array of at least length 2 to receive the point of intersection
+     * @return false if the lines are parallel, in which case output is untouched
+     */
+    public static boolean lineIntersection(float ax, float ay, float bx, float by,
+                                           float cx, float cy, float dx, float dy, float[] output){
+        double abx = (double)bx - ax;
+        double aby = (double)by - ay;
+        double cdx = (double)dx - cx;
+        double cdy = (double)dy - cy;
+        double denominator = abx * cdy - aby * cdx;
+
+        if(parallel(denominator, abx * abx + aby * aby, cdx * cdx + cdy * cdy)){
+            return false;
+        }
+
+        double t = (((double)cx - ax) * cdy - ((double)cy - ay) * cdx) / denominator;
+        write(output, (float)(ax + t * abx), (float)(ay + t * aby));
+        return true;
+    }
+
+    /**
+     * Are the lines through AB and CD parallel
+     * @return are they parallel
+     */
+    public static boolean parallel(float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy){
+        double abx = (double)bx - ax;
+        double aby = (double)by - ay;
+        double cdx = (double)dx - cx;
+        double cdy = (double)dy - cy;
+        return parallel(abx * cdy - aby * cdx, abx * abx + aby * aby, cdx * cdx + cdy * cdy);
+    }
+
+    /**
+     * Is point P on segment AB, within tolerance.
+     * @return is the point on the segment
+     */
+    public static boolean pointOnSegment(float px, float py, float ax, float ay, float bx, float by){
+        //end points use the same test as BBDPoint.equals()
+        if((Math.abs(px - ax) < DELTA && Math.abs(py - ay) < DELTA)
+                || (Math.abs(px - bx) < DELTA && Math.abs(py - by) < DELTA)){
+            return true;
+        }
+
+        //must be within the bounds of the segment, with some allowance for floating point drift
+        if(px < Math.min(ax, bx) - DELTA || px > Math.max(ax, bx) + DELTA
+                || py < Math.min(ay, by) - DELTA || py > Math.max(ay, by) + DELTA){
+            return false;
+        }
+
+        double abx = (double)bx - ax;
+        double aby = (double)by - ay;
+        double lengthSquared = abx * abx + aby * aby;
+        double cross = abx * ((double)py - ay) - aby * ((double)px - ax);
+        return cross * cross <= DELTA_SQUARED * lengthSquared;
+    }
+
+    /**
+     * Distance squared from point P to the closest point on segment AB
+     * @return distance squared
+     */
+    public static float distanceSquaredToSegment(float px, float py, float ax, float ay, float bx, float by){
+        double abx = (double)bx - ax;
+        double aby = (double)by - ay;
+        double apx = (double)px - ax;
+        double apy = (double)py - ay;
+        double lengthSquared = abx * abx + aby * aby;
+
+        double t = 0;
+        if(lengthSquared > 0){
+            t = (apx * abx + apy * aby) / lengthSquared;
+            if(t < 0){
+                t = 0;
+            }else if(t > 1){
+                t = 1;
+            }
+        }
+        double deltaX = apx - t * abx;
+        double deltaY = apy - t * aby;
+        return (float)(deltaX * deltaX + deltaY * deltaY);
+    }
+
+    /**
+     * Sign of a cross product, treating anything within ALLOWABLE_DELTA of the line as on it.  The cross product is the
+     * perpendicular distance times the length of the base segment, so compare squares to avoid a sqrt.
+     */
+    private static int side(double cross, double baseLengthSquared){
+        if(cross * cross <= DELTA_SQUARED * baseLengthSquared){
+            return 0;
+        }
+        return cross > 0 ? 1 : -1;
+    }
+
+    /**
+     * Lines count as parallel when the sine of the angle between them is below float precision.
+     */
+    private static boolean parallel(double cross, double lengthSquared1, double lengthSquared2){
+        return cross * cross <= 1e-14 * lengthSquared1 * lengthSquared2;
+    }
+
+    /**
+     * Handle 2 segments on the same line.  Project CD onto AB and look at how the parameter ranges overlap.
+     */
+    private static int collinearOverlap(float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy,
+                                        double abx, double aby, double lengthSquaredAB, float[] output){
+        double tC = (((double)cx - ax) * abx + ((double)cy - ay) * aby) / lengthSquaredAB;
+        double tD = (((double)dx - ax) * abx + ((double)dy - ay) * aby) / lengthSquaredAB;
+        double tolerance = DELTA / Math.sqrt(lengthSquaredAB);
+
+        //figure out which end point bounds each side of the overlap so that exact coordinates can be reported
+        float lowX, lowY, highX, highY;
+        double low, high;
+        boolean cFirst = tC <= tD;
+        double tMin = cFirst ? tC : tD;
+        double tMax = cFirst ? tD : tC;
+
+        if(tMin > 0){
+            low = tMin;
+            lowX = cFirst ? cx : dx;
+            lowY = cFirst ? cy : dy;
+        }else{
+            low = 0;
+            lowX = ax;
+            lowY = ay;
+        }
+        if(tMax < 1){
+            high = tMax;
+            highX = cFirst ? dx : cx;
+            highY = cFirst ? dy : cy;
+        }else{
+            high = 1;
+            highX = bx;
+            highY = by;
+        }
+
+        if(low > high + tolerance){
+            return DISJOINT;
+        }
+        if(high - low <= tolerance){
+            write(output, lowX, lowY);
+            return TOUCHING;
+        }
+        write(output, lowX, lowY);
+        if(output != null && output.length >= 4){
+            output[2] = highX;
+            output[3] = highY;
+        }
+        return COLLINEAR_OVERLAP;
+    }
+
+    private static void write(float[] output, float x, float y){
+        if(output != null){
+            output[0] = x;
+            output[1] = y;
+        }
+    }
+}
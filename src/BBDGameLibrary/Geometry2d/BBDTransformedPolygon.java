@@ -0,0 +1,178 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.ArrayList;
+
+/**
+ * A polygon that keeps its vertices in local space and places them in the world with a position, rotation and scale.
+ * Moving, rotating and scaling one of these only changes those few numbers.  The world space polygon is worked out the
+ * next time it is asked for, with 1 sin and cos for the whole polygon and a few multiplies and adds per vertex, and is
+ * then kept until the transform changes again.  Since the world vertices are always worked out from the local ones,
+ * errors don't build up however many times it is moved, unlike moving the points of a BBDPolygon over and over.
+ *
+ * The world polygon is an ordinary BBDPolygon for use with everything else in the library, but its vertices get
+ * overwritten whenever it is brought up to date, so any changes made to them directly will be lost.
+ */
+public class BBDTransformedPolygon implements BBDGeometry{
+
+    // Vertices in local space in the form x0, y0, x1, y1...
+    private final float[] localCoordinates;
+
+    // Scratch space for transforming the local vertices before they are copied into the world polygon's points.
+    private final float[] worldCoordinates;
+
+    // Where the local origin ends up, how far the polygon is rotated around it in radians, and how much it is scaled.
+    private double positionX = 0;
+    private double positionY = 0;
+    private double rotation = 0;
+    private double scaleFactor = 1;
+
+    // Polygon holding the world space vertices, valid while worldVersion matches transformVersion.
+    private final BBDPolygon worldPolygon;
+    private int transformVersion = 0;
+    private int worldVersion = 0;
+
+    /**
+     * Take over a polygon.  Its current vertices become the local space ones, with no transform applied, and from then
+     * on it serves as the world polygon.
+     * @param polygon polygon to transform
+     */
+    public BBDTransformedPolygon(BBDPolygon polygon){
+        this.localCoordinates = polygon.toCoordinates();
+        this.worldCoordinates = new float[this.localCoordinates.length];
+        this.worldPolygon = polygon;
+    }
+
+    /**
+     * Create a polygon from local space vertices, with no transform applied yet
+     * @param localPoints vertices in local space.  The points are copied, so the caller is free to reuse them.
+     */
+    public BBDTransformedPolygon(ArrayList<BBDPoint> localPoints){
+        this(new BBDPolygon(copyPoints(localPoints)));
+    }
+
+    private static ArrayList<BBDPoint> copyPoints(ArrayList<BBDPoint> points){
+        ArrayList<BBDPoint> copies = new ArrayList<>(points.size());
+        for(BBDPoint point : points){
+            copies.add(new BBDPoint(point));
+        }
+        return copies;
+    }
+
+    /**
+     * Get the polygon in world space, working out its vertices first if the transform has changed since the last time
+     * @return the world space polygon, which is the same object every time
+     */
+    public BBDPolygon getWorldPolygon(){
+        if(this.worldVersion != this.transformVersion){
+            this.updateWorldPolygon();
+        }
+        return this.worldPolygon;
+    }
+
+    /**
+     * Has the transform changed since the world polygon was last worked out
+     */
+    public boolean isWorldPolygonStale(){
+        return this.worldVersion != this.transformVersion;
+    }
+
+    private void updateWorldPolygon(){
+        float cos = (float)(Math.cos(this.rotation) * this.scaleFactor);
+        float sin = (float)(Math.sin(this.rotation) * this.scaleFactor);
+        ArrayList<BBDPoint> points = this.worldPolygon.getPoints();
+        BBDCoordinateKernels.affineTransform(this.localCoordinates, this.worldCoordinates, points.size(), cos, -sin, sin, cos,
+                (float)this.positionX, (float)this.positionY);
+        for(int i = 0; i < points.size(); i++){
+            points.get(i).setLocation(this.worldCoordinates[2 * i], this.worldCoordinates[2 * i + 1]);
+        }
+        this.worldPolygon.markModified();
+        this.worldVersion = this.transformVersion;
+    }
+
+    /**
+     * Set the whole transform at once
+     * @param x where the local origin goes on the x-axis
+     * @param y where the local origin goes on the y-axis
+     * @param radians rotation around the local origin, positive being counterclockwise
+     * @param scale scale factor around the local origin
+     */
+    public void setTransform(float x, float y, float radians, float scale){
+        this.positionX = x;
+        this.positionY = y;
+        this.rotation = radians;
+        this.scaleFactor = scale;
+        this.transformVersion++;
+    }
+
+    public float getPositionX(){
+        return (float)this.positionX;
+    }
+
+    public float getPositionY(){
+        return (float)this.positionY;
+    }
+
+    public float getRotation(){
+        return (float)this.rotation;
+    }
+
+    public float getScale(){
+        return (float)this.scaleFactor;
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        this.positionX += dx;
+        this.positionY += dy;
+        this.transformVersion++;
+    }
+
+    /**
+     * Scale the polygon around center(), the same as BBDPolygon.scale().  Finding the center needs the world polygon, so
+     * it is brought up to date first if the transform has changed.
+     * @param scaleFactor factor to scale by
+     */
+    @Override
+    public void scale(float scaleFactor) {
+        this.scaleFromPoint(this.center(), scaleFactor);
+    }
+
+    @Override
+    public void scaleFromPoint(BBDPoint centerOfScale, float scaleFactor) {
+        this.positionX = centerOfScale.getXLoc() + scaleFactor * (this.positionX - centerOfScale.getXLoc());
+        this.positionY = centerOfScale.getYLoc() + scaleFactor * (this.positionY - centerOfScale.getYLoc());
+        this.scaleFactor *= scaleFactor;
+        this.transformVersion++;
+    }
+
+    /**
+     * Rotate the polygon around center(), the same as BBDPolygon.rotate().  Finding the center needs the world polygon,
+     * so it is brought up to date first if the transform has changed.  Positive radians are counterclockwise.
+     * @param radians how much to rotate
+     */
+    @Override
+    public void rotate(float radians) {
+        this.rotateAroundPoint(this.center(), radians);
+    }
+
+    @Override
+    public void rotateAroundPoint(BBDPoint centerOfRotation, float radians) {
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        double dx = this.positionX - centerOfRotation.getXLoc();
+        double dy = this.positionY - centerOfRotation.getYLoc();
+        this.positionX = centerOfRotation.getXLoc() + cos * dx - sin * dy;
+        this.positionY = centerOfRotation.getYLoc() + sin * dx + cos * dy;
+        this.rotation += radians;
+        this.transformVersion++;
+    }
+
+    /**
+     * Center of the world polygon's bounding box, the same as BBDPolygon.center()
+     * @return center point
+     */
+    @Override
+    public BBDPoint center() {
+        return this.getWorldPolygon().center();
+    }
+}
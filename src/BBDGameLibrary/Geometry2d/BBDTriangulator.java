@@ -0,0 +1,249 @@
+package BBDGameLibrary.Geometry2d;
+
+import java.util.Arrays;
+
+/**
+ * Ear clipping triangulator that works directly on vertex indices.  Rather than building a new polygon for each
+ * candidate ear it keeps the remaining vertices in a doubly linked list of indices, along with a list of the reflex
+ * vertices, since those are the only vertices that can ever sit inside an ear.  Ear status is cached per vertex and only
+ * recalculated for the two neighbors of a clipped ear, which keeps the worst case at O(n^2).
+ *
+ * The output is an index buffer where every 3 entries is a single triangle, which is the same layout the Mesh class
+ * expects.
+ */
+public class BBDTriangulator {
+
+    /**
+     * Triangulate a polygon.
+     * @param polygon polygon to triangulate
+     * @param triangleDirectionality desired directionality of the triangles, should be a relevant constant from
+     *                               BBDGeometryHelpers.  Null keeps the same ordering as the polygon.
+     * @return index buffer into the polygon's point list, 3 indices per triangle
+     */
+    public static int[] triangulate(BBDPolygon polygon, Integer triangleDirectionality){
+        return triangulate(polygon.toCoordinates(), triangleDirectionality);
+    }
+
+    /**
+     * Triangulate a polygon stored as packed coordinates.
+     * @param coordinates packed coordinates in the form x0, y0, x1, y1...
+     * @param triangleDirectionality desired directionality of the triangles, should be a relevant constant from
+     *                               BBDGeometryHelpers.  Null keeps the same ordering as the polygon.
+     * @return index buffer into the vertex list, 3 indices per triangle
+     */
+    public static int[] triangulate(float[] coordinates, Integer triangleDirectionality){
+        int vertexCount = coordinates.length / 2;
+        if(vertexCount < 3){
+            return new int[0];
+        }
+
+        //positive for counter clockwise polygons, negative for clockwise ones
+        double orientation = BBDAreaProperties.fromCoordinates(coordinates, vertexCount).getSignedArea() < 0 ? -1 : 1;
+        boolean reverseOutput = false;
+        if(triangleDirectionality != null){
+            boolean polygonCounterClockwise = orientation > 0;
+            boolean wantCounterClockwise = triangleDirectionality == BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON;
+            reverseOutput = polygonCounterClockwise != wantCounterClockwise;
+        }
+
+        int[] previous = new int[vertexCount];
+        int[] next = new int[vertexCount];
+        for(int i = 0; i < vertexCount; i++){
+            previous[i] = (i + vertexCount - 1) % vertexCount;
+            next[i] = (i + 1) % vertexCount;
+        }
+
+        //reflex vertices are kept in a compact list, with each vertex knowing its slot so that removal is O(1)
+        boolean[] reflex = new boolean[vertexCount];
+        int[] reflexList = new int[vertexCount];
+        int[] reflexSlot = new int[vertexCount];
+        int reflexCount = 0;
+        for(int i = 0; i < vertexCount; i++){
+            if(!isConvex(coordinates, previous[i], i, next[i], orientation)){
+                reflex[i] = true;
+                reflexSlot[i] = reflexCount;
+                reflexList[reflexCount++] = i;
+            }
+        }
+
+        boolean[] ear = new boolean[vertexCount];
+        for(int i = 0; i < vertexCount; i++){
+            ear[i] = !reflex[i] && isEar(coordinates, previous[i], i, next[i], reflexList, reflexCount);
+        }
+
+        int[] output = new int[3 * (vertexCount - 2)];
+        int outputIndex = 0;
+        int remaining = vertexCount;
+        int current = 1;
+        int stalled = 0;
+        boolean refreshed = false;
+
+        while(remaining > 3){
+            boolean clip = ear[current];
+            boolean emit = true;
+
+            if(!clip && stalled >= remaining && !refreshed){
+                //ear flags are only refreshed for the neighbors of a clipped ear, so a vertex that was blocked by a
+                //reflex vertex that has since become convex can be stale.  Give everything one more look.
+                int vertex = current;
+                for(int count = 0; count < remaining; count++){
+                    ear[vertex] = !reflex[vertex] && isEar(coordinates, previous[vertex], vertex, next[vertex], reflexList, reflexCount);
+                    vertex = next[vertex];
+                }
+                refreshed = true;
+                stalled = 0;
+                continue;
+            }
+
+            if(!clip && stalled >= remaining){
+                //we've gone all the way around without finding an ear.  This only happens with degenerate or
+                //self intersecting input, so drop a zero area vertex if there is one, otherwise force the clip.
+                clip = true;
+                int vertex = current;
+                for(int count = 0; count < remaining; count++){
+                    if(crossProduct(coordinates, previous[vertex], vertex, next[vertex]) == 0){
+                        current = vertex;
+                        emit = false;
+                        break;
+                    }
+                    vertex = next[vertex];
+                }
+            }
+
+            if(!clip){
+                current = next[current];
+                stalled++;
+                continue;
+            }
+
+            int prev = previous[current];
+            int nxt = next[current];
+            if(emit){
+                outputIndex = writeTriangle(output, outputIndex, prev, current, nxt, reverseOutput);
+            }
+
+            //unlink the clipped vertex
+            next[prev] = nxt;
+            previous[nxt] = prev;
+            if(reflex[current]){
+                reflexCount = removeReflex(current, reflex, reflexList, reflexSlot, reflexCount);
+            }
+            remaining--;
+
+            //only the neighbors can change status.  For a simple polygon they can only go from reflex to convex, but
+            //a forced clip on bad input can go the other way too.
+            boolean convex = isConvex(coordinates, previous[prev], prev, next[prev], orientation);
+            reflexCount = updateReflex(prev, convex, reflex, reflexList, reflexSlot, reflexCount);
+            convex = isConvex(coordinates, previous[nxt], nxt, next[nxt], orientation);
+            reflexCount = updateReflex(nxt, convex, reflex, reflexList, reflexSlot, reflexCount);
+            ear[prev] = !reflex[prev] && isEar(coordinates, previous[prev], prev, next[prev], reflexList, reflexCount);
+            ear[nxt] = !reflex[nxt] && isEar(coordinates, previous[nxt], nxt, next[nxt], reflexList, reflexCount);
+
+            current = nxt;
+            stalled = 0;
+            refreshed = false;
+        }
+
+        if(crossProduct(coordinates, previous[current], current, next[current]) != 0){
+            outputIndex = writeTriangle(output, outputIndex, previous[current], current, next[current], reverseOutput);
+        }
+
+        if(outputIndex != output.length){
+            return Arrays.copyOf(output, outputIndex);
+        }
+        return output;
+    }
+
+    /**
+     * Cross product of the 2 edges meeting at vertex b.  Positive if a-b-c makes a left turn.
+     */
+    private static double crossProduct(float[] coordinates, int a, int b, int c){
+        double abx = coordinates[2 * b] - coordinates[2 * a];
+        double aby = coordinates[2 * b + 1] - coordinates[2 * a + 1];
+        double bcx = coordinates[2 * c] - coordinates[2 * b];
+        double bcy = coordinates[2 * c + 1] - coordinates[2 * b + 1];
+        return abx * bcy - aby * bcx;
+    }
+
+    /**
+     * Is the vertex b convex with respect to the polygon's orientation.  Colinear vertices count as reflex so that they
+     * are never clipped as zero area ears.
+     */
+    private static boolean isConvex(float[] coordinates, int a, int b, int c, double orientation){
+        return crossProduct(coordinates, a, b, c) * orientation > 0;
+    }
+
+    /**
+     * A convex vertex is an ear if no reflex vertex lies inside or on the triangle it makes with its neighbors.
+     */
+    private static boolean isEar(float[] coordinates, int a, int b, int c, int[] reflexList, int reflexCount){
+        float ax = coordinates[2 * a], ay = coordinates[2 * a + 1];
+        float bx = coordinates[2 * b], by = coordinates[2 * b + 1];
+        float cx = coordinates[2 * c], cy = coordinates[2 * c + 1];
+
+        for(int i = 0; i < reflexCount; i++){
+            int vertex = reflexList[i];
+            if(vertex == a || vertex == b || vertex == c){
+                continue;
+            }
+            float px = coordinates[2 * vertex];
+            float py = coordinates[2 * vertex + 1];
+            //duplicate vertices sitting on a corner of the triangle don't block it
+            if((px == ax && py == ay) || (px == cx && py == cy)){
+                continue;
+            }
+            if(pointInTriangle(px, py, ax, ay, bx, by, cx, cy)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Inclusive point in triangle test that works for either winding.
+     */
+    private static boolean pointInTriangle(float px, float py, float ax, float ay, float bx, float by, float cx, float cy){
+        double d1 = ((double)bx - ax) * ((double)py - ay) - ((double)by - ay) * ((double)px - ax);
+        double d2 = ((double)cx - bx) * ((double)py - by) - ((double)cy - by) * ((double)px - bx);
+        double d3 = ((double)ax - cx) * ((double)py - cy) - ((double)ay - cy) * ((double)px - cx);
+
+        boolean hasNegative = d1 < 0 || d2 < 0 || d3 < 0;
+        boolean hasPositive = d1 > 0 || d2 > 0 || d3 > 0;
+        return !(hasNegative && hasPositive);
+    }
+
+    private static int updateReflex(int vertex, boolean convex, boolean[] reflex, int[] reflexList, int[] reflexSlot, int reflexCount){
+        if(reflex[vertex] && convex){
+            return removeReflex(vertex, reflex, reflexList, reflexSlot, reflexCount);
+        }
+        if(!reflex[vertex] && !convex){
+            reflex[vertex] = true;
+            reflexSlot[vertex] = reflexCount;
+            reflexList[reflexCount] = vertex;
+            return reflexCount + 1;
+        }
+        return reflexCount;
+    }
+
+    private static int removeReflex(int vertex, boolean[] reflex, int[] reflexList, int[] reflexSlot, int reflexCount){
+        int slot = reflexSlot[vertex];
+        int last = reflexList[reflexCount - 1];
+        reflexList[slot] = last;
+        reflexSlot[last] = slot;
+        reflex[vertex] = false;
+        return reflexCount - 1;
+    }
+
+    private static int writeTriangle(int[] output, int outputIndex, int a, int b, int c, boolean reverse){
+        if(reverse){
+            output[outputIndex++] = c;
+            output[outputIndex++] = b;
+            output[outputIndex++] = a;
+        }else{
+            output[outputIndex++] = a;
+            output[outputIndex++] = b;
+            output[outputIndex++] = c;
+        }
+        return outputIndex;
+    }
+}
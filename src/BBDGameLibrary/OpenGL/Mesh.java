@@ -1,5 +1,6 @@
 package BBDGameLibrary.OpenGL;
 
+import BBDGameLibrary.Geometry2d.BBDCoordinateKernels;
 import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
 import BBDGameLibrary.Geometry2d.BBDPoint;
 import BBDGameLibrary.Geometry2d.BBDPolygon;
@@ -67,13 +68,9 @@ public class Mesh {
      * @return array of floats for position coordinates
      */
     public static float[] buildMeshPositions(BBDPolygon inputShape){
-        ArrayList<BBDPoint> points = inputShape.getPoints();
-        float[] positions = new float[3*points.size()];
-        for (int i = 0; i< points.size(); i++){
-            positions[i * 3] = points.get(i).getXLoc();
-            positions[i * 3 + 1] = points.get(i).getYLoc();
-            positions[i * 3 + 2] = 0;
-        }
+        int vertexCount = inputShape.getPoints().size();
+        float[] positions = new float[3*vertexCount];
+        BBDCoordinateKernels.meshPositions(inputShape.toCoordinates(), vertexCount, positions);
         return positions;
     }
 
@@ -84,22 +81,18 @@ public class Mesh {
      * @return array of floats for texture coordinates
      */
     public static float[] buildTextureCoordinates(BBDPolygon inputShape){
-        float maxY = inputShape.maxY();
-         float minX = inputShape.minX();
-         float width = inputShape.width();
-         float height = inputShape.height();
-         ArrayList<BBDPoint> points = inputShape.getPoints();
-         float[] textureCoordinates = new float[2*points.size()];
-         float deltaX;
-         float deltaY;
-         for(int i = 0; i< points.size(); i++){
-            deltaY = maxY - points.get(i).getYLoc();
-            deltaX = points.get(i).getXLoc() - minX;
+        return mapTextureCoordinates(inputShape, inputShape.minX(), inputShape.maxY(), inputShape.width(), inputShape.height());
+    }
 
-            textureCoordinates[2 * i] = deltaX/width;
-            textureCoordinates[2 * i+1] = deltaY/height;
-         }
-         return textureCoordinates;
+    /**
+     * Texture coordinates that stretch the texture over a given box rather than the shape's own bounds, so that simpler
+     * versions of a shape line up with the texture the same way the original did.
+     */
+    private static float[] mapTextureCoordinates(BBDPolygon inputShape, float minX, float maxY, float width, float height){
+        int vertexCount = inputShape.getPoints().size();
+        float[] textureCoordinates = new float[2*vertexCount];
+        BBDCoordinateKernels.textureCoordinates(inputShape.toCoordinates(), vertexCount, minX, maxY, width, height, textureCoordinates);
+        return textureCoordinates;
     }
 
     /**
@@ -126,24 +119,12 @@ public class Mesh {
     }
 
     /**
-     * Build indices array for the mesh
+     * Build indices array for the mesh.  Triangles are counterclockwise and index directly into the polygon's points.
      * @param inputShape BBDPolygon to use to create a mesh
      * @return indices array
      */
     public static int[] buildIndices(BBDPolygon inputShape){
-        ArrayList<BBDPoint> points = inputShape.getPoints();
-        BBDPolygon[] triangles = inputShape.decomposeIntoTriangles(BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON);
-        int[] output = new int[3 * triangles.length];
-        for (int tri = 0; tri < triangles.length; tri++){
-            for (int vert = 0; vert < 3; vert++){
-                for(int inputIndex = 0; inputIndex < points.size(); inputIndex++){
-                    if(triangles[tri].getPoints().get(vert).equals(points.get(inputIndex))){
-                        output[3*tri + vert] = inputIndex;
-                    }
-                }
-            }
-        }
-        return output;
+        return inputShape.triangulate(BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON);
     }
 
     /**
@@ -171,6 +152,39 @@ public class Mesh {
         return new Mesh(positions, textureCoordinates, indices);
     }
 
+    /**
+     * Build a mesh for each level of detail of a BBDPolygon, from most to least detailed, for GameItem2d to switch
+     * between by camera distance.  Build them once and share them between items that use the same shape.  The texture
+     * is mapped to every level as if it were the full detail polygon.
+     * @param inputShape BBDPolygon to use to create the meshes
+     * @param tolerances how far each level's outline may be from the shape's vertices, in increasing order.  See
+     *                   BBDPolygon.levelsOfDetail()
+     * @param texture image texture to apply to the meshes
+     * @return 1 Mesh object per tolerance
+     */
+    public static Mesh[] buildLevelsOfDetail(BBDPolygon inputShape, float[] tolerances, Texture texture){
+        ArrayList<BBDPolygon> levels = inputShape.levelsOfDetail(tolerances);
+        Mesh[] meshes = new Mesh[levels.size()];
+        for(int i = 0; i < meshes.length; i++){
+            BBDPolygon level = levels.get(i);
+            float[] textureCoordinates = mapTextureCoordinates(level, inputShape.minX(), inputShape.maxY(), inputShape.width(), inputShape.height());
+            meshes[i] = texture == null
+                    ? new Mesh(buildMeshPositions(level), textureCoordinates, buildIndices(level))
+                    : new Mesh(buildMeshPositions(level), textureCoordinates, buildIndices(level), texture);
+        }
+        return meshes;
+    }
+
+    /**
+     * Build a mesh for each level of detail of a BBDPolygon, from most to least detailed.
+     * @param inputShape BBDPolygon to use to create the meshes
+     * @param tolerances how far each level's outline may be from the shape's vertices, in increasing order
+     * @return 1 Mesh object per tolerance
+     */
+    public static Mesh[] buildLevelsOfDetail(BBDPolygon inputShape, float[] tolerances){
+        return buildLevelsOfDetail(inputShape, tolerances, null);
+    }
+
     /**
      * CAll purpose constructor to pass in vertex data for a mesh that doesn't need to be rendered to the screen.  A mesh
      * created with this constructor won't be able to interact with any of the openGL functions.
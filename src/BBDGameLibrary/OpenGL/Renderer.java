@@ -2,6 +2,7 @@ package BBDGameLibrary.OpenGL;
 
 import BBDGameLibrary.GameEngine.Camera;
 import BBDGameLibrary.GameEngine.GameItem;
+import BBDGameLibrary.GameEngine.GameItem2d;
 import BBDGameLibrary.GameEngine.Transformation;
 import org.joml.Matrix4f;
 import java.util.List;
@@ -91,6 +92,10 @@ public class Renderer {
 
         Matrix4f modelViewMatrix = transformation.getModelViewMatrix(item, viewMatrix);
 
+        if (item instanceof GameItem2d) {
+            ((GameItem2d) item).updateLevelOfDetail(camera);
+        }
+
         item.shader.bind();
 
         item.setUniforms(projectionMatrix, modelViewMatrix);
@@ -1,5 +1,6 @@
 package BBDGameLibrary;
 
+import BBDGameLibrary.GameEngine.GameItem2d;
 import BBDGameLibrary.Geometry2d.BBDPoint;
 import BBDGameLibrary.Geometry2d.BBDPolygon;
 
@@ -18,4 +19,24 @@ public class TestUtils {
 
         return new BBDPolygon(points);
     }
+
+    /**
+     * Build an interacting item shaped like buildSquare() at a location.  Broadphase and narrow phase tests only look at
+     * the shapes, so the item doesn't need a mesh or a window.
+     */
+    public static GameItem2d buildSquareItem(float x, float y){
+        return buildSquareItem(x, y, 1, 0);
+    }
+
+    /**
+     * Build an interacting item shaped like buildSquare(), scaled and rotated around its center and then moved to a
+     * location
+     */
+    public static GameItem2d buildSquareItem(float x, float y, float scale, float radians){
+        GameItem2d item = new GameItem2d(null, null, buildSquare(), 0, true);
+        item.scale(scale);
+        item.rotate(radians);
+        item.translate(x, y);
+        return item;
+    }
 }
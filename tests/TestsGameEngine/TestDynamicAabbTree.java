@@ -0,0 +1,106 @@
+package TestsGameEngine;
+
+import BBDGameLibrary.GameEngine.Broadphase;
+import BBDGameLibrary.GameEngine.DynamicAabbTree;
+import BBDGameLibrary.GameEngine.GameItem2d;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDynamicAabbTree {
+
+    @Test
+    public void testPairsWithMixedSizes(){
+        Broadphase tree = new DynamicAabbTree(0.1f);
+        GameItem2d terrain = TestUtils.buildSquareItem(0, 0, 50, 0);
+        GameItem2d first = TestUtils.buildSquareItem(10, 10, 0.1f, 0);
+        GameItem2d second = TestUtils.buildSquareItem(10.15f, 10, 0.1f, 0);
+        GameItem2d outside = TestUtils.buildSquareItem(100, 100, 0.1f, 0);
+        assertTrue(tree.add(terrain));
+        assertTrue(tree.add(first));
+        assertTrue(tree.add(second));
+        assertTrue(tree.add(outside));
+        assertFalse(tree.add(first));
+
+        //terrain with each of the 2 small items, and the 2 small items with each other
+        assertEquals(3, tree.findPairs());
+        for(int i = 0; i < tree.getPairCount(); i++){
+            assertNotSame(outside, tree.getPairFirst(i));
+            assertNotSame(outside, tree.getPairSecond(i));
+            assertNotSame(tree.getPairFirst(i), tree.getPairSecond(i));
+        }
+    }
+
+    @Test
+    public void testFattenedBounds(){
+        DynamicAabbTree tree = new DynamicAabbTree(0.5f);
+        GameItem2d first = TestUtils.buildSquareItem(0, 0);
+        GameItem2d second = TestUtils.buildSquareItem(2.2f, 0);
+        tree.add(first);
+        tree.add(second);
+
+        //the fat boxes overlap but the actual ones don't
+        assertEquals(0, tree.findPairs());
+
+        //small moves stay inside the fat box, and the actual box still follows the item
+        second.translate(-0.1f, 0);
+        assertEquals(0, tree.findPairs());
+        second.translate(-0.15f, 0);
+        assertEquals(1, tree.findPairs());
+
+        //moving out of the fat box reinserts it
+        second.translate(20, 0);
+        assertEquals(0, tree.findPairs());
+        GameItem2d[] results = new GameItem2d[2];
+        assertEquals(1, tree.query(20, -1, 23, 1, results));
+        assertSame(second, results[0]);
+    }
+
+    @Test
+    public void testStaysBalanced(){
+        DynamicAabbTree tree = new DynamicAabbTree(0);
+        //added in order along a line, which would make a list out of an unbalanced tree
+        GameItem2d[] items = new GameItem2d[256];
+        for(int i = 0; i < items.length; i++){
+            items[i] = TestUtils.buildSquareItem(3 * i, 0);
+            tree.add(items[i]);
+        }
+        assertEquals(256, tree.size());
+        assertTrue(tree.getHeight() <= 16);
+        assertEquals(0, tree.findPairs());
+
+        for(int i = 0; i < items.length; i += 2){
+            assertTrue(tree.remove(items[i]));
+        }
+        assertEquals(128, tree.size());
+        assertTrue(tree.getHeight() <= 14);
+        assertNull(items[0].getBroadphase());
+    }
+
+    @Test
+    public void testQueries(){
+        DynamicAabbTree tree = new DynamicAabbTree(0.2f);
+        GameItem2d left = TestUtils.buildSquareItem(-5, 0);
+        GameItem2d middle = TestUtils.buildSquareItem(0, 0);
+        GameItem2d right = TestUtils.buildSquareItem(5, 0);
+        GameItem2d above = TestUtils.buildSquareItem(0, 5);
+        tree.add(left);
+        tree.add(middle);
+        tree.add(right);
+        tree.add(above);
+
+        GameItem2d[] results = new GameItem2d[4];
+        assertEquals(3, tree.raycast(-10, 0, 10, 0, results));
+        assertEquals(2, tree.raycast(0, -10, 0, 10, results));
+        assertEquals(1, tree.raycast(-10, 0, -5, 0, results));
+        assertSame(left, results[0]);
+        assertEquals(0, tree.raycast(-10, 2, 10, 2, results));
+
+        assertEquals(0, tree.findNeighbours(middle, results));
+        middle.translate(0, 3);
+        assertEquals(1, tree.findNeighbours(middle, results));
+        assertSame(above, results[0]);
+        assertEquals(4, tree.query(-10, -10, 10, 10, results));
+    }
+}
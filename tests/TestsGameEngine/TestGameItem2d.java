@@ -1,5 +1,6 @@
 package TestsGameEngine;
 
+import BBDGameLibrary.GameEngine.Camera;
 import BBDGameLibrary.GameEngine.GameItem2d;
 import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
 import BBDGameLibrary.Geometry2d.BBDPoint;
@@ -7,6 +8,7 @@ import BBDGameLibrary.Geometry2d.BBDPolygon;
 import BBDGameLibrary.OpenGL.Mesh;
 import BBDGameLibrary.OpenGL.Window;
 import BBDGameLibrary.TestUtils;
+import BBDGameLibrary.Utils.GeometryGenerators;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -44,7 +46,7 @@ public class TestGameItem2d {
         GameItem2d item = new GameItem2d(mesh, null, poly, 3000, true);
         item.translate(4,4);
 
-        assertEquals(new BBDPoint(4,4), poly.center());
+        assertEquals(new BBDPoint(4,4), item.getShape().center());
         assertEquals(4.0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(4.0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -62,16 +64,16 @@ public class TestGameItem2d {
         GameItem2d item = new GameItem2d(mesh, null, poly, 3000, true);
         item.setPosition(12,12);
 
-        assertEquals(13, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(13, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(13, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(13, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(12, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(12, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
 
         item.setPosition(0,0);
 
-        assertEquals(1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -112,8 +114,8 @@ public class TestGameItem2d {
         Mesh mesh = Mesh.buildMeshFromPolygon(poly, null);
 
         GameItem2d item = new GameItem2d(mesh, null, poly, 3500, true);
-        assertEquals(5, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(5, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(5, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(5, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         //should still be 0 because the square hasn't moved yet.  The origin of local space is still the same.
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -131,8 +133,8 @@ public class TestGameItem2d {
 
         GameItem2d item = new GameItem2d(mesh, null, poly, 3500, true);
         //check initial position
-        assertEquals(1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.5, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -146,8 +148,8 @@ public class TestGameItem2d {
 
         //check end position and rotation
         //check initial position
-        assertEquals(-1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.5, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -168,8 +170,8 @@ public class TestGameItem2d {
 
         GameItem2d item = new GameItem2d(mesh, null, poly, 3500, true);
         //check initial position
-        assertEquals(1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.5, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -183,8 +185,8 @@ public class TestGameItem2d {
 
         //check end position and rotation
         //check initial position
-        assertEquals(-1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.5, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -198,8 +200,8 @@ public class TestGameItem2d {
 
         //check end position and rotation
         //check initial position
-        assertEquals(-1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(-1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.5, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -220,8 +222,8 @@ public class TestGameItem2d {
 
         GameItem2d item = new GameItem2d(mesh, null, poly, 3000, true);
         //check initial position
-        assertEquals(1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -235,10 +237,10 @@ public class TestGameItem2d {
         //actually rotate
         item.rotateAroundPoint(firstCenterOfRotation, (float)Math.PI);
         //check initial position
-        assertEquals(1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(1).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(3, poly.getPoints().get(1).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(1).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(3, item.getShape().getPoints().get(1).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(2, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(2, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -259,8 +261,8 @@ public class TestGameItem2d {
 
         GameItem2d item = new GameItem2d(mesh, null, poly, 3000, true);
         //check initial position
-        assertEquals(1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -268,8 +270,8 @@ public class TestGameItem2d {
 
         //scale first time
         item.setScale(5);
-        assertEquals(5, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(5, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(5, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(5, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -277,8 +279,8 @@ public class TestGameItem2d {
 
         //scale second time
         item.setScale(2);
-        assertEquals(2, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(2, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -296,8 +298,8 @@ public class TestGameItem2d {
 
         GameItem2d item = new GameItem2d(mesh, null, poly, 3000, true);
         //check initial position
-        assertEquals(1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -305,8 +307,8 @@ public class TestGameItem2d {
 
         //scale
         item.scale(5);
-        assertEquals(5, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(5, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(5, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(5, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -314,8 +316,8 @@ public class TestGameItem2d {
 
         //scale
         item.scale(2);
-        assertEquals(10, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(10, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(10, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(10, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -323,8 +325,8 @@ public class TestGameItem2d {
 
         //scale
         item.scale(0.2f);
-        assertEquals(2, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(2, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -342,8 +344,8 @@ public class TestGameItem2d {
 
         GameItem2d item = new GameItem2d(mesh, null, poly, 3000, true);
         //check initial position
-        assertEquals(1, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(1, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
@@ -352,11 +354,87 @@ public class TestGameItem2d {
         //scaleFromPoint
         BBDPoint centerOfScale = new BBDPoint(-1,-1);
         item.scaleFromPoint(centerOfScale, 5);
-        assertEquals(9, poly.getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
-        assertEquals(9, poly.getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(9, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(9, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(4, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(4, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(-3.0, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
         assertEquals(5, item.getScale());
     }
+
+    @Test
+    public void testLevelOfDetailByCameraDistance(){
+        BBDPolygon circle = GeometryGenerators.createNGon(new BBDPoint(0, 0), 1, 64);
+        Mesh[] meshes = Mesh.buildLevelsOfDetail(circle, new float[]{0, 0.05f, 0.5f});
+        Mesh fullMesh = Mesh.buildMeshFromPolygon(circle);
+        GameItem2d item = new GameItem2d(fullMesh, null, circle, 0, true);
+        Camera camera = new Camera();
+        camera.setPosition(0, 0, 5);
+        assertEquals(0, item.updateLevelOfDetail(camera));
+        assertSame(fullMesh, item.getMesh());
+
+        item.setLevelsOfDetail(meshes, new float[]{10, 40});
+        assertEquals(0, item.updateLevelOfDetail(camera));
+        assertSame(meshes[0], item.getMesh());
+
+        camera.setPosition(3, 4, 20);
+        item.translate(3, 4);
+        assertEquals(1, item.updateLevelOfDetail(camera));
+        assertSame(meshes[1], item.getMesh());
+
+        camera.setPosition(0, 0, 100);
+        assertEquals(2, item.updateLevelOfDetail(camera));
+        assertEquals(2, item.getLevelOfDetail());
+        assertSame(meshes[2], item.getMesh());
+
+        item.clearLevelsOfDetail();
+        assertSame(fullMesh, item.getMesh());
+        assertThrows(IllegalArgumentException.class, () -> item.setLevelsOfDetail(meshes, new float[]{10}));
+        assertThrows(IllegalArgumentException.class, () -> item.setLevelsOfDetail(meshes, new float[]{40, 10}));
+    }
+
+    @Test
+    public void testSetTransform(){
+        BBDPolygon poly = this.buildSquareOffCenter();
+        GameItem2d item = new GameItem2d(null, null, poly, 3000, true);
+        item.rotate(1.3f);
+        item.translate(7, 7);
+
+        //starts again from the shape as it was made, rather than from where it is now
+        item.setTransform(10, 0, (float)Math.PI / 2, 2);
+        assertEquals(0, item.getShape().getPoints().get(0).getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(10, item.getShape().getPoints().get(0).getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(16, item.getShape().area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(10, item.getPosition().x, BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0, item.getPosition().y, BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-3, item.getPosition().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(Math.PI / 2, item.getRotation().z, BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, item.getScale());
+    }
+
+    @Test
+    public void testShapeWorkedOutWhenAskedFor(){
+        BBDPolygon poly = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(4, 0),
+                new BBDPoint(0, 1))));
+        BBDPolygon moved = poly.copyPolygon();
+        GameItem2d item = new GameItem2d(null, null, poly, 3000, true);
+
+        //nothing is worked out until the shape is asked for
+        item.translate(3, -2);
+        assertEquals(new BBDPoint(4, 0), poly.getPoints().get(1));
+        assertEquals(new BBDPoint(7, -2), item.getShape().getPoints().get(1));
+
+        //rotating twice turns around the center of the bounding box each time, the same as the polygon does
+        item.rotate(0.7f);
+        item.rotate(0.7f);
+        moved.translate(3, -2);
+        moved.rotate(0.7f);
+        moved.rotate(0.7f);
+        for(int i = 0; i < 3; i++){
+            assertEquals(moved.getPoints().get(i).getXLoc(), item.getShape().getPoints().get(i).getXLoc(),
+                    BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertEquals(moved.getPoints().get(i).getYLoc(), item.getShape().getPoints().get(i).getYLoc(),
+                    BBDGeometryHelpers.ALLOWABLE_DELTA);
+        }
+    }
 }
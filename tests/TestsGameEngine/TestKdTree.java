@@ -0,0 +1,117 @@
+package TestsGameEngine;
+
+import BBDGameLibrary.GameEngine.GameItem;
+import BBDGameLibrary.GameEngine.GameItem2d;
+import BBDGameLibrary.GameEngine.KdTree;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestKdTree {
+
+    private ArrayList<BBDPoint> buildGrid(){
+        ArrayList<BBDPoint> points = new ArrayList<>();
+        for(int x = 0; x < 10; x++){
+            for(int y = 0; y < 10; y++){
+                points.add(new BBDPoint(x, y));
+            }
+        }
+        return points;
+    }
+
+    @Test
+    public void testNearest(){
+        KdTree tree = new KdTree();
+        assertEquals(-1, tree.nearest(0, 0));
+
+        ArrayList<BBDPoint> points = this.buildGrid();
+        tree.build(points);
+        assertEquals(100, tree.size());
+        assertSame(points.get(34), points.get(tree.nearest(3.2f, 3.9f)));
+        assertSame(points.get(99), points.get(tree.nearest(50, 50)));
+
+        //skipping the point being searched from finds its neighbour instead
+        int self = 45;
+        int neighbour = tree.nearest(4, 5, self);
+        assertNotEquals(self, neighbour);
+        assertEquals(1, points.get(self).distanceSquaredToPoint(points.get(neighbour)), 0.0001f);
+    }
+
+    @Test
+    public void testKNearest(){
+        KdTree tree = new KdTree();
+        ArrayList<BBDPoint> points = this.buildGrid();
+        tree.build(points);
+
+        int[] results = new int[5];
+        float[] distances = new float[5];
+        assertEquals(5, tree.nearest(5, 5, 5, results, distances));
+        assertEquals(55, results[0]);
+        assertEquals(0, distances[0], 0.0001f);
+        for(int i = 1; i < 5; i++){
+            assertEquals(1, distances[i], 0.0001f);
+        }
+
+        //fewer positions than asked for
+        tree.build(new ArrayList<>(Arrays.asList(new BBDPoint(3, 0), new BBDPoint(1, 0))));
+        assertEquals(2, tree.nearest(0, 0, 5, results, distances));
+        assertEquals(1, results[0]);
+        assertEquals(0, results[1]);
+        assertEquals(1, tree.nearest(0, 0, 5, 1, results, distances));
+        assertEquals(0, results[0]);
+    }
+
+    @Test
+    public void testWithinRadius(){
+        KdTree tree = new KdTree();
+        tree.build(this.buildGrid());
+
+        int[] results = new int[10];
+        assertEquals(5, tree.withinRadius(5, 5, 1, results));
+        assertEquals(9, tree.withinRadius(5, 5, 1.5f, results));
+        assertEquals(3, tree.withinRadius(0, 0, 1, results));
+        assertEquals(0, tree.withinRadius(-5, -5, 1, results));
+
+        //results that don't fit are still counted
+        assertEquals(100, tree.withinRadius(5, 5, 100, results));
+    }
+
+    @Test
+    public void testGameItemsAndBatches(){
+        GameItem[] items = new GameItem[3];
+        for(int i = 0; i < items.length; i++){
+            items[i] = new GameItem2d(null, null, TestUtils.buildSquare(), 0, false);
+            items[i].setPosition(10 * i, 0, i);
+        }
+        KdTree tree = new KdTree();
+        tree.build(items, items.length);
+        assertEquals(2, tree.nearest(19, 1));
+
+        //enough locations that the batch gets split across threads
+        int count = 1000;
+        float[] locations = new float[2 * count];
+        for(int i = 0; i < count; i++){
+            locations[2 * i] = (i % 30) - 2.25f;
+            locations[2 * i + 1] = i % 7;
+        }
+        int[] nearest = new int[count];
+        tree.nearestBatch(locations, count, nearest, new ForkJoinPool(4));
+        int[] kNearest = new int[2 * count];
+        float[] distances = new float[2 * count];
+        int[] found = new int[count];
+        tree.nearestBatch(locations, count, 2, kNearest, distances, found);
+        for(int i = 0; i < count; i++){
+            int expected = tree.nearest(locations[2 * i], locations[2 * i + 1]);
+            assertEquals(expected, nearest[i]);
+            assertEquals(2, found[i]);
+            assertEquals(expected, kNearest[2 * i]);
+            assertTrue(distances[2 * i] <= distances[2 * i + 1]);
+        }
+    }
+}
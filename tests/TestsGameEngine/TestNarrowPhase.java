@@ -0,0 +1,166 @@
+package TestsGameEngine;
+
+import BBDGameLibrary.GameEngine.GameItem2d;
+import BBDGameLibrary.GameEngine.NarrowPhase;
+import BBDGameLibrary.GameEngine.SpatialHashGrid;
+import BBDGameLibrary.GameEngine.SweepAndPrune;
+import BBDGameLibrary.Geometry2d.BBDContactManifold;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestNarrowPhase {
+
+    private GameItem2d buildDiamond(float x, float y){
+        return TestUtils.buildSquareItem(x, y, 1, (float)Math.PI / 4);
+    }
+
+    @Test
+    public void testOnlyTouchingPairsKept(){
+        SpatialHashGrid grid = new SpatialHashGrid(2);
+        GameItem2d first = this.buildDiamond(0, 0);
+        GameItem2d overlapping = this.buildDiamond(2, 0);
+        //its box overlaps the first one's, but the diamonds are about 1.5 apart
+        GameItem2d diagonal = this.buildDiamond(-2.5f, 2.5f);
+        grid.add(first);
+        grid.add(overlapping);
+        grid.add(diagonal);
+        assertEquals(2, grid.findPairs());
+
+        NarrowPhase narrowPhase = new NarrowPhase();
+        assertEquals(1, narrowPhase.run(grid));
+        GameItem2d contactFirst = narrowPhase.getContactFirst(0);
+        GameItem2d contactSecond = narrowPhase.getContactSecond(0);
+        assertTrue((contactFirst == first && contactSecond == overlapping) || (contactFirst == overlapping && contactSecond == first));
+        assertEquals(0, narrowPhase.getContactDistanceSquared(0));
+
+        //with a contact distance the near miss counts too
+        NarrowPhase nearby = new NarrowPhase(2, ForkJoinPool.commonPool());
+        assertEquals(2, nearby.run(grid));
+
+        assertThrows(IllegalArgumentException.class, () -> new NarrowPhase(-1, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testSameResultsOnAnyNumberOfThreads(){
+        SpatialHashGrid grid = new SpatialHashGrid(2);
+        Random random = new Random(17);
+        for(int i = 0; i < 400; i++){
+            grid.add(this.buildDiamond(random.nextFloat() * 40, random.nextFloat() * 40));
+        }
+        int pairCount = grid.findPairs();
+        assertTrue(pairCount > 64);
+
+        NarrowPhase serial = new NarrowPhase(0.5f, new ForkJoinPool(1));
+        NarrowPhase parallel = new NarrowPhase(0.5f, new ForkJoinPool(4));
+        int contactCount = serial.run(grid);
+        assertEquals(contactCount, parallel.run(grid));
+        assertTrue(contactCount > 0 && contactCount < pairCount);
+
+        int expected = 0;
+        for(int i = 0; i < pairCount; i++){
+            BBDPolygon first = grid.getPairFirst(i).getShape();
+            BBDPolygon second = grid.getPairSecond(i).getShape();
+            if(first.distanceSquaredToPolygon(second) <= 0.25f){
+                assertSame(grid.getPairFirst(i), parallel.getContactFirst(expected));
+                assertSame(grid.getPairSecond(i), parallel.getContactSecond(expected));
+                assertSame(serial.getContactFirst(expected), parallel.getContactFirst(expected));
+                assertEquals(serial.getContactDistanceSquared(expected), parallel.getContactDistanceSquared(expected));
+                expected++;
+            }
+        }
+        assertEquals(expected, contactCount);
+    }
+
+    @Test
+    public void testFastMoversDontTunnel(){
+        SweepAndPrune sweepAndPrune = new SweepAndPrune();
+        BBDPolygon wallShape = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(4.9f, -5), new BBDPoint(5.1f, -5),
+                new BBDPoint(5.1f, 5), new BBDPoint(4.9f, 5))));
+        GameItem2d wall = new GameItem2d(null, null, wallShape, 0, true);
+        GameItem2d projectile = new GameItem2d(null, null, TestUtils.buildSquare(), 0, true);
+        sweepAndPrune.add(wall);
+        sweepAndPrune.add(projectile);
+        assertEquals(0, sweepAndPrune.findPairs());
+
+        //the start and end of the move are both clear of the wall, but the path isn't
+        projectile.setMotion(20, 0);
+        assertEquals(1, sweepAndPrune.findPairs());
+        NarrowPhase narrowPhase = new NarrowPhase();
+        assertEquals(1, narrowPhase.run(sweepAndPrune));
+        float time = narrowPhase.getContactTimeOfImpact(0);
+        assertEquals(0.195f, time, 0.0001f);
+
+        projectile.applyMotion(time);
+        assertEquals(0, projectile.getMotionX());
+        assertEquals(3.9f, projectile.getShape().center().getXLoc(), 0.001f);
+        assertTrue(projectile.checkCollision(wall, new BBDContactManifold()));
+
+        //still touching at the start of the next move
+        projectile.setMotion(-20, 0);
+        assertEquals(1, sweepAndPrune.findPairs());
+        assertEquals(1, narrowPhase.run(sweepAndPrune));
+        assertEquals(0, narrowPhase.getContactTimeOfImpact(0));
+        projectile.applyMotion(1);
+        assertEquals(0, sweepAndPrune.findPairs());
+
+        //a path whose box crosses the wall's but misses the wall itself
+        projectile.setPosition(0, 5.5f);
+        projectile.setMotion(10, 10);
+        assertEquals(1, sweepAndPrune.findPairs());
+        assertEquals(0, narrowPhase.run(sweepAndPrune));
+    }
+
+    @Test
+    public void testFastMoverIntoConcaveShape(){
+        SweepAndPrune sweepAndPrune = new SweepAndPrune();
+        BBDPolygon wallShape = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(-3, 0), new BBDPoint(3, 0),
+                new BBDPoint(3, 4), new BBDPoint(1, 4), new BBDPoint(1, 1), new BBDPoint(-1, 1), new BBDPoint(-1, 4),
+                new BBDPoint(-3, 4))));
+        GameItem2d wall = new GameItem2d(null, null, wallShape, 0, true);
+        GameItem2d projectile = TestUtils.buildSquareItem(0, 6.5f, 0.5f, 0);
+        sweepAndPrune.add(wall);
+        sweepAndPrune.add(projectile);
+
+        //falling into the notch without touching its sides or bottom isn't a contact
+        projectile.setMotion(0, -4.5f);
+        assertEquals(1, sweepAndPrune.findPairs());
+        NarrowPhase narrowPhase = new NarrowPhase();
+        assertEquals(0, narrowPhase.run(sweepAndPrune));
+
+        projectile.setMotion(0, -6);
+        assertEquals(1, narrowPhase.run(sweepAndPrune));
+        assertEquals(5f / 6, narrowPhase.getContactTimeOfImpact(0), 0.0001f);
+    }
+
+    @Test
+    public void testStaticConcavePairSkipsConvexPieces(){
+        SweepAndPrune sweepAndPrune = new SweepAndPrune();
+        BBDPolygon wallShape = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(-3, 0), new BBDPoint(3, 0),
+                new BBDPoint(3, 4), new BBDPoint(1, 4), new BBDPoint(1, 1), new BBDPoint(-1, 1), new BBDPoint(-1, 4),
+                new BBDPoint(-3, 4))));
+        GameItem2d wall = new GameItem2d(null, null, wallShape, 0, true);
+        GameItem2d block = TestUtils.buildSquareItem(2, 2, 0.5f, 0);
+        sweepAndPrune.add(wall);
+        sweepAndPrune.add(block);
+
+        //neither is moving, so the overlap test doesn't need the wall cut into pieces
+        assertEquals(1, sweepAndPrune.findPairs());
+        NarrowPhase narrowPhase = new NarrowPhase();
+        assertEquals(1, narrowPhase.run(sweepAndPrune));
+        assertFalse(wallShape.hasConvexPieces());
+
+        block.setMotion(0, 1);
+        assertEquals(1, sweepAndPrune.findPairs());
+        assertEquals(1, narrowPhase.run(sweepAndPrune));
+        assertTrue(wallShape.hasConvexPieces());
+    }
+}
@@ -0,0 +1,96 @@
+package TestsGameEngine;
+
+import BBDGameLibrary.GameEngine.GameItem2d;
+import BBDGameLibrary.GameEngine.SpatialHashGrid;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSpatialHashGrid {
+
+    @Test
+    public void testPairs(){
+        SpatialHashGrid grid = new SpatialHashGrid(2);
+        GameItem2d first = TestUtils.buildSquareItem(0, 0);
+        GameItem2d second = TestUtils.buildSquareItem(1.5f, 0);
+        GameItem2d far = TestUtils.buildSquareItem(20, 20);
+        assertTrue(grid.add(first));
+        assertTrue(grid.add(second));
+        assertTrue(grid.add(far));
+        assertFalse(grid.add(first));
+        assertEquals(3, grid.size());
+
+        //the 2 close squares share several cells but are only reported once
+        assertEquals(1, grid.findPairs());
+        GameItem2d pairFirst = grid.getPairFirst(0);
+        GameItem2d pairSecond = grid.getPairSecond(0);
+        assertTrue((pairFirst == first && pairSecond == second) || (pairFirst == second && pairSecond == first));
+
+        //touching boxes still count
+        far.setPosition(2, 2);
+        assertEquals(3, grid.findPairs());
+    }
+
+    @Test
+    public void testItemsUpdateTheGrid(){
+        SpatialHashGrid grid = new SpatialHashGrid(1);
+        GameItem2d first = TestUtils.buildSquareItem(0, 0);
+        GameItem2d second = TestUtils.buildSquareItem(5, 0);
+        grid.add(first);
+        grid.add(second);
+        assertSame(grid, first.getBroadphase());
+        assertEquals(0, grid.findPairs());
+
+        second.translate(-3, 0);
+        assertEquals(1, grid.findPairs());
+
+        second.scale(0.25f);
+        assertEquals(0, grid.findPairs());
+
+        second.rotate((float)Math.PI / 4);
+        second.setScale(1);
+        assertEquals(1, grid.findPairs());
+
+        assertTrue(grid.remove(second));
+        assertNull(second.getBroadphase());
+        assertEquals(0, grid.findPairs());
+        assertFalse(grid.remove(second));
+    }
+
+    @Test
+    public void testQueries(){
+        SpatialHashGrid grid = new SpatialHashGrid(1.5f);
+        GameItem2d center = TestUtils.buildSquareItem(0, 0);
+        GameItem2d left = TestUtils.buildSquareItem(-1.5f, 0);
+        GameItem2d right = TestUtils.buildSquareItem(1.5f, 0);
+        GameItem2d far = TestUtils.buildSquareItem(10, 0);
+        grid.add(center);
+        grid.add(left);
+        grid.add(right);
+        grid.add(far);
+
+        GameItem2d[] results = new GameItem2d[4];
+        assertEquals(2, grid.findNeighbours(center, results));
+        assertEquals(1, grid.findNeighbours(left, results));
+        assertSame(center, results[0]);
+        assertEquals(0, grid.findNeighbours(far, results));
+
+        assertEquals(4, grid.query(-5, -5, 15, 5, results));
+        assertEquals(1, grid.query(8, -1, 9.5f, 1, results));
+        assertSame(far, results[0]);
+
+        //results that don't fit are still counted
+        GameItem2d[] small = new GameItem2d[1];
+        assertEquals(3, grid.query(-3, -1, 3, 1, small));
+        assertNotNull(small[0]);
+    }
+
+    @Test
+    public void testOnlyInteractingItems(){
+        SpatialHashGrid grid = new SpatialHashGrid(1);
+        GameItem2d item = new GameItem2d(null, null, TestUtils.buildSquare(), 0, false);
+        assertFalse(grid.add(item));
+        assertThrows(IllegalArgumentException.class, () -> new SpatialHashGrid(0));
+    }
+}
@@ -0,0 +1,100 @@
+package TestsGameEngine;
+
+import BBDGameLibrary.GameEngine.GameItem2d;
+import BBDGameLibrary.GameEngine.SweepAndPrune;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSweepAndPrune {
+
+    @Test
+    public void testBeginAndEndEvents(){
+        SweepAndPrune broadphase = new SweepAndPrune();
+        GameItem2d first = TestUtils.buildSquareItem(0, 0);
+        GameItem2d second = TestUtils.buildSquareItem(3, 0);
+        GameItem2d third = TestUtils.buildSquareItem(0, 3);
+        assertTrue(broadphase.add(first));
+        assertTrue(broadphase.add(second));
+        assertTrue(broadphase.add(third));
+
+        assertEquals(0, broadphase.findPairs());
+        assertEquals(0, broadphase.getBeginCount());
+
+        second.translate(-1.5f, 0);
+        assertEquals(1, broadphase.findPairs());
+        assertEquals(1, broadphase.getBeginCount());
+        assertEquals(0, broadphase.getEndCount());
+        GameItem2d beginFirst = broadphase.getBeginFirst(0);
+        GameItem2d beginSecond = broadphase.getBeginSecond(0);
+        assertTrue((beginFirst == first && beginSecond == second) || (beginFirst == second && beginSecond == first));
+
+        //nothing changed, so the pair stays but there are no new events
+        assertEquals(1, broadphase.findPairs());
+        assertEquals(0, broadphase.getBeginCount());
+
+        //overlapping on y alone isn't enough
+        second.translate(0, 8);
+        assertEquals(0, broadphase.findPairs());
+        assertEquals(0, broadphase.getBeginCount());
+        assertEquals(1, broadphase.getEndCount());
+    }
+
+    @Test
+    public void testTransientOverlapNotReported(){
+        SweepAndPrune broadphase = new SweepAndPrune();
+        GameItem2d first = TestUtils.buildSquareItem(0, 0);
+        GameItem2d second = TestUtils.buildSquareItem(3, 0);
+        broadphase.add(first);
+        broadphase.add(second);
+        broadphase.findPairs();
+
+        //in and back out again before anyone asked
+        second.translate(-1.5f, 0);
+        GameItem2d[] results = new GameItem2d[2];
+        assertEquals(1, broadphase.findNeighbours(first, results));
+        second.translate(1.5f, 0);
+        assertEquals(0, broadphase.findPairs());
+        assertEquals(0, broadphase.getBeginCount());
+        assertEquals(0, broadphase.getEndCount());
+    }
+
+    @Test
+    public void testRemoveEndsPairs(){
+        SweepAndPrune broadphase = new SweepAndPrune();
+        GameItem2d first = TestUtils.buildSquareItem(0, 0);
+        GameItem2d second = TestUtils.buildSquareItem(1, 1);
+        broadphase.add(first);
+        broadphase.add(second);
+        assertEquals(1, broadphase.findPairs());
+
+        assertTrue(broadphase.remove(second));
+        assertNull(second.getBroadphase());
+        assertEquals(1, broadphase.size());
+        assertEquals(0, broadphase.findPairs());
+        assertEquals(1, broadphase.getEndCount());
+        assertTrue(broadphase.getEndFirst(0) == second || broadphase.getEndSecond(0) == second);
+
+        //a new item taking over the old id is a brand new pair
+        GameItem2d third = TestUtils.buildSquareItem(1, 1);
+        broadphase.add(third);
+        assertEquals(1, broadphase.findPairs());
+        assertEquals(1, broadphase.getBeginCount());
+    }
+
+    @Test
+    public void testQuery(){
+        SweepAndPrune broadphase = new SweepAndPrune();
+        GameItem2d[] items = new GameItem2d[10];
+        for(int i = 0; i < items.length; i++){
+            items[i] = TestUtils.buildSquareItem(3 * i, 0);
+            broadphase.add(items[i]);
+        }
+        GameItem2d[] results = new GameItem2d[10];
+        assertEquals(2, broadphase.query(4, -1, 6.5f, 1, results));
+        assertEquals(0, broadphase.query(4, 2, 6.5f, 3, results));
+        assertEquals(10, broadphase.query(-100, -100, 100, 100, results));
+        assertEquals(0, broadphase.findNeighbours(items[3], results));
+    }
+}
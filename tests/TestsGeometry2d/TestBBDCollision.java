@@ -0,0 +1,159 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDCollision;
+import BBDGameLibrary.Geometry2d.BBDContactManifold;
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDCollision {
+
+    @Test
+    public void testSeparate(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon other = TestUtils.buildSquare();
+        other.translate(2.5f, 0);
+
+        BBDContactManifold manifold = new BBDContactManifold();
+        assertFalse(BBDCollision.collide(square, other, manifold));
+        assertEquals(0, manifold.getContactCount());
+
+        //bounding boxes overlap but a diagonal edge separates them
+        BBDPolygon triangle = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(1.5f, 1.5f),
+                new BBDPoint(3, 0), new BBDPoint(3, 3))));
+        triangle.translate(-0.2f, -0.2f);
+        assertFalse(BBDCollision.collide(square, triangle, manifold));
+    }
+
+    @Test
+    public void testFaceContact(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon other = TestUtils.buildSquare();
+        other.translate(1.75f, 0.5f);
+
+        BBDContactManifold manifold = new BBDContactManifold();
+        assertTrue(BBDCollision.collide(square, other, manifold));
+        assertEquals(1, manifold.getNormalX(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0, manifold.getNormalY(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.25f, manifold.getDepth(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, manifold.getContactCount());
+        for(int i = 0; i < manifold.getContactCount(); i++){
+            assertEquals(0.75f, manifold.getContactX(i), BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertTrue(manifold.getContactY(i) >= -0.5f - BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertTrue(manifold.getContactY(i) <= 1 + BBDGeometryHelpers.ALLOWABLE_DELTA);
+        }
+
+        //swapping the order flips the normal
+        assertTrue(BBDCollision.collide(other, square, manifold));
+        assertEquals(-1, manifold.getNormalX(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.25f, manifold.getDepth(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testCornerContact(){
+        BBDPolygon square = TestUtils.buildSquare();
+        //diamond with its bottom corner poking into the top of the square
+        BBDPolygon diamond = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0.9f), new BBDPoint(1, 1.9f),
+                new BBDPoint(0, 2.9f), new BBDPoint(-1, 1.9f))));
+
+        BBDContactManifold manifold = new BBDContactManifold();
+        assertTrue(BBDCollision.collide(square, diamond, manifold));
+        assertEquals(0, manifold.getNormalX(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, manifold.getNormalY(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.1f, manifold.getDepth(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, manifold.getContactCount());
+        assertEquals(0, manifold.getContactX(0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.9f, manifold.getContactY(0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testTouchingAndWinding(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon other = TestUtils.buildSquare();
+        other.translate(2, 0);
+        other.enforceDirectionality(BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON);
+
+        BBDContactManifold manifold = new BBDContactManifold();
+        assertTrue(BBDCollision.collide(square, other, manifold));
+        assertEquals(0, manifold.getDepth(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, manifold.getNormalX(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testEdgeNormalsFollowModifications(){
+        BBDPolygon square = TestUtils.buildSquare();
+        float[] normals = square.toEdgeNormals();
+        //first edge runs from (1,1) down to (1,-1), so it faces +x
+        assertEquals(1, normals[0], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0, normals[1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        //callers get a copy, so writing into it can't break collision tests against the square
+        normals[0] = -1;
+        assertEquals(1, square.toEdgeNormals()[0], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertTrue(BBDCollision.collide(square, TestUtils.buildSquare(), new BBDContactManifold()));
+
+        square.rotate((float)Math.PI / 2);
+        normals = square.toEdgeNormals();
+        assertEquals(0, normals[0], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, Math.abs(normals[1]), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testTimeOfImpact(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon wall = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(4.9f, -5), new BBDPoint(5.1f, -5),
+                new BBDPoint(5.1f, 5), new BBDPoint(4.9f, 5))));
+
+        //moving far enough to end up past the wall still hits it on the way
+        assertEquals(0.195f, BBDCollision.timeOfImpact(square, 20, 0, wall, 0, 0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.195f, BBDCollision.timeOfImpact(wall, 0, 0, square, 20, 0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-1, BBDCollision.timeOfImpact(square, 3, 0, wall, 0, 0));
+        assertEquals(-1, BBDCollision.timeOfImpact(square, 0, 20, wall, 0, 0));
+        assertEquals(-1, BBDCollision.timeOfImpact(square, -20, 0, wall, 0, 0));
+
+        //both moving, closing a gap of 8 at a combined 20
+        BBDPolygon other = TestUtils.buildSquare();
+        other.translate(10, 0);
+        assertEquals(0.4f, BBDCollision.timeOfImpact(square, 10, 0, other, -10, 0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-1, BBDCollision.timeOfImpact(square, 10, 0, other, 10, 0));
+
+        //already overlapping
+        other.translate(-9, 0);
+        assertEquals(0, BBDCollision.timeOfImpact(square, 0, 0, other, 0, 5));
+    }
+
+    @Test
+    public void testTimeOfImpactWithConcaveShapes(){
+        //U shaped wall with a notch 2 wide and 3 deep, open at the top
+        BBDPolygon wall = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(-3, 0), new BBDPoint(3, 0),
+                new BBDPoint(3, 4), new BBDPoint(1, 4), new BBDPoint(1, 1), new BBDPoint(-1, 1), new BBDPoint(-1, 4),
+                new BBDPoint(-3, 4))));
+        assertFalse(wall.isConvex());
+        assertTrue(TestUtils.buildSquare().isConvex());
+
+        //a 1 by 1 box dropping into the notch without touching it, where the convex hull's top edge would be hit
+        BBDPolygon box = TestUtils.buildSquare();
+        box.scale(0.5f);
+        box.translate(0, 6.5f);
+        assertEquals(-1, BBDCollision.timeOfImpact(box, 0, -4.5f, wall, 0, 0));
+        assertEquals(-1, BBDCollision.timeOfImpact(wall, 0, 0, box, 0, -4.5f));
+
+        //dropping further reaches the bottom of the notch after 5 of the 6
+        assertEquals(5f / 6, BBDCollision.timeOfImpact(box, 0, -6, wall, 0, 0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        //off center it lands on top of the wall
+        box.translate(2, 0);
+        assertEquals(2f / 6, BBDCollision.timeOfImpact(box, 0, -6, wall, 0, 0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        //the pieces follow changes to the shape
+        wall.translate(0, -1);
+        assertEquals(3f / 6, BBDCollision.timeOfImpact(box, 0, -6, wall, 0, 0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+}
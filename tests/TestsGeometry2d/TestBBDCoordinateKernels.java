@@ -0,0 +1,149 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDCoordinateKernels;
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDCoordinateKernels {
+
+    // Odd vertex count so the vector code has some left over after the last full vector
+    private static final int COUNT = 37;
+
+    private float[] buildCoordinates(Random random){
+        float[] coordinates = new float[2 * COUNT];
+        for(int i = 0; i < coordinates.length; i++){
+            coordinates[i] = (random.nextFloat() - 0.5f) * 20;
+        }
+        return coordinates;
+    }
+
+    @Test
+    public void testAffineTransform(){
+        float[] source = this.buildCoordinates(new Random(24));
+        float[] destination = new float[source.length];
+        BBDCoordinateKernels.affineTransform(source, destination, COUNT, 2, 3, -1, 0.5f, 4, -6);
+        for(int i = 0; i < COUNT; i++){
+            float x = source[2 * i];
+            float y = source[2 * i + 1];
+            assertEquals(2 * x + 3 * y + 4, destination[2 * i], BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertEquals(-x + 0.5f * y - 6, destination[2 * i + 1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        }
+
+        //only the requested vertices are touched
+        float[] partial = new float[source.length];
+        BBDCoordinateKernels.affineTransform(source, partial, 10, 1, 0, 0, 1, 0, 0);
+        for(int i = 0; i < partial.length; i++){
+            assertEquals(i < 20 ? source[i] : 0, partial[i]);
+        }
+    }
+
+    @Test
+    public void testTranslateScaleRotate(){
+        float[] coordinates = this.buildCoordinates(new Random(25));
+        float[] original = coordinates.clone();
+
+        BBDCoordinateKernels.translate(coordinates, COUNT, 3, -2);
+        for(int i = 0; i < COUNT; i++){
+            assertEquals(original[2 * i] + 3, coordinates[2 * i], BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertEquals(original[2 * i + 1] - 2, coordinates[2 * i + 1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        }
+
+        coordinates = original.clone();
+        BBDCoordinateKernels.scaleFromPoint(coordinates, COUNT, 1, 2, 3);
+        for(int i = 0; i < COUNT; i++){
+            assertEquals(1 + 3 * (original[2 * i] - 1), coordinates[2 * i], BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertEquals(2 + 3 * (original[2 * i + 1] - 2), coordinates[2 * i + 1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        }
+
+        //quarter turn counterclockwise around 1,1
+        coordinates = original.clone();
+        BBDCoordinateKernels.rotateAroundPoint(coordinates, COUNT, 1, 1, (float)Math.PI / 2);
+        for(int i = 0; i < COUNT; i++){
+            assertEquals(1 - (original[2 * i + 1] - 1), coordinates[2 * i], BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertEquals(1 + (original[2 * i] - 1), coordinates[2 * i + 1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        }
+    }
+
+    @Test
+    public void testMatchesPolygonTransforms(){
+        BBDPolygon square = TestUtils.buildSquare();
+        float[] coordinates = square.toCoordinates();
+        int count = square.getPoints().size();
+
+        square.rotateAroundPoint(new BBDPoint(2, 3), 0.7f);
+        BBDCoordinateKernels.rotateAroundPoint(coordinates, count, 2, 3, 0.7f);
+        square.scaleFromPoint(new BBDPoint(-1, 0), 1.5f);
+        BBDCoordinateKernels.scaleFromPoint(coordinates, count, -1, 0, 1.5f);
+
+        for(int i = 0; i < count; i++){
+            assertEquals(square.getPoints().get(i).getXLoc(), coordinates[2 * i], BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertEquals(square.getPoints().get(i).getYLoc(), coordinates[2 * i + 1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        }
+    }
+
+    @Test
+    public void testBounds(){
+        float[] coordinates = this.buildCoordinates(new Random(26));
+        coordinates[30] = -50;
+        coordinates[51] = 75;
+        float[] bounds = new float[4];
+        BBDCoordinateKernels.bounds(coordinates, COUNT, bounds);
+        assertEquals(-50, bounds[0]);
+        assertEquals(75, bounds[3]);
+        for(int i = 0; i < COUNT; i++){
+            assertTrue(coordinates[2 * i] >= bounds[0] && coordinates[2 * i] <= bounds[2]);
+            assertTrue(coordinates[2 * i + 1] >= bounds[1] && coordinates[2 * i + 1] <= bounds[3]);
+        }
+
+        BBDCoordinateKernels.bounds(coordinates, 0, bounds);
+        assertEquals(Float.POSITIVE_INFINITY, bounds[0]);
+        assertEquals(Float.POSITIVE_INFINITY, bounds[1]);
+        assertEquals(Float.NEGATIVE_INFINITY, bounds[2]);
+        assertEquals(Float.NEGATIVE_INFINITY, bounds[3]);
+    }
+
+    @Test
+    public void testPointsInBox(){
+        float[] coordinates = this.buildCoordinates(new Random(27));
+        //put one right on the edge of the box
+        coordinates[40] = 5;
+        coordinates[41] = -3;
+        boolean[] inside = new boolean[COUNT];
+        int insideCount = BBDCoordinateKernels.pointsInBox(coordinates, COUNT, -3, -3, 5, 4, inside);
+
+        int expected = 0;
+        for(int i = 0; i < COUNT; i++){
+            float x = coordinates[2 * i];
+            float y = coordinates[2 * i + 1];
+            boolean shouldBeInside = x >= -3 && x <= 5 && y >= -3 && y <= 4;
+            assertEquals(shouldBeInside, inside[i]);
+            if(shouldBeInside){
+                expected++;
+            }
+        }
+        assertTrue(inside[20]);
+        assertEquals(expected, insideCount);
+    }
+
+    @Test
+    public void testTextureCoordinates(){
+        float[] coordinates = TestUtils.buildSquare().toCoordinates();
+        float[] output = new float[coordinates.length];
+        BBDCoordinateKernels.textureCoordinates(coordinates, 4, -1, 1, 2, 2, output);
+        for(int i = 0; i < 4; i++){
+            assertEquals((coordinates[2 * i] + 1) / 2, output[2 * i], BBDGeometryHelpers.ALLOWABLE_DELTA);
+            assertEquals((1 - coordinates[2 * i + 1]) / 2, output[2 * i + 1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        }
+
+        float[] positions = new float[6];
+        BBDCoordinateKernels.meshPositions(new float[]{1, 2, 3, 4}, 2, positions);
+        assertArrayEquals(new float[]{1, 2, 0, 3, 4, 0}, positions);
+    }
+}
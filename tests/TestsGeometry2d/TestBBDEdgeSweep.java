@@ -0,0 +1,122 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDEdgeSweep;
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDSegmentIntersection;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDEdgeSweep {
+
+    @Test
+    public void testCrossingSquares(){
+        float[] square = {1, 1, 1, -1, -1, -1, -1, 1};
+        float[] shifted = {2, 0, 2, -2, 0, -2, 0, 0};
+
+        BBDEdgeSweep sweep = new BBDEdgeSweep(square, shifted);
+        assertTrue(BBDEdgeSweep.intersects(square, shifted));
+        assertEquals(2, sweep.getIntersectionCount());
+
+        //sorted by edge of the first polygon
+        assertEquals(0, sweep.getFirstEdge(0));
+        assertEquals(1, sweep.getX(0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0, sweep.getY(0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.5f, sweep.getFirstParameter(0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(3, sweep.getSecondEdge(0));
+
+        assertEquals(1, sweep.getFirstEdge(1));
+        assertEquals(0, sweep.getX(1), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-1, sweep.getY(1), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testSeparate(){
+        float[] square = {1, 1, 1, -1, -1, -1, -1, 1};
+        float[] separate = {5, 1, 5, -1, 3, -1, 3, 1};
+
+        assertFalse(BBDEdgeSweep.intersects(square, separate));
+        assertEquals(0, new BBDEdgeSweep(square, separate).getIntersectionCount());
+    }
+
+    @Test
+    public void testSharedEdge(){
+        float[] square = {1, 1, 1, -1, -1, -1, -1, 1};
+        float[] adjacent = {3, 1, 3, -1, 1, -1, 1, 1};
+
+        BBDEdgeSweep sweep = new BBDEdgeSweep(square, adjacent);
+        assertTrue(BBDEdgeSweep.intersects(square, adjacent));
+
+        //the shared edge is reported at both ends, and each corner is also touched by the neighboring edges
+        boolean foundTop = false;
+        boolean foundBottom = false;
+        for(int i = 0; i < sweep.getIntersectionCount(); i++){
+            assertEquals(1, sweep.getX(i), BBDGeometryHelpers.ALLOWABLE_DELTA);
+            foundTop |= Math.abs(sweep.getY(i) - 1) < BBDGeometryHelpers.ALLOWABLE_DELTA;
+            foundBottom |= Math.abs(sweep.getY(i) + 1) < BBDGeometryHelpers.ALLOWABLE_DELTA;
+        }
+        assertTrue(foundTop);
+        assertTrue(foundBottom);
+    }
+
+    @Test
+    public void testPolygonIntersectionPointsAreUnique(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon adjacent = TestUtils.buildSquare();
+        adjacent.translate(2, 0);
+
+        ArrayList<BBDPoint> points = square.polygonIntersectPolygonPoints(adjacent);
+        assertEquals(2, points.size());
+        assertTrue(points.contains(new BBDPoint(1, 1)));
+        assertTrue(points.contains(new BBDPoint(1, -1)));
+    }
+
+    /**
+     * A ragged strip running north to south, like a stretch of coastline
+     */
+    private float[] buildCoastline(Random random, int length, float offset){
+        float[] coordinates = new float[4 * length];
+        for(int i = 0; i < length; i++){
+            coordinates[2 * i] = offset + 2 + random.nextFloat() * 3;
+            coordinates[2 * i + 1] = i;
+            coordinates[2 * (length + i)] = offset + random.nextFloat() * 3;
+            coordinates[2 * (length + i) + 1] = length - 1 - i;
+        }
+        return coordinates;
+    }
+
+    @Test
+    public void testTallPolygonsMatchEveryPair(){
+        Random random = new Random(7);
+        float[] coast = this.buildCoastline(random, 300, 0);
+        float[] other = this.buildCoastline(random, 300, 1.5f);
+
+        int expected = 0;
+        float[] scratch = new float[4];
+        for(int i = 0; i < coast.length / 2; i++){
+            int iNext = (i + 1) % (coast.length / 2);
+            for(int j = 0; j < other.length / 2; j++){
+                int jNext = (j + 1) % (other.length / 2);
+                int result = BBDSegmentIntersection.intersect(coast[2 * i], coast[2 * i + 1], coast[2 * iNext],
+                        coast[2 * iNext + 1], other[2 * j], other[2 * j + 1], other[2 * jNext], other[2 * jNext + 1],
+                        scratch);
+                if(result == BBDSegmentIntersection.COLLINEAR_OVERLAP){
+                    expected += 2;
+                }else if(result != BBDSegmentIntersection.DISJOINT){
+                    expected++;
+                }
+            }
+        }
+
+        BBDEdgeSweep sweep = new BBDEdgeSweep(coast, other);
+        assertTrue(expected > 0);
+        assertEquals(expected, sweep.getIntersectionCount());
+        assertTrue(BBDEdgeSweep.intersects(coast, other));
+    }
+}
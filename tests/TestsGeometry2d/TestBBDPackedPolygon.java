@@ -0,0 +1,103 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPackedPolygon;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDSegment;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDPackedPolygon {
+
+    public BBDPackedPolygon buildDiamond(){
+        return new BBDPackedPolygon(new float[]{1, 0, 0, -1, -1, 0, 0, 1});
+    }
+
+    @Test
+    public void testConversion(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPackedPolygon packed = new BBDPackedPolygon(square);
+
+        assertEquals(4, packed.getVertexCount());
+        assertEquals(1, packed.getX(0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(-1, packed.getY(1), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(new BBDSegment(new BBDPoint(-1, 1), new BBDPoint(1, 1)), packed.getSegment(3));
+        assertEquals(square, packed.toPolygon());
+
+        //the packed copy is independent of the original
+        packed.translate(1, 0);
+        assertEquals(1, square.maxX(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, packed.maxX(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testTransformsMatchPolygon(){
+        BBDPolygon polygon = TestUtils.buildSquare();
+        BBDPackedPolygon packed = new BBDPackedPolygon(polygon);
+
+        polygon.translate(2, 1);
+        packed.translate(2, 1);
+        polygon.scale(1.5f);
+        packed.scale(1.5f);
+        polygon.rotateAroundPoint(new BBDPoint(0, 0), 0.7f);
+        packed.rotateAroundPoint(new BBDPoint(0, 0), 0.7f);
+        polygon.rotate(-0.3f);
+        packed.rotate(-0.3f);
+
+        assertEquals(polygon, packed.toPolygon());
+        assertEquals(polygon.width(), packed.width(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(polygon.minY(), packed.minY(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(polygon.area(), packed.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testPointQueries(){
+        BBDPackedPolygon diamond = this.buildDiamond();
+
+        assertTrue(diamond.checkPointInside(new BBDPoint(0.1f, 0.1f)));
+        assertTrue(diamond.checkPointInside(new BBDPoint(0.5f, 0.5f)));
+        assertFalse(diamond.checkPointInside(0.5f, 0.5f, false));
+        assertFalse(diamond.checkPointInside(new BBDPoint(2, 1)));
+        assertTrue(diamond.checkPointOnPerimeter(new BBDPoint(0, 1)));
+        assertFalse(diamond.checkPointOnPerimeter(new BBDPoint(0, 0)));
+
+        assertEquals(0, diamond.distanceSquaredToPoint(new BBDPoint(0.2f, 0)), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, diamond.distanceSquaredToPoint(new BBDPoint(2, 0)), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testPolygonQueries(){
+        BBDPackedPolygon square = new BBDPackedPolygon(TestUtils.buildSquare());
+        BBDPackedPolygon diamond = this.buildDiamond();
+
+        assertTrue(square.checkPolygonContainsPolygon(diamond));
+        assertFalse(diamond.checkPolygonContainsPolygon(square));
+        assertTrue(square.checkPolygonIntersectsPolygon(diamond));
+        assertEquals(0, square.distanceSquaredToPolygon(diamond), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        diamond.translate(5, 0);
+        assertFalse(square.checkPolygonIntersectsPolygon(diamond));
+        assertEquals(9, square.distanceSquaredToPolygon(diamond), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        assertTrue(square.checkSegmentIntersectPolygon(new BBDSegment(new BBDPoint(0, 0), new BBDPoint(3, 0))));
+        assertFalse(square.checkSegmentIntersectPolygon(new BBDSegment(new BBDPoint(2, 0), new BBDPoint(3, 0))));
+        assertEquals(1, square.distanceSquaredToSegment(new BBDSegment(new BBDPoint(2, 0), new BBDPoint(3, 0))),
+                BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testDirectionality(){
+        BBDPackedPolygon diamond = this.buildDiamond();
+        assertEquals(BBDGeometryHelpers.CLOCKWISE_POLYGON, diamond.determineDirectionality());
+
+        diamond.enforceDirectionality(BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON);
+        assertEquals(BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON, diamond.determineDirectionality());
+        assertEquals(0, diamond.getX(0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, diamond.getY(0), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, diamond.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(6, diamond.triangulate(null).length);
+    }
+}
@@ -4,6 +4,9 @@ import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
 import BBDGameLibrary.Geometry2d.BBDPoint;
 import BBDGameLibrary.Geometry2d.Exceptions.CoordinateOverflowException;
 import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TestBBDPoint {
@@ -168,4 +171,17 @@ public class TestBBDPoint {
         assertEquals(new BBDPoint(4,2), new BBDPoint(original2, 1, (float) (Math.PI/2)));
         assertEquals(new BBDPoint(4,-4), new BBDPoint(original2, 5, (float) (Math.PI/-2)));
     }
+
+    @Test
+    public void testHashCode(){
+        //equal points need equal hashes, even when they are on either side of a rounding boundary
+        BBDPoint point = new BBDPoint(1, 1);
+        BBDPoint close = new BBDPoint(1 + BBDGeometryHelpers.ALLOWABLE_DELTA / 2, 1 - BBDGeometryHelpers.ALLOWABLE_DELTA / 2);
+        assertEquals(point, close);
+        assertEquals(point.hashCode(), close.hashCode());
+
+        HashSet<BBDPoint> set = new HashSet<>();
+        set.add(point);
+        assertTrue(set.contains(close));
+    }
 }
@@ -0,0 +1,82 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPointMap;
+import BBDGameLibrary.Geometry2d.BBDPointSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDPointSet {
+
+    private static final float HALF_DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA / 2;
+
+    @Test
+    public void testSetMatchesLikeEquals(){
+        BBDPointSet set = new BBDPointSet();
+        BBDPoint first = new BBDPoint(1, 2);
+        assertTrue(set.add(first));
+        assertFalse(set.add(new BBDPoint(1 + HALF_DELTA, 2 - HALF_DELTA)));
+        assertTrue(set.add(new BBDPoint(1 + 2 * BBDGeometryHelpers.ALLOWABLE_DELTA, 2)));
+        assertEquals(2, set.size());
+
+        //the original point is kept, and found from anywhere within tolerance
+        assertSame(first, set.find(1 - HALF_DELTA, 2 + HALF_DELTA));
+        assertTrue(set.contains(new BBDPoint(1, 2)));
+        assertFalse(set.contains(5, 5));
+        assertSame(first, set.get(0));
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(first));
+    }
+
+    @Test
+    public void testAcrossCellBorders(){
+        //points on either side of 0 fall in different grid cells but are still equal
+        BBDPointSet set = new BBDPointSet();
+        set.add(new BBDPoint(-HALF_DELTA / 2, -HALF_DELTA / 2));
+        assertTrue(set.contains(HALF_DELTA / 2, HALF_DELTA / 2));
+        assertFalse(set.add(new BBDPoint(HALF_DELTA, 0)));
+
+        //big coordinates don't overflow the grid
+        set.add(new BBDPoint(1000000, -1000000));
+        assertTrue(set.contains(1000000, -1000000));
+    }
+
+    @Test
+    public void testManyPoints(){
+        BBDPointSet set = new BBDPointSet();
+        for(int x = 0; x < 100; x++){
+            for(int y = 0; y < 100; y++){
+                set.add(new BBDPoint(x * 0.5f, y * 0.5f));
+                set.add(new BBDPoint(x * 0.5f + HALF_DELTA, y * 0.5f));
+            }
+        }
+        assertEquals(10000, set.size());
+        ArrayList<BBDPoint> list = set.toList();
+        assertEquals(10000, list.size());
+        assertEquals(new BBDPoint(0, 0.5f), list.get(1));
+    }
+
+    @Test
+    public void testMap(){
+        BBDPointMap<String> map = new BBDPointMap<>();
+        assertNull(map.put(new BBDPoint(0, 0), "origin"));
+        assertNull(map.put(3, 4, "other"));
+        assertEquals("origin", map.put(HALF_DELTA, 0, "replaced"));
+        assertEquals(2, map.size());
+        assertEquals("replaced", map.get(new BBDPoint(0, -HALF_DELTA)));
+        assertEquals("other", map.get(3, 4));
+        assertNull(map.get(1, 1));
+        assertTrue(map.containsKey(3 + HALF_DELTA, 4));
+
+        //keys stay where they were first added
+        assertEquals(0, map.getKeyX(0));
+        assertEquals(1, map.indexOf(3, 4));
+        assertEquals(-1, map.indexOf(2, 2));
+    }
+}
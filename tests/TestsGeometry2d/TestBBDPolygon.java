@@ -1,5 +1,6 @@
 package TestsGeometry2d;
 
+import BBDGameLibrary.Geometry2d.BBDAreaProperties;
 import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
 import BBDGameLibrary.Geometry2d.BBDPoint;
 import BBDGameLibrary.Geometry2d.BBDPolygon;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,6 +55,45 @@ public class TestBBDPolygon {
         assertEquals(2, diamond.height());
     }
 
+    @Test
+    public void testBoundsFollowModifications() {
+        BBDPolygon square = TestUtils.buildSquare();
+        assertEquals(1, square.maxX());
+        assertEquals(-1, square.minY());
+
+        square.translate(4, 4);
+        assertEquals(5, square.maxX());
+        assertEquals(3, square.minY());
+        assertEquals(new BBDPoint(4, 4), square.center());
+
+        square.movePoint(0, 2, 0);
+        assertEquals(7, square.maxX());
+        assertEquals(4, square.width());
+
+        square.deletePoint(0);
+        assertEquals(5, square.maxX());
+
+        square.insertPoint(new BBDPoint(4, 10), 1);
+        assertEquals(10, square.maxY());
+    }
+
+    @Test
+    public void testBoundsOverlap() {
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon touching = TestUtils.buildSquare();
+        BBDPolygon separate = TestUtils.buildSquare();
+        touching.translate(2, 0);
+        separate.translate(2.5f, 0);
+
+        assertTrue(square.boundsOverlap(touching));
+        assertTrue(touching.boundsOverlap(square));
+        assertFalse(square.boundsOverlap(separate));
+        assertFalse(separate.boundsOverlap(square));
+
+        assertTrue(square.boundsContainPoint(1, 1));
+        assertFalse(square.boundsContainPoint(1.1f, 0));
+    }
+
     @Test
     public void testTranslate() {
         BBDPolygon square = TestUtils.buildSquare();
@@ -172,6 +213,18 @@ public class TestBBDPolygon {
 
     }
 
+    @Test
+    public void testSegmentAlongPerimeter() {
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDSegment alongEdge = new BBDSegment(new BBDPoint(-0.5f, 1), new BBDPoint(0.5f, 1));
+
+        assertTrue(square.checkSegmentIntersectPolygon(alongEdge));
+        BBDPoint[] points = square.segmentIntersectPolygonPoints(alongEdge);
+        assertEquals(2, points.length);
+        assertEquals(new BBDPoint(-0.5f, 1), points[0]);
+        assertEquals(new BBDPoint(0.5f, 1), points[1]);
+    }
+
     @Test
     public void testCheckPointInside() {
         BBDPolygon diamond = this.buildDiamond();
@@ -203,6 +256,33 @@ public class TestBBDPolygon {
         assertTrue(test);
     }
 
+    @Test
+    public void testCheckPointInsidePerimeterPolicy() {
+        BBDPolygon diamond = this.buildDiamond();
+
+        assertTrue(diamond.checkPointInside(0.5f, 0.5f, true));
+        assertFalse(diamond.checkPointInside(0.5f, 0.5f, false));
+        assertTrue(diamond.checkPointInside(1, 0, true));
+        assertFalse(diamond.checkPointInside(1, 0, false));
+        assertTrue(diamond.checkPointInside(0.1f, 0.1f, false));
+        assertFalse(diamond.checkPointInside(2, 0, true));
+
+        //concave shape where a ray through the notch passes in and out several times
+        BBDPolygon notched = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(4, 0),
+                new BBDPoint(4, 3), new BBDPoint(3, 3), new BBDPoint(3, 1), new BBDPoint(1, 1), new BBDPoint(1, 3),
+                new BBDPoint(0, 3))));
+        assertTrue(notched.checkPointInside(0.5f, 2, false));
+        assertFalse(notched.checkPointInside(2, 2, true));
+        assertTrue(notched.checkPointInside(3.5f, 2, false));
+        assertTrue(notched.checkPointInside(2, 1, true));
+        assertFalse(notched.checkPointInside(2, 1, false));
+
+        //same answers regardless of winding
+        notched.enforceDirectionality(BBDGeometryHelpers.CLOCKWISE_POLYGON);
+        assertTrue(notched.checkPointInside(0.5f, 2, false));
+        assertFalse(notched.checkPointInside(2, 2, true));
+    }
+
     @Test
     public void testArea() {
         BBDPolygon square = TestUtils.buildSquare();
@@ -231,6 +311,33 @@ public class TestBBDPolygon {
         assertEquals(3, new BBDPolygon(points2).area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
     }
 
+    @Test
+    public void testAreaProperties() {
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDAreaProperties properties = square.getAreaProperties();
+        assertEquals(-4, properties.getSignedArea(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(BBDGeometryHelpers.CLOCKWISE_POLYGON, properties.getDirectionality());
+        assertEquals(new BBDPoint(0, 0), properties.getCentroid());
+
+        //cached until the polygon changes
+        assertSame(properties, square.getAreaProperties());
+        square.translate(2, 3);
+        assertNotSame(properties, square.getAreaProperties());
+        assertEquals(new BBDPoint(2, 3), square.centroid());
+
+        //reversing flips the sign
+        square.enforceDirectionality(BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON);
+        assertEquals(4, square.getAreaProperties().getSignedArea(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(BBDAreaProperties.fromPoints(square.getPoints()).getSignedArea(), square.getAreaProperties().getSignedArea());
+
+        //concave L shape, where the centroid is not the center of the bounds
+        BBDPolygon lShape = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(2, 0),
+                new BBDPoint(2, 1), new BBDPoint(1, 1), new BBDPoint(1, 2), new BBDPoint(0, 2))));
+        assertEquals(3, lShape.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON, lShape.determineDirectionality());
+        assertEquals(new BBDPoint(5f / 6, 5f / 6), lShape.centroid());
+    }
+
     @Test
     public void testPolygonTouchesPolygon() {
         //set up some squares
@@ -528,6 +635,52 @@ public class TestBBDPolygon {
         assertEquals(square2, testPoly);
     }
 
+    @Test
+    public void testEqualsRotatedReversedAndWithinTolerance() {
+        float nudge = BBDGeometryHelpers.ALLOWABLE_DELTA / 2;
+        BBDPolygon lShape = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(2, 0),
+                new BBDPoint(2, 1), new BBDPoint(1, 1), new BBDPoint(1, 2), new BBDPoint(0, 2))));
+
+        //start from the 4th vertex and go the other way around, moving every vertex a little
+        ArrayList<BBDPoint> reversed = new ArrayList<>();
+        for (int i = 0; i < 6; i++){
+            BBDPoint point = lShape.getPoints().get((9 - i) % 6);
+            reversed.add(new BBDPoint(point.getXLoc() + nudge, point.getYLoc() - nudge));
+        }
+        BBDPolygon other = new BBDPolygon(reversed);
+        assertEquals(lShape, other);
+        assertEquals(other, lShape);
+        assertEquals(lShape.hashCode(), other.hashCode());
+
+        //the same vertices in a different order make a different outline
+        ArrayList<BBDPoint> shuffled = new ArrayList<>(lShape.getPoints());
+        Collections.swap(shuffled, 1, 2);
+        assertNotEquals(lShape, new BBDPolygon(shuffled));
+
+        //a repeated vertex has to line up with the right copy
+        BBDPolygon bowtie = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(1, 1),
+                new BBDPoint(2, 0), new BBDPoint(0, 0), new BBDPoint(-1, 1), new BBDPoint(-2, 0))));
+        ArrayList<BBDPoint> bowtiePoints = new ArrayList<>(bowtie.getPoints());
+        Collections.rotate(bowtiePoints, 3);
+        assertEquals(bowtie, new BBDPolygon(bowtiePoints));
+        Collections.reverse(bowtiePoints);
+        assertEquals(bowtie, new BBDPolygon(bowtiePoints));
+        Collections.swap(bowtiePoints, 1, 2);
+        assertNotEquals(bowtie, new BBDPolygon(bowtiePoints));
+    }
+
+    @Test
+    public void testEqualPolygonsInHashSet() {
+        HashSet<BBDPolygon> set = new HashSet<>();
+        set.add(TestUtils.buildSquare());
+        BBDPolygon moved = TestUtils.buildSquare();
+        moved.translate(BBDGeometryHelpers.ALLOWABLE_DELTA / 2, 0);
+        assertTrue(set.contains(moved));
+        assertFalse(set.add(moved));
+        assertTrue(set.add(this.buildDiamond()));
+        assertEquals(2, set.size());
+    }
+
     @Test
     public void testInsertPoint() {
         BBDPolygon square = TestUtils.buildSquare();
@@ -580,6 +733,50 @@ public class TestBBDPolygon {
         assertFalse(square.deletePoint(1));
     }
 
+    @Test
+    public void testEditsKeepSegmentsInOrder() {
+        BBDPolygon square = TestUtils.buildSquare();
+        square.insertPoint(new BBDPoint(1.5f, 0), 1);
+        square.insertPoint(new BBDPoint(0, 1.5f), 0);
+        square.deletePoint(3);
+        ArrayList<BBDPoint> points = square.getPoints();
+        ArrayList<BBDSegment> segments = square.getSegments();
+        assertEquals(points.size(), segments.size());
+        for(int i = 0; i < points.size(); i++){
+            assertSame(points.get(i), segments.get(i).getStartPoint());
+            assertSame(points.get((i + 1) % points.size()), segments.get(i).getEndPoint());
+        }
+        assertEquals(new BBDPolygon(new ArrayList<>(points)).area(), square.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testBatchEdits() {
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPoint right = new BBDPoint(1, 0);
+        BBDPoint bottomFirst = new BBDPoint(0.5f, -1);
+        BBDPoint bottomSecond = new BBDPoint(-0.5f, -1);
+        BBDPoint top = new BBDPoint(0, 1);
+
+        //indices refer to the square as it was, and the 2 bottom points keep their order
+        assertTrue(square.insertPoints(new ArrayList<>(Arrays.asList(top, right, bottomFirst, bottomSecond)), new int[]{0, 1, 2, 2}));
+        ArrayList<BBDPoint> expected = new ArrayList<>(Arrays.asList(top, new BBDPoint(1, 1), right, new BBDPoint(1, -1),
+                bottomFirst, bottomSecond, new BBDPoint(-1, -1), new BBDPoint(-1, 1)));
+        assertEquals(expected, square.getPoints());
+        assertEquals(8, square.getSegments().size());
+        assertSame(bottomSecond, square.getSegments().get(4).getEndPoint());
+        assertEquals(4, square.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        assertFalse(square.insertPoints(new ArrayList<>(Arrays.asList(top)), new int[]{8}));
+        assertEquals(8, square.getPoints().size());
+
+        //delete the added points again, in any order
+        assertTrue(square.deletePoints(new int[]{5, 0, 2, 4, 4}));
+        assertEquals(TestUtils.buildSquare(), square);
+        assertEquals(4, square.getSegments().size());
+        assertFalse(square.deletePoints(new int[]{0, 1}));
+        assertFalse(square.deletePoints(new int[]{4}));
+    }
+
     @Test
     public void testMoveSinglePoint() {
         BBDPolygon square = TestUtils.buildSquare();
@@ -643,6 +840,33 @@ public class TestBBDPolygon {
         assertEquals(cleanedDupVert, TestUtils.buildSquare());
     }
 
+    @Test
+    public void testCleanPolygonInPlace() {
+        //the colinear and duplicate points sit across the end of the list
+        BBDPoint point1 = new BBDPoint(1, 1);
+        BBDPoint point2 = new BBDPoint(1, -1);
+        BBDPoint point3 = new BBDPoint(-1, -1);
+        BBDPoint point4 = new BBDPoint(-1, 1);
+        ArrayList<BBDPoint> points = new ArrayList<>(Arrays.asList(new BBDPoint(0.5f, 1), point1, point2, point3,
+                new BBDPoint(-1, 0), new BBDPoint(-1, 0.5f), point4, new BBDPoint(-0.5f, 1), new BBDPoint(0, 1), new BBDPoint(0, 1)));
+        BBDPolygon dirty = new BBDPolygon(points);
+        float area = dirty.area();
+
+        assertEquals(4, dirty.cleanPolygon().getPoints().size());
+        assertEquals(10, dirty.getPoints().size());
+
+        assertSame(dirty, dirty.cleanPolygon(true));
+        assertSame(points, dirty.getPoints());
+        assertEquals(new ArrayList<>(Arrays.asList(point1, point2, point3, point4)), dirty.getPoints());
+        assertEquals(4, dirty.getSegments().size());
+        assertSame(point1, dirty.getSegments().get(3).getEndPoint());
+        assertEquals(area, dirty.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        //a vertex where the outline doubles back on itself adds nothing either
+        BBDPolygon spike = new BBDPolygon(new ArrayList<>(Arrays.asList(point1, point2, point3, new BBDPoint(-1, 3), point4)));
+        assertEquals(TestUtils.buildSquare(), spike.cleanPolygon());
+    }
+
     @Test
     public void testDirectionalityOfSegments() {
         BBDPolygon square1 = TestUtils.buildSquare();
@@ -654,4 +878,55 @@ public class TestBBDPolygon {
         assertEquals(new BBDPoint(-1, -1), square1.getSegments().get(2).getStartPoint());
         assertEquals(new BBDPoint(-1, 1), square1.getSegments().get(2).getEndPoint());
     }
+
+    @Test
+    public void testEdgeTreeQueries() {
+        //a many sided circle, large enough that the tree has several levels
+        ArrayList<BBDPoint> points = new ArrayList<>();
+        for(int i = 0; i < 400; i++){
+            double angle = 2 * Math.PI * i / 400;
+            points.add(new BBDPoint((float)(10 * Math.cos(angle)), (float)(10 * Math.sin(angle))));
+        }
+        BBDPolygon circle = new BBDPolygon(points);
+        BBDPolygon indexed = circle.copyPolygon();
+        indexed.enableEdgeTree();
+        assertTrue(indexed.isEdgeTreeEnabled());
+
+        BBDPoint center = new BBDPoint(0, 0);
+        BBDPoint outside = new BBDPoint(13, 0);
+        BBDPoint perimeter = new BBDPoint(10, 0);
+        assertTrue(indexed.checkPointInside(center));
+        assertFalse(indexed.checkPointInside(outside));
+        assertTrue(indexed.checkPointOnPerimeter(perimeter));
+        assertFalse(indexed.checkPointInside(10, 0, false));
+        assertEquals(circle.distanceSquaredToPoint(outside), indexed.distanceSquaredToPoint(outside), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(9, indexed.distanceSquaredToPoint(outside), 0.01f);
+
+        BBDSegment segment = new BBDSegment(new BBDPoint(12, -5), new BBDPoint(12, 5));
+        assertEquals(circle.distanceSquaredToSegment(segment), indexed.distanceSquaredToSegment(segment), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        BBDSegment crossing = new BBDSegment(new BBDPoint(-12, 0), new BBDPoint(-9, 3));
+        assertEquals(0, indexed.distanceSquaredToSegment(crossing), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        BBDPolygon square = TestUtils.buildSquare();
+        square.translate(14, 0);
+        assertEquals(circle.distanceSquaredToPolygon(square), indexed.distanceSquaredToPolygon(square), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        square.enableEdgeTree();
+        assertEquals(9, indexed.distanceSquaredToPolygon(square), 0.01f);
+
+        //moving a vertex refits the tree, the vertex at index 0 is the one at (10, 0)
+        indexed.movePoint(0, 5, 0);
+        circle.movePoint(0, 5, 0);
+        assertTrue(indexed.checkPointInside(new BBDPoint(13, 0)));
+        assertEquals(15, indexed.maxX(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(circle.distanceSquaredToPoint(new BBDPoint(16, 1)), indexed.distanceSquaredToPoint(new BBDPoint(16, 1)), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        //and so do whole polygon transforms
+        indexed.translate(100, 0);
+        assertTrue(indexed.checkPointInside(new BBDPoint(100, 0)));
+        assertFalse(indexed.checkPointInside(center));
+
+        indexed.disableEdgeTree();
+        assertFalse(indexed.isEdgeTreeEnabled());
+        assertTrue(indexed.checkPointInside(new BBDPoint(100, 0)));
+    }
 }
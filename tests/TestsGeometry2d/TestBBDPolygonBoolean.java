@@ -0,0 +1,137 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDPolygonBoolean;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDPolygonBoolean {
+
+    private float totalSignedArea(ArrayList<BBDPolygon> polygons){
+        float total = 0;
+        for(BBDPolygon polygon : polygons){
+            total += polygon.getAreaProperties().getSignedArea();
+        }
+        return total;
+    }
+
+    /**
+     * U shape opening upward, 3 wide and 3 tall with a 1 wide notch
+     */
+    private BBDPolygon buildU(){
+        return new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(3, 0),
+                new BBDPoint(3, 3), new BBDPoint(2, 3), new BBDPoint(2, 1), new BBDPoint(1, 1),
+                new BBDPoint(1, 3), new BBDPoint(0, 3))));
+    }
+
+    @Test
+    public void testIntersectionInSeveralPieces(){
+        BBDPolygon bar = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(-1, 2), new BBDPoint(4, 2),
+                new BBDPoint(4, 2.5f), new BBDPoint(-1, 2.5f))));
+
+        ArrayList<BBDPolygon> pieces = BBDGeometryHelpers.createPolygonIntersections(this.buildU(), bar);
+        assertEquals(2, pieces.size());
+        assertEquals(0.5f, pieces.get(0).area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.5f, pieces.get(1).area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        //the single polygon version gives one of the pieces
+        assertEquals(0.5f, BBDGeometryHelpers.createPolygonIntersection(this.buildU(), bar).area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testUnion(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon overlapping = TestUtils.buildSquare();
+        overlapping.translate(1, 1);
+
+        ArrayList<BBDPolygon> union = BBDGeometryHelpers.createPolygonUnion(square, overlapping);
+        assertEquals(1, union.size());
+        assertEquals(7, union.get(0).area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(8, union.get(0).getPoints().size());
+
+        //separate polygons stay separate
+        BBDPolygon separate = TestUtils.buildSquare();
+        separate.translate(5, 0);
+        assertEquals(2, BBDGeometryHelpers.createPolygonUnion(square, separate).size());
+
+        //shared edges are merged
+        BBDPolygon adjacent = TestUtils.buildSquare();
+        adjacent.translate(2, 0);
+        union = BBDGeometryHelpers.createPolygonUnion(square, adjacent);
+        assertEquals(1, union.size());
+        assertEquals(8, union.get(0).area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testUnionWithHole(){
+        //closing the top of the U leaves a hole in the middle
+        BBDPolygon lid = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 2), new BBDPoint(3, 2),
+                new BBDPoint(3, 3), new BBDPoint(0, 3))));
+
+        ArrayList<BBDPolygon> union = BBDGeometryHelpers.createPolygonUnion(this.buildU(), lid);
+        assertEquals(2, union.size());
+        int holes = 0;
+        for(BBDPolygon polygon : union){
+            if(polygon.determineDirectionality() == BBDGeometryHelpers.CLOCKWISE_POLYGON){
+                holes++;
+                assertEquals(1, polygon.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+            }
+        }
+        assertEquals(1, holes);
+        assertEquals(8, this.totalSignedArea(union), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testDifference(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon overlapping = TestUtils.buildSquare();
+        overlapping.translate(1, 0);
+
+        ArrayList<BBDPolygon> difference = BBDGeometryHelpers.createPolygonDifference(square, overlapping);
+        assertEquals(1, difference.size());
+        assertEquals(2, difference.get(0).area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertTrue(difference.get(0).checkPointInside(new BBDPoint(-0.5f, 0)));
+
+        //cutting a hole
+        BBDPolygon small = TestUtils.buildSquare();
+        small.scale(0.5f);
+        difference = BBDGeometryHelpers.createPolygonDifference(square, small);
+        assertEquals(2, difference.size());
+        assertEquals(3, this.totalSignedArea(difference), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        //nothing left
+        assertTrue(BBDGeometryHelpers.createPolygonDifference(small, square).isEmpty());
+        assertTrue(BBDGeometryHelpers.createPolygonDifference(square, TestUtils.buildSquare()).isEmpty());
+    }
+
+    @Test
+    public void testXor(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon overlapping = TestUtils.buildSquare();
+        overlapping.translate(1, 0);
+
+        ArrayList<BBDPolygon> xor = BBDGeometryHelpers.createPolygonXor(square, overlapping);
+        assertEquals(2, xor.size());
+        assertEquals(4, this.totalSignedArea(xor), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testInputsUnchanged(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPolygon overlapping = TestUtils.buildSquare();
+        overlapping.translate(1, 0);
+        int direction = square.determineDirectionality();
+
+        BBDPolygonBoolean.compute(square, overlapping, BBDPolygonBoolean.UNION);
+        assertEquals(TestUtils.buildSquare(), square);
+        assertEquals(direction, square.determineDirectionality());
+        assertEquals(4, overlapping.getPoints().size());
+    }
+}
@@ -0,0 +1,78 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDPolygonMap;
+import BBDGameLibrary.TestUtils;
+import BBDGameLibrary.Utils.GeometryGenerators;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDPolygonMap {
+
+    private static final float HALF_DELTA = BBDGeometryHelpers.ALLOWABLE_DELTA / 2;
+
+    @Test
+    public void testMapMatchesLikeEquals(){
+        BBDPolygonMap<String> map = new BBDPolygonMap<>();
+        BBDPolygon square = TestUtils.buildSquare();
+        assertNull(map.put(square, "square"));
+        assertNull(map.put(GeometryGenerators.createNGon(new BBDPoint(0, 0), 1, 6), "hexagon"));
+
+        //reversed, starting somewhere else and nudged a little is still the same key
+        ArrayList<BBDPoint> points = TestUtils.buildSquare().getPoints();
+        Collections.reverse(points);
+        Collections.rotate(points, 1);
+        BBDPolygon other = new BBDPolygon(points);
+        other.translate(-HALF_DELTA, HALF_DELTA);
+        assertEquals("square", map.put(other, "replaced"));
+        assertEquals(2, map.size());
+        assertEquals("replaced", map.get(TestUtils.buildSquare()));
+        assertEquals(1, map.indexOf(GeometryGenerators.createNGon(new BBDPoint(0, 0), 1, 6)));
+
+        //moved too far or a different shape in the same place
+        BBDPolygon moved = TestUtils.buildSquare();
+        moved.translate(2 * BBDGeometryHelpers.ALLOWABLE_DELTA, 0);
+        assertFalse(map.containsKey(moved));
+        assertEquals(-1, map.indexOf(GeometryGenerators.createNGon(new BBDPoint(0, 0), 1, 5)));
+
+        //keys are copies, so changing the original doesn't change the map
+        square.translate(5, 5);
+        assertTrue(map.containsKey(TestUtils.buildSquare()));
+        assertEquals(new BBDPoint(1, 1), map.getKey(0).getPoints().get(0));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(TestUtils.buildSquare()));
+    }
+
+    @Test
+    public void testDeduplicateAcrossCellBorders(){
+        //corners on either side of 0 fall in different grid cells but the squares are still equal
+        BBDPolygonMap<Integer> map = new BBDPolygonMap<>();
+        BBDPolygon square = TestUtils.buildSquare();
+        square.translate(1 - HALF_DELTA / 2, 1 - HALF_DELTA / 2);
+        assertEquals(0, map.putIfAbsent(square, 0));
+        BBDPolygon nudged = TestUtils.buildSquare();
+        nudged.translate(1 + HALF_DELTA / 2, 1 + HALF_DELTA / 2);
+        assertEquals(0, map.putIfAbsent(nudged, 1));
+
+        //a grid of tiles, each added twice
+        for(int x = 0; x < 20; x++){
+            for(int y = 0; y < 20; y++){
+                for(int copy = 0; copy < 2; copy++){
+                    BBDPolygon tile = TestUtils.buildSquare();
+                    tile.translate(x * 2 + 10 + copy * HALF_DELTA, y * 2);
+                    map.putIfAbsent(tile, map.size());
+                }
+            }
+        }
+        assertEquals(401, map.size());
+        assertEquals(Integer.valueOf(400), map.getValue(400));
+    }
+}
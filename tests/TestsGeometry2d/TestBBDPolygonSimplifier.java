@@ -0,0 +1,112 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDPolygonSimplifier;
+import BBDGameLibrary.Geometry2d.BBDSegment;
+import BBDGameLibrary.TestUtils;
+import BBDGameLibrary.Utils.GeometryGenerators;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDPolygonSimplifier {
+
+    /**
+     * Star with a random mix of short and very long spikes, which has plenty of vertices that can't be removed
+     * without the outline crossing itself.
+     */
+    private BBDPolygon buildSpikyStar(Random random, int pointCount){
+        ArrayList<BBDPoint> points = new ArrayList<>();
+        for(int i = 0; i < pointCount; i++){
+            double angle = 2 * Math.PI * i / pointCount;
+            double radius = 1 + (random.nextBoolean() ? 5 : 0.2) * random.nextDouble();
+            points.add(new BBDPoint((float)(radius * Math.cos(angle)), (float)(radius * Math.sin(angle))));
+        }
+        return new BBDPolygon(points);
+    }
+
+    private float distanceToOutline(BBDPolygon polygon, BBDPoint point){
+        float closest = Float.MAX_VALUE;
+        for(BBDSegment segment : polygon.getSegments()){
+            closest = Math.min(closest, segment.distanceSquaredToPoint(point));
+        }
+        return (float)Math.sqrt(closest);
+    }
+
+    private boolean crossesItself(BBDPolygon polygon){
+        ArrayList<BBDSegment> segments = polygon.getSegments();
+        for(int i = 0; i < segments.size(); i++){
+            for(int j = i + 2; j < segments.size(); j++){
+                if((i > 0 || j < segments.size() - 1) && segments.get(i).intersects(segments.get(j))){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testRemovesOnlyStraightLinePointsAtZeroTolerance(){
+        BBDPolygon square = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(1, 1), new BBDPoint(1, 0),
+                new BBDPoint(1, -1), new BBDPoint(0, -1), new BBDPoint(-1, -1), new BBDPoint(-1, 1))));
+        BBDPolygon simplified = square.simplify(0);
+        assertEquals(TestUtils.buildSquare(), simplified);
+        assertNotSame(square.getPoints().get(0), simplified.getPoints().get(0));
+
+        //nothing to remove from a triangle
+        BBDPolygon triangle = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(1, 0), new BBDPoint(0, 1))));
+        assertEquals(triangle, triangle.simplify(100));
+    }
+
+    @Test
+    public void testLevelsStayWithinTolerance(){
+        BBDPolygon circle = GeometryGenerators.createNGon(new BBDPoint(3, 4), 10, 256);
+        float[] tolerances = {0.001f, 0.1f, 1, 5, 50};
+        ArrayList<BBDPolygon> levels = circle.levelsOfDetail(tolerances);
+        assertEquals(tolerances.length, levels.size());
+
+        int previousCount = 256;
+        for(int level = 0; level < levels.size(); level++){
+            BBDPolygon simplified = levels.get(level);
+            int count = simplified.getPoints().size();
+            assertTrue(count <= previousCount && count >= 3);
+            for(BBDPoint point : circle.getPoints()){
+                assertTrue(this.distanceToOutline(simplified, point) <= tolerances[level] + 0.0001f);
+            }
+            //each level keeps some of the points of the level before it
+            if(level > 0){
+                for(BBDPoint point : simplified.getPoints()){
+                    assertTrue(levels.get(level - 1).getPoints().contains(point));
+                }
+            }
+            previousCount = count;
+        }
+        assertEquals(256, levels.get(0).getPoints().size());
+        assertTrue(levels.get(2).getPoints().size() < 32);
+        assertEquals(3, levels.get(4).getPoints().size());
+    }
+
+    @Test
+    public void testOutlineNeverCrossesItself(){
+        Random random = new Random(21);
+        float[] tolerances = {0.05f, 0.5f, 2, 10};
+        for(int i = 0; i < 200; i++){
+            BBDPolygon star = this.buildSpikyStar(random, 5 + random.nextInt(60));
+            for(BBDPolygon simplified : BBDPolygonSimplifier.simplify(star, tolerances)){
+                assertFalse(this.crossesItself(simplified));
+            }
+        }
+    }
+
+    @Test
+    public void testBadTolerances(){
+        BBDPolygon square = TestUtils.buildSquare();
+        assertThrows(IllegalArgumentException.class, () -> square.levelsOfDetail(new float[]{1, 0.5f}));
+        assertThrows(IllegalArgumentException.class, () -> square.simplify(-1));
+    }
+}
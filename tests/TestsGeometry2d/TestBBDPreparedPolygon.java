@@ -0,0 +1,81 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDPreparedPolygon;
+import BBDGameLibrary.Geometry2d.BBDSegment;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDPreparedPolygon {
+
+    private BBDPolygon buildNotched(){
+        return new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(4, 0),
+                new BBDPoint(4, 3), new BBDPoint(3, 3), new BBDPoint(3, 1), new BBDPoint(1, 1), new BBDPoint(1, 3),
+                new BBDPoint(0, 3))));
+    }
+
+    @Test
+    public void testConvexQueries(){
+        BBDPreparedPolygon square = new BBDPreparedPolygon(TestUtils.buildSquare());
+        assertTrue(square.isConvex());
+        assertEquals(4, square.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(2, square.getTriangleCount());
+
+        assertTrue(square.checkPointInside(new BBDPoint(0.3f, -0.7f)));
+        assertTrue(square.checkPointInside(new BBDPoint(1, 0)));
+        assertFalse(square.checkPointInside(1, 0, false));
+        assertTrue(square.checkPointInside(1, 1, true));
+        assertFalse(square.checkPointInside(1, 1, false));
+        assertFalse(square.checkPointInside(new BBDPoint(1.1f, 0)));
+        assertTrue(square.checkPointOnPerimeter(new BBDPoint(-1, 0.5f)));
+        assertFalse(square.checkPointOnPerimeter(new BBDPoint(0, 0)));
+    }
+
+    @Test
+    public void testConcaveQueries(){
+        BBDPolygon notched = this.buildNotched();
+        BBDPreparedPolygon prepared = new BBDPreparedPolygon(notched);
+        assertFalse(prepared.isConvex());
+        assertEquals(8, prepared.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        assertTrue(prepared.checkPointInside(new BBDPoint(0.5f, 2)));
+        assertFalse(prepared.checkPointInside(new BBDPoint(2, 2)));
+        assertTrue(prepared.checkPointInside(new BBDPoint(2, 1)));
+        assertFalse(prepared.checkPointInside(2, 1, false));
+
+        assertEquals(0, prepared.distanceSquaredToPoint(new BBDPoint(3.5f, 2)), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1, prepared.distanceSquaredToPoint(new BBDPoint(2, 2.5f)), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(4, prepared.distanceSquaredToPoint(new BBDPoint(6, 1)), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testSegmentQueries(){
+        BBDPreparedPolygon prepared = new BBDPreparedPolygon(this.buildNotched());
+
+        //across the notch
+        BBDSegment acrossNotch = new BBDSegment(new BBDPoint(0.5f, 2), new BBDPoint(3.5f, 2));
+        assertTrue(prepared.checkSegmentIntersectPolygon(acrossNotch));
+        assertEquals(0, prepared.distanceSquaredToSegment(acrossNotch), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        //floating in the notch
+        BBDSegment inNotch = new BBDSegment(new BBDPoint(2, 1.5f), new BBDPoint(2, 2.5f));
+        assertFalse(prepared.checkSegmentIntersectPolygon(inNotch));
+        assertEquals(0.25f, prepared.distanceSquaredToSegment(inNotch), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testSnapshot(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDPreparedPolygon prepared = new BBDPreparedPolygon(square);
+        square.translate(10, 0);
+        assertTrue(prepared.checkPointInside(new BBDPoint(0, 0)));
+        assertEquals(-1, prepared.minX(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+}
@@ -0,0 +1,111 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDGeometry;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDQuadtree;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDQuadtree {
+
+    private BBDPolygon buildSquareAt(float x, float y){
+        BBDPolygon square = TestUtils.buildSquare();
+        square.translate(x, y);
+        return square;
+    }
+
+    @Test
+    public void testBulkLoadQueries(){
+        ArrayList<BBDPolygon> polygons = new ArrayList<>();
+        for(int x = 0; x < 10; x++){
+            for(int y = 0; y < 10; y++){
+                polygons.add(this.buildSquareAt(4 * x, 4 * y));
+            }
+        }
+        BBDPoint origin = new BBDPoint(2, 2);
+        BBDPoint farPoint = new BBDPoint(100, 100);
+        BBDQuadtree tree = new BBDQuadtree(polygons, new ArrayList<>(Arrays.asList(origin, farPoint)));
+        assertEquals(102, tree.size());
+
+        //the gap between the first 4 squares, which only the point is in
+        ArrayList<BBDGeometry> results = new ArrayList<>();
+        assertEquals(1, tree.queryRectangle(1.5f, 1.5f, 2.5f, 2.5f, results));
+        assertSame(origin, results.get(0));
+
+        //touching the corners of the squares counts
+        results.clear();
+        assertEquals(5, tree.queryRectangle(1, 1, 3, 3, results));
+
+        //a rectangle entirely inside 1 square still finds it
+        results.clear();
+        assertEquals(1, tree.queryRectangle(3.75f, 3.75f, 4.25f, 4.25f, results));
+        assertSame(polygons.get(11), results.get(0));
+
+        results.clear();
+        assertEquals(5, tree.queryRadius(new BBDPoint(2, 2), 1.5f, results));
+        results.clear();
+        assertEquals(1, tree.queryRadius(new BBDPoint(90, 90), 15, results));
+        assertSame(farPoint, results.get(0));
+    }
+
+    @Test
+    public void testNearest(){
+        BBDQuadtree tree = new BBDQuadtree(0, 0, 50);
+        BBDPolygon near = this.buildSquareAt(3, 0);
+        BBDPolygon middle = this.buildSquareAt(0, 8);
+        BBDPoint far = new BBDPoint(-20, 0);
+        tree.insert(near);
+        tree.insert(middle);
+        tree.insert(far);
+
+        ArrayList<BBDGeometry> results = new ArrayList<>();
+        assertEquals(2, tree.nearest(new BBDPoint(0, 0), 2, results));
+        assertSame(near, results.get(0));
+        assertSame(middle, results.get(1));
+
+        //asking for more than there are gives them all, closest first
+        results.clear();
+        assertEquals(3, tree.nearest(new BBDPoint(0, 0), 10, results));
+        assertSame(far, results.get(2));
+
+        //being inside a polygon makes it the closest
+        results.clear();
+        assertEquals(1, tree.nearest(new BBDPoint(0, 8.5f), 1, results));
+        assertSame(middle, results.get(0));
+    }
+
+    @Test
+    public void testInsertAndRemove(){
+        BBDQuadtree tree = new BBDQuadtree(0, 0, 10);
+        ArrayList<BBDPoint> points = new ArrayList<>();
+        for(int i = 0; i < 50; i++){
+            BBDPoint point = new BBDPoint(i % 10 - 5, i / 10 - 2);
+            points.add(point);
+            tree.insert(point);
+        }
+        //outside the area the tree was built for
+        BBDPolygon outside = this.buildSquareAt(100, 0);
+        tree.insert(outside);
+        assertEquals(51, tree.size());
+
+        ArrayList<BBDGeometry> results = new ArrayList<>();
+        assertEquals(50, tree.queryRectangle(-5, -2, 4, 2, results));
+        results.clear();
+        assertEquals(1, tree.queryRectangle(99, -1, 101, 1, results));
+        assertSame(outside, results.get(0));
+
+        assertTrue(tree.remove(points.get(0)));
+        assertFalse(tree.remove(points.get(0)));
+        assertTrue(tree.remove(outside));
+        assertEquals(49, tree.size());
+        results.clear();
+        assertEquals(0, tree.queryRadius(new BBDPoint(-5, -2), 0.5f, results));
+        assertEquals(0, tree.queryRectangle(99, -1, 101, 1, results));
+    }
+}
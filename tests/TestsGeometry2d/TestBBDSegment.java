@@ -3,6 +3,7 @@ package TestsGeometry2d;
 import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
 import BBDGameLibrary.Geometry2d.BBDPoint;
 import BBDGameLibrary.Geometry2d.BBDSegment;
+import BBDGameLibrary.Geometry2d.BBDSegmentIntersection;
 import BBDGameLibrary.Geometry2d.Exceptions.ParallelLinesException;
 import org.junit.jupiter.api.Test;
 
@@ -220,6 +221,45 @@ public class TestBBDSegment {
         assertTrue(new BBDSegment(new BBDPoint(0.5f, -0.5f), new BBDPoint(12, -0.5f)).intersects(new BBDSegment(new BBDPoint(1,1), new BBDPoint(1,-1))));
     }
 
+    @Test
+    public void testIntersectClassification(){
+        BBDSegment test1 = new BBDSegment(new BBDPoint(0,1), new BBDPoint(1,0));
+        BBDSegment test2 = new BBDSegment(new BBDPoint(0,0), new BBDPoint(1,1));
+        BBDSegment test3 = new BBDSegment(new BBDPoint(4,4), new BBDPoint(8,8));
+        BBDSegment touching = new BBDSegment(new BBDPoint(0.5f, 0.5f), new BBDPoint(0.6f, 4));
+        BBDSegment overlapping = new BBDSegment(new BBDPoint(0.5f, 0.5f), new BBDPoint(6, 6));
+        BBDSegment endToEnd = new BBDSegment(new BBDPoint(1, 1), new BBDPoint(2, 2));
+        float[] output = new float[4];
+
+        assertEquals(BBDSegmentIntersection.CROSSING, test1.intersect(test2, output));
+        assertEquals(0.5f, output[0], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.5f, output[1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        assertEquals(BBDSegmentIntersection.DISJOINT, test1.intersect(test3, output));
+        assertEquals(BBDSegmentIntersection.DISJOINT, test2.intersect(test3, output));
+
+        assertEquals(BBDSegmentIntersection.TOUCHING, touching.intersect(test1, output));
+        assertEquals(0.5f, output[0]);
+        assertEquals(0.5f, output[1]);
+
+        assertEquals(BBDSegmentIntersection.TOUCHING, test2.intersect(endToEnd, output));
+        assertEquals(1, output[0]);
+        assertEquals(1, output[1]);
+
+        assertEquals(BBDSegmentIntersection.COLLINEAR_OVERLAP, test2.intersect(overlapping, output));
+        assertEquals(0.5f, output[0]);
+        assertEquals(0.5f, output[1]);
+        assertEquals(1, output[2]);
+        assertEquals(1, output[3]);
+
+        //vertical lines need no special treatment
+        BBDSegment vertical = this.buildVertical();
+        BBDSegment horizontal = new BBDSegment(new BBDPoint(0, 0.25f), new BBDPoint(2, 0.25f));
+        assertEquals(BBDSegmentIntersection.CROSSING, vertical.intersect(horizontal, output));
+        assertEquals(1, output[0], BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(0.25f, output[1], BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
     @Test
     public void testDistanceToPoint(){
         BBDSegment testSeg = this.buildVertical();
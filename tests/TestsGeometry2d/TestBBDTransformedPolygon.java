@@ -0,0 +1,107 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDTransformedPolygon;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDTransformedPolygon {
+
+    private BBDPolygon buildTriangle(){
+        return new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(4, 0), new BBDPoint(0, 2))));
+    }
+
+    private void assertPoint(float x, float y, BBDPoint point){
+        assertEquals(x, point.getXLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(y, point.getYLoc(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testWorldPolygonOnlyUpdatedWhenAskedFor(){
+        BBDPolygon square = TestUtils.buildSquare();
+        BBDTransformedPolygon transformed = new BBDTransformedPolygon(square);
+        assertSame(square, transformed.getWorldPolygon());
+        assertFalse(transformed.isWorldPolygonStale());
+
+        transformed.translate(3, 4);
+        transformed.rotateAroundPoint(new BBDPoint(3, 4), (float)Math.PI / 2);
+        assertTrue(transformed.isWorldPolygonStale());
+        assertPoint(1, 1, square.getPoints().get(0));
+
+        BBDPolygon world = transformed.getWorldPolygon();
+        assertSame(square, world);
+        assertFalse(transformed.isWorldPolygonStale());
+        assertPoint(2, 5, world.getPoints().get(0));
+        assertEquals(new BBDPoint(3, 4), world.center());
+        assertEquals(4, world.area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testMatchesMovingThePoints(){
+        BBDPolygon moved = this.buildTriangle();
+        BBDTransformedPolygon transformed = new BBDTransformedPolygon(this.buildTriangle().getPoints());
+        BBDPoint pivot = new BBDPoint(-2, 3);
+
+        moved.translate(1, -1);
+        transformed.translate(1, -1);
+        moved.rotateAroundPoint(pivot, 0.7f);
+        transformed.rotateAroundPoint(pivot, 0.7f);
+        moved.scaleFromPoint(pivot, 1.5f);
+        transformed.scaleFromPoint(pivot, 1.5f);
+
+        for(int i = 0; i < 3; i++){
+            BBDPoint expected = moved.getPoints().get(i);
+            assertPoint(expected.getXLoc(), expected.getYLoc(), transformed.getWorldPolygon().getPoints().get(i));
+        }
+        assertEquals(0.7f, transformed.getRotation(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+        assertEquals(1.5f, transformed.getScale(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testRotateAndScaleAroundCenter(){
+        BBDTransformedPolygon transformed = new BBDTransformedPolygon(this.buildTriangle());
+        transformed.rotate((float)Math.PI);
+        assertEquals(new BBDPoint(2, 1), transformed.center());
+        assertPoint(4, 2, transformed.getWorldPolygon().getPoints().get(0));
+
+        transformed.scale(2);
+        assertEquals(new BBDPoint(2, 1), transformed.center());
+        assertPoint(6, 3, transformed.getWorldPolygon().getPoints().get(0));
+        assertPoint(-2, 3, transformed.getWorldPolygon().getPoints().get(1));
+
+        //the center of a triangle's bounding box moves as it turns, so rotating twice has to match BBDPolygon
+        BBDPolygon moved = new BBDPolygon(new ArrayList<>(Arrays.asList(new BBDPoint(0, 0), new BBDPoint(4, 0),
+                new BBDPoint(0, 1))));
+        transformed = new BBDTransformedPolygon(moved.copyPolygon());
+        for(int i = 0; i < 2; i++){
+            moved.rotate(0.7f);
+            transformed.rotate(0.7f);
+        }
+        moved.scale(1.5f);
+        transformed.scale(1.5f);
+        for(int i = 0; i < 3; i++){
+            BBDPoint expected = moved.getPoints().get(i);
+            assertPoint(expected.getXLoc(), expected.getYLoc(), transformed.getWorldPolygon().getPoints().get(i));
+        }
+    }
+
+    @Test
+    public void testNoDriftFromRepeatedRotation(){
+        BBDTransformedPolygon transformed = new BBDTransformedPolygon(this.buildTriangle());
+        for(int i = 0; i < 10000; i++){
+            transformed.rotate((float)Math.PI / 500);
+            transformed.getWorldPolygon();
+        }
+        assertEquals(4, transformed.getWorldPolygon().area(), BBDGeometryHelpers.ALLOWABLE_DELTA);
+
+        transformed.setTransform(10, 20, 0, 1);
+        assertPoint(14, 20, transformed.getWorldPolygon().getPoints().get(1));
+    }
+}
@@ -0,0 +1,102 @@
+package TestsGeometry2d;
+
+import BBDGameLibrary.Geometry2d.BBDGeometryHelpers;
+import BBDGameLibrary.Geometry2d.BBDPoint;
+import BBDGameLibrary.Geometry2d.BBDPolygon;
+import BBDGameLibrary.Geometry2d.BBDTriangulator;
+import BBDGameLibrary.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBBDTriangulator {
+
+    /**
+     * Concave "C" shape where the first few vertices do not make an ear.
+     */
+    public BBDPolygon buildConcave(){
+        ArrayList<BBDPoint> points = new ArrayList<>(Arrays.asList(
+                new BBDPoint(1, 0), new BBDPoint(0, 0), new BBDPoint(0, -1), new BBDPoint(-1, -1),
+                new BBDPoint(-1, 1), new BBDPoint(0, 1), new BBDPoint(1, 1)));
+        return new BBDPolygon(points);
+    }
+
+    private float signedTriangleArea(float[] coords, int a, int b, int c){
+        return ((coords[2*b] - coords[2*a]) * (coords[2*c+1] - coords[2*a+1])
+                - (coords[2*b+1] - coords[2*a+1]) * (coords[2*c] - coords[2*a])) / 2;
+    }
+
+    private float[] pack(BBDPolygon poly){
+        float[] coords = new float[2 * poly.getPoints().size()];
+        for(int i = 0; i < poly.getPoints().size(); i++){
+            coords[2 * i] = poly.getPoints().get(i).getXLoc();
+            coords[2 * i + 1] = poly.getPoints().get(i).getYLoc();
+        }
+        return coords;
+    }
+
+    @Test
+    public void testTriangulateSquare(){
+        int[] indices = BBDTriangulator.triangulate(TestUtils.buildSquare(), BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON);
+        assertEquals(6, indices.length);
+        assertEquals(2, indices[0]);
+        assertEquals(1, indices[1]);
+        assertEquals(0, indices[2]);
+        assertEquals(3, indices[3]);
+        assertEquals(2, indices[4]);
+        assertEquals(0, indices[5]);
+    }
+
+    @Test
+    public void testTriangulateConcave(){
+        float[] coords = this.pack(this.buildConcave());
+
+        int[] indices = BBDTriangulator.triangulate(coords, BBDGeometryHelpers.COUNTERCLOCKWISE_POLYGON);
+        assertEquals(3 * 5, indices.length);
+
+        float total = 0;
+        for(int i = 0; i < indices.length; i += 3){
+            float area = this.signedTriangleArea(coords, indices[i], indices[i + 1], indices[i + 2]);
+            //every triangle should be counterclockwise
+            assertTrue(area > 0);
+            total += area;
+        }
+        //if any triangle was outside the polygon the total would overshoot
+        assertEquals(3, total, BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testTriangulateDirectionality(){
+        float[] coords = this.pack(this.buildConcave());
+
+        int[] clockwise = BBDTriangulator.triangulate(coords, BBDGeometryHelpers.CLOCKWISE_POLYGON);
+        for(int i = 0; i < clockwise.length; i += 3){
+            assertTrue(this.signedTriangleArea(coords, clockwise[i], clockwise[i + 1], clockwise[i + 2]) < 0);
+        }
+    }
+
+    @Test
+    public void testTriangulateColinearPoints(){
+        //square with a midpoint on every side
+        ArrayList<BBDPoint> points = new ArrayList<>(Arrays.asList(new BBDPoint(1, 1), new BBDPoint(1, 0),
+                new BBDPoint(1, -1), new BBDPoint(0, -1), new BBDPoint(-1, -1), new BBDPoint(-1, 0),
+                new BBDPoint(-1, 1), new BBDPoint(0, 1)));
+        BBDPolygon poly = new BBDPolygon(points);
+        float[] coords = this.pack(poly);
+
+        int[] indices = BBDTriangulator.triangulate(coords, null);
+        float total = 0;
+        for(int i = 0; i < indices.length; i += 3){
+            total += Math.abs(this.signedTriangleArea(coords, indices[i], indices[i + 1], indices[i + 2]));
+        }
+        assertEquals(4, total, BBDGeometryHelpers.ALLOWABLE_DELTA);
+    }
+
+    @Test
+    public void testTriangulateTooFewPoints(){
+        assertEquals(0, BBDTriangulator.triangulate(new float[]{0, 0, 1, 1}, null).length);
+    }
+}
@@ -5,6 +5,7 @@ import BBDGameLibrary.Geometry2d.BBDPoint;
 import BBDGameLibrary.Geometry2d.BBDPolygon;
 import BBDGameLibrary.OpenGL.Mesh;
 import BBDGameLibrary.TestUtils;
+import BBDGameLibrary.Utils.GeometryGenerators;
 import org.joml.Vector3f;
 import org.junit.jupiter.api.Test;
 
@@ -106,4 +107,16 @@ public class TestMesh {
         assertEquals(new Vector3f(-1,-1,0), testVertices[2]);
         assertEquals(new Vector3f(-1,1,0), testVertices[3]);
     }
+
+    @Test
+    public void testBuildLevelsOfDetail(){
+        BBDPolygon circle = GeometryGenerators.createNGon(new BBDPoint(0, 0), 1, 64);
+        Mesh[] meshes = Mesh.buildLevelsOfDetail(circle, new float[]{0, 0.1f, 2});
+        assertEquals(3, meshes.length);
+        assertEquals(64, meshes[0].getVertexPositions().length);
+        assertEquals(3 * 62, meshes[0].getIndices().length);
+        assertTrue(meshes[1].getVertexPositions().length < 64);
+        assertEquals(3, meshes[2].getVertexPositions().length);
+        assertEquals(3, meshes[2].getIndices().length);
+    }
 }